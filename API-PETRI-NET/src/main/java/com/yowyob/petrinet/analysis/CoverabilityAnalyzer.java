@@ -0,0 +1,189 @@
+package com.yowyob.petrinet.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Karp–Miller coverability tree of the P/T skeleton of a net.
+ * <p>
+ * Markings are token counts per place; {@link #OMEGA} stands for an unbounded
+ * count. Inhibitor arcs break monotonicity, so with them the tree is an
+ * over-approximation: reported bounds are upper bounds, and a place may be
+ * reported unbounded although it is not.
+ *
+ * @author Thomas Djotio Ndié
+ * @version V1.0
+ * @since 30.09.25
+ */
+public final class CoverabilityAnalyzer {
+
+    public static final long OMEGA = Long.MAX_VALUE;
+
+    /**
+     * Outcome of the exploration.
+     *
+     * @param placeBounds      Maximum token count per place, null when unbounded.
+     * @param deadTransitions  Transitions that can never fire (meaningful when complete).
+     * @param deadlocks        Number of covering markings enabling no transition.
+     * @param nodeCount        Number of distinct markings explored.
+     * @param complete         False if the node limit was reached.
+     */
+    public record Result(
+            Map<String, Long> placeBounds,
+            List<String> deadTransitions,
+            int deadlocks,
+            int nodeCount,
+            boolean complete) {
+
+        public boolean bounded() {
+            return !placeBounds.containsValue(null);
+        }
+    }
+
+    private record Node(long[] marking, Node parent) {
+    }
+
+    private record Key(long[] marking) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Arrays.equals(marking, k.marking);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(marking);
+        }
+    }
+
+    private CoverabilityAnalyzer() {
+    }
+
+    /**
+     * Explores the coverability tree breadth-first from an initial marking.
+     *
+     * @param matrix   The net skeleton.
+     * @param initial  Token counts per place, in matrix order.
+     * @param maxNodes Exploration limit.
+     */
+    public static Result analyze(IncidenceMatrix matrix, long[] initial, int maxNodes) {
+        int places = matrix.placeCount();
+        int transitions = matrix.transitionCount();
+        SparseVector[] columns = new SparseVector[transitions];
+        for (int j = 0; j < transitions; j++) {
+            columns[j] = matrix.column(j);
+        }
+
+        long[] bounds = initial.clone();
+        boolean[] fired = new boolean[transitions];
+        int deadlocks = 0;
+        boolean complete = true;
+
+        Set<Key> seen = new HashSet<>();
+        Deque<Node> queue = new ArrayDeque<>();
+        seen.add(new Key(initial.clone()));
+        queue.add(new Node(initial.clone(), null));
+
+        explore:
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            long[] m = node.marking();
+            boolean anyEnabled = false;
+
+            for (int j = 0; j < transitions; j++) {
+                if (!isEnabled(matrix, j, m)) {
+                    continue;
+                }
+                anyEnabled = true;
+                fired[j] = true;
+
+                long[] next = m.clone();
+                SparseVector c = columns[j];
+                for (int k = 0; k < c.size(); k++) {
+                    int p = c.indexAt(k);
+                    if (next[p] != OMEGA) {
+                        next[p] += c.valueAt(k);
+                    }
+                }
+                accelerate(node, next);
+
+                if (seen.add(new Key(next))) {
+                    for (int p = 0; p < places; p++) {
+                        bounds[p] = Math.max(bounds[p], next[p]);
+                    }
+                    if (seen.size() > maxNodes) {
+                        complete = false;
+                        break explore;
+                    }
+                    queue.add(new Node(next, node));
+                }
+            }
+            if (!anyEnabled) {
+                deadlocks++;
+            }
+        }
+
+        Map<String, Long> placeBounds = new LinkedHashMap<>();
+        for (int p = 0; p < places; p++) {
+            placeBounds.put(matrix.placeId(p), bounds[p] == OMEGA ? null : bounds[p]);
+        }
+        List<String> dead = new ArrayList<>();
+        for (int j = 0; j < transitions; j++) {
+            if (!fired[j]) {
+                dead.add(matrix.transitionId(j));
+            }
+        }
+        return new Result(placeBounds, dead, deadlocks, seen.size(), complete);
+    }
+
+    private static boolean isEnabled(IncidenceMatrix matrix, int j, long[] m) {
+        SparseVector pre = matrix.pre(j);
+        for (int k = 0; k < pre.size(); k++) {
+            if (m[pre.indexAt(k)] < pre.valueAt(k)) {
+                return false;
+            }
+        }
+        SparseVector inh = matrix.inhibitors(j);
+        for (int k = 0; k < inh.size(); k++) {
+            long count = m[inh.indexAt(k)];
+            // An omega place may hold few tokens: keep the transition (over-approximation)
+            if (count != OMEGA && count >= inh.valueAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets to omega every place that strictly grew since an ancestor covered by {@code next}.
+     */
+    private static void accelerate(Node parent, long[] next) {
+        for (Node a = parent; a != null; a = a.parent()) {
+            long[] am = a.marking();
+            boolean covers = true;
+            boolean strict = false;
+            for (int p = 0; p < next.length; p++) {
+                if (next[p] < am[p]) {
+                    covers = false;
+                    break;
+                }
+                if (next[p] > am[p]) {
+                    strict = true;
+                }
+            }
+            if (covers && strict) {
+                for (int p = 0; p < next.length; p++) {
+                    if (next[p] > am[p]) {
+                        next[p] = OMEGA;
+                    }
+                }
+            }
+        }
+    }
+}
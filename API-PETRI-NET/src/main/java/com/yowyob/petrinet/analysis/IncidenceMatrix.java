@@ -0,0 +1,169 @@
+package com.yowyob.petrinet.analysis;
+
+import com.yowyob.petrinet.domain.model.PetriNet;
+import com.yowyob.petrinet.domain.model.structure.Arc;
+import com.yowyob.petrinet.domain.model.structure.Place;
+import com.yowyob.petrinet.domain.model.structure.Transition;
+import com.yowyob.petrinet.engine.state.NetState;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Place/Transition skeleton of a {@link PetriNet}: colors and time are
+ * abstracted away, each arc counts for its weight. The engine moves exactly
+ * that many tokens per INPUT and OUTPUT arc whatever the binding, so every
+ * firing changes the marking by a column of C.
+ * <p>
+ * Places and transitions are indexed in ID order, so two nets with the same
+ * structure get the same matrix and the same {@link #structureHash()}.
+ *
+ * @author Thomas Djotio Ndié
+ * @version V1.0
+ * @since 30.09.25
+ */
+public final class IncidenceMatrix {
+
+    private final String[] placeIds;
+    private final String[] transitionIds;
+    private final Map<String, Integer> placeIndex = new HashMap<>();
+
+    // Per transition: sparse Pre (input) vector, sparse Post (output) vector, inhibitor thresholds
+    private final SparseVector[] pre;
+    private final SparseVector[] post;
+    private final SparseVector[] inhibitors;
+    private final String structureHash;
+
+    private IncidenceMatrix(PetriNet net) {
+        TreeSet<String> places = new TreeSet<>();
+        for (Place p : net.getPlaces()) {
+            places.add(p.getId());
+        }
+        for (Arc a : net.getArcs()) {
+            places.add(a.getPlaceId());
+        }
+        TreeSet<String> transitions = new TreeSet<>();
+        for (Transition t : net.getTransitions()) {
+            transitions.add(t.getId());
+        }
+        this.placeIds = places.toArray(String[]::new);
+        this.transitionIds = transitions.toArray(String[]::new);
+        for (int i = 0; i < placeIds.length; i++) {
+            placeIndex.put(placeIds[i], i);
+        }
+        Map<String, Integer> transitionIndex = new HashMap<>();
+        for (int j = 0; j < transitionIds.length; j++) {
+            transitionIndex.put(transitionIds[j], j);
+        }
+
+        long[][] preDense = new long[transitionIds.length][placeIds.length];
+        long[][] postDense = new long[transitionIds.length][placeIds.length];
+        long[][] inhDense = new long[transitionIds.length][placeIds.length];
+        List<String> canonicalArcs = new ArrayList<>();
+        for (Arc a : net.getArcs()) {
+            Integer j = transitionIndex.get(a.getTransitionId());
+            if (j == null) {
+                continue; // Dangling arc: the engine can never fire it either
+            }
+            int i = placeIndex.get(a.getPlaceId());
+            switch (a.getType()) {
+                case INPUT -> preDense[j][i] += a.getWeight();
+                case OUTPUT -> postDense[j][i] += a.getWeight();
+                case INHIBITOR -> inhDense[j][i] = inhDense[j][i] == 0
+                        ? a.getWeight() : Math.min(inhDense[j][i], a.getWeight());
+            }
+            canonicalArcs.add(a.getType() + ":" + a.getPlaceId() + ":" + a.getTransitionId() + ":" + a.getWeight());
+        }
+        this.pre = new SparseVector[transitionIds.length];
+        this.post = new SparseVector[transitionIds.length];
+        this.inhibitors = new SparseVector[transitionIds.length];
+        for (int j = 0; j < transitionIds.length; j++) {
+            pre[j] = SparseVector.of(preDense[j]);
+            post[j] = SparseVector.of(postDense[j]);
+            inhibitors[j] = SparseVector.of(inhDense[j]);
+        }
+
+        canonicalArcs.sort(null);
+        this.structureHash = sha256(String.join(",", placeIds) + "|" + String.join(",", transitionIds)
+                + "|" + String.join(",", canonicalArcs));
+    }
+
+    /**
+     * Builds the matrix of a net.
+     */
+    public static IncidenceMatrix of(PetriNet net) {
+        return new IncidenceMatrix(net);
+    }
+
+    /**
+     * SHA-256 of the P/T structure (place and transition IDs, arcs and weights).
+     */
+    public String structureHash() {
+        return structureHash;
+    }
+
+    public int placeCount() {
+        return placeIds.length;
+    }
+
+    public int transitionCount() {
+        return transitionIds.length;
+    }
+
+    public String placeId(int i) {
+        return placeIds[i];
+    }
+
+    public String transitionId(int j) {
+        return transitionIds[j];
+    }
+
+    SparseVector pre(int j) {
+        return pre[j];
+    }
+
+    SparseVector post(int j) {
+        return post[j];
+    }
+
+    SparseVector inhibitors(int j) {
+        return inhibitors[j];
+    }
+
+    /**
+     * Column j of C = Post - Pre (effect of transition j on each place).
+     */
+    SparseVector column(int j) {
+        return SparseVector.combine(1, post[j], -1, pre[j]);
+    }
+
+    /**
+     * Token counts of a state, in place index order. Places outside the net are ignored.
+     */
+    public long[] marking(NetState state) {
+        long[] m = new long[placeIds.length];
+        for (String placeId : state.getMarkedPlaces()) {
+            Integer i = placeIndex.get(placeId);
+            if (i != null) {
+                m[i] = state.getTokens(placeId).size();
+            }
+        }
+        return m;
+    }
+
+    private static String sha256(String s) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
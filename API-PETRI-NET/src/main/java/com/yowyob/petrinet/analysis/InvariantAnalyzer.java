@@ -0,0 +1,130 @@
+package com.yowyob.petrinet.analysis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal semi-positive P- and T-invariants of the P/T skeleton of a net,
+ * computed with the Farkas algorithm over sparse integer rows.
+ * <p>
+ * A P-invariant y (y.C = 0) is a weighted token sum preserved by every firing,
+ * hence a bound on the places it covers. A T-invariant x (C.x = 0) is a firing
+ * count vector bringing the net back to its marking.
+ *
+ * @author Thomas Djotio Ndié
+ * @version V1.0
+ * @since 30.09.25
+ */
+public final class InvariantAnalyzer {
+
+    /**
+     * Invariants as ID -> coefficient maps (non-zero coefficients only).
+     *
+     * @param invariants The minimal invariants found.
+     * @param complete   False if the intermediate matrix exceeded the row limit.
+     */
+    public record Result(List<Map<String, Long>> invariants, boolean complete) {
+    }
+
+    private InvariantAnalyzer() {
+    }
+
+    public static Result placeInvariants(IncidenceMatrix matrix, int maxRows) {
+        int places = matrix.placeCount();
+        int transitions = matrix.transitionCount();
+        // Row i = [ row i of C | e_i ]
+        long[][] rows = new long[places][transitions + places];
+        for (int j = 0; j < transitions; j++) {
+            SparseVector c = matrix.column(j);
+            for (int k = 0; k < c.size(); k++) {
+                rows[c.indexAt(k)][j] = c.valueAt(k);
+            }
+        }
+        for (int i = 0; i < places; i++) {
+            rows[i][transitions + i] = 1;
+        }
+        return farkas(rows, transitions, places, maxRows, matrix::placeId);
+    }
+
+    public static Result transitionInvariants(IncidenceMatrix matrix, int maxRows) {
+        int places = matrix.placeCount();
+        int transitions = matrix.transitionCount();
+        // Row j = [ column j of C | e_j ]
+        long[][] rows = new long[transitions][places + transitions];
+        for (int j = 0; j < transitions; j++) {
+            SparseVector c = matrix.column(j);
+            for (int k = 0; k < c.size(); k++) {
+                rows[j][c.indexAt(k)] = c.valueAt(k);
+            }
+            rows[j][places + j] = 1;
+        }
+        return farkas(rows, places, transitions, maxRows, matrix::transitionId);
+    }
+
+    private interface Naming {
+        String name(int index);
+    }
+
+    /**
+     * Eliminates the first {@code width} columns by non-negative row combinations;
+     * the remaining identity part then holds the invariants.
+     */
+    private static Result farkas(long[][] dense, int width, int count, int maxRows, Naming naming) {
+        List<SparseVector> rows = new ArrayList<>(dense.length);
+        for (long[] row : dense) {
+            rows.add(SparseVector.of(row));
+        }
+
+        for (int col = 0; col < width; col++) {
+            List<SparseVector> positive = new ArrayList<>();
+            List<SparseVector> negative = new ArrayList<>();
+            Set<SparseVector> next = new LinkedHashSet<>();
+            for (SparseVector r : rows) {
+                long v = r.get(col);
+                if (v > 0) positive.add(r);
+                else if (v < 0) negative.add(r);
+                else next.add(r);
+            }
+            for (SparseVector p : positive) {
+                for (SparseVector n : negative) {
+                    long a = -n.get(col);
+                    long b = p.get(col);
+                    long g = SparseVector.gcd(a, b);
+                    next.add(SparseVector.combine(a / g, p, b / g, n).normalized());
+                    if (next.size() > maxRows) {
+                        return new Result(List.of(), false);
+                    }
+                }
+            }
+            rows = new ArrayList<>(next);
+        }
+
+        // Keep the invariants of minimal support
+        List<SparseVector> minimal = new ArrayList<>();
+        for (SparseVector r : rows) {
+            if (r.size() == 0) continue;
+            boolean dominated = false;
+            for (SparseVector o : rows) {
+                if (o != r && o.size() > 0 && o.size() < r.size() && o.supportIncludedIn(r, width)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) minimal.add(r);
+        }
+
+        List<Map<String, Long>> invariants = new ArrayList<>(minimal.size());
+        for (SparseVector r : minimal) {
+            Map<String, Long> inv = new LinkedHashMap<>();
+            for (int k = 0; k < r.size(); k++) {
+                inv.put(naming.name(r.indexAt(k) - width), r.valueAt(k));
+            }
+            invariants.add(inv);
+        }
+        return new Result(invariants, true);
+    }
+}
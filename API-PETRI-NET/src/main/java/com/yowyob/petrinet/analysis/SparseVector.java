@@ -0,0 +1,143 @@
+package com.yowyob.petrinet.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sparse integer vector: sorted indices of the non-zero entries and
+ * their values.
+ *
+ * @author Thomas Djotio Ndié
+ * @version V1.0
+ * @since 30.09.25
+ */
+final class SparseVector {
+
+    static final SparseVector EMPTY = new SparseVector(new int[0], new long[0]);
+
+    private final int[] indices;
+    private final long[] values;
+
+    private SparseVector(int[] indices, long[] values) {
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * Builds a vector from a dense array, keeping the non-zero entries.
+     */
+    static SparseVector of(long[] dense) {
+        int nnz = 0;
+        for (long v : dense) {
+            if (v != 0) nnz++;
+        }
+        int[] idx = new int[nnz];
+        long[] val = new long[nnz];
+        int k = 0;
+        for (int i = 0; i < dense.length; i++) {
+            if (dense[i] != 0) {
+                idx[k] = i;
+                val[k++] = dense[i];
+            }
+        }
+        return new SparseVector(idx, val);
+    }
+
+    /**
+     * Returns a * x + b * y.
+     */
+    static SparseVector combine(long a, SparseVector x, long b, SparseVector y) {
+        int[] idx = new int[x.indices.length + y.indices.length];
+        long[] val = new long[idx.length];
+        int i = 0, j = 0, k = 0;
+        while (i < x.indices.length || j < y.indices.length) {
+            int xi = i < x.indices.length ? x.indices[i] : Integer.MAX_VALUE;
+            int yj = j < y.indices.length ? y.indices[j] : Integer.MAX_VALUE;
+            long v;
+            int at;
+            if (xi == yj) {
+                at = xi;
+                v = Math.addExact(Math.multiplyExact(a, x.values[i++]), Math.multiplyExact(b, y.values[j++]));
+            } else if (xi < yj) {
+                at = xi;
+                v = Math.multiplyExact(a, x.values[i++]);
+            } else {
+                at = yj;
+                v = Math.multiplyExact(b, y.values[j++]);
+            }
+            if (v != 0) {
+                idx[k] = at;
+                val[k++] = v;
+            }
+        }
+        return new SparseVector(Arrays.copyOf(idx, k), Arrays.copyOf(val, k));
+    }
+
+    long get(int index) {
+        int pos = Arrays.binarySearch(indices, index);
+        return pos >= 0 ? values[pos] : 0;
+    }
+
+    int size() {
+        return indices.length;
+    }
+
+    int indexAt(int k) {
+        return indices[k];
+    }
+
+    long valueAt(int k) {
+        return values[k];
+    }
+
+    /**
+     * Divides all entries by their greatest common divisor.
+     */
+    SparseVector normalized() {
+        long g = 0;
+        for (long v : values) {
+            g = gcd(g, Math.abs(v));
+        }
+        if (g <= 1) {
+            return this;
+        }
+        long[] val = new long[values.length];
+        for (int k = 0; k < values.length; k++) {
+            val[k] = values[k] / g;
+        }
+        return new SparseVector(indices, val);
+    }
+
+    /**
+     * True if every non-zero index of this vector at or after {@code from} is
+     * also non-zero in {@code other}.
+     */
+    boolean supportIncludedIn(SparseVector other, int from) {
+        for (int k = 0; k < indices.length; k++) {
+            if (indices[k] >= from && other.get(indices[k]) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SparseVector other)) return false;
+        return Arrays.equals(indices, other.indices) && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(indices) + Arrays.hashCode(values);
+    }
+}
@@ -1,8 +1,11 @@
 package com.yowyob.petrinet.api;
 
+import com.yowyob.petrinet.api.dto.NetAnalysisDTO;
 import com.yowyob.petrinet.api.dto.NetDTO;
 import com.yowyob.petrinet.api.dto.NetStateDTO;
 import com.yowyob.petrinet.api.dto.TokenDTO;
+import com.yowyob.petrinet.service.NetAnalysisService;
+import com.yowyob.petrinet.service.NetPreloader;
 import com.yowyob.petrinet.service.PetriNetService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,11 +14,14 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
@@ -26,22 +32,35 @@ import reactor.core.publisher.Flux;
 public class PetriNetController {
 
     private final PetriNetService petriNetService;
+    private final NetPreloader netPreloader;
+    private final NetAnalysisService netAnalysisService;
 
-    public PetriNetController(PetriNetService petriNetService) {
+    public PetriNetController(PetriNetService petriNetService, NetPreloader netPreloader,
+            NetAnalysisService netAnalysisService) {
         this.petriNetService = petriNetService;
+        this.netPreloader = netPreloader;
+        this.netAnalysisService = netAnalysisService;
     }
 
     @GetMapping("/health")
     @Operation(
         summary = "Vérifier la santé de l'API",
-        description = "Endpoint de health check pour vérifier que l'API Petri Net est opérationnelle"
+        description = """
+            Endpoint de health check pour vérifier que l'API Petri Net est opérationnelle.
+            Répond 503 tant que le préchargement des réseaux actifs au démarrage n'est pas terminé.
+            """
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "API opérationnelle",
-                     content = @Content(schema = @Schema(implementation = String.class, example = "UP")))
+                     content = @Content(schema = @Schema(implementation = String.class, example = "UP"))),
+        @ApiResponse(responseCode = "503", description = "Préchargement en cours",
+                     content = @Content(schema = @Schema(implementation = String.class, example = "WARMING_UP")))
     })
-    public Mono<String> health() {
-        return Mono.just("UP");
+    public Mono<ResponseEntity<String>> health() {
+        if (!netPreloader.isReady()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("WARMING_UP"));
+        }
+        return Mono.just(ResponseEntity.ok("UP"));
     }
 
     @PostMapping
@@ -50,17 +69,23 @@ public class PetriNetController {
         description = """
             Crée un réseau de Petri coloré temporisé (CTPN) avec:
             - Places (états possibles)
-            - Transitions (règles de changement)
+            - Transitions (règles de changement), avec une garde optionnelle
             - Arcs (flux entre places et transitions)
             - Marquage initial (placement des tokens)
 
+            **Garde** (`guard`): expression évaluée sur le binding au déclenchement, ex.
+            `count(commandes) >= 2 && value(commandes).priorite == 'express'`.
+            `count(p)` = nombre de tokens liés dans la place p, `value(p)` = valeur du premier
+            (`.champ` pour un objet JSON); opérateurs `== != < <= > >= && || !` et parenthèses.
+            Une garde absente ou vide est toujours vraie.
+
             Utilisé pour valider les workflows d'état (ex: livraisons).
             """
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Réseau créé avec succès, retourne l'ID du réseau",
                      content = @Content(schema = @Schema(implementation = String.class))),
-        @ApiResponse(responseCode = "400", description = "Définition du réseau invalide")
+        @ApiResponse(responseCode = "400", description = "Définition du réseau invalide (ex: garde mal formée)")
     })
     public Mono<String> createNet(
         @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -69,7 +94,9 @@ public class PetriNetController {
         )
         @RequestBody NetDTO netDto
     ) {
-        return petriNetService.createNet(netDto);
+        return petriNetService.createNet(netDto)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
     }
 
     @GetMapping("/{id}")
@@ -105,7 +132,8 @@ public class PetriNetController {
             Exécute une transition dans le réseau de Petri si elle est activable:
 
             **Validation automatique**:
-            - Vérifie que la transition est activable (tokens présents dans places sources)
+            - Vérifie que la transition est activable (tokens présents dans places sources,
+              arcs inhibiteurs, garde de la transition)
             - Consomme les tokens des places d'entrée
             - Produit les tokens dans les places de sortie
             - Met à jour le marquage du réseau
@@ -135,4 +163,81 @@ public class PetriNetController {
                 .then(Mono.just(ResponseEntity.ok().<Void>build()))
                 .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
     }
+
+    @GetMapping("/{id}/places/{placeId}/tokens")
+    @Operation(
+        summary = "Lister les tokens d'une place par âge",
+        description = """
+            Retourne les tokens d'une place triés du plus ancien au plus récent.
+            Avec `olderThan`, ne retourne que les tokens créés strictement avant ce temps réseau
+            (recherche dichotomique, sans parcourir toute la place) : utile pour les contrôles de SLA.
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Tokens récupérés"),
+        @ApiResponse(responseCode = "404", description = "Réseau non trouvé")
+    })
+    public Mono<ResponseEntity<List<TokenDTO>>> getTokens(
+        @Parameter(description = "ID du réseau de Petri", required = true, example = "DEL-001")
+        @PathVariable String id,
+        @Parameter(description = "ID de la place", required = true, example = "IN_TRANSIT")
+        @PathVariable String placeId,
+        @Parameter(description = "Temps réseau: seuls les tokens plus anciens sont retournés", example = "3600")
+        @RequestParam(required = false) Long olderThan
+    ) {
+        return petriNetService.getTokensOlderThan(id, placeId, olderThan)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/places/{placeId}/tokens/oldest")
+    @Operation(
+        summary = "Obtenir le token le plus ancien d'une place",
+        description = "Retourne le token de plus petit timestamp de création de la place (O(1))"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Token trouvé",
+                     content = @Content(schema = @Schema(implementation = TokenDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Réseau non trouvé ou place vide")
+    })
+    public Mono<ResponseEntity<TokenDTO>> getOldestToken(
+        @Parameter(description = "ID du réseau de Petri", required = true, example = "DEL-001")
+        @PathVariable String id,
+        @Parameter(description = "ID de la place", required = true, example = "IN_TRANSIT")
+        @PathVariable String placeId
+    ) {
+        return petriNetService.getOldestToken(id, placeId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/analysis")
+    @Operation(
+        summary = "Analyser la structure d'un réseau",
+        description = """
+            Analyse le squelette P/T du réseau (couleurs et temps ignorés, arcs pondérés) :
+            - Arbre de couverture de Karp–Miller depuis le marquage actuel : borne de chaque place
+              (null si non bornée), transitions mortes, blocages
+            - P-invariants et T-invariants minimaux (algorithme de Farkas)
+
+            Avec des arcs inhibiteurs, les bornes sont des majorants. Les résultats sont mis en cache
+            par empreinte de structure : les réseaux issus d'un même modèle ne sont analysés qu'une fois.
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Analyse effectuée",
+                     content = @Content(schema = @Schema(implementation = NetAnalysisDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Réseau non trouvé"),
+        @ApiResponse(responseCode = "503", description = "Trop d'analyses en cours, réessayer plus tard")
+    })
+    public Mono<ResponseEntity<NetAnalysisDTO>> analyzeNet(
+        @Parameter(description = "ID du réseau de Petri", required = true, example = "DEL-001")
+        @PathVariable String id
+    ) {
+        return netAnalysisService.analyze(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(RejectedExecutionException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
 }
@@ -0,0 +1,79 @@
+package com.yowyob.petrinet.api;
+
+import com.yowyob.petrinet.api.dto.SnapshotReportDTO;
+import com.yowyob.petrinet.service.SnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+@RestController
+@RequestMapping("/api/admin/snapshots")
+@Tag(name = "Administration", description = "Sauvegarde et restauration en masse des marquages")
+public class SnapshotController {
+
+    private final SnapshotService snapshotService;
+
+    public SnapshotController(SnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @PostMapping("/export")
+    @Operation(
+        summary = "Exporter le marquage de tous les réseaux",
+        description = """
+            Écrit le marquage de tous les réseaux persistés dans un fichier snapshot binaire colonnaire
+            (dictionnaire des places, dictionnaire des couleurs, colonne des timestamps, offsets par place),
+            via un fichier mappé en mémoire. Les marquages sont lus directement en base, sans charger
+            les réseaux en mémoire. Un snapshot est limité à 2 Go.
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Snapshot écrit",
+                     content = @Content(schema = @Schema(implementation = SnapshotReportDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Nom de fichier invalide")
+    })
+    public Mono<ResponseEntity<SnapshotReportDTO>> exportSnapshot(
+        @Parameter(description = "Nom du fichier dans le répertoire des snapshots", example = "nets.pnss")
+        @RequestParam(defaultValue = "nets.pnss") String file
+    ) {
+        return snapshotService.exportAll(file)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    @PostMapping("/import")
+    @Operation(
+        summary = "Restaurer le marquage des réseaux depuis un snapshot",
+        description = """
+            Relit un fichier snapshot mappé en mémoire et remplace le marquage des réseaux qu'il contient.
+            Les réseaux absents de la base sont ignorés et non comptés dans le rapport.
+            Le même fichier peut servir au démarrage à chaud (`petri.warmup.snapshot`).
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Snapshot restauré",
+                     content = @Content(schema = @Schema(implementation = SnapshotReportDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Nom de fichier invalide, ou fichier tronqué ou corrompu"),
+        @ApiResponse(responseCode = "404", description = "Fichier snapshot introuvable")
+    })
+    public Mono<ResponseEntity<SnapshotReportDTO>> importSnapshot(
+        @Parameter(description = "Nom du fichier dans le répertoire des snapshots", example = "nets.pnss")
+        @RequestParam(defaultValue = "nets.pnss") String file
+    ) {
+        return snapshotService.importAll(file)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(NoSuchFileException.class, e -> Mono.just(ResponseEntity.notFound().build()))
+                .onErrorResume(IOException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+}
@@ -4,7 +4,7 @@ public class ArcDTO {
     public String placeId;
     public String transitionId;
     public String type; // INPUT, OUTPUT, INHIBITOR
-    public Integer weight; // Simple integer weight for now
+    public Integer weight; // Tokens moved per firing; for INHIBITOR arcs, token count that disables the transition
 
     public ArcDTO() {
     }
@@ -0,0 +1,21 @@
+package com.yowyob.petrinet.api.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class NetAnalysisDTO {
+    public String structureHash;
+    // Maximum token count per place, null when the place is unbounded
+    public Map<String, Long> placeBounds;
+    public boolean bounded;
+    public List<String> deadTransitions;
+    public int deadlocks;
+    public int coverabilityNodes;
+    public boolean coverabilityComplete;
+    public List<Map<String, Long>> placeInvariants;
+    public List<Map<String, Long>> transitionInvariants;
+    public boolean invariantsComplete;
+
+    public NetAnalysisDTO() {
+    }
+}
@@ -0,0 +1,20 @@
+package com.yowyob.petrinet.api.dto;
+
+public class SnapshotReportDTO {
+    public String file;
+    public int netCount;
+    public long tokenCount;
+    public long sizeBytes;
+    public long durationMs;
+
+    public SnapshotReportDTO() {
+    }
+
+    public SnapshotReportDTO(String file, int netCount, long tokenCount, long sizeBytes, long durationMs) {
+        this.file = file;
+        this.netCount = netCount;
+        this.tokenCount = tokenCount;
+        this.sizeBytes = sizeBytes;
+        this.durationMs = durationMs;
+    }
+}
@@ -5,6 +5,7 @@ public class TransitionDTO {
     public String name;
     public long minFiringDelay;
     public long maxFiringDelay;
+    public String guard; // Optional GuardExpression over the binding, e.g. "count(p1) >= 2"
 
     public TransitionDTO() {
     }
@@ -15,4 +16,9 @@ public class TransitionDTO {
         this.minFiringDelay = minFiringDelay;
         this.maxFiringDelay = maxFiringDelay;
     }
+
+    public TransitionDTO(String id, String name, long minFiringDelay, long maxFiringDelay, String guard) {
+        this(id, name, minFiringDelay, maxFiringDelay);
+        this.guard = guard;
+    }
 }
@@ -2,8 +2,10 @@ package com.yowyob.petrinet.application;
 
 import com.yowyob.petrinet.application.observability.NetObserver;
 import com.yowyob.petrinet.domain.model.PetriNet;
+import com.yowyob.petrinet.engine.CompiledNet;
 import com.yowyob.petrinet.engine.PetriNetEngine;
 import com.yowyob.petrinet.engine.StepResult;
+import com.yowyob.petrinet.engine.TokenSelectionPolicy;
 import com.yowyob.petrinet.engine.state.NetState;
 
 import java.util.ArrayList;
@@ -20,6 +22,7 @@ import java.util.Objects;
  */
 public class CTPNService {
     private final PetriNet net;
+    private final CompiledNet compiledNet;
     private final PetriNetEngine engine;
     private NetState currentState;
     private final List<NetObserver> observers = new ArrayList<>();
@@ -29,8 +32,17 @@ public class CTPNService {
      * Starts at time 0 with empty marking.
      */
     public CTPNService(PetriNet net) {
+        this(net, TokenSelectionPolicy.FIFO);
+    }
+
+    /**
+     * Initializes the service with a model and a token selection policy.
+     * Starts at time 0 with empty marking.
+     */
+    public CTPNService(PetriNet net, TokenSelectionPolicy selectionPolicy) {
         this.net = Objects.requireNonNull(net);
-        this.engine = new PetriNetEngine();
+        this.compiledNet = CompiledNet.compile(net);
+        this.engine = new PetriNetEngine(selectionPolicy);
         this.currentState = new NetState();
     }
 
@@ -74,12 +86,22 @@ public class CTPNService {
      * @param binding      Binding object.
      */
     public void fire(String transitionId, Object binding) {
-        StepResult result = engine.fireTransition(net, currentState, transitionId, binding);
+        StepResult result = engine.fireTransition(compiledNet, currentState, transitionId, binding);
         this.currentState = result.newState();
         notifyTransitionFired(transitionId, binding, currentState.getCurrentTime(), result.consumedTokens(),
                 result.producedTokens());
     }
 
+    /**
+     * Checks whether a transition is enabled in the current state.
+     * 
+     * @param transitionId Transition ID.
+     * @param binding      Binding object.
+     */
+    public boolean isEnabled(String transitionId, Object binding) {
+        return engine.isEnabled(compiledNet, currentState, transitionId, binding);
+    }
+
     private void notifyTransitionFired(String tId, Object binding, long time,
             List<com.yowyob.petrinet.domain.model.color.Token<?>> consumed,
             List<com.yowyob.petrinet.domain.model.color.Token<?>> produced) {
@@ -18,6 +18,11 @@ public record Token<T>(
     T value,
     long creation_timestamp
 ) {
+    /**
+     * Color of the tokens of uncolored arcs (the unit color of CPN).
+     */
+    public static final String UNIT = "()";
+
     /**
      * Creates a new token with the given value and the current timestamp.
      * @param value The value (Color) of the token.
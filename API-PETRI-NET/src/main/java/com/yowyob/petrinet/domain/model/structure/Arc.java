@@ -21,9 +21,10 @@ public class Arc {
     private final String transition_id;
     private final Type type;
     private final ArcExpression expression;
+    private final int weight;
 
     /**
-     * Constructs an Arc.
+     * Constructs an Arc with weight 1.
      * 
      * @param place_id      The ID of the connected place.
      * @param transition_id The ID of the connected transition.
@@ -31,10 +32,29 @@ public class Arc {
      * @param expression    The function determining token flow.
      */
     public Arc(String place_id, String transition_id, Type type, ArcExpression expression) {
+        this(place_id, transition_id, type, expression, 1);
+    }
+
+    /**
+     * Constructs an Arc.
+     * 
+     * @param place_id      The ID of the connected place.
+     * @param transition_id The ID of the connected transition.
+     * @param type          The direction/type of the arc.
+     * @param expression    The function determining token flow.
+     * @param weight        The arc weight. For an INPUT or OUTPUT arc, the number
+     *                      of tokens moved by every firing. For an INHIBITOR arc,
+     *                      the transition is disabled as soon as the place holds
+     *                      at least this many tokens (weight 1 = zero test).
+     */
+    public Arc(String place_id, String transition_id, Type type, ArcExpression expression, int weight) {
         this.place_id = Objects.requireNonNull(place_id);
         this.transition_id = Objects.requireNonNull(transition_id);
         this.type = Objects.requireNonNull(type);
         this.expression = Objects.requireNonNull(expression);
+        if (weight < 1)
+            throw new IllegalArgumentException("weight must be >= 1");
+        this.weight = weight;
     }
 
     public String getPlaceId() {
@@ -52,4 +72,8 @@ public class Arc {
     public ArcExpression getExpression() {
         return expression;
     }
+
+    public int getWeight() {
+        return weight;
+    }
 }
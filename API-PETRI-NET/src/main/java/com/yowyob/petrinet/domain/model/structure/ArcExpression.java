@@ -8,6 +8,9 @@ import java.util.List;
  * Maps a transition binding (color) to a multiset of tokens.
  * <p>
  * Corresponds to Pre(p, t)(c) and Post(p, t)(c).
+ * <p>
+ * The multiset holds as many tokens as the arc weight, or none for an
+ * uncolored arc: tokens of any color are consumed, {@link Token#UNIT} tokens produced.
  * 
  * @author Thomas Djotio Ndié
  * @version V1.0
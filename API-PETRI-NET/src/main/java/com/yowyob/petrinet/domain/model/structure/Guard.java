@@ -0,0 +1,29 @@
+package com.yowyob.petrinet.domain.model.structure;
+
+/**
+ * Functional interface for transition guards.
+ * A guard is a boolean condition over the transition binding.
+ * <p>
+ * Corresponds to G(t)(c): the transition may only fire for bindings satisfying the guard.
+ * Guards of nets created or loaded through the API are {@link GuardExpression}s,
+ * whose text is stored with the transition.
+ *
+ * @author Thomas Djotio Ndié
+ * @version V1.0
+ * @since 30.09.25
+ */
+@FunctionalInterface
+public interface Guard {
+    /**
+     * Guard that accepts every binding.
+     */
+    Guard TRUE = binding -> true;
+
+    /**
+     * Evaluates the guard for a given binding.
+     *
+     * @param transition_binding The color/object involved in the transition firing.
+     * @return true if the binding satisfies the guard.
+     */
+    boolean test(Object transition_binding);
+}
@@ -0,0 +1,319 @@
+package com.yowyob.petrinet.domain.model.structure;
+
+import com.yowyob.petrinet.domain.model.color.Token;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Guard written as a textual expression, so that it can be stored with the
+ * transition and sent through the API.
+ * <p>
+ * The binding is the one used by the API: a map from place ID to the tokens
+ * bound in that place. Grammar:
+ * <pre>
+ * expression := and ('||' and)*
+ * and        := not ('&amp;&amp;' not)*
+ * not        := '!' not | '(' expression ')' | comparison
+ * comparison := operand [('==' | '!=' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=') operand]
+ * operand    := number | 'string' | "string" | true | false | null
+ *             | count(place) | value(place) ('.' field)*
+ * </pre>
+ * {@code count(p)} is the number of tokens bound in place {@code p};
+ * {@code value(p)} is the value of the first of them (null if none), and
+ * {@code .field} reads a field of a JSON object value. A place ID that is not a
+ * plain identifier is quoted. Numbers compare numerically, strings
+ * lexicographically; ordering anything else is false.
+ * <p>
+ * Example: {@code count(orders) >= 2 && value(orders).priority == 'express'}.
+ *
+ * @author Thomas Djotio Ndié
+ * @version V1.0
+ * @since 30.09.25
+ */
+public final class GuardExpression implements Guard {
+
+    private final String source;
+    private final Guard compiled;
+
+    private GuardExpression(String source, Guard compiled) {
+        this.source = source;
+        this.compiled = compiled;
+    }
+
+    /**
+     * Parses a guard expression.
+     *
+     * @param source The expression text.
+     * @return The compiled guard.
+     * @throws IllegalArgumentException If the expression is malformed.
+     */
+    public static GuardExpression parse(String source) {
+        Objects.requireNonNull(source, "source must not be null");
+        Parser parser = new Parser(source);
+        Guard compiled = parser.expression();
+        parser.skipSpaces();
+        if (parser.pos < source.length()) {
+            throw parser.error("Unexpected '" + source.charAt(parser.pos) + "'");
+        }
+        return new GuardExpression(source, compiled);
+    }
+
+    /**
+     * Returns the guard of an optional expression: {@link Guard#TRUE} when blank.
+     *
+     * @throws IllegalArgumentException If the expression is malformed.
+     */
+    public static Guard of(String source) {
+        return source == null || source.isBlank() ? Guard.TRUE : parse(source);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public boolean test(Object transition_binding) {
+        return compiled.test(transition_binding);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Guard expression() {
+            Guard left = and();
+            while (accept("||")) {
+                Guard l = left;
+                Guard r = and();
+                left = binding -> l.test(binding) || r.test(binding);
+            }
+            return left;
+        }
+
+        private Guard and() {
+            Guard left = not();
+            while (accept("&&")) {
+                Guard l = left;
+                Guard r = not();
+                left = binding -> l.test(binding) && r.test(binding);
+            }
+            return left;
+        }
+
+        private Guard not() {
+            if (accept("!")) {
+                Guard inner = not();
+                return binding -> !inner.test(binding);
+            }
+            if (accept("(")) {
+                Guard inner = expression();
+                expect(")");
+                return inner;
+            }
+            return comparison();
+        }
+
+        private Guard comparison() {
+            Function<Object, Object> left = operand();
+            String op = null;
+            for (String candidate : new String[]{"==", "!=", "<=", ">=", "<", ">"}) {
+                if (accept(candidate)) {
+                    op = candidate;
+                    break;
+                }
+            }
+            if (op == null) {
+                return binding -> Boolean.TRUE.equals(left.apply(binding));
+            }
+            Function<Object, Object> right = operand();
+            String operator = op;
+            return binding -> compare(left.apply(binding), operator, right.apply(binding));
+        }
+
+        private Function<Object, Object> operand() {
+            skipSpaces();
+            if (pos >= text.length()) {
+                throw error("Operand expected");
+            }
+            char c = text.charAt(pos);
+            if (c == '\'' || c == '"') {
+                String literal = string();
+                return binding -> literal;
+            }
+            if (Character.isDigit(c) || c == '-' || c == '.') {
+                double number = number();
+                return binding -> number;
+            }
+            String word = identifier();
+            switch (word) {
+                case "true":
+                    return binding -> Boolean.TRUE;
+                case "false":
+                    return binding -> Boolean.FALSE;
+                case "null":
+                    return binding -> null;
+                case "count": {
+                    String place = placeArgument();
+                    return binding -> tokensOf(binding, place).size();
+                }
+                case "value": {
+                    String place = placeArgument();
+                    Function<Object, Object> value = binding -> {
+                        List<?> tokens = tokensOf(binding, place);
+                        return tokens.isEmpty() ? null : valueOf(tokens.get(0));
+                    };
+                    while (peek('.')) {
+                        pos++;
+                        String field = identifier();
+                        Function<Object, Object> parent = value;
+                        value = binding -> {
+                            Object v = parent.apply(binding);
+                            return v instanceof Map ? ((Map<?, ?>) v).get(field) : null;
+                        };
+                    }
+                    return value;
+                }
+                default:
+                    throw error("Unknown function or literal '" + word + "'");
+            }
+        }
+
+        private String placeArgument() {
+            expect("(");
+            skipSpaces();
+            String place = pos < text.length() && (text.charAt(pos) == '\'' || text.charAt(pos) == '"')
+                    ? string()
+                    : identifier();
+            expect(")");
+            return place;
+        }
+
+        private String string() {
+            char quote = text.charAt(pos++);
+            int end = text.indexOf(quote, pos);
+            if (end < 0) {
+                throw error("Unterminated string");
+            }
+            String literal = text.substring(pos, end);
+            pos = end + 1;
+            return literal;
+        }
+
+        private double number() {
+            int start = pos;
+            if (text.charAt(pos) == '-') {
+                pos++;
+            }
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + text.substring(start, pos) + "'");
+            }
+        }
+
+        private String identifier() {
+            skipSpaces();
+            int start = pos;
+            while (pos < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("Identifier expected");
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean accept(String token) {
+            skipSpaces();
+            if (text.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw error("'" + token + "' expected");
+            }
+        }
+
+        private boolean peek(char c) {
+            return pos < text.length() && text.charAt(pos) == c;
+        }
+
+        void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in guard: " + text);
+        }
+    }
+
+    private static List<?> tokensOf(Object binding, String place) {
+        if (binding instanceof Map) {
+            Object tokens = ((Map<?, ?>) binding).get(place);
+            if (tokens instanceof List) {
+                return (List<?>) tokens;
+            }
+        }
+        return List.of();
+    }
+
+    private static Object valueOf(Object token) {
+        return token instanceof Token ? ((Token<?>) token).value() : token;
+    }
+
+    private static boolean compare(Object left, String op, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            int c = Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+            return holds(c, op);
+        }
+        if (op.equals("==")) {
+            return Objects.equals(left, right);
+        }
+        if (op.equals("!=")) {
+            return !Objects.equals(left, right);
+        }
+        if (left instanceof String && right instanceof String) {
+            return holds(((String) left).compareTo((String) right), op);
+        }
+        return false;
+    }
+
+    private static boolean holds(int c, String op) {
+        switch (op) {
+            case "==":
+                return c == 0;
+            case "!=":
+                return c != 0;
+            case "<":
+                return c < 0;
+            case "<=":
+                return c <= 0;
+            case ">":
+                return c > 0;
+            default:
+                return c >= 0;
+        }
+    }
+}
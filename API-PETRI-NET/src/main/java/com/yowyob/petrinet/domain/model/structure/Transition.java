@@ -4,7 +4,8 @@ import java.util.Objects;
 
 /**
  * Represents a Transition in the CTPN ($T$).
- * Includes time constraints: [min_firing_delay, max_firing_delay].
+ * Includes time constraints: [min_firing_delay, max_firing_delay]
+ * and an optional guard over the binding.
  * 
  * @author Thomas Djotio Ndié
  * @version V1.0
@@ -15,9 +16,10 @@ public class Transition {
     private final String name;
     private final long min_firing_delay;
     private final long max_firing_delay;
+    private final Guard guard;
 
     /**
-     * Constructs a new Transition.
+     * Constructs a new Transition without guard.
      * 
      * @param id               Unique identifier.
      * @param name             Human readable name.
@@ -25,6 +27,19 @@ public class Transition {
      * @param max_firing_delay Maximum delay (can be Long.MAX_VALUE for infinity).
      */
     public Transition(String id, String name, long min_firing_delay, long max_firing_delay) {
+        this(id, name, min_firing_delay, max_firing_delay, Guard.TRUE);
+    }
+
+    /**
+     * Constructs a new guarded Transition.
+     * 
+     * @param id               Unique identifier.
+     * @param name             Human readable name.
+     * @param min_firing_delay Minimum delay before firing after enablement.
+     * @param max_firing_delay Maximum delay (can be Long.MAX_VALUE for infinity).
+     * @param guard            Condition the binding must satisfy.
+     */
+    public Transition(String id, String name, long min_firing_delay, long max_firing_delay, Guard guard) {
         this.id = Objects.requireNonNull(id, "id must not be null");
         this.name = Objects.requireNonNull(name, "name must not be null");
         if (min_firing_delay < 0)
@@ -34,6 +49,7 @@ public class Transition {
 
         this.min_firing_delay = min_firing_delay;
         this.max_firing_delay = max_firing_delay;
+        this.guard = Objects.requireNonNull(guard, "guard must not be null");
     }
 
     public String getId() {
@@ -52,6 +68,10 @@ public class Transition {
         return max_firing_delay;
     }
 
+    public Guard getGuard() {
+        return guard;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
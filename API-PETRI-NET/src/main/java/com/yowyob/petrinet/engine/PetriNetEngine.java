@@ -7,22 +7,65 @@ import com.yowyob.petrinet.domain.model.structure.Transition;
 import com.yowyob.petrinet.engine.state.NetState;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Execution Engine for CTPN.
  * Stateless service that computes next states.
- * 
+ * <p>
+ * The enabling check is ordered cheapest-first and short-circuits:
+ * inhibitor counts, input counts, arc expressions, guard, color matching, then time.
+ * Matching tokens are picked according to a {@link TokenSelectionPolicy}.
+ * <p>
+ * Every INPUT and OUTPUT arc moves exactly its weight in tokens, as in the P/T
+ * skeleton the analysis works on: its expression yields that many colors, or
+ * none for an uncolored arc (any tokens consumed, {@link Token#UNIT} tokens produced).
+ *
  * @author Thomas Djotio Ndié
- * @version V1.1
+ * @version V1.3
  * @since 30.09.25
  */
 public class PetriNetEngine {
 
+    private final TokenSelectionPolicy selectionPolicy;
+
+    /**
+     * Creates an engine consuming tokens in FIFO order.
+     */
+    public PetriNetEngine() {
+        this(TokenSelectionPolicy.FIFO);
+    }
+
+    public PetriNetEngine(TokenSelectionPolicy selectionPolicy) {
+        this.selectionPolicy = Objects.requireNonNull(selectionPolicy);
+    }
+
+    public TokenSelectionPolicy getSelectionPolicy() {
+        return selectionPolicy;
+    }
+
+    /**
+     * Outcome of an enabling check. Holds the matched tokens per input place, and
+     * the colors to produce per output arc, when enabled.
+     */
+    private record Enablement(String failure, Map<String, List<Token<?>>> matched, List<List<Token<?>>> produced) {
+        static Enablement disabled(String reason) {
+            return new Enablement(reason, null, null);
+        }
+
+        boolean enabled() {
+            return failure == null;
+        }
+    }
+
     /**
      * Fires a transition with a specific binding.
-     * 
+     *
      * @param net          The Petri Net model.
      * @param currentState The current state ($M$, Time).
      * @param transitionId The ID of the transition to fire.
@@ -31,63 +74,185 @@ public class PetriNetEngine {
      * @throws IllegalArgumentException If firing is invalid.
      */
     public StepResult fireTransition(PetriNet net, NetState currentState, String transitionId, Object binding) {
-        Transition t = net.getTransition(transitionId);
-
-        List<Arc> inputArcs = net.getArcs().stream()
-                .filter(a -> a.getTransitionId().equals(transitionId) && a.getType() == Arc.Type.INPUT)
-                .toList();
+        return fireTransition(CompiledNet.compile(net), currentState, transitionId, binding);
+    }
 
-        List<Arc> outputArcs = net.getArcs().stream()
-                .filter(a -> a.getTransitionId().equals(transitionId) && a.getType() == Arc.Type.OUTPUT)
-                .toList();
+    /**
+     * Fires a transition of a pre-compiled net with a specific binding.
+     *
+     * @throws IllegalArgumentException If firing is invalid.
+     */
+    public StepResult fireTransition(CompiledNet net, NetState currentState, String transitionId, Object binding) {
+        CompiledNet.CompiledTransition ct = net.getTransition(transitionId);
+        Enablement enablement = checkEnabled(ct, currentState, binding);
+        if (!enablement.enabled()) {
+            throw new IllegalArgumentException(enablement.failure());
+        }
 
+        // 1. Consume Tokens
         NetState nextState = currentState;
         List<Token<?>> allConsumed = new ArrayList<>();
-        long maxTokenTime = 0;
+        for (Map.Entry<String, List<Token<?>>> e : enablement.matched().entrySet()) {
+            nextState = nextState.withTokensConsumed(e.getKey(), e.getValue());
+            allConsumed.addAll(e.getValue());
+        }
 
-        // 1. Consume Tokens
+        // 2. Produce Tokens
+        long productionTime = currentState.getCurrentTime();
+        List<Token<?>> allProduced = new ArrayList<>();
+
+        Arc[] outputArcs = ct.outputArcs();
+        for (int i = 0; i < outputArcs.length; i++) {
+            List<Token<?>> timedTokens = new ArrayList<>();
+            for (Token<?> tok : enablement.produced().get(i)) {
+                timedTokens.add(Token.create(tok.value(), productionTime));
+            }
+
+            nextState = nextState.withTokensAdded(outputArcs[i].getPlaceId(), timedTokens);
+            allProduced.addAll(timedTokens);
+        }
+
+        return new StepResult(nextState, allConsumed, allProduced);
+    }
+
+    /**
+     * Checks whether a transition is enabled for a binding, without firing it.
+     */
+    public boolean isEnabled(CompiledNet net, NetState state, String transitionId, Object binding) {
+        return checkEnabled(net.getTransition(transitionId), state, binding).enabled();
+    }
+
+    private Enablement checkEnabled(CompiledNet.CompiledTransition ct, NetState state, Object binding) {
+        Transition t = ct.transition();
+        String transitionId = t.getId();
+
+        // 1. Inhibitor arcs: pure token counts, no expression evaluation
+        for (Arc arc : ct.inhibitorArcs()) {
+            if (state.getTokens(arc.getPlaceId()).size() >= arc.getWeight()) {
+                return Enablement.disabled("Transition " + transitionId + " inhibited by place " + arc.getPlaceId());
+            }
+        }
+
+        // 2. Input counts: the place must hold at least the weights of its input arcs
+        Arc[] inputArcs = ct.inputArcs();
+        Map<String, Integer> requiredPerPlace = new HashMap<>();
         for (Arc arc : inputArcs) {
-            List<Token<?>> requiredTokensDocs = arc.getExpression().evaluate(binding);
-            String placeId = arc.getPlaceId();
-            List<Token<?>> availableTokens = nextState.getTokens(placeId);
-
-            for (Token<?> req : requiredTokensDocs) {
-                Token<?> match = availableTokens.stream()
-                        .filter(avail -> avail.value().equals(req.value()))
-                        .findFirst()
-                        .orElseThrow(() -> new IllegalArgumentException(
-                                "Missing token in place " + placeId + ": " + req.value()));
-
-                if (match.creation_timestamp() > maxTokenTime) {
-                    maxTokenTime = match.creation_timestamp();
+            int total = requiredPerPlace.merge(arc.getPlaceId(), arc.getWeight(), Integer::sum);
+            if (state.getTokens(arc.getPlaceId()).size() < total) {
+                return Enablement.disabled("Missing token in place " + arc.getPlaceId() + ": "
+                        + total + " required");
+            }
+        }
+
+        // 3. Arc expressions: as many colors as the weight, or none (uncolored)
+        List<List<Token<?>>> required = new ArrayList<>(inputArcs.length);
+        for (Arc arc : inputArcs) {
+            List<Token<?>> req = evaluate(arc, binding);
+            if (req == null) {
+                return Enablement.disabled(arityFailure(arc, transitionId));
+            }
+            required.add(req);
+        }
+        Arc[] outputArcs = ct.outputArcs();
+        List<List<Token<?>>> produced = new ArrayList<>(outputArcs.length);
+        for (Arc arc : outputArcs) {
+            List<Token<?>> out = evaluate(arc, binding);
+            if (out == null) {
+                return Enablement.disabled(arityFailure(arc, transitionId));
+            }
+            produced.add(out.isEmpty() ? Collections.nCopies(arc.getWeight(), new Token<>(Token.UNIT, 0)) : out);
+        }
+
+        // 4. Guard
+        if (!t.getGuard().test(binding)) {
+            return Enablement.disabled("Guard rejected binding for transition " + transitionId);
+        }
+
+        // 5. Color matching: colored arcs first, uncolored ones take any token left
+        Map<String, List<Token<?>>> matched = new LinkedHashMap<>();
+        Map<String, boolean[]> used = new HashMap<>();
+        long maxTokenTime = 0;
+        for (boolean colored : new boolean[] {true, false}) {
+            for (int i = 0; i < inputArcs.length; i++) {
+                if (required.get(i).isEmpty() == colored) {
+                    continue;
                 }
+                String placeId = inputArcs[i].getPlaceId();
+                List<Token<?>> availableTokens = state.getTokens(placeId);
+                boolean[] taken = used.computeIfAbsent(placeId, k -> new boolean[availableTokens.size()]);
 
-                nextState = nextState.withTokensConsumed(placeId, List.of(match));
-                allConsumed.add(match);
-                // Refresh list for next iteration
-                availableTokens = nextState.getTokens(placeId);
+                for (int k = 0; k < inputArcs[i].getWeight(); k++) {
+                    Object color = colored ? required.get(i).get(k).value() : null;
+                    int match = selectToken(availableTokens, taken, colored, color);
+                    if (match < 0) {
+                        return Enablement.disabled("Missing token in place " + placeId + ": " + color);
+                    }
+                    taken[match] = true;
+                    Token<?> token = availableTokens.get(match);
+                    maxTokenTime = Math.max(maxTokenTime, token.creation_timestamp());
+                    matched.computeIfAbsent(placeId, key -> new ArrayList<>()).add(token);
+                }
             }
         }
 
-        // 2. Verify Time
-        if (currentState.getCurrentTime() < maxTokenTime + t.getMinFiringDelay()) {
-            throw new IllegalArgumentException("Time constraint violation: Transition " + transitionId + " not ready.");
+        // 6. Time
+        if (state.getCurrentTime() < maxTokenTime + t.getMinFiringDelay()) {
+            return Enablement.disabled("Time constraint violation: Transition " + transitionId + " not ready.");
         }
 
-        // 3. Produce Tokens
-        long productionTime = currentState.getCurrentTime();
-        List<Token<?>> allProduced = new ArrayList<>();
+        return new Enablement(null, matched, produced);
+    }
 
-        for (Arc arc : outputArcs) {
-            List<Token<?>> tokensToProduce = arc.getExpression().evaluate(binding);
-            List<Token<?>> timedTokens = tokensToProduce.stream()
-                    .map(tok -> Token.create(tok.value(), productionTime))
-                    .collect(Collectors.toList());
+    /**
+     * Tokens an arc moves for a binding (empty for an uncolored arc), or null if
+     * its expression yields neither its weight in tokens nor none.
+     */
+    private static List<Token<?>> evaluate(Arc arc, Object binding) {
+        List<Token<?>> tokens = arc.getExpression().evaluate(binding);
+        return tokens.isEmpty() || tokens.size() == arc.getWeight() ? tokens : null;
+    }
 
-            nextState = nextState.withTokensAdded(arc.getPlaceId(), timedTokens);
-            allProduced.addAll(timedTokens);
+    private static String arityFailure(Arc arc, String transitionId) {
+        return "Arc " + arc.getType() + " " + arc.getPlaceId() + " of transition " + transitionId
+                + ": binding yields a token count other than its weight " + arc.getWeight();
+    }
+
+    /**
+     * Picks the index of an unused token carrying the given color (any color when
+     * {@code colored} is false), according to the selection policy. Tokens are
+     * sorted by creation_timestamp.
+     *
+     * @return The index, or -1 if no token matches.
+     */
+    private int selectToken(List<Token<?>> tokens, boolean[] taken, boolean colored, Object value) {
+        switch (selectionPolicy) {
+            case LIFO:
+                return scanDown(tokens, taken, colored, value, tokens.size() - 1);
+            case EARLIEST_ENABLED:
+                // Ready time = creation_timestamp + min_firing_delay of the transition, one delay
+                // for every token: the smallest ready time is the first match in timestamp order,
+                // ties by age (position in the place)
+            case FIFO:
+            default:
+                return scanUp(tokens, taken, colored, value);
         }
+    }
 
-        return new StepResult(nextState, allConsumed, allProduced);
+    private static int scanUp(List<Token<?>> tokens, boolean[] taken, boolean colored, Object value) {
+        for (int j = 0; j < tokens.size(); j++) {
+            if (!taken[j] && (!colored || Objects.equals(tokens.get(j).value(), value))) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private static int scanDown(List<Token<?>> tokens, boolean[] taken, boolean colored, Object value, int from) {
+        for (int j = from; j >= 0; j--) {
+            if (!taken[j] && (!colored || Objects.equals(tokens.get(j).value(), value))) {
+                return j;
+            }
+        }
+        return -1;
     }
 }
@@ -0,0 +1,27 @@
+package com.yowyob.petrinet.engine;
+
+/**
+ * Order in which the engine picks, among the tokens of a place matching a
+ * required color, the one to consume.
+ *
+ * @author Thomas Djotio Ndié
+ * @version V1.0
+ * @since 30.09.25
+ */
+public enum TokenSelectionPolicy {
+    /**
+     * Oldest matching token first (smallest creation_timestamp).
+     */
+    FIFO,
+    /**
+     * Most recent matching token first.
+     */
+    LIFO,
+    /**
+     * Matching token with the smallest ready time (creation_timestamp +
+     * min_firing_delay), ties by age, so the transition fires on the token that
+     * enabled it first and no older token is left waiting. The delay belongs to
+     * the transition, so this picks the same token as {@link #FIFO}.
+     */
+    EARLIEST_ENABLED
+}
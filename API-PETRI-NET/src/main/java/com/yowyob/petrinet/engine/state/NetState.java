@@ -3,18 +3,21 @@ package com.yowyob.petrinet.engine.state;
 import com.yowyob.petrinet.domain.model.color.Token;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Represents the State of a CTPN execution ($M$ and Time).
  * Immutable implementation.
- * 
+ * <p>
+ * Tokens of each place are kept sorted by creation_timestamp (ties in arrival
+ * order), so age queries are binary searches. Places untouched by an operation
+ * are shared between successive states instead of being copied.
+ *
  * @author Thomas Djotio Ndié
- * @version V1.0
+ * @version V1.1
  * @since 30.09.25
  */
 public class NetState {
-    // Mapping PlaceID -> List of Tokens (Multiset)
+    // Mapping PlaceID -> List of Tokens (Multiset), each list immutable and sorted by timestamp
     // snake_case for field
     private final Map<String, List<Token<?>>> marking;
     private final long current_time;
@@ -33,34 +36,44 @@ public class NetState {
     }
 
     public NetState addToken(String placeId, Token<?> token) {
-        Map<String, List<Token<?>>> newMarking = new HashMap<>(this.marking);
-        List<Token<?>> currentTokens = new ArrayList<>(newMarking.getOrDefault(placeId, Collections.emptyList()));
-        currentTokens.add(token);
-        newMarking.put(placeId, currentTokens);
-        return new NetState(newMarking, this.current_time);
+        return withTokensAdded(placeId, List.of(token));
     }
 
     /**
      * Constructs a state.
-     * 
+     *
      * @param marking      The marking map.
      * @param current_time The virtual time.
      */
     public NetState(Map<String, List<Token<?>>> marking, long current_time) {
         // Deep copy of the lists to ensure immutability of this State object
         Map<String, List<Token<?>>> copy = new HashMap<>();
-        marking.forEach((k, v) -> copy.put(k, new ArrayList<>(v)));
+        marking.forEach((k, v) -> {
+            if (!v.isEmpty()) {
+                List<Token<?>> sorted = new ArrayList<>(v);
+                sorted.sort(Comparator.comparingLong(Token::creation_timestamp)); // stable
+                copy.put(k, Collections.unmodifiableList(sorted));
+            }
+        });
         this.marking = Collections.unmodifiableMap(copy);
         this.current_time = current_time;
     }
 
+    /**
+     * Internal constructor: map and lists are already immutable and sorted.
+     */
+    private NetState(long current_time, Map<String, List<Token<?>>> sortedMarking) {
+        this.marking = sortedMarking;
+        this.current_time = current_time;
+    }
+
     public long getCurrentTime() {
         return current_time;
     }
 
     /**
-     * Returns tokens in a specific place.
-     * 
+     * Returns tokens in a specific place, oldest first.
+     *
      * @param placeId The place ID.
      * @return List of tokens (empty if none).
      */
@@ -68,25 +81,103 @@ public class NetState {
         return marking.getOrDefault(placeId, Collections.emptyList());
     }
 
+    /**
+     * Returns the IDs of places holding at least one token.
+     */
+    public Set<String> getMarkedPlaces() {
+        return marking.keySet();
+    }
+
+    /**
+     * Returns the oldest token of a place.
+     */
+    public Optional<Token<?>> getOldestToken(String placeId) {
+        List<Token<?>> tokens = getTokens(placeId);
+        return tokens.isEmpty() ? Optional.empty() : Optional.of(tokens.get(0));
+    }
+
+    /**
+     * Returns the most recent token of a place.
+     */
+    public Optional<Token<?>> getNewestToken(String placeId) {
+        List<Token<?>> tokens = getTokens(placeId);
+        return tokens.isEmpty() ? Optional.empty() : Optional.of(tokens.get(tokens.size() - 1));
+    }
+
+    /**
+     * Returns the tokens of a place created strictly before a given time, oldest first.
+     * O(log n): the result is a view of the sorted place.
+     */
+    public List<Token<?>> getTokensOlderThan(String placeId, long time) {
+        List<Token<?>> tokens = getTokens(placeId);
+        return tokens.subList(0, lowerBound(tokens, time));
+    }
+
+    /**
+     * Counts the tokens of a place created strictly before a given time. O(log n).
+     */
+    public int countTokensOlderThan(String placeId, long time) {
+        return lowerBound(getTokens(placeId), time);
+    }
+
+    /**
+     * Index of the first token with creation_timestamp >= time.
+     */
+    public static int lowerBound(List<Token<?>> sorted, long time) {
+        int lo = 0;
+        int hi = sorted.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted.get(mid).creation_timestamp() < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Index of the first token with creation_timestamp > time.
+     */
+    public static int upperBound(List<Token<?>> sorted, long time) {
+        int lo = 0;
+        int hi = sorted.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted.get(mid).creation_timestamp() <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
     /**
      * Creates a new State with added tokens.
      */
     public NetState withTokensAdded(String placeId, List<Token<?>> tokens) {
+        if (tokens.isEmpty()) {
+            return this;
+        }
+        List<Token<?>> currentTokens = new ArrayList<>(getTokens(placeId));
+        for (Token<?> t : tokens) {
+            // After any token with the same timestamp: arrival order is preserved
+            currentTokens.add(upperBound(currentTokens, t.creation_timestamp()), t);
+        }
         Map<String, List<Token<?>>> newMarking = new HashMap<>(this.marking);
-        List<Token<?>> currentTokens = new ArrayList<>(newMarking.getOrDefault(placeId, Collections.emptyList()));
-        currentTokens.addAll(tokens);
-        newMarking.put(placeId, currentTokens);
-        return new NetState(newMarking, this.current_time);
+        newMarking.put(placeId, Collections.unmodifiableList(currentTokens));
+        return new NetState(this.current_time, Collections.unmodifiableMap(newMarking));
     }
 
     /**
      * Creates a new State with removed tokens.
-     * 
+     *
      * @throws IllegalArgumentException if tokens are not present.
      */
     public NetState withTokensConsumed(String placeId, List<Token<?>> tokensToConsume) {
-        Map<String, List<Token<?>>> newMarking = new HashMap<>(this.marking);
-        List<Token<?>> currentTokens = new ArrayList<>(newMarking.getOrDefault(placeId, Collections.emptyList()));
+        List<Token<?>> currentTokens = new ArrayList<>(getTokens(placeId));
 
         for (Token<?> t : tokensToConsume) {
             if (!currentTokens.remove(t)) {
@@ -98,19 +189,20 @@ public class NetState {
             }
         }
 
+        Map<String, List<Token<?>>> newMarking = new HashMap<>(this.marking);
         if (currentTokens.isEmpty()) {
             newMarking.remove(placeId);
         } else {
-            newMarking.put(placeId, currentTokens);
+            newMarking.put(placeId, Collections.unmodifiableList(currentTokens));
         }
-        return new NetState(newMarking, this.current_time);
+        return new NetState(this.current_time, Collections.unmodifiableMap(newMarking));
     }
 
     /**
      * Returns a new state with advanced time.
      */
     public NetState advanceTime(long delta) {
-        return new NetState(this.marking, this.current_time + delta);
+        return new NetState(this.current_time + delta, this.marking);
     }
 
     @Override
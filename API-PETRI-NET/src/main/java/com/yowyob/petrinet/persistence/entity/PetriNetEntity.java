@@ -7,6 +7,7 @@ import org.springframework.data.domain.Persistable;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Data
@@ -22,6 +23,9 @@ public class PetriNetEntity implements Persistable<UUID> {
     @Column("current_net_time")
     private Long currentTime;
 
+    @Column("last_activity")
+    private Instant lastActivity;
+
     @Transient
     @Builder.Default
     private boolean isNew = false;
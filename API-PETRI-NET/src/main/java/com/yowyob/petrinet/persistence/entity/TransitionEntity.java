@@ -22,4 +22,5 @@ public class TransitionEntity {
     private String name;
     private Long minFiringDelay;
     private Long maxFiringDelay;
+    private String guardExpression;
 }
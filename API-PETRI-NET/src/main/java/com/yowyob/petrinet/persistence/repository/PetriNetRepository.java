@@ -1,9 +1,15 @@
 package com.yowyob.petrinet.persistence.repository;
 
 import com.yowyob.petrinet.persistence.entity.PetriNetEntity;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface PetriNetRepository extends ReactiveCrudRepository<PetriNetEntity, UUID> {
+
+    @Query("SELECT * FROM petri_nets WHERE last_activity >= :since ORDER BY last_activity DESC LIMIT :limit")
+    Flux<PetriNetEntity> findRecentlyActive(Instant since, int limit);
 }
@@ -3,8 +3,11 @@ package com.yowyob.petrinet.persistence.repository;
 import com.yowyob.petrinet.persistence.entity.PlaceEntity;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import java.util.Collection;
 import java.util.UUID;
 
 public interface PlaceRepository extends ReactiveCrudRepository<PlaceEntity, Long> {
     Flux<PlaceEntity> findAllByNetId(UUID netId);
+
+    Flux<PlaceEntity> findAllByNetIdIn(Collection<UUID> netIds);
 }
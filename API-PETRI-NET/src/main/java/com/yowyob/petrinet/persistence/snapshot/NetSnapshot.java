@@ -0,0 +1,21 @@
+package com.yowyob.petrinet.persistence.snapshot;
+
+import com.yowyob.petrinet.engine.state.NetState;
+
+import java.time.Instant;
+
+/**
+ * Marking of a single net, as stored in a snapshot file.
+ *
+ * @param netId        The net ID.
+ * @param state        The net state (marking and time).
+ * @param lastActivity The persisted last activity of the net when the marking
+ *                     was read, null if unknown. The marking is still current
+ *                     as long as the net's last activity has not changed.
+ */
+public record NetSnapshot(String netId, NetState state, Instant lastActivity) {
+
+    public NetSnapshot(String netId, NetState state) {
+        this(netId, state, null);
+    }
+}
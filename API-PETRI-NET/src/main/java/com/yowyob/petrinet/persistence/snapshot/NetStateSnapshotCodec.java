@@ -0,0 +1,290 @@
+package com.yowyob.petrinet.persistence.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yowyob.petrinet.domain.model.color.Token;
+import com.yowyob.petrinet.engine.state.NetState;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact columnar binary format for the markings of many nets, read and
+ * written through memory-mapped files.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header   : magic "PNSS" (int), version (short), reserved (short), netCount (int)
+ * places   : count (int), then count x [len (int), UTF-8 bytes]        -- place dictionary
+ * colors   : count (int), then count x [len (int), JSON UTF-8 bytes]   -- token color dictionary
+ * per net  : id [len (int), UTF-8], currentTime (long),
+ *            lastActivity [epochSecond (long), nano (int)]               -- since version 2, nano -1 if unknown
+ *            markedPlaces (int), placeIndex int[markedPlaces],
+ *            offsets int[markedPlaces + 1],                            -- token range of each place
+ *            colorIndex int[tokens], timestamp long[tokens]            -- token columns
+ * </pre>
+ * Place IDs and colors are shared by all nets of the file, so fleets of nets
+ * built from the same template cost a few bytes per token.
+ * <p>
+ * A file is mapped in one piece, so it is limited to 2 GB; larger snapshots are
+ * rejected on write and on read. Every count and index read is checked against
+ * the bytes left and the dictionaries, so a truncated or corrupt file fails
+ * with an {@link IOException}.
+ */
+public final class NetStateSnapshotCodec {
+
+    static final int MAGIC = 0x504E5353; // "PNSS"
+    static final short VERSION = 2;
+    static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    private final ObjectMapper objectMapper;
+
+    public NetStateSnapshotCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the snapshots to a file. The file is written next to the target
+     * and moved into place, so readers never observe a partial snapshot.
+     *
+     * @return The size of the file in bytes.
+     */
+    public long write(Path file, List<NetSnapshot> snapshots) throws IOException {
+        // 1. Build dictionaries
+        Map<String, Integer> placeIndex = new LinkedHashMap<>();
+        Map<String, Integer> colorIndex = new LinkedHashMap<>();
+        List<byte[]> colorBytes = new ArrayList<>();
+        Map<Object, Integer> colorByValue = new HashMap<>();
+
+        long size = 4 + 2 + 2 + 4;
+        for (NetSnapshot snapshot : snapshots) {
+            NetState state = snapshot.state();
+            size += 4 + utf8(snapshot.netId()).length + 8 + 8 + 4 + 4 + 4;
+            for (String placeId : state.getMarkedPlaces()) {
+                placeIndex.putIfAbsent(placeId, placeIndex.size());
+                List<Token<?>> tokens = state.getTokens(placeId);
+                size += 4 + 4 + (long) tokens.size() * (4 + 8);
+                for (Token<?> token : tokens) {
+                    if (!colorByValue.containsKey(token.value())) {
+                        String json = objectMapper.writeValueAsString(token.value());
+                        Integer idx = colorIndex.get(json);
+                        if (idx == null) {
+                            idx = colorIndex.size();
+                            colorIndex.put(json, idx);
+                            colorBytes.add(utf8(json));
+                        }
+                        colorByValue.put(token.value(), idx);
+                    }
+                }
+            }
+        }
+        size += 4;
+        for (String placeId : placeIndex.keySet()) {
+            size += 4 + utf8(placeId).length;
+        }
+        size += 4;
+        for (byte[] bytes : colorBytes) {
+            size += 4 + bytes.length;
+        }
+
+        if (size > MAX_SIZE) {
+            throw new IOException("Snapshot of " + snapshots.size() + " nets needs " + size
+                    + " bytes, above the 2 GB limit of a mapped file: export fewer nets per file");
+        }
+
+        // 2. Write through a mapped buffer
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buf.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(snapshots.size());
+
+                buf.putInt(placeIndex.size());
+                for (String placeId : placeIndex.keySet()) {
+                    putBytes(buf, utf8(placeId));
+                }
+                buf.putInt(colorBytes.size());
+                for (byte[] bytes : colorBytes) {
+                    putBytes(buf, bytes);
+                }
+
+                for (NetSnapshot snapshot : snapshots) {
+                    NetState state = snapshot.state();
+                    List<String> marked = new ArrayList<>(state.getMarkedPlaces());
+                    putBytes(buf, utf8(snapshot.netId()));
+                    buf.putLong(state.getCurrentTime());
+                    Instant lastActivity = snapshot.lastActivity();
+                    buf.putLong(lastActivity != null ? lastActivity.getEpochSecond() : 0);
+                    buf.putInt(lastActivity != null ? lastActivity.getNano() : -1);
+                    buf.putInt(marked.size());
+                    for (String placeId : marked) {
+                        buf.putInt(placeIndex.get(placeId));
+                    }
+                    int offset = 0;
+                    buf.putInt(offset);
+                    for (String placeId : marked) {
+                        offset += state.getTokens(placeId).size();
+                        buf.putInt(offset);
+                    }
+                    for (String placeId : marked) {
+                        for (Token<?> token : state.getTokens(placeId)) {
+                            buf.putInt(colorByValue.get(token.value()));
+                        }
+                    }
+                    for (String placeId : marked) {
+                        for (Token<?> token : state.getTokens(placeId)) {
+                            buf.putLong(token.creation_timestamp());
+                        }
+                    }
+                }
+                buf.force();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return size;
+    }
+
+    /**
+     * Reads all snapshots of a file.
+     *
+     * @throws IOException If the file is missing, is not a snapshot, or is truncated or corrupt.
+     */
+    public List<NetSnapshot> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_SIZE) {
+                throw new IOException("Snapshot " + file + " is " + channel.size()
+                        + " bytes, above the 2 GB limit of a mapped file");
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.remaining() < 12 || buf.getInt() != MAGIC) {
+                throw new IOException("Not a net state snapshot: " + file);
+            }
+            short version = buf.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            buf.getShort(); // reserved
+            try {
+                return readNets(buf, version, file);
+            } catch (BufferUnderflowException | DateTimeException e) {
+                throw new IOException("Truncated or corrupt snapshot: " + file, e);
+            }
+        }
+    }
+
+    private List<NetSnapshot> readNets(MappedByteBuffer buf, short version, Path file) throws IOException {
+        // A net takes at least its ID length, current time and marked place count
+        int netCount = count(buf, 16, "nets", file);
+
+        String[] places = new String[count(buf, 4, "places", file)];
+        for (int i = 0; i < places.length; i++) {
+            places[i] = getString(buf, file);
+        }
+        Object[] colors = new Object[count(buf, 4, "colors", file)];
+        for (int i = 0; i < colors.length; i++) {
+            byte[] json = new byte[count(buf, 1, "color bytes", file)];
+            buf.get(json);
+            colors[i] = objectMapper.readValue(json, Object.class);
+        }
+
+        List<NetSnapshot> snapshots = new ArrayList<>(netCount);
+        for (int n = 0; n < netCount; n++) {
+            String netId = getString(buf, file);
+            long currentTime = buf.getLong();
+            Instant lastActivity = null;
+            if (version >= 2) {
+                long epochSecond = buf.getLong();
+                int nano = buf.getInt();
+                lastActivity = nano >= 0 ? Instant.ofEpochSecond(epochSecond, nano) : null;
+            }
+            // Each marked place has an index and an offset
+            int[] placeIdx = new int[count(buf, 8, "marked places", file)];
+            for (int i = 0; i < placeIdx.length; i++) {
+                placeIdx[i] = index(buf.getInt(), places.length, "place", file);
+            }
+            int[] offsets = new int[placeIdx.length + 1];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = buf.getInt();
+                if (i == 0 ? offsets[i] != 0 : offsets[i] < offsets[i - 1]) {
+                    throw new IOException("Corrupt token offsets in net " + netId + ": " + file);
+                }
+            }
+            int tokenCount = offsets[placeIdx.length];
+            if ((long) tokenCount * 12 > buf.remaining()) {
+                throw new IOException("Truncated snapshot: " + tokenCount + " tokens in net " + netId
+                        + " past the end of " + file);
+            }
+            int[] colorColumn = new int[tokenCount];
+            for (int i = 0; i < tokenCount; i++) {
+                colorColumn[i] = index(buf.getInt(), colors.length, "color", file);
+            }
+            long[] timestampColumn = new long[tokenCount];
+            for (int i = 0; i < tokenCount; i++) {
+                timestampColumn[i] = buf.getLong();
+            }
+
+            Map<String, List<Token<?>>> marking = new HashMap<>();
+            for (int p = 0; p < placeIdx.length; p++) {
+                List<Token<?>> tokens = new ArrayList<>(offsets[p + 1] - offsets[p]);
+                for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+                    tokens.add(Token.create(colors[colorColumn[i]], timestampColumn[i]));
+                }
+                marking.put(places[placeIdx[p]], tokens);
+            }
+            snapshots.add(new NetSnapshot(netId, new NetState(marking, currentTime), lastActivity));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Reads a count of items taking at least {@code minBytes} each, checked
+     * against the bytes left before anything is allocated for them.
+     */
+    private static int count(MappedByteBuffer buf, int minBytes, String what, Path file) throws IOException {
+        int count = buf.getInt();
+        if (count < 0 || (long) count * minBytes > buf.remaining()) {
+            throw new IOException("Corrupt snapshot: " + count + " " + what + " past the end of " + file);
+        }
+        return count;
+    }
+
+    private static int index(int index, int size, String what, Path file) throws IOException {
+        if (index < 0 || index >= size) {
+            throw new IOException("Corrupt snapshot: " + what + " index " + index + " out of " + size + " in " + file);
+        }
+        return index;
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(MappedByteBuffer buf, byte[] bytes) {
+        buf.putInt(bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getString(MappedByteBuffer buf, Path file) throws IOException {
+        byte[] bytes = new byte[count(buf, 1, "string bytes", file)];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.yowyob.petrinet.service;
+
+import com.yowyob.petrinet.analysis.CoverabilityAnalyzer;
+import com.yowyob.petrinet.analysis.IncidenceMatrix;
+import com.yowyob.petrinet.analysis.InvariantAnalyzer;
+import com.yowyob.petrinet.api.dto.NetAnalysisDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Structural analysis of nets (coverability, invariants).
+ * <p>
+ * Computations run on a dedicated bounded pool, never on the request or firing
+ * threads; when its queue is full, requests fail fast with a
+ * {@link java.util.concurrent.RejectedExecutionException}. Results are cached by
+ * structure hash (and initial marking for coverability), so nets created from
+ * the same template are analyzed once.
+ */
+@Slf4j
+@Service
+public class NetAnalysisService {
+
+    private record Invariants(InvariantAnalyzer.Result places, InvariantAnalyzer.Result transitions) {
+    }
+
+    private final PetriNetService petriNetService;
+    private final Scheduler scheduler;
+    private final int maxNodes;
+    private final int maxRows;
+    private final Map<String, Mono<Invariants>> invariantCache;
+    private final Map<String, Mono<CoverabilityAnalyzer.Result>> coverabilityCache;
+
+    public NetAnalysisService(PetriNetService petriNetService,
+            @Value("${petri.analysis.threads:2}") int threads,
+            @Value("${petri.analysis.queue-size:32}") int queueSize,
+            @Value("${petri.analysis.cache-size:256}") int cacheSize,
+            @Value("${petri.analysis.max-coverability-nodes:50000}") int maxNodes,
+            @Value("${petri.analysis.max-invariant-rows:5000}") int maxRows) {
+        this.petriNetService = petriNetService;
+        this.scheduler = Schedulers.newBoundedElastic(threads, queueSize, "petri-analysis");
+        this.maxNodes = maxNodes;
+        this.maxRows = maxRows;
+        this.invariantCache = lruCache(cacheSize);
+        this.coverabilityCache = lruCache(cacheSize);
+    }
+
+    /**
+     * Analyzes a net from its current marking. Empty if the net does not exist.
+     */
+    public Mono<NetAnalysisDTO> analyze(String netId) {
+        return petriNetService.getNetModel(netId)
+                .zipWith(petriNetService.snapshotNet(netId))
+                .flatMap(tuple -> Mono.fromCallable(() -> IncidenceMatrix.of(tuple.getT1()))
+                        .subscribeOn(scheduler)
+                        .flatMap(matrix -> {
+                            long[] marking = matrix.marking(tuple.getT2().state());
+                            String hash = matrix.structureHash();
+
+                            Mono<Invariants> invariants = cached(invariantCache, hash,
+                                    () -> new Invariants(
+                                            InvariantAnalyzer.placeInvariants(matrix, maxRows),
+                                            InvariantAnalyzer.transitionInvariants(matrix, maxRows)));
+                            Mono<CoverabilityAnalyzer.Result> coverability = cached(coverabilityCache,
+                                    hash + Arrays.toString(marking),
+                                    () -> CoverabilityAnalyzer.analyze(matrix, marking, maxNodes));
+
+                            return Mono.zip(invariants, coverability)
+                                    .map(results -> toDTO(hash, results.getT1(), results.getT2()));
+                        }));
+    }
+
+    private <T> Mono<T> cached(Map<String, Mono<T>> cache, String key, Callable<T> task) {
+        synchronized (cache) {
+            Mono<T> result = cache.get(key);
+            if (result == null) {
+                result = Mono.fromCallable(task)
+                        .subscribeOn(scheduler)
+                        .doOnError(e -> {
+                            log.warn("Analysis failed for structure {}", key, e);
+                            synchronized (cache) {
+                                cache.remove(key);
+                            }
+                        })
+                        .cache();
+                cache.put(key, result);
+            }
+            return result;
+        }
+    }
+
+    private static NetAnalysisDTO toDTO(String hash, Invariants invariants, CoverabilityAnalyzer.Result cov) {
+        NetAnalysisDTO dto = new NetAnalysisDTO();
+        dto.structureHash = hash;
+        dto.placeBounds = cov.placeBounds();
+        dto.bounded = cov.bounded();
+        dto.deadTransitions = cov.deadTransitions();
+        dto.deadlocks = cov.deadlocks();
+        dto.coverabilityNodes = cov.nodeCount();
+        dto.coverabilityComplete = cov.complete();
+        dto.placeInvariants = invariants.places().invariants();
+        dto.transitionInvariants = invariants.transitions().invariants();
+        dto.invariantsComplete = invariants.places().complete() && invariants.transitions().complete();
+        return dto;
+    }
+
+    private static <V> Map<String, V> lruCache(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,98 @@
+package com.yowyob.petrinet.service;
+
+import com.yowyob.petrinet.persistence.repository.PetriNetRepository;
+import com.yowyob.petrinet.persistence.snapshot.NetSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the recently active nets into the active-net cache at startup, so the
+ * first requests after a restart do not each pay the full load.
+ * <p>
+ * Nets are loaded in batches (one query per table per batch), several batches
+ * in parallel. When a snapshot file is configured, a net whose last activity
+ * matches its snapshot takes its marking from the memory-mapped file instead
+ * of its token rows. The instance reports ready once warm-up is over, even if
+ * it failed: requests then fall back to on-demand loading.
+ */
+@Slf4j
+@Component
+public class NetPreloader {
+
+    private final PetriNetRepository petriNetRepository;
+    private final PetriNetService petriNetService;
+    private final SnapshotService snapshotService;
+    private final boolean enabled;
+    private final String snapshotFile;
+    private final Duration activeWithin;
+    private final int maxNets;
+    private final int batchSize;
+    private final int concurrency;
+
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+
+    public NetPreloader(PetriNetRepository petriNetRepository,
+            PetriNetService petriNetService,
+            SnapshotService snapshotService,
+            @Value("${petri.warmup.enabled:true}") boolean enabled,
+            @Value("${petri.warmup.snapshot:}") String snapshotFile,
+            @Value("${petri.warmup.active-within:PT24H}") Duration activeWithin,
+            @Value("${petri.warmup.max-nets:2000}") int maxNets,
+            @Value("${petri.warmup.batch-size:100}") int batchSize,
+            @Value("${petri.warmup.concurrency:4}") int concurrency) {
+        this.petriNetRepository = petriNetRepository;
+        this.petriNetService = petriNetService;
+        this.snapshotService = snapshotService;
+        this.enabled = enabled;
+        this.snapshotFile = snapshotFile;
+        this.activeWithin = activeWithin;
+        this.maxNets = maxNets;
+        this.batchSize = Math.max(1, batchSize);
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * True once warm-up has completed (or was disabled).
+     */
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            ready.set(true);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Mono<Map<String, NetSnapshot>> snapshots = snapshotFile.isBlank()
+                ? Mono.just(Map.of())
+                : snapshotService.readAll(snapshotFile)
+                        .doOnNext(s -> log.info("Warm-up: {} net markings read from snapshot {}", s.size(),
+                                snapshotFile))
+                        .onErrorResume(e -> {
+                            log.warn("Warm-up: snapshot {} unreadable, markings come from the database",
+                                    snapshotFile, e);
+                            return Mono.just(Map.of());
+                        });
+        snapshots
+                .flatMap(byNet -> petriNetRepository.findRecentlyActive(Instant.now().minus(activeWithin), maxNets)
+                        .buffer(batchSize)
+                        .flatMap(batch -> petriNetService.preloadNets(batch, byNet), concurrency)
+                        .reduce(0, Integer::sum))
+                .doFinally(signal -> ready.set(true))
+                .subscribe(
+                        count -> log.info("Warm-up: {} nets preloaded in {} ms", count,
+                                System.currentTimeMillis() - start),
+                        e -> log.error("Warm-up failed, nets will be loaded on demand", e));
+    }
+}
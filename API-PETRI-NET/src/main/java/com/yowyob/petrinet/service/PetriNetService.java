@@ -8,16 +8,21 @@ import com.yowyob.petrinet.domain.model.PetriNet;
 import com.yowyob.petrinet.domain.model.color.Token;
 import com.yowyob.petrinet.domain.model.structure.Arc;
 import com.yowyob.petrinet.domain.model.structure.ArcExpression;
+import com.yowyob.petrinet.domain.model.structure.GuardExpression;
 import com.yowyob.petrinet.domain.model.structure.Place;
 import com.yowyob.petrinet.domain.model.structure.Transition;
+import com.yowyob.petrinet.engine.TokenSelectionPolicy;
 import com.yowyob.petrinet.engine.state.NetState;
 import com.yowyob.petrinet.persistence.entity.*;
 import com.yowyob.petrinet.persistence.repository.*;
+import com.yowyob.petrinet.persistence.snapshot.NetSnapshot;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -32,6 +37,7 @@ public class PetriNetService {
     private final ArcRepository arcRepository;
     private final TokenRepository tokenRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenSelectionPolicy tokenSelectionPolicy;
 
     private final Map<String, CTPNService> activeNets = new ConcurrentHashMap<>();
 
@@ -39,15 +45,30 @@ public class PetriNetService {
             PlaceRepository placeRepository,
             TransitionRepository transitionRepository,
             ArcRepository arcRepository,
-            TokenRepository tokenRepository) {
+            TokenRepository tokenRepository,
+            @Value("${petri.engine.token-selection:FIFO}") TokenSelectionPolicy tokenSelectionPolicy) {
         this.petriNetRepository = petriNetRepository;
         this.placeRepository = placeRepository;
         this.transitionRepository = transitionRepository;
         this.arcRepository = arcRepository;
         this.tokenRepository = tokenRepository;
+        this.tokenSelectionPolicy = tokenSelectionPolicy;
     }
 
+    /**
+     * Persists a new net. Fails with IllegalArgumentException if a transition
+     * guard is not a valid {@link GuardExpression}.
+     */
     public Mono<String> createNet(NetDTO netDto) {
+        if (netDto.transitions != null) {
+            for (TransitionDTO tDto : netDto.transitions) {
+                try {
+                    GuardExpression.of(tDto.guard);
+                } catch (IllegalArgumentException e) {
+                    return Mono.error(e);
+                }
+            }
+        }
         UUID id = UUID.randomUUID();
         String idStr = id.toString();
 
@@ -55,6 +76,7 @@ public class PetriNetService {
                 .id(id)
                 .name(netDto.name != null ? netDto.name : "Net-" + idStr)
                 .currentTime(0L)
+                .lastActivity(Instant.now())
                 .isNew(true)
                 .build();
 
@@ -76,6 +98,7 @@ public class PetriNetService {
                                     .name(tDto.name)
                                     .minFiringDelay(tDto.minFiringDelay)
                                     .maxFiringDelay(tDto.maxFiringDelay)
+                                    .guardExpression(tDto.guard != null && !tDto.guard.isBlank() ? tDto.guard : null)
                                     .build()))
                             .then();
 
@@ -85,7 +108,7 @@ public class PetriNetService {
                                     .placeId(aDto.placeId)
                                     .transitionId(aDto.transitionId)
                                     .type(aDto.type)
-                                    .weight(1)
+                                    .weight(aDto.weight != null && aDto.weight > 0 ? aDto.weight : 1)
                                     .build()))
                             .then();
 
@@ -100,6 +123,78 @@ public class PetriNetService {
                 .map(this::convertStateToDTO);
     }
 
+    /**
+     * Returns the tokens of a place created strictly before a given net time,
+     * oldest first. Without a bound, returns every token of the place.
+     */
+    public Mono<List<TokenDTO>> getTokensOlderThan(String netId, String placeId, Long olderThan) {
+        return getOrLoadService(netId)
+                .map(service -> {
+                    NetState state = service.getCurrentState();
+                    List<Token<?>> tokens = olderThan != null
+                            ? state.getTokensOlderThan(placeId, olderThan)
+                            : state.getTokens(placeId);
+                    return tokens.stream()
+                            .map(t -> new TokenDTO(t.value(), t.creation_timestamp()))
+                            .collect(Collectors.toList());
+                });
+    }
+
+    /**
+     * Returns the oldest token of a place, empty if the place holds none.
+     */
+    public Mono<TokenDTO> getOldestToken(String netId, String placeId) {
+        return getOrLoadService(netId)
+                .flatMap(service -> Mono.justOrEmpty(service.getCurrentState().getOldestToken(placeId)))
+                .map(t -> new TokenDTO(t.value(), t.creation_timestamp()));
+    }
+
+    /**
+     * Reads the persisted marking of every net, a batch of nets per token query.
+     * Nets are not loaded into the active-net cache.
+     */
+    public Flux<NetSnapshot> snapshotPersistedNets(int batchSize) {
+        return petriNetRepository.findAll()
+                .buffer(Math.max(1, batchSize))
+                .concatMap(nets -> tokenRepository
+                        .findAllByNetIdIn(nets.stream().map(PetriNetEntity::getId).collect(Collectors.toList()))
+                        .collectMultimap(TokenEntity::getNetId)
+                        .flatMapIterable(tokens -> nets.stream()
+                                .map(n -> new NetSnapshot(n.getId().toString(),
+                                        new NetState(markingOf(tokens.getOrDefault(n.getId(), List.of())),
+                                                n.getCurrentTime()),
+                                        n.getLastActivity()))
+                                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Captures the current marking of a net, empty if the net does not exist.
+     */
+    public Mono<NetSnapshot> snapshotNet(String id) {
+        return getOrLoadService(id)
+                .map(service -> new NetSnapshot(id, service.getCurrentState()));
+    }
+
+    /**
+     * Returns the structure of a net, empty if the net does not exist.
+     */
+    public Mono<PetriNet> getNetModel(String id) {
+        return getOrLoadService(id)
+                .map(CTPNService::getModel);
+    }
+
+    /**
+     * Replaces the marking of an existing net by a snapshot and persists it.
+     * Emits the net ID, or nothing if the net does not exist.
+     */
+    public Mono<String> restoreNet(NetSnapshot snapshot) {
+        return getOrLoadService(snapshot.netId())
+                .flatMap(service -> {
+                    service.setInitialState(snapshot.state());
+                    return saveNetState(snapshot.netId(), service).thenReturn(snapshot.netId());
+                });
+    }
+
     public Mono<Void> fireTransition(String netId, String transitionId, Map<String, List<TokenDTO>> bindingDto) {
         return getOrLoadService(netId)
                 .flatMap(service -> {
@@ -137,50 +232,137 @@ public class PetriNetService {
                     Mono<List<TokenEntity>> tokensMono = tokenRepository.findAllByNetId(uuid).collectList();
 
                     return Mono.zip(placesMono, transitionsMono, arcsMono, tokensMono)
-                            .map(tuple -> {
-                                Set<Place> places = tuple.getT1().stream()
-                                        .map(p -> new Place(p.getPlaceId(), p.getName()))
-                                        .collect(Collectors.toSet());
-                                Set<Transition> transitions = tuple.getT2().stream()
-                                        .map(t -> new Transition(t.getTransitionId(), t.getName(),
-                                                t.getMinFiringDelay(), t.getMaxFiringDelay()))
-                                        .collect(Collectors.toSet());
-                                Set<Arc> arcs = tuple.getT3().stream()
-                                        .map(a -> {
-                                            Arc.Type type = Arc.Type.valueOf(a.getType());
-                                            ArcExpression expr = binding -> {
-                                                if (binding instanceof Map) {
-                                                    Map<?, ?> map = (Map<?, ?>) binding;
-                                                    Object val = map.get(a.getPlaceId());
-                                                    if (val instanceof List)
-                                                        return (List<Token<?>>) val;
-                                                }
-                                                return Collections.emptyList();
-                                            };
-                                            return new Arc(a.getPlaceId(), a.getTransitionId(), type, expr);
-                                        })
-                                        .collect(Collectors.toSet());
-
-                                PetriNet net = new PetriNet(places, transitions, arcs);
-                                CTPNService service = new CTPNService(net);
-
-                                NetState state = new NetState(netEntity.getCurrentTime());
-                                for (TokenEntity te : tuple.getT4()) {
-                                    try {
-                                        Object value = objectMapper.readValue(te.getValue(), Object.class);
-                                        state = state.addToken(te.getPlaceId(),
-                                                Token.create(value, te.getCreationTimestamp()));
-                                    } catch (Exception e) {
-                                        log.error("Failed to parse token value", e);
-                                    }
-                                }
-                                service.setInitialState(state);
-                                activeNets.put(id, service);
-                                return service;
-                            });
+                            .map(tuple -> activeNets.computeIfAbsent(id, k -> buildService(netEntity,
+                                    tuple.getT1(), tuple.getT2(), tuple.getT3(), tuple.getT4())));
                 });
     }
 
+    /**
+     * Loads a batch of nets into the active-net cache with one query per table
+     * for the whole batch. Nets already cached are left untouched.
+     *
+     * @return The number of nets added to the cache.
+     */
+    public Mono<Integer> preloadNets(List<PetriNetEntity> nets) {
+        return preloadNets(nets, Map.of());
+    }
+
+    /**
+     * Same as {@link #preloadNets(List)}, taking the marking of a net from
+     * {@code snapshots} (by net ID) instead of its token rows when the snapshot
+     * was taken at the net's current last activity.
+     *
+     * @return The number of nets added to the cache.
+     */
+    public Mono<Integer> preloadNets(List<PetriNetEntity> nets, Map<String, NetSnapshot> snapshots) {
+        List<UUID> ids = nets.stream()
+                .filter(n -> !activeNets.containsKey(n.getId().toString()))
+                .map(PetriNetEntity::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        Map<UUID, NetSnapshot> current = new HashMap<>();
+        for (PetriNetEntity n : nets) {
+            NetSnapshot snapshot = snapshots.get(n.getId().toString());
+            if (snapshot != null && snapshot.lastActivity() != null
+                    && snapshot.lastActivity().equals(n.getLastActivity())) {
+                current.put(n.getId(), snapshot);
+            }
+        }
+        List<UUID> tokenIds = ids.stream().filter(id -> !current.containsKey(id)).collect(Collectors.toList());
+
+        Mono<Map<UUID, List<PlaceEntity>>> placesMono = placeRepository.findAllByNetIdIn(ids)
+                .collectMultimap(PlaceEntity::getNetId).map(PetriNetService::asLists);
+        Mono<Map<UUID, List<TransitionEntity>>> transitionsMono = transitionRepository.findAllByNetIdIn(ids)
+                .collectMultimap(TransitionEntity::getNetId).map(PetriNetService::asLists);
+        Mono<Map<UUID, List<ArcEntity>>> arcsMono = arcRepository.findAllByNetIdIn(ids)
+                .collectMultimap(ArcEntity::getNetId).map(PetriNetService::asLists);
+        Mono<Map<UUID, List<TokenEntity>>> tokensMono = tokenIds.isEmpty()
+                ? Mono.just(Map.of())
+                : tokenRepository.findAllByNetIdIn(tokenIds)
+                        .collectMultimap(TokenEntity::getNetId).map(PetriNetService::asLists);
+
+        return Mono.zip(placesMono, transitionsMono, arcsMono, tokensMono)
+                .map(tuple -> {
+                    int loaded = 0;
+                    for (PetriNetEntity netEntity : nets) {
+                        UUID uuid = netEntity.getId();
+                        if (!ids.contains(uuid)) {
+                            continue;
+                        }
+                        CTPNService service = buildService(netEntity,
+                                tuple.getT1().getOrDefault(uuid, Collections.emptyList()),
+                                tuple.getT2().getOrDefault(uuid, Collections.emptyList()),
+                                tuple.getT3().getOrDefault(uuid, Collections.emptyList()),
+                                tuple.getT4().getOrDefault(uuid, Collections.emptyList()));
+                        NetSnapshot snapshot = current.get(uuid);
+                        if (snapshot != null) {
+                            service.setInitialState(snapshot.state());
+                        }
+                        // A request may have loaded the net meanwhile: keep its instance
+                        if (activeNets.putIfAbsent(uuid.toString(), service) == null) {
+                            loaded++;
+                        }
+                    }
+                    return loaded;
+                });
+    }
+
+    private static <T> Map<UUID, List<T>> asLists(Map<UUID, Collection<T>> multimap) {
+        Map<UUID, List<T>> lists = new HashMap<>();
+        multimap.forEach((k, v) -> lists.put(k, new ArrayList<>(v)));
+        return lists;
+    }
+
+    private CTPNService buildService(PetriNetEntity netEntity, List<PlaceEntity> placeEntities,
+            List<TransitionEntity> transitionEntities, List<ArcEntity> arcEntities, List<TokenEntity> tokenEntities) {
+        Set<Place> places = placeEntities.stream()
+                .map(p -> new Place(p.getPlaceId(), p.getName()))
+                .collect(Collectors.toSet());
+        Set<Transition> transitions = transitionEntities.stream()
+                .map(t -> new Transition(t.getTransitionId(), t.getName(),
+                        t.getMinFiringDelay(), t.getMaxFiringDelay(), GuardExpression.of(t.getGuardExpression())))
+                .collect(Collectors.toSet());
+        Set<Arc> arcs = arcEntities.stream()
+                .map(a -> {
+                    Arc.Type type = Arc.Type.valueOf(a.getType());
+                    ArcExpression expr = binding -> {
+                        if (binding instanceof Map) {
+                            Map<?, ?> map = (Map<?, ?>) binding;
+                            Object val = map.get(a.getPlaceId());
+                            if (val instanceof List)
+                                return (List<Token<?>>) val;
+                        }
+                        return Collections.emptyList();
+                    };
+                    int weight = a.getWeight() != null ? Math.max(1, a.getWeight()) : 1;
+                    return new Arc(a.getPlaceId(), a.getTransitionId(), type, expr, weight);
+                })
+                .collect(Collectors.toSet());
+
+        PetriNet net = new PetriNet(places, transitions, arcs);
+        CTPNService service = new CTPNService(net, tokenSelectionPolicy);
+
+        // Sorted once by creation timestamp instead of one copy per token
+        service.setInitialState(new NetState(markingOf(tokenEntities), netEntity.getCurrentTime()));
+        return service;
+    }
+
+    private Map<String, List<Token<?>>> markingOf(Collection<TokenEntity> tokenEntities) {
+        Map<String, List<Token<?>>> marking = new HashMap<>();
+        for (TokenEntity te : tokenEntities) {
+            try {
+                Object value = objectMapper.readValue(te.getValue(), Object.class);
+                marking.computeIfAbsent(te.getPlaceId(), k -> new ArrayList<>())
+                        .add(Token.create(value, te.getCreationTimestamp()));
+            } catch (Exception e) {
+                log.error("Failed to parse token value", e);
+            }
+        }
+        return marking;
+    }
+
     private Mono<Void> saveNetState(String id, CTPNService service) {
         UUID uuid = UUID.fromString(id);
         NetState state = service.getCurrentState();
@@ -188,6 +370,7 @@ public class PetriNetService {
         return petriNetRepository.findById(uuid)
                 .flatMap(netEntity -> {
                     netEntity.setCurrentTime(state.getCurrentTime());
+                    netEntity.setLastActivity(Instant.now());
                     return petriNetRepository.save(netEntity);
                 })
                 .then(tokenRepository.deleteAllByNetId(uuid))
@@ -0,0 +1,110 @@
+package com.yowyob.petrinet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yowyob.petrinet.api.dto.SnapshotReportDTO;
+import com.yowyob.petrinet.engine.state.NetState;
+import com.yowyob.petrinet.persistence.snapshot.NetSnapshot;
+import com.yowyob.petrinet.persistence.snapshot.NetStateSnapshotCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk export/import of net markings to columnar snapshot files, also read by
+ * {@link NetPreloader} for a warm start.
+ */
+@Slf4j
+@Service
+public class SnapshotService {
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final int CONCURRENCY = 8;
+    private static final int BATCH_SIZE = 100;
+
+    private final PetriNetService petriNetService;
+    private final NetStateSnapshotCodec codec = new NetStateSnapshotCodec(new ObjectMapper());
+    private final Path directory;
+
+    public SnapshotService(PetriNetService petriNetService,
+            @Value("${petri.snapshot.directory:./snapshots}") String directory) {
+        this.petriNetService = petriNetService;
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Writes the persisted marking of every net to a snapshot file. Markings are
+     * read from the database, without loading the nets into the active-net cache.
+     */
+    public Mono<SnapshotReportDTO> exportAll(String fileName) {
+        long start = System.currentTimeMillis();
+        return resolve(fileName)
+                .flatMap(file -> petriNetService.snapshotPersistedNets(BATCH_SIZE)
+                        .collectList()
+                        .flatMap(snapshots -> Mono.fromCallable(() -> codec.write(file, snapshots))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .map(size -> report(fileName, snapshots, size, start))))
+                .doOnNext(r -> log.info("Exported {} nets ({} tokens) to {}", r.netCount, r.tokenCount, r.file));
+    }
+
+    /**
+     * Restores the markings of a snapshot file. Nets missing from the database
+     * are skipped and not counted in the report.
+     */
+    public Mono<SnapshotReportDTO> importAll(String fileName) {
+        long start = System.currentTimeMillis();
+        return resolve(fileName)
+                .flatMap(file -> Mono.fromCallable(() -> codec.read(file))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(snapshots -> Flux.fromIterable(snapshots)
+                                .flatMap(snapshot -> petriNetService.restoreNet(snapshot)
+                                        .map(restored -> snapshot), CONCURRENCY)
+                                .collectList()
+                                .map(restored -> report(fileName, restored, file.toFile().length(), start))))
+                .doOnNext(r -> log.info("Imported {} nets ({} tokens) from {}", r.netCount, r.tokenCount, r.file));
+    }
+
+    /**
+     * Reads a snapshot file for warm start, by net ID. Empty if the file does not exist.
+     */
+    public Mono<Map<String, NetSnapshot>> readAll(String fileName) {
+        return resolve(fileName)
+                .filter(Files::exists)
+                .flatMap(file -> Mono.fromCallable(() -> codec.read(file))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .map(snapshots -> {
+                    Map<String, NetSnapshot> byNet = new HashMap<>();
+                    snapshots.forEach(snapshot -> byNet.put(snapshot.netId(), snapshot));
+                    return byNet;
+                })
+                .defaultIfEmpty(Map.of());
+    }
+
+    private Mono<Path> resolve(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches() || fileName.startsWith(".")) {
+            return Mono.error(new IllegalArgumentException("Invalid snapshot file name: " + fileName));
+        }
+        return Mono.just(directory.resolve(fileName));
+    }
+
+    private static SnapshotReportDTO report(String fileName, List<NetSnapshot> snapshots, long size, long start) {
+        long tokens = 0;
+        for (NetSnapshot snapshot : snapshots) {
+            NetState state = snapshot.state();
+            for (String placeId : state.getMarkedPlaces()) {
+                tokens += state.getTokens(placeId).size();
+            }
+        }
+        return new SnapshotReportDTO(fileName, snapshots.size(), tokens, size, System.currentTimeMillis() - start);
+    }
+}
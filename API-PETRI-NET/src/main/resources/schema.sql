@@ -38,3 +38,12 @@ CREATE TABLE IF NOT EXISTS petri_tokens (
     value JSONB,
     creation_timestamp BIGINT NOT NULL
 );
+
+-- Warm start: nets touched recently are preloaded at startup
+ALTER TABLE petri_nets ADD COLUMN IF NOT EXISTS last_activity TIMESTAMPTZ DEFAULT now();
+CREATE INDEX IF NOT EXISTS idx_petri_nets_last_activity ON petri_nets(last_activity DESC);
+CREATE INDEX IF NOT EXISTS idx_petri_arcs_net_id ON petri_arcs(net_id);
+CREATE INDEX IF NOT EXISTS idx_petri_tokens_net_id ON petri_tokens(net_id);
+
+-- Transition guards, as GuardExpression text (NULL = always true)
+ALTER TABLE petri_transitions ADD COLUMN IF NOT EXISTS guard_expression TEXT;
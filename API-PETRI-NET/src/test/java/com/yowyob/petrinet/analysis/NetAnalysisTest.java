@@ -0,0 +1,106 @@
+package com.yowyob.petrinet.analysis;
+
+import com.yowyob.petrinet.domain.model.PetriNet;
+import com.yowyob.petrinet.domain.model.color.Token;
+import com.yowyob.petrinet.domain.model.structure.Arc;
+import com.yowyob.petrinet.domain.model.structure.ArcExpression;
+import com.yowyob.petrinet.domain.model.structure.Place;
+import com.yowyob.petrinet.domain.model.structure.Transition;
+import com.yowyob.petrinet.engine.PetriNetEngine;
+import com.yowyob.petrinet.engine.state.NetState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetAnalysisTest {
+
+    private static final ArcExpression NONE = binding -> Collections.emptyList();
+
+    /**
+     * ASSIGNED -> START -> IN_TRANSIT -> DELIVER -> DELIVERED -> RESET -> ASSIGNED
+     */
+    private static PetriNet deliveryCycle() {
+        return new PetriNet(
+                Set.of(new Place("ASSIGNED", "Assigned"), new Place("IN_TRANSIT", "In transit"),
+                        new Place("DELIVERED", "Delivered")),
+                Set.of(new Transition("START", "Start", 0, 10), new Transition("DELIVER", "Deliver", 0, 10),
+                        new Transition("RESET", "Reset", 0, 10)),
+                Set.of(new Arc("ASSIGNED", "START", Arc.Type.INPUT, NONE),
+                        new Arc("IN_TRANSIT", "START", Arc.Type.OUTPUT, NONE),
+                        new Arc("IN_TRANSIT", "DELIVER", Arc.Type.INPUT, NONE),
+                        new Arc("DELIVERED", "DELIVER", Arc.Type.OUTPUT, NONE),
+                        new Arc("DELIVERED", "RESET", Arc.Type.INPUT, NONE),
+                        new Arc("ASSIGNED", "RESET", Arc.Type.OUTPUT, NONE)));
+    }
+
+    @Test
+    void shouldBoundConservativeCycle() {
+        IncidenceMatrix matrix = IncidenceMatrix.of(deliveryCycle());
+        NetState state = new NetState(Map.of("ASSIGNED", List.of(new Token<>("D1", 0), new Token<>("D2", 0))), 0);
+
+        CoverabilityAnalyzer.Result cov = CoverabilityAnalyzer.analyze(matrix, matrix.marking(state), 1000);
+
+        assertTrue(cov.complete());
+        assertTrue(cov.bounded());
+        assertEquals(Map.of("ASSIGNED", 2L, "DELIVERED", 2L, "IN_TRANSIT", 2L), cov.placeBounds());
+        assertTrue(cov.deadTransitions().isEmpty());
+        assertEquals(0, cov.deadlocks());
+
+        InvariantAnalyzer.Result p = InvariantAnalyzer.placeInvariants(matrix, 100);
+        InvariantAnalyzer.Result t = InvariantAnalyzer.transitionInvariants(matrix, 100);
+        assertEquals(List.of(Map.of("ASSIGNED", 1L, "DELIVERED", 1L, "IN_TRANSIT", 1L)), p.invariants());
+        assertEquals(List.of(Map.of("DELIVER", 1L, "RESET", 1L, "START", 1L)), t.invariants());
+    }
+
+    @Test
+    void shouldDetectUnboundedPlaceAndDeadTransition() {
+        // GEN produces into QUEUE forever; STUCK waits on an empty place
+        PetriNet net = new PetriNet(
+                Set.of(new Place("QUEUE", "Queue"), new Place("EMPTY", "Empty")),
+                Set.of(new Transition("GEN", "Generate", 0, 10), new Transition("STUCK", "Stuck", 0, 10)),
+                Set.of(new Arc("QUEUE", "GEN", Arc.Type.OUTPUT, NONE),
+                        new Arc("EMPTY", "STUCK", Arc.Type.INPUT, NONE)));
+        IncidenceMatrix matrix = IncidenceMatrix.of(net);
+
+        CoverabilityAnalyzer.Result cov = CoverabilityAnalyzer.analyze(matrix, matrix.marking(new NetState()), 1000);
+
+        assertTrue(cov.complete());
+        assertFalse(cov.bounded());
+        assertNull(cov.placeBounds().get("QUEUE"));
+        assertEquals(List.of("STUCK"), cov.deadTransitions());
+        assertTrue(InvariantAnalyzer.placeInvariants(matrix, 100).invariants().isEmpty());
+    }
+
+    @Test
+    void shouldMatchEngineFiringOnWeightedArcs() {
+        // PACK consumes 3 colored orders and produces 1 uncolored parcel
+        ArcExpression orders = binding -> List.of(new Token<>("o", 0), new Token<>("o", 0), new Token<>("o", 0));
+        PetriNet net = new PetriNet(
+                Set.of(new Place("ORDERS", "Orders"), new Place("PARCELS", "Parcels")),
+                Set.of(new Transition("PACK", "Pack", 0, 10)),
+                Set.of(new Arc("ORDERS", "PACK", Arc.Type.INPUT, orders, 3),
+                        new Arc("PARCELS", "PACK", Arc.Type.OUTPUT, NONE, 1)));
+        IncidenceMatrix matrix = IncidenceMatrix.of(net);
+        NetState state = new NetState(Map.of("ORDERS", Collections.nCopies(4, new Token<>("o", 0))), 0);
+
+        NetState next = new PetriNetEngine().fireTransition(net, state, "PACK", null).newState();
+
+        long[] before = matrix.marking(state);
+        long[] after = matrix.marking(next);
+        SparseVector column = matrix.column(0);
+        for (int i = 0; i < matrix.placeCount(); i++) {
+            assertEquals(before[i] + column.get(i), after[i], matrix.placeId(i));
+        }
+    }
+
+    @Test
+    void shouldHashSameStructureIdentically() {
+        assertEquals(IncidenceMatrix.of(deliveryCycle()).structureHash(),
+                IncidenceMatrix.of(deliveryCycle()).structureHash());
+    }
+}
@@ -4,6 +4,8 @@ import com.yowyob.petrinet.api.dto.ArcDTO;
 import com.yowyob.petrinet.api.dto.NetDTO;
 import com.yowyob.petrinet.api.dto.TokenDTO;
 import com.yowyob.petrinet.api.dto.TransitionDTO;
+import com.yowyob.petrinet.service.NetAnalysisService;
+import com.yowyob.petrinet.service.NetPreloader;
 import com.yowyob.petrinet.service.PetriNetService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -28,6 +30,12 @@ class PetriNetControllerTest {
     @MockBean
     private PetriNetService petriNetService;
 
+    @MockBean
+    private NetPreloader netPreloader;
+
+    @MockBean
+    private NetAnalysisService netAnalysisService;
+
     @Test
     void createNet_ShouldReturnId() {
         NetDTO netDto = new NetDTO();
@@ -61,4 +69,18 @@ class PetriNetControllerTest {
                 .exchange()
                 .expectStatus().isOk();
     }
+
+    @Test
+    void health_ShouldReportWarmUp() {
+        Mockito.when(netPreloader.isReady()).thenReturn(false);
+        webTestClient.get().uri("/api/nets/health")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+
+        Mockito.when(netPreloader.isReady()).thenReturn(true);
+        webTestClient.get().uri("/api/nets/health")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("UP");
+    }
 }
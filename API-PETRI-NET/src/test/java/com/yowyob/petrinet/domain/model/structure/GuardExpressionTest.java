@@ -0,0 +1,52 @@
+package com.yowyob.petrinet.domain.model.structure;
+
+import com.yowyob.petrinet.domain.model.color.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuardExpressionTest {
+
+    @Test
+    void shouldEvaluateCountsValuesAndFields() {
+        GuardExpression guard = GuardExpression.parse(
+                "count(orders) >= 2 && (value(orders).priority == 'express' || value(orders).weight < 1.5)");
+        Map<String, List<Token<?>>> express = Map.of("orders", List.of(
+                new Token<>(Map.of("priority", "express", "weight", 3), 0),
+                new Token<>(Map.of("priority", "standard", "weight", 1), 0)));
+        Map<String, List<Token<?>>> light = Map.of("orders", List.of(
+                new Token<>(Map.of("priority", "standard", "weight", 1), 0),
+                new Token<>(Map.of("priority", "standard", "weight", 1), 0)));
+        Map<String, List<Token<?>>> single = Map.of("orders", List.of(
+                new Token<>(Map.of("priority", "express", "weight", 1), 0)));
+
+        assertTrue(guard.test(express));
+        assertTrue(guard.test(light));
+        assertFalse(guard.test(single));
+        assertFalse(guard.test("not a binding"));
+        assertEquals("count(orders) >= 2 && (value(orders).priority == 'express' || value(orders).weight < 1.5)",
+                guard.getSource());
+    }
+
+    @Test
+    void shouldHandleBlankNegationAndQuotedPlaces() {
+        assertSame(Guard.TRUE, GuardExpression.of(null));
+        assertSame(Guard.TRUE, GuardExpression.of("  "));
+
+        Guard guard = GuardExpression.of("!(count('p-1') == 0) && value('p-1') != null");
+        assertTrue(guard.test(Map.of("p-1", List.of(new Token<>("A", 0)))));
+        assertFalse(guard.test(Map.of("p-1", List.of())));
+    }
+
+    @Test
+    void shouldRejectMalformedExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> GuardExpression.parse("count(p1) >="));
+        assertThrows(IllegalArgumentException.class, () -> GuardExpression.parse("size(p1) > 1"));
+        assertThrows(IllegalArgumentException.class, () -> GuardExpression.parse("(count(p1) > 1"));
+        assertThrows(IllegalArgumentException.class, () -> GuardExpression.parse("value(p1) == 'open"));
+        assertThrows(IllegalArgumentException.class, () -> GuardExpression.parse("count(p1) > 1 )"));
+    }
+}
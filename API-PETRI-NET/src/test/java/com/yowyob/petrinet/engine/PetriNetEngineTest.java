@@ -68,4 +68,149 @@ class PetriNetEngineTest {
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> engine.fireTransition(net, initialState, "t1", "binding"));
     }
+
+    @Test
+    void shouldRejectTransitionWhenInhibitorPlaceIsMarked() {
+        // Setup: p1 -> t1 -> p2, inhibited by p3
+        Place p1 = new Place("p1", "Place 1");
+        Place p2 = new Place("p2", "Place 2");
+        Place p3 = new Place("p3", "Blocker");
+        Transition t1 = new Transition("t1", "Transition 1", 0, 100);
+        ArcExpression exprIn = binding -> List.of(new Token<>("A", 0));
+        ArcExpression none = binding -> Collections.emptyList();
+
+        Arc a1 = new Arc("p1", "t1", Arc.Type.INPUT, exprIn);
+        Arc a2 = new Arc("p2", "t1", Arc.Type.OUTPUT, exprIn);
+        Arc inhibitor = new Arc("p3", "t1", Arc.Type.INHIBITOR, none);
+
+        PetriNet net = new PetriNet(Set.of(p1, p2, p3), Set.of(t1), Set.of(a1, a2, inhibitor));
+        CompiledNet compiled = CompiledNet.compile(net);
+        PetriNetEngine engine = new PetriNetEngine();
+
+        NetState free = new NetState(Map.of("p1", List.of(new Token<>("A", 0))), 0);
+        NetState blocked = free.withTokensAdded("p3", List.of(new Token<>("X", 0)));
+
+        // Act & Assert
+        assertTrue(engine.isEnabled(compiled, free, "t1", "binding"));
+        assertFalse(engine.isEnabled(compiled, blocked, "t1", "binding"));
+        assertThrows(IllegalArgumentException.class, () -> engine.fireTransition(compiled, blocked, "t1", "binding"));
+    }
+
+    @Test
+    void shouldHonourInhibitorWeightThreshold() {
+        Place p1 = new Place("p1", "Place 1");
+        Transition t1 = new Transition("t1", "Transition 1", 0, 100);
+        Arc inhibitor = new Arc("p1", "t1", Arc.Type.INHIBITOR, binding -> Collections.emptyList(), 2);
+
+        CompiledNet compiled = CompiledNet.compile(new PetriNet(Set.of(p1), Set.of(t1), Set.of(inhibitor)));
+        PetriNetEngine engine = new PetriNetEngine();
+
+        NetState one = new NetState(Map.of("p1", List.of(new Token<>("A", 0))), 0);
+        NetState two = one.withTokensAdded("p1", List.of(new Token<>("B", 0)));
+
+        assertTrue(engine.isEnabled(compiled, one, "t1", null));
+        assertFalse(engine.isEnabled(compiled, two, "t1", null));
+    }
+
+    @Test
+    void shouldEvaluateGuardBeforeFiring() {
+        Place p1 = new Place("p1", "Place 1");
+        Place p2 = new Place("p2", "Place 2");
+        Transition t1 = new Transition("t1", "Transition 1", 0, 100, binding -> "express".equals(binding));
+        ArcExpression expr = binding -> List.of(new Token<>("A", 0));
+
+        PetriNet net = new PetriNet(Set.of(p1, p2), Set.of(t1), Set.of(
+                new Arc("p1", "t1", Arc.Type.INPUT, expr),
+                new Arc("p2", "t1", Arc.Type.OUTPUT, expr)));
+        PetriNetEngine engine = new PetriNetEngine();
+        NetState state = new NetState(Map.of("p1", List.of(new Token<>("A", 0))), 0);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.fireTransition(net, state, "t1", "standard"));
+
+        StepResult result = engine.fireTransition(net, state, "t1", "express");
+        assertEquals(1, result.newState().getTokens("p2").size());
+    }
+
+    @Test
+    void shouldNotMatchSameTokenTwice() {
+        Place p1 = new Place("p1", "Place 1");
+        Transition t1 = new Transition("t1", "Transition 1", 0, 100);
+        ArcExpression twoA = binding -> List.of(new Token<>("A", 0), new Token<>("A", 0));
+        Arc a1 = new Arc("p1", "t1", Arc.Type.INPUT, twoA, 2);
+
+        CompiledNet compiled = CompiledNet.compile(new PetriNet(Set.of(p1), Set.of(t1), Set.of(a1)));
+        PetriNetEngine engine = new PetriNetEngine();
+
+        NetState oneA = new NetState(Map.of("p1", List.of(new Token<>("A", 0), new Token<>("B", 0))), 0);
+        NetState twoAs = oneA.withTokensAdded("p1", List.of(new Token<>("A", 0)));
+
+        assertFalse(engine.isEnabled(compiled, oneA, "t1", null));
+        assertTrue(engine.isEnabled(compiled, twoAs, "t1", null));
+    }
+
+    @Test
+    void shouldPickTokensAccordingToSelectionPolicy() {
+        Place p1 = new Place("p1", "Place 1");
+        Place p2 = new Place("p2", "Place 2");
+        Transition t1 = new Transition("t1", "Transition 1", 10, 100);
+        ArcExpression expr = binding -> List.of(new Token<>("A", 0));
+        PetriNet net = new PetriNet(Set.of(p1, p2), Set.of(t1), Set.of(
+                new Arc("p1", "t1", Arc.Type.INPUT, expr),
+                new Arc("p2", "t1", Arc.Type.OUTPUT, expr)));
+
+        // Tokens deliberately listed out of order; ready before time 40 - 10 = 30
+        NetState state = new NetState(Map.of("p1", List.of(
+                new Token<>("A", 20), new Token<>("A", 5), new Token<>("A", 35))), 40);
+
+        StepResult fifo = new PetriNetEngine(TokenSelectionPolicy.FIFO).fireTransition(net, state, "t1", null);
+        assertEquals(5, fifo.consumedTokens().get(0).creation_timestamp());
+
+        // Smallest ready time (5 + 10): the oldest token, never the more recent ready one
+        StepResult earliest = new PetriNetEngine(TokenSelectionPolicy.EARLIEST_ENABLED)
+                .fireTransition(net, state, "t1", null);
+        assertEquals(5, earliest.consumedTokens().get(0).creation_timestamp());
+        StepResult second = new PetriNetEngine(TokenSelectionPolicy.EARLIEST_ENABLED)
+                .fireTransition(net, earliest.newState(), "t1", null);
+        assertEquals(20, second.consumedTokens().get(0).creation_timestamp());
+
+        // LIFO picks the newest token, which is not ready yet
+        PetriNetEngine lifo = new PetriNetEngine(TokenSelectionPolicy.LIFO);
+        assertThrows(IllegalArgumentException.class, () -> lifo.fireTransition(net, state, "t1", null));
+    }
+
+    @Test
+    void shouldMoveArcWeightInTokensOnUncoloredArcs() {
+        Place p1 = new Place("p1", "Place 1");
+        Place p2 = new Place("p2", "Place 2");
+        Transition t1 = new Transition("t1", "Transition 1", 0, 100);
+        ArcExpression none = binding -> Collections.emptyList();
+        CompiledNet compiled = CompiledNet.compile(new PetriNet(Set.of(p1, p2), Set.of(t1), Set.of(
+                new Arc("p1", "t1", Arc.Type.INPUT, none, 2),
+                new Arc("p2", "t1", Arc.Type.OUTPUT, none, 3))));
+        PetriNetEngine engine = new PetriNetEngine();
+
+        NetState one = new NetState(Map.of("p1", List.of(new Token<>("A", 0))), 0);
+        NetState three = one.withTokensAdded("p1", List.of(new Token<>("B", 0), new Token<>("C", 0)));
+
+        assertFalse(engine.isEnabled(compiled, one, "t1", Map.of()));
+        StepResult result = engine.fireTransition(compiled, three, "t1", Map.of());
+        assertEquals(1, result.newState().getTokens("p1").size());
+        assertEquals(3, result.newState().getTokens("p2").size());
+        assertEquals(Token.UNIT, result.newState().getTokens("p2").get(0).value());
+    }
+
+    @Test
+    void shouldRejectBindingNotMatchingArcWeight() {
+        Place p1 = new Place("p1", "Place 1");
+        Transition t1 = new Transition("t1", "Transition 1", 0, 100);
+        ArcExpression oneA = binding -> List.of(new Token<>("A", 0));
+        CompiledNet compiled = CompiledNet.compile(new PetriNet(Set.of(p1), Set.of(t1), Set.of(
+                new Arc("p1", "t1", Arc.Type.INPUT, oneA, 2))));
+        PetriNetEngine engine = new PetriNetEngine();
+
+        NetState twoAs = new NetState(Map.of("p1", List.of(new Token<>("A", 0), new Token<>("A", 0))), 0);
+
+        assertFalse(engine.isEnabled(compiled, twoAs, "t1", null));
+        assertThrows(IllegalArgumentException.class, () -> engine.fireTransition(compiled, twoAs, "t1", null));
+    }
 }
@@ -0,0 +1,50 @@
+package com.yowyob.petrinet.engine.state;
+
+import com.yowyob.petrinet.domain.model.color.Token;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetStateTest {
+
+    @Test
+    void shouldKeepTokensOrderedByCreationTimestamp() {
+        NetState state = new NetState(Map.of("p1", List.of(
+                new Token<>("C", 30), new Token<>("A", 10), new Token<>("B", 20))), 50);
+
+        state = state.withTokensAdded("p1", List.of(new Token<>("D", 15), new Token<>("E", 20)));
+
+        List<Object> values = state.getTokens("p1").stream().map(Token::value).map(Object.class::cast).toList();
+        // Equal timestamps keep arrival order: B before E
+        assertEquals(List.of("A", "D", "B", "E", "C"), values);
+    }
+
+    @Test
+    void shouldAnswerAgeQueries() {
+        NetState state = new NetState(Map.of("p1", List.of(
+                new Token<>("A", 10), new Token<>("B", 20), new Token<>("C", 30))), 50);
+
+        assertEquals("A", state.getOldestToken("p1").orElseThrow().value());
+        assertEquals("C", state.getNewestToken("p1").orElseThrow().value());
+        assertEquals(2, state.countTokensOlderThan("p1", 30));
+        assertEquals(List.of(new Token<>("A", 10)), state.getTokensOlderThan("p1", 20));
+        assertTrue(state.getTokensOlderThan("p1", 10).isEmpty());
+        assertTrue(state.getOldestToken("empty").isEmpty());
+    }
+
+    @Test
+    void shouldShareUntouchedPlacesBetweenStates() {
+        NetState state = new NetState(Map.of(
+                "p1", List.of(new Token<>("A", 0)),
+                "p2", List.of(new Token<>("B", 0))), 0);
+
+        NetState next = state.withTokensAdded("p1", List.of(new Token<>("C", 1)));
+
+        assertSame(state.getTokens("p2"), next.getTokens("p2"));
+        assertEquals(1, state.getTokens("p1").size());
+        assertEquals(2, next.getTokens("p1").size());
+    }
+}
@@ -0,0 +1,83 @@
+package com.yowyob.petrinet.persistence.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yowyob.petrinet.domain.model.color.Token;
+import com.yowyob.petrinet.engine.state.NetState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetStateSnapshotCodecTest {
+
+    private final NetStateSnapshotCodec codec = new NetStateSnapshotCodec(new ObjectMapper());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRoundTripMarkingsOfSeveralNets() throws IOException {
+        NetState first = new NetState(Map.of(
+                "ASSIGNED", List.of(new Token<>("D1", 10), new Token<>("D2", 5)),
+                "IN_TRANSIT", List.of(new Token<>(Map.of("id", "D3", "priority", 2), 7))), 42);
+        NetState second = new NetState(Map.of(
+                "ASSIGNED", List.of(new Token<>("D1", 3))), 8);
+        Path file = dir.resolve("nets.pnss");
+
+        long size = codec.write(file, List.of(new NetSnapshot("n1", first), new NetSnapshot("n2", second)));
+        List<NetSnapshot> read = codec.read(file);
+
+        assertEquals(size, Files.size(file));
+        assertEquals(2, read.size());
+        assertEquals("n1", read.get(0).netId());
+        assertEquals(42, read.get(0).state().getCurrentTime());
+        assertEquals(first.getTokens("ASSIGNED"), read.get(0).state().getTokens("ASSIGNED"));
+        assertEquals(first.getTokens("IN_TRANSIT"), read.get(0).state().getTokens("IN_TRANSIT"));
+        assertEquals("n2", read.get(1).netId());
+        assertEquals(second.getTokens("ASSIGNED"), read.get(1).state().getTokens("ASSIGNED"));
+        assertTrue(read.get(1).state().getTokens("IN_TRANSIT").isEmpty());
+    }
+
+    @Test
+    void shouldRejectForeignFiles() throws IOException {
+        Path file = dir.resolve("garbage.pnss");
+        Files.writeString(file, "not a snapshot");
+
+        assertThrows(IOException.class, () -> codec.read(file));
+    }
+
+    @Test
+    void shouldRejectTruncatedFiles() throws IOException {
+        NetState state = new NetState(Map.of("ASSIGNED", List.of(new Token<>("D1", 10), new Token<>("D2", 5))), 42);
+        Path file = dir.resolve("nets.pnss");
+        codec.write(file, List.of(new NetSnapshot("n1", state)));
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Cut at every length past the header: never anything but an IOException
+        for (int length = 12; length < bytes.length; length++) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> codec.read(file), "length " + length);
+        }
+    }
+
+    @Test
+    void shouldRejectCountsBeyondTheFile() throws IOException {
+        Path file = dir.resolve("huge.pnss");
+        ByteBuffer header = ByteBuffer.allocate(20)
+                .putInt(NetStateSnapshotCodec.MAGIC).putShort(NetStateSnapshotCodec.VERSION).putShort((short) 0)
+                .putInt(0) // no net
+                .putInt(Integer.MAX_VALUE - 8) // places, without any byte behind
+                .putInt(-1);
+        Files.write(file, header.array());
+
+        assertThrows(IOException.class, () -> codec.read(file));
+    }
+}
@@ -0,0 +1,163 @@
+package com.yowyob.petrinet.service;
+
+import com.yowyob.petrinet.api.dto.ArcDTO;
+import com.yowyob.petrinet.api.dto.NetDTO;
+import com.yowyob.petrinet.api.dto.TokenDTO;
+import com.yowyob.petrinet.api.dto.TransitionDTO;
+import com.yowyob.petrinet.domain.model.color.Token;
+import com.yowyob.petrinet.domain.model.structure.GuardExpression;
+import com.yowyob.petrinet.domain.model.structure.Transition;
+import com.yowyob.petrinet.engine.TokenSelectionPolicy;
+import com.yowyob.petrinet.engine.state.NetState;
+import com.yowyob.petrinet.persistence.entity.ArcEntity;
+import com.yowyob.petrinet.persistence.entity.PetriNetEntity;
+import com.yowyob.petrinet.persistence.entity.PlaceEntity;
+import com.yowyob.petrinet.persistence.entity.TokenEntity;
+import com.yowyob.petrinet.persistence.entity.TransitionEntity;
+import com.yowyob.petrinet.persistence.repository.ArcRepository;
+import com.yowyob.petrinet.persistence.repository.PetriNetRepository;
+import com.yowyob.petrinet.persistence.repository.PlaceRepository;
+import com.yowyob.petrinet.persistence.repository.TokenRepository;
+import com.yowyob.petrinet.persistence.repository.TransitionRepository;
+import com.yowyob.petrinet.persistence.snapshot.NetSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+
+class PetriNetServiceTest {
+
+    private final PetriNetRepository petriNetRepository = Mockito.mock(PetriNetRepository.class);
+    private final PlaceRepository placeRepository = Mockito.mock(PlaceRepository.class);
+    private final TransitionRepository transitionRepository = Mockito.mock(TransitionRepository.class);
+    private final ArcRepository arcRepository = Mockito.mock(ArcRepository.class);
+    private final TokenRepository tokenRepository = Mockito.mock(TokenRepository.class);
+
+    // In-memory tables filled by the mocked save() calls
+    private final List<PetriNetEntity> nets = new CopyOnWriteArrayList<>();
+    private final List<PlaceEntity> places = new CopyOnWriteArrayList<>();
+    private final List<TransitionEntity> transitions = new CopyOnWriteArrayList<>();
+    private final List<ArcEntity> arcs = new CopyOnWriteArrayList<>();
+    private final List<TokenEntity> tokens = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(petriNetRepository.save(any(PetriNetEntity.class))).thenAnswer(inv -> {
+            PetriNetEntity net = inv.getArgument(0);
+            nets.removeIf(n -> n.getId().equals(net.getId()));
+            nets.add(net);
+            return Mono.just(net);
+        });
+        Mockito.when(petriNetRepository.findById(any(UUID.class))).thenAnswer(inv -> Mono
+                .justOrEmpty(nets.stream().filter(n -> n.getId().equals(inv.getArgument(0))).findFirst()));
+        Mockito.when(placeRepository.save(any(PlaceEntity.class))).thenAnswer(inv -> {
+            places.add(inv.getArgument(0));
+            return Mono.just(inv.getArgument(0));
+        });
+        Mockito.when(transitionRepository.save(any(TransitionEntity.class))).thenAnswer(inv -> {
+            transitions.add(inv.getArgument(0));
+            return Mono.just(inv.getArgument(0));
+        });
+        Mockito.when(arcRepository.save(any(ArcEntity.class))).thenAnswer(inv -> {
+            arcs.add(inv.getArgument(0));
+            return Mono.just(inv.getArgument(0));
+        });
+        Mockito.when(placeRepository.findAllByNetId(any(UUID.class)))
+                .thenAnswer(inv -> Flux.fromIterable(places));
+        Mockito.when(transitionRepository.findAllByNetId(any(UUID.class)))
+                .thenAnswer(inv -> Flux.fromIterable(transitions));
+        Mockito.when(arcRepository.findAllByNetId(any(UUID.class)))
+                .thenAnswer(inv -> Flux.fromIterable(arcs));
+        Mockito.when(tokenRepository.findAllByNetId(any(UUID.class)))
+                .thenAnswer(inv -> Flux.fromIterable(tokens));
+        Mockito.when(tokenRepository.deleteAllByNetId(any(UUID.class)))
+                .thenAnswer(inv -> Mono.fromRunnable(tokens::clear));
+        Mockito.when(tokenRepository.save(any(TokenEntity.class))).thenAnswer(inv -> {
+            tokens.add(inv.getArgument(0));
+            return Mono.just(inv.getArgument(0));
+        });
+    }
+
+    @Test
+    void shouldPersistAndReloadTransitionGuards() {
+        NetDTO netDto = new NetDTO("Guarded", List.of("orders", "shipped"),
+                List.of(new TransitionDTO("ship", "Ship", 0, 100, "value(orders).priority == 'express'")),
+                List.of(new ArcDTO("orders", "ship", "INPUT", 1), new ArcDTO("shipped", "ship", "OUTPUT", 1)));
+
+        String netId = newService().createNet(netDto).block();
+        assertEquals("value(orders).priority == 'express'", transitions.get(0).getGuardExpression());
+        tokens.add(TokenEntity.builder().netId(UUID.fromString(netId)).placeId("orders")
+                .value("{\"priority\":\"standard\"}").creationTimestamp(0L).build());
+        tokens.add(TokenEntity.builder().netId(UUID.fromString(netId)).placeId("orders")
+                .value("{\"priority\":\"express\"}").creationTimestamp(0L).build());
+
+        // A fresh service instance has to rebuild the net from the stored rows
+        PetriNetService reloaded = newService();
+        Transition ship = reloaded.getNetModel(netId).block().getTransition("ship");
+        assertInstanceOf(GuardExpression.class, ship.getGuard());
+        assertEquals("value(orders).priority == 'express'", ((GuardExpression) ship.getGuard()).getSource());
+
+        Map<String, List<TokenDTO>> standard = Map.of("orders",
+                List.of(new TokenDTO(Map.of("priority", "standard"), 0)));
+        assertThrows(IllegalArgumentException.class, () -> reloaded.fireTransition(netId, "ship", standard).block());
+
+        Map<String, List<TokenDTO>> express = Map.of("orders",
+                List.of(new TokenDTO(Map.of("priority", "express"), 0)));
+        reloaded.fireTransition(netId, "ship", express).block();
+        assertEquals(1, reloaded.getNetState(netId).block().marking.get("orders").size());
+    }
+
+    @Test
+    void shouldPreloadUnchangedMarkingsFromSnapshot() {
+        Instant lastActivity = Instant.parse("2025-10-01T08:00:00.123456Z");
+        PetriNetEntity unchanged = PetriNetEntity.builder().id(UUID.randomUUID()).name("a").currentTime(3L)
+                .lastActivity(lastActivity).build();
+        PetriNetEntity changed = PetriNetEntity.builder().id(UUID.randomUUID()).name("b").currentTime(3L)
+                .lastActivity(lastActivity.plusSeconds(1)).build();
+        Map<String, NetSnapshot> snapshots = Map.of(
+                unchanged.getId().toString(), new NetSnapshot(unchanged.getId().toString(),
+                        new NetState(Map.of("p1", List.of(new Token<>("FROM_SNAPSHOT", 1))), 3), lastActivity),
+                changed.getId().toString(), new NetSnapshot(changed.getId().toString(),
+                        new NetState(Map.of("p1", List.of(new Token<>("STALE", 1))), 3), lastActivity));
+        Mockito.when(placeRepository.findAllByNetIdIn(any())).thenReturn(Flux.just(
+                PlaceEntity.builder().netId(unchanged.getId()).placeId("p1").name("p1").build(),
+                PlaceEntity.builder().netId(changed.getId()).placeId("p1").name("p1").build()));
+        Mockito.when(transitionRepository.findAllByNetIdIn(any())).thenReturn(Flux.empty());
+        Mockito.when(arcRepository.findAllByNetIdIn(any())).thenReturn(Flux.empty());
+        Mockito.when(tokenRepository.findAllByNetIdIn(List.of(changed.getId()))).thenReturn(Flux.just(
+                TokenEntity.builder().netId(changed.getId()).placeId("p1").value("\"FROM_DB\"")
+                        .creationTimestamp(2L).build()));
+        PetriNetService service = newService();
+
+        assertEquals(2, service.preloadNets(List.of(unchanged, changed), snapshots).block());
+
+        assertEquals("FROM_SNAPSHOT",
+                service.getNetState(unchanged.getId().toString()).block().marking.get("p1").get(0).value);
+        assertEquals("FROM_DB",
+                service.getNetState(changed.getId().toString()).block().marking.get("p1").get(0).value);
+    }
+
+    @Test
+    void shouldRejectMalformedGuardOnCreation() {
+        NetDTO netDto = new NetDTO("Broken", List.of("p1"),
+                List.of(new TransitionDTO("t1", "T1", 0, 100, "count(p1) >=")), List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> newService().createNet(netDto).block());
+        assertTrue(nets.isEmpty());
+    }
+
+    private PetriNetService newService() {
+        return new PetriNetService(petriNetRepository, placeRepository, transitionRepository, arcRepository,
+                tokenRepository, TokenSelectionPolicy.FIFO);
+    }
+}
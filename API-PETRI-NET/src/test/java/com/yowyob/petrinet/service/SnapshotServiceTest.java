@@ -0,0 +1,55 @@
+package com.yowyob.petrinet.service;
+
+import com.yowyob.petrinet.api.dto.SnapshotReportDTO;
+import com.yowyob.petrinet.domain.model.color.Token;
+import com.yowyob.petrinet.engine.state.NetState;
+import com.yowyob.petrinet.persistence.snapshot.NetSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+class SnapshotServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final PetriNetService petriNetService = Mockito.mock(PetriNetService.class);
+
+    @Test
+    void shouldCountOnlyRestoredNetsOnImport() {
+        Instant lastActivity = Instant.parse("2025-10-01T08:00:00.123456Z");
+        NetSnapshot known = new NetSnapshot("known",
+                new NetState(Map.of("p1", List.of(new Token<>("A", 1), new Token<>("B", 2))), 5), lastActivity);
+        NetSnapshot missing = new NetSnapshot("missing",
+                new NetState(Map.of("p1", List.of(new Token<>("C", 3))), 5), lastActivity);
+        Mockito.when(petriNetService.snapshotPersistedNets(anyInt())).thenReturn(Flux.just(known, missing));
+        Mockito.when(petriNetService.restoreNet(any(NetSnapshot.class))).thenAnswer(inv -> {
+            NetSnapshot snapshot = inv.getArgument(0);
+            return "known".equals(snapshot.netId()) ? Mono.just(snapshot.netId()) : Mono.empty();
+        });
+        SnapshotService service = new SnapshotService(petriNetService, dir.toString());
+
+        SnapshotReportDTO exported = service.exportAll("nets.pnss").block();
+        SnapshotReportDTO imported = service.importAll("nets.pnss").block();
+
+        assertEquals(2, exported.netCount);
+        assertEquals(1, imported.netCount);
+        assertEquals(2, imported.tokenCount);
+        Mockito.verify(petriNetService, Mockito.never()).snapshotNet(any());
+
+        Map<String, NetSnapshot> byNet = service.readAll("nets.pnss").block();
+        assertEquals(lastActivity, byNet.get("known").lastActivity());
+        assertTrue(service.readAll("absent.pnss").block().isEmpty());
+    }
+}
@@ -2,54 +2,152 @@ package com.delivery.optimization.algorithm;
 
 import com.delivery.optimization.domain.Arc;
 import com.delivery.optimization.domain.Node;
+import lombok.AllArgsConstructor;
 import lombok.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.function.IntToDoubleFunction;
 
 @Component
 public class AStar {
 
     @Value
+    @AllArgsConstructor
     public static class PathResult {
         List<String> path;
         double totalCost;
+        // Nodes taken off the open set(s), to compare search variants
+        int settledNodes;
+
+        public PathResult(List<String> path, double totalCost) {
+            this(path, totalCost, 0);
+        }
     }
 
     /**
      * Section 4.1 - Algorithme A* pour Plus Court Chemin
      * Finds the optimal path between origin and destination using the composite
-     * cost.
+     * cost. Map-based entry point: the graph is converted to CSR form first.
      */
     public PathResult findPath(String originId, String destinationId, Map<String, Node> nodes,
             Map<String, List<Arc>> adjacencyList, CostFunction.Weights weights) {
-        PriorityQueue<NodeScore> openSet = new PriorityQueue<>(Comparator.comparingDouble(NodeScore::getFScore));
-        Map<String, String> cameFrom = new HashMap<>();
-        Map<String, Double> gScore = new HashMap<>();
+        List<Arc> arcs = new ArrayList<>();
+        adjacencyList.values().forEach(arcs::addAll);
+        return findPath(CsrGraph.of(nodes, arcs), originId, destinationId, weights);
+    }
+
+    /**
+     * Section 4.1 - A* over the primitive CSR graph, with the geometric heuristic.
+     */
+    public PathResult findPath(CsrGraph graph, String originId, String destinationId, CostFunction.Weights weights) {
+        return findPath(graph, originId, destinationId, weights, null);
+    }
 
-        gScore.put(originId, 0.0);
-        openSet.add(new NodeScore(originId, heuristic(originId, destinationId, nodes)));
+    /**
+     * Section 4.1 - A* over the primitive CSR graph.
+     * The open set is an indexed heap: membership is O(1) and a better path to a
+     * queued node lowers its priority in O(log n) instead of being ignored.
+     *
+     * @param landmarks ALT bounds valid for this graph, or null for the geometric heuristic only.
+     */
+    public PathResult findPath(CsrGraph graph, String originId, String destinationId, CostFunction.Weights weights,
+            LandmarkIndex landmarks) {
+        int origin = graph.indexOf(originId);
+        int target = graph.indexOf(destinationId);
+        if (origin < 0 || target < 0) {
+            return null;
+        }
+        IntToDoubleFunction heuristic = heuristic(graph, target, weights, landmarks);
+        double[] cost = graph.costs(weights);
+        int n = graph.nodeCount();
+        double[] gScore = new double[n];
+        Arrays.fill(gScore, Double.POSITIVE_INFINITY);
+        int[] cameFrom = new int[n];
+        Arrays.fill(cameFrom, -1);
+
+        IndexedMinHeap openSet = new IndexedMinHeap(n);
+        gScore[origin] = 0.0;
+        openSet.insertOrDecrease(origin, heuristic.applyAsDouble(origin));
+        int settled = 0;
 
         while (!openSet.isEmpty()) {
-            NodeScore current = openSet.poll();
-            String currentId = current.getNodeId();
+            int current = openSet.poll();
+            settled++;
+            if (current == target) {
+                return new PathResult(reconstructPath(graph, cameFrom, current), gScore[current], settled);
+            }
 
-            if (currentId.equals(destinationId)) {
-                return new PathResult(reconstructPath(cameFrom, currentId), gScore.get(currentId));
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int neighbor = graph.target(e);
+                double tentativeGScore = gScore[current] + cost[e];
+                if (tentativeGScore < gScore[neighbor]) {
+                    cameFrom[neighbor] = current;
+                    gScore[neighbor] = tentativeGScore;
+                    // Re-queues a settled node too, should a heuristic ever be inconsistent
+                    openSet.insertOrDecrease(neighbor, tentativeGScore + heuristic.applyAsDouble(neighbor));
+                }
             }
+        }
 
-            for (Arc arc : adjacencyList.getOrDefault(currentId, Collections.emptyList())) {
-                String neighborId = arc.getDestinationId();
-                double tentativeGScore = gScore.get(currentId) + calculateCost(arc, weights);
+        return null; // Path not found
+    }
 
-                if (tentativeGScore < gScore.getOrDefault(neighborId, Double.MAX_VALUE)) {
-                    cameFrom.put(neighborId, currentId);
-                    gScore.put(neighborId, tentativeGScore);
-                    double fScore = tentativeGScore + heuristic(neighborId, destinationId, nodes);
+    /**
+     * Time-dependent variant: the time component of an edge is its travel time
+     * when entered at the arrival time at its tail, read from the traffic profiles.
+     * Departure and arrivals are seconds since midnight (in the profiles' zone).
+     * <p>
+     * A label-setting Dijkstra without heuristic (the geometric bound assumes the
+     * scalar traffic factors). It is exact for the travel time because the profiles
+     * are FIFO; the other components stay static.
+     */
+    public PathResult findPathTimeDependent(CsrGraph graph, TrafficProfiles profiles, String originId,
+            String destinationId, CostFunction.Weights weights, double departureSecondOfDay) {
+        int origin = graph.indexOf(originId);
+        int target = graph.indexOf(destinationId);
+        if (origin < 0 || target < 0) {
+            return null;
+        }
+        double beta = weights.getBeta();
+        // Static components weighted per relaxed edge: a beta = 0 vector would take a slot of the cost cache
+        double[] staticWeights = new double[CsrGraph.COMPONENTS];
+        for (int c = 0; c < CsrGraph.COMPONENTS; c++) {
+            staticWeights[c] = c == 1 ? 0 : CsrGraph.weightOf(weights, c);
+        }
+        int n = graph.nodeCount();
+        double[] gScore = new double[n];
+        Arrays.fill(gScore, Double.POSITIVE_INFINITY);
+        double[] arrival = new double[n];
+        int[] cameFrom = new int[n];
+        Arrays.fill(cameFrom, -1);
 
-                    if (openSet.stream().noneMatch(ns -> ns.getNodeId().equals(neighborId))) {
-                        openSet.add(new NodeScore(neighborId, fScore));
-                    }
+        IndexedMinHeap openSet = new IndexedMinHeap(n);
+        gScore[origin] = 0.0;
+        arrival[origin] = departureSecondOfDay;
+        openSet.insertOrDecrease(origin, 0.0);
+        int settled = 0;
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            settled++;
+            if (current == target) {
+                return new PathResult(reconstructPath(graph, cameFrom, current), gScore[current], settled);
+            }
+
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int neighbor = graph.target(e);
+                double time = profiles.travelTime(graph, e, arrival[current]);
+                double staticCost = 0;
+                for (int c = 0; c < CsrGraph.COMPONENTS; c++) {
+                    staticCost += staticWeights[c] * graph.componentCost(e, c);
+                }
+                double tentativeGScore = gScore[current] + staticCost + beta * time;
+                if (tentativeGScore < gScore[neighbor]) {
+                    cameFrom[neighbor] = current;
+                    gScore[neighbor] = tentativeGScore;
+                    arrival[neighbor] = arrival[current] + time;
+                    openSet.insertOrDecrease(neighbor, tentativeGScore);
                 }
             }
         }
@@ -57,54 +155,147 @@ public class AStar {
         return null; // Path not found
     }
 
-    private double calculateCost(Arc arc, CostFunction.Weights weights) {
-        // Implementation of Section 3.3.1 with Dynamic Traffic Adjustment
-        double tf = arc.getTrafficFactor() != null ? arc.getTrafficFactor() : 1.0;
-        return weights.getAlpha() * arc.getDistance()
-                + weights.getBeta() * (arc.getTravelTime() * tf)
-                + weights.getGamma() * arc.getPenibility()
-                + weights.getDelta() * arc.getWeatherImpact()
-                + weights.getEta() * arc.getFuelCost();
+    /**
+     * Section 4.1 - Bidirectional A*: a forward search from the origin and a
+     * backward search (over incoming edges) from the destination, always growing
+     * the smaller frontier.
+     * <p>
+     * Both searches use the average potential p(v) = (h_d(v) - h_o(v)) / 2, so they
+     * see the same non-negative reduced costs and can stop as soon as the two
+     * smallest keys add up to the best meeting cost found.
+     *
+     * @param landmarks ALT bounds valid for this graph, or null for the geometric heuristic only.
+     */
+    public PathResult findPathBidirectional(CsrGraph graph, String originId, String destinationId,
+            CostFunction.Weights weights, LandmarkIndex landmarks) {
+        int origin = graph.indexOf(originId);
+        int target = graph.indexOf(destinationId);
+        if (origin < 0 || target < 0) {
+            return null;
+        }
+        if (origin == target) {
+            return new PathResult(List.of(originId), 0.0, 0);
+        }
+        IntToDoubleFunction toTarget = heuristic(graph, target, weights, landmarks);
+        IntToDoubleFunction fromOrigin = reverseHeuristic(graph, origin, weights, landmarks);
+        double[] cost = graph.costs(weights);
+
+        int n = graph.nodeCount();
+        double[] potential = new double[n];
+        Arrays.fill(potential, Double.NaN);
+        double[] forwardG = new double[n];
+        double[] backwardG = new double[n];
+        Arrays.fill(forwardG, Double.POSITIVE_INFINITY);
+        Arrays.fill(backwardG, Double.POSITIVE_INFINITY);
+        int[] previous = new int[n];
+        int[] next = new int[n];
+        Arrays.fill(previous, -1);
+        Arrays.fill(next, -1);
+        IndexedMinHeap forward = new IndexedMinHeap(n);
+        IndexedMinHeap backward = new IndexedMinHeap(n);
+
+        forwardG[origin] = 0.0;
+        forward.insertOrDecrease(origin, potential(potential, origin, toTarget, fromOrigin));
+        backwardG[target] = 0.0;
+        backward.insertOrDecrease(target, -potential(potential, target, toTarget, fromOrigin));
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+        int settled = 0;
+
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            if (forward.peekPriority() + backward.peekPriority() >= best) {
+                break;
+            }
+            settled++;
+            if (forward.size() <= backward.size()) {
+                int u = forward.poll();
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    int v = graph.target(e);
+                    double g = forwardG[u] + cost[e];
+                    if (g < forwardG[v]) {
+                        forwardG[v] = g;
+                        previous[v] = u;
+                        forward.insertOrDecrease(v, g + potential(potential, v, toTarget, fromOrigin));
+                        if (g + backwardG[v] < best) {
+                            best = g + backwardG[v];
+                            meet = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backward.poll();
+                for (int i = graph.firstInEdge(u); i < graph.endInEdge(u); i++) {
+                    int e = graph.inEdge(i);
+                    int v = graph.source(e);
+                    double g = backwardG[u] + cost[e];
+                    if (g < backwardG[v]) {
+                        backwardG[v] = g;
+                        next[v] = u;
+                        backward.insertOrDecrease(v, g - potential(potential, v, toTarget, fromOrigin));
+                        if (g + forwardG[v] < best) {
+                            best = g + forwardG[v];
+                            meet = v;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (meet < 0) {
+            return null; // Path not found
+        }
+        List<String> path = reconstructPath(graph, previous, meet);
+        for (int v = next[meet]; v != -1; v = next[v]) {
+            path.add(graph.nodeId(v));
+        }
+        return new PathResult(path, best, settled);
     }
 
     /**
-     * Heuristic function h(n) = α · dHaversine(n, d) / vmax
+     * Average potential of a node, computed once per search.
      */
-    private double heuristic(String nodeId, String targetId, Map<String, Node> nodes) {
-        Node n = nodes.get(nodeId);
-        Node d = nodes.get(targetId);
-        if (n == null || d == null)
-            return 0;
-
-        double dHaversine = haversine(n.getLatitude(), n.getLongitude(), d.getLatitude(), d.getLongitude());
-        double vmax = 60.0; // Max speed in km/h for normalization
-        return dHaversine / vmax;
+    private static double potential(double[] cache, int v, IntToDoubleFunction toTarget,
+            IntToDoubleFunction fromOrigin) {
+        double p = cache[v];
+        if (Double.isNaN(p)) {
+            p = (toTarget.applyAsDouble(v) - fromOrigin.applyAsDouble(v)) / 2;
+            cache[v] = p;
+        }
+        return p;
     }
 
-    private double haversine(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371; // Earth radius in km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    /**
+     * Heuristic h(n): a lower bound on the composite cost to the target.
+     * Without landmarks, dHaversine(n, d) times the cheapest composite cost per km
+     * found on any arc; with landmarks, the larger of that and the ALT bound.
+     */
+    private IntToDoubleFunction heuristic(CsrGraph graph, int target, CostFunction.Weights weights,
+            LandmarkIndex landmarks) {
+        if (landmarks != null) {
+            return landmarks.towards(target, weights)::estimate;
+        }
+        double perKm = graph.costPerKmLowerBound(weights);
+        return node -> perKm * graph.haversineKm(node, target);
     }
 
-    private List<String> reconstructPath(Map<String, String> cameFrom, String current) {
-        List<String> path = new ArrayList<>();
-        path.add(current);
-        while (cameFrom.containsKey(current)) {
-            current = cameFrom.get(current);
-            path.add(0, current);
+    /**
+     * Lower bound on the composite cost from the origin to a node (backward search).
+     */
+    private IntToDoubleFunction reverseHeuristic(CsrGraph graph, int origin, CostFunction.Weights weights,
+            LandmarkIndex landmarks) {
+        if (landmarks != null) {
+            return landmarks.awayFrom(origin, weights)::estimate;
         }
-        return path;
+        double perKm = graph.costPerKmLowerBound(weights);
+        return node -> perKm * graph.haversineKm(origin, node);
     }
 
-    @Value
-    private static class NodeScore {
-        String nodeId;
-        double fScore;
+    private List<String> reconstructPath(CsrGraph graph, int[] cameFrom, int current) {
+        List<String> path = new ArrayList<>();
+        for (int u = current; u != -1; u = cameFrom[u]) {
+            path.add(graph.nodeId(u));
+        }
+        Collections.reverse(path);
+        return path;
     }
 }
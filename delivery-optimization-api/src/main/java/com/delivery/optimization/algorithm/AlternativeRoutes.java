@@ -0,0 +1,227 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Up to k loopless alternatives between two nodes, cheapest first, that are
+ * meaningfully different from each other.
+ * <p>
+ * Yen's algorithm enumerates the loopless paths in cost order: each new path
+ * deviates from an accepted one at a spur node, found by an A* search that may
+ * neither reuse the root path nor leave the spur node by an edge already taken
+ * there by an enumerated path with the same root. A path is kept only if at most
+ * {@code maxSharing} of its cost lies on edges of an already kept path; the
+ * enumeration stops after {@code MAX_EXAMINED_PER_ROUTE * k} paths.
+ */
+public final class AlternativeRoutes {
+
+    public static final int MAX_EXAMINED_PER_ROUTE = 8;
+
+    /**
+     * One alternative: node path, edge indices and composite cost.
+     */
+    public record Route(List<String> path, int[] edges, double cost) {
+    }
+
+    private record Candidate(int[] edges, double cost) {
+    }
+
+    private final CsrGraph graph;
+    private final double[] cost;
+    private final int target;
+    private final double perKm;
+
+    // Spur search state; the parent of a node is the edge reaching it
+    private final DijkstraWorkspace ws;
+    private final boolean[] bannedNode;
+    private final boolean[] bannedEdge;
+
+    private AlternativeRoutes(CsrGraph graph, CostFunction.Weights weights, int target) {
+        this.graph = graph;
+        this.cost = graph.costs(weights);
+        this.target = target;
+        this.perKm = graph.costPerKmLowerBound(weights);
+        int n = graph.nodeCount();
+        this.ws = new DijkstraWorkspace(n, true);
+        this.bannedNode = new boolean[n];
+        this.bannedEdge = new boolean[graph.edgeCount()];
+    }
+
+    /**
+     * Computes up to {@code k} alternatives, the first one being the shortest path.
+     * Empty if the destination is unreachable or either node is unknown.
+     *
+     * @param maxSharing largest share (0..1) of an alternative's cost that may overlap a kept one.
+     */
+    public static List<Route> compute(CsrGraph graph, String originId, String destinationId,
+            CostFunction.Weights weights, int k, double maxSharing) {
+        int origin = graph.indexOf(originId);
+        int target = graph.indexOf(destinationId);
+        if (origin < 0 || target < 0 || k <= 0) {
+            return List.of();
+        }
+        return new AlternativeRoutes(graph, weights, target).run(origin, k, maxSharing);
+    }
+
+    private List<Route> run(int origin, int k, double maxSharing) {
+        int[] first = search(origin);
+        if (first == null) {
+            return List.of();
+        }
+        List<int[]> enumerated = new ArrayList<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>((a, b) -> Double.compare(a.cost(), b.cost()));
+        Set<List<Integer>> seen = new HashSet<>();
+        List<Candidate> kept = new ArrayList<>();
+        List<Set<Integer>> keptEdges = new ArrayList<>();
+
+        Candidate next = new Candidate(first, costOf(first, 0, first.length));
+        seen.add(asList(first));
+        int examined = 0;
+        int maxExamined = MAX_EXAMINED_PER_ROUTE * k;
+        while (next != null && kept.size() < k && examined < maxExamined) {
+            examined++;
+            enumerated.add(next.edges());
+            if (isDiverse(next, keptEdges, maxSharing)) {
+                kept.add(next);
+                keptEdges.add(new HashSet<>(asList(next.edges())));
+            }
+            if (kept.size() < k) {
+                spurFrom(origin, next.edges(), enumerated, candidates, seen);
+            }
+            next = candidates.poll();
+        }
+
+        List<Route> routes = new ArrayList<>(kept.size());
+        for (Candidate c : kept) {
+            routes.add(new Route(nodePath(origin, c.edges()), c.edges(), c.cost()));
+        }
+        return routes;
+    }
+
+    /**
+     * Yen's deviations of {@code path}: one spur search per node along it.
+     */
+    private void spurFrom(int origin, int[] path, List<int[]> enumerated, PriorityQueue<Candidate> candidates,
+            Set<List<Integer>> seen) {
+        int spurNode = origin;
+        double rootCost = 0;
+        for (int i = 0; i < path.length; i++) {
+            // Edges leaving the spur node on paths sharing this root
+            List<Integer> banned = new ArrayList<>();
+            for (int[] other : enumerated) {
+                if (other.length > i && Arrays.equals(other, 0, i, path, 0, i)) {
+                    bannedEdge[other[i]] = true;
+                    banned.add(other[i]);
+                }
+            }
+            int[] spur = search(spurNode);
+            for (int e : banned) {
+                bannedEdge[e] = false;
+            }
+            if (spur != null) {
+                int[] total = Arrays.copyOf(path, i + spur.length);
+                System.arraycopy(spur, 0, total, i, spur.length);
+                if (seen.add(asList(total))) {
+                    candidates.add(new Candidate(total, rootCost + costOf(spur, 0, spur.length)));
+                }
+            }
+            // The root path may not be revisited by later spurs
+            bannedNode[spurNode] = true;
+            rootCost += cost[path[i]];
+            spurNode = graph.target(path[i]);
+        }
+        Arrays.fill(bannedNode, false);
+    }
+
+    /**
+     * A* from {@code source} to the target avoiding banned nodes and edges;
+     * edge indices of the path, or null.
+     */
+    private int[] search(int source) {
+        if (bannedNode[source]) {
+            return null;
+        }
+        ws.relax(source, 0, -1, -1, heuristic(source));
+        int[] found = null;
+        while (!ws.heap.isEmpty()) {
+            int current = ws.heap.poll();
+            if (current == target) {
+                found = edgesTo(source, current);
+                break;
+            }
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int neighbor = graph.target(e);
+                if (bannedEdge[e] || bannedNode[neighbor]) {
+                    continue;
+                }
+                double tentative = ws.dist[current] + cost[e];
+                if (tentative < ws.dist[neighbor]) {
+                    ws.relax(neighbor, tentative, e, -1, tentative + heuristic(neighbor));
+                }
+            }
+        }
+        ws.reset();
+        return found;
+    }
+
+    private double heuristic(int v) {
+        return perKm * graph.haversineKm(v, target);
+    }
+
+    private int[] edgesTo(int source, int v) {
+        int length = 0;
+        for (int u = v; u != source; u = graph.source(ws.parent[u])) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int u = v; u != source; u = graph.source(ws.parent[u])) {
+            edges[--length] = ws.parent[u];
+        }
+        return edges;
+    }
+
+    private boolean isDiverse(Candidate candidate, List<Set<Integer>> keptEdges, double maxSharing) {
+        for (Set<Integer> edges : keptEdges) {
+            double shared = 0;
+            for (int e : candidate.edges()) {
+                if (edges.contains(e)) {
+                    shared += cost[e];
+                }
+            }
+            if (shared > maxSharing * candidate.cost()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double costOf(int[] edges, int from, int to) {
+        double total = 0;
+        for (int i = from; i < to; i++) {
+            total += cost[edges[i]];
+        }
+        return total;
+    }
+
+    private List<String> nodePath(int origin, int[] edges) {
+        List<String> path = new ArrayList<>(edges.length + 1);
+        path.add(graph.nodeId(origin));
+        for (int e : edges) {
+            path.add(graph.nodeId(graph.target(e)));
+        }
+        return path;
+    }
+
+    private static List<Integer> asList(int[] edges) {
+        List<Integer> list = new ArrayList<>(edges.length);
+        for (int e : edges) {
+            list.add(e);
+        }
+        return list;
+    }
+}
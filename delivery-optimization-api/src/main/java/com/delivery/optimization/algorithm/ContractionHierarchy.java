@@ -0,0 +1,620 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction Hierarchies over a {@link CsrGraph} for one fixed weight profile.
+ * <p>
+ * Preprocessing contracts the nodes in order of importance (edge difference +
+ * deleted neighbours), adding shortcuts where no witness path exists. Each round
+ * contracts an independent set of local minima in parallel. A query is then a
+ * bidirectional Dijkstra that only climbs towards higher-ranked nodes, so it
+ * settles a few hundred nodes even on a metro-sized graph.
+ * <p>
+ * Edge costs are frozen at build time: the hierarchy must be rebuilt when the
+ * graph snapshot changes. Instances are immutable and thread-safe.
+ */
+public final class ContractionHierarchy {
+
+    // Witness searches give up after this many settled nodes (extra shortcuts, never wrong paths)
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final CsrGraph graph;
+
+    // Upward edges u -> x (rank[x] > rank[u]), grouped by u: forward search
+    private final int[] upOffsets;
+    private final int[] upTarget;
+    private final double[] upWeight;
+    private final int[] upMiddle;
+
+    // Edges x -> u with rank[x] > rank[u], grouped by u: backward search
+    private final int[] downOffsets;
+    private final int[] downSource;
+    private final double[] downWeight;
+    private final int[] downMiddle;
+
+    private final ConcurrentLinkedQueue<QueryWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    private ContractionHierarchy(CsrGraph graph, EdgeList[] up, EdgeList[] down) {
+        this.graph = graph;
+        int n = graph.nodeCount();
+        this.upOffsets = offsets(up, n);
+        this.downOffsets = offsets(down, n);
+        int upCount = upOffsets[n];
+        int downCount = downOffsets[n];
+        this.upTarget = new int[upCount];
+        this.upWeight = new double[upCount];
+        this.upMiddle = new int[upCount];
+        this.downSource = new int[downCount];
+        this.downWeight = new double[downCount];
+        this.downMiddle = new int[downCount];
+        for (int u = 0; u < n; u++) {
+            up[u].copyTo(upTarget, upWeight, upMiddle, upOffsets[u]);
+            down[u].copyTo(downSource, downWeight, downMiddle, downOffsets[u]);
+        }
+    }
+
+    /**
+     * Preprocesses the graph for the given weights, running the parallel phases on {@code pool}.
+     */
+    public static ContractionHierarchy build(CsrGraph graph, CostFunction.Weights weights, ForkJoinPool pool) {
+        Contractor contractor = new Contractor(graph, weights, pool);
+        contractor.contractAll();
+        return new ContractionHierarchy(graph, contractor.up, contractor.down);
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Number of shortcut edges added by the preprocessing.
+     */
+    public int shortcutCount() {
+        int count = 0;
+        for (int m : upMiddle) {
+            count += m >= 0 ? 1 : 0;
+        }
+        for (int m : downMiddle) {
+            count += m >= 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Bidirectional upward search with stall-on-demand, then shortcut unpacking.
+     *
+     * @return The path over original arcs, or null if unreachable.
+     */
+    public AStar.PathResult findPath(String originId, String destinationId) {
+        int source = graph.indexOf(originId);
+        int target = graph.indexOf(destinationId);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        if (source == target) {
+            return new AStar.PathResult(List.of(originId), 0.0);
+        }
+        QueryWorkspace ws = workspaces.poll();
+        if (ws == null) {
+            ws = new QueryWorkspace(graph.nodeCount());
+        }
+        try {
+            return search(ws, source, target);
+        } finally {
+            ws.reset();
+            workspaces.offer(ws);
+        }
+    }
+
+    private AStar.PathResult search(QueryWorkspace ws, int source, int target) {
+        ws.settleForward(source, 0.0, -1);
+        ws.settleBackward(target, 0.0, -1);
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+
+        while (!ws.forwardHeap.isEmpty() || !ws.backwardHeap.isEmpty()) {
+            double minForward = ws.forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : ws.forwardHeap.peekPriority();
+            double minBackward = ws.backwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : ws.backwardHeap.peekPriority();
+            if (Math.min(minForward, minBackward) >= best) {
+                break;
+            }
+            if (minForward <= minBackward) {
+                int u = ws.forwardHeap.poll();
+                double du = ws.forwardDist[u];
+                if (du + ws.backwardDist[u] < best) {
+                    best = du + ws.backwardDist[u];
+                    meet = u;
+                }
+                if (stalled(u, du, ws.forwardDist, downOffsets, downSource, downWeight)) {
+                    continue;
+                }
+                for (int e = upOffsets[u]; e < upOffsets[u + 1]; e++) {
+                    ws.settleForward(upTarget[e], du + upWeight[e], e);
+                }
+            } else {
+                int u = ws.backwardHeap.poll();
+                double du = ws.backwardDist[u];
+                if (du + ws.forwardDist[u] < best) {
+                    best = du + ws.forwardDist[u];
+                    meet = u;
+                }
+                if (stalled(u, du, ws.backwardDist, upOffsets, upTarget, upWeight)) {
+                    continue;
+                }
+                for (int e = downOffsets[u]; e < downOffsets[u + 1]; e++) {
+                    ws.settleBackward(downSource[e], du + downWeight[e], e);
+                }
+            }
+        }
+        if (meet < 0) {
+            return null;
+        }
+        return new AStar.PathResult(unpackPath(ws, source, meet), best);
+    }
+
+    /**
+     * A node reached more cheaply through a higher-ranked neighbour cannot lie on
+     * a shortest up-down path: its edges need not be relaxed.
+     */
+    private static boolean stalled(int u, double du, double[] dist, int[] offsets, int[] nodes, double[] weights) {
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (dist[nodes[e]] + weights[e] < du) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> unpackPath(QueryWorkspace ws, int source, int meet) {
+        // Upward edges source -> meet, collected backwards
+        List<int[]> edges = new ArrayList<>();
+        for (int u = meet; u != source; ) {
+            int e = ws.forwardParent[u];
+            int from = ownerOf(upOffsets, e);
+            edges.add(new int[]{from, u, upMiddle[e]});
+            u = from;
+        }
+        Collections.reverse(edges);
+        // Downward edges meet -> target
+        for (int u = meet; ws.backwardParent[u] >= 0; ) {
+            int e = ws.backwardParent[u];
+            int to = ownerOf(downOffsets, e);
+            edges.add(new int[]{u, to, downMiddle[e]});
+            u = to;
+        }
+
+        List<String> path = new ArrayList<>();
+        path.add(graph.nodeId(source));
+        for (int[] edge : edges) {
+            unpack(edge[0], edge[1], edge[2], path);
+        }
+        return path;
+    }
+
+    /**
+     * Appends the original nodes of edge {@code from -> to} (excluding {@code from}).
+     * Both halves of a shortcut are stored at its middle node, which ranks lower.
+     */
+    private void unpack(int from, int to, int middle, List<String> path) {
+        if (middle < 0) {
+            path.add(graph.nodeId(to));
+            return;
+        }
+        int first = find(downOffsets, downSource, middle, from);
+        unpack(from, middle, downMiddle[first], path);
+        int second = find(upOffsets, upTarget, middle, to);
+        unpack(middle, to, upMiddle[second], path);
+    }
+
+    private static int find(int[] offsets, int[] nodes, int owner, int node) {
+        for (int e = offsets[owner]; e < offsets[owner + 1]; e++) {
+            if (nodes[e] == node) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("Missing shortcut half at node " + owner);
+    }
+
+    private static int ownerOf(int[] offsets, int e) {
+        // Last u with offsets[u] <= e
+        int lo = 0;
+        int hi = offsets.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= e) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static int[] offsets(EdgeList[] lists, int n) {
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + lists[u].size;
+        }
+        return offsets;
+    }
+
+    /**
+     * Per-query search state, pooled so that a query only touches what it visits.
+     */
+    private static final class QueryWorkspace {
+        final double[] forwardDist;
+        final double[] backwardDist;
+        final int[] forwardParent;
+        final int[] backwardParent;
+        final IndexedMinHeap forwardHeap;
+        final IndexedMinHeap backwardHeap;
+        final int[] touched;
+        int touchedCount;
+
+        QueryWorkspace(int n) {
+            forwardDist = new double[n];
+            backwardDist = new double[n];
+            forwardParent = new int[n];
+            backwardParent = new int[n];
+            Arrays.fill(forwardDist, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardDist, Double.POSITIVE_INFINITY);
+            Arrays.fill(forwardParent, -1);
+            Arrays.fill(backwardParent, -1);
+            forwardHeap = new IndexedMinHeap(n);
+            backwardHeap = new IndexedMinHeap(n);
+            touched = new int[n];
+        }
+
+        private void touch(int v) {
+            if (forwardDist[v] == Double.POSITIVE_INFINITY && backwardDist[v] == Double.POSITIVE_INFINITY) {
+                touched[touchedCount++] = v;
+            }
+        }
+
+        void settleForward(int v, double d, int edge) {
+            if (d < forwardDist[v]) {
+                touch(v);
+                forwardDist[v] = d;
+                forwardParent[v] = edge;
+                forwardHeap.insertOrDecrease(v, d);
+            }
+        }
+
+        void settleBackward(int v, double d, int edge) {
+            if (d < backwardDist[v]) {
+                touch(v);
+                backwardDist[v] = d;
+                backwardParent[v] = edge;
+                backwardHeap.insertOrDecrease(v, d);
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                forwardDist[v] = Double.POSITIVE_INFINITY;
+                backwardDist[v] = Double.POSITIVE_INFINITY;
+                forwardParent[v] = -1;
+                backwardParent[v] = -1;
+            }
+            touchedCount = 0;
+            forwardHeap.clear();
+            backwardHeap.clear();
+        }
+    }
+
+    /**
+     * Growable adjacency list with primitive columns; parallel edges keep the cheapest.
+     */
+    private static final class EdgeList {
+        int[] node = new int[4];
+        double[] weight = new double[4];
+        int[] middle = new int[4];
+        int size;
+
+        void addOrLower(int v, double w, int mid) {
+            for (int i = 0; i < size; i++) {
+                if (node[i] == v) {
+                    if (w < weight[i]) {
+                        weight[i] = w;
+                        middle[i] = mid;
+                    }
+                    return;
+                }
+            }
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+                middle = Arrays.copyOf(middle, size * 2);
+            }
+            node[size] = v;
+            weight[size] = w;
+            middle[size] = mid;
+            size++;
+        }
+
+        void copyTo(int[] nodes, double[] weights, int[] middles, int at) {
+            System.arraycopy(node, 0, nodes, at, size);
+            System.arraycopy(weight, 0, weights, at, size);
+            System.arraycopy(middle, 0, middles, at, size);
+        }
+    }
+
+    /**
+     * Mutable preprocessing state. Parallel phases only read the adjacency; all
+     * writes happen between them on the calling thread.
+     */
+    private static final class Contractor {
+        final int n;
+        final ForkJoinPool pool;
+        final EdgeList[] out;
+        final EdgeList[] in;
+        final EdgeList[] up;
+        final EdgeList[] down;
+        final boolean[] contracted;
+        final boolean[] inBatch;
+        final boolean[] dirty;
+        final int[] deletedNeighbors;
+        final int[] priority;
+        final ConcurrentLinkedQueue<WitnessSearch> witnesses = new ConcurrentLinkedQueue<>();
+
+        Contractor(CsrGraph graph, CostFunction.Weights weights, ForkJoinPool pool) {
+            this.n = graph.nodeCount();
+            this.pool = pool;
+            this.out = new EdgeList[n];
+            this.in = new EdgeList[n];
+            this.up = new EdgeList[n];
+            this.down = new EdgeList[n];
+            for (int u = 0; u < n; u++) {
+                out[u] = new EdgeList();
+                in[u] = new EdgeList();
+                up[u] = new EdgeList();
+                down[u] = new EdgeList();
+            }
+            double[] cost = graph.costs(weights);
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    int v = graph.target(e);
+                    if (v != u) {
+                        double w = cost[e];
+                        out[u].addOrLower(v, w, -1);
+                        in[v].addOrLower(u, w, -1);
+                    }
+                }
+            }
+            this.contracted = new boolean[n];
+            this.inBatch = new boolean[n];
+            this.dirty = new boolean[n];
+            this.deletedNeighbors = new int[n];
+            this.priority = new int[n];
+        }
+
+        void contractAll() {
+            int[] remaining = IntStream.range(0, n).toArray();
+            Arrays.fill(dirty, true);
+            while (remaining.length > 0) {
+                int[] stale = remaining;
+                pool.submit(() -> IntStream.of(stale).parallel()
+                        .filter(v -> dirty[v])
+                        .forEach(v -> priority[v] = computePriority(v))).join();
+                for (int v : remaining) {
+                    dirty[v] = false;
+                }
+
+                int[] current = remaining;
+                int[] batch = pool.submit(() -> IntStream.of(current).parallel()
+                        .filter(this::isLocalMinimum).toArray()).join();
+                for (int v : batch) {
+                    inBatch[v] = true;
+                }
+                ShortcutBuffer[] shortcuts = pool.submit(() -> IntStream.of(batch).parallel()
+                        .mapToObj(v -> {
+                            ShortcutBuffer buffer = new ShortcutBuffer();
+                            findShortcuts(v, buffer);
+                            return buffer;
+                        })
+                        .toArray(ShortcutBuffer[]::new)).join();
+
+                for (int i = 0; i < batch.length; i++) {
+                    contract(batch[i], shortcuts[i]);
+                }
+                for (int v : batch) {
+                    inBatch[v] = false;
+                }
+                remaining = IntStream.of(remaining).filter(v -> !contracted[v]).toArray();
+            }
+        }
+
+        private void contract(int v, ShortcutBuffer shortcuts) {
+            // Remaining neighbours all rank higher: their edges become v's final up/down edges
+            EdgeList o = out[v];
+            for (int i = 0; i < o.size; i++) {
+                int x = o.node[i];
+                if (!contracted[x]) {
+                    up[v].addOrLower(x, o.weight[i], o.middle[i]);
+                    touchNeighbour(x);
+                }
+            }
+            EdgeList r = in[v];
+            for (int i = 0; i < r.size; i++) {
+                int u = r.node[i];
+                if (!contracted[u]) {
+                    down[v].addOrLower(u, r.weight[i], r.middle[i]);
+                    touchNeighbour(u);
+                }
+            }
+            contracted[v] = true;
+            for (int i = 0; i < shortcuts.size; i++) {
+                int u = shortcuts.from[i];
+                int x = shortcuts.to[i];
+                out[u].addOrLower(x, shortcuts.weight[i], v);
+                in[x].addOrLower(u, shortcuts.weight[i], v);
+            }
+        }
+
+        private void touchNeighbour(int u) {
+            dirty[u] = true;
+            deletedNeighbors[u]++;
+        }
+
+        private boolean isLocalMinimum(int v) {
+            return isMinimumAmong(v, out[v]) && isMinimumAmong(v, in[v]);
+        }
+
+        private boolean isMinimumAmong(int v, EdgeList neighbours) {
+            for (int i = 0; i < neighbours.size; i++) {
+                int u = neighbours.node[i];
+                if (!contracted[u] && (priority[u] < priority[v] || (priority[u] == priority[v] && u < v))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int computePriority(int v) {
+            ShortcutBuffer counter = new ShortcutBuffer();
+            findShortcuts(v, counter);
+            int degree = activeCount(out[v]) + activeCount(in[v]);
+            return counter.size - degree + deletedNeighbors[v];
+        }
+
+        private int activeCount(EdgeList list) {
+            int count = 0;
+            for (int i = 0; i < list.size; i++) {
+                count += contracted[list.node[i]] ? 0 : 1;
+            }
+            return count;
+        }
+
+        /**
+         * Shortcuts needed to contract {@code v}: one per in/out neighbour pair
+         * whose path through {@code v} has no witness of equal or lower cost.
+         */
+        private void findShortcuts(int v, ShortcutBuffer sink) {
+            WitnessSearch search = witnesses.poll();
+            if (search == null) {
+                search = new WitnessSearch(n);
+            }
+            try {
+                findShortcuts(v, search, sink);
+            } finally {
+                witnesses.offer(search);
+            }
+        }
+
+        private void findShortcuts(int v, WitnessSearch search, ShortcutBuffer sink) {
+            EdgeList inEdges = in[v];
+            EdgeList outEdges = out[v];
+            for (int i = 0; i < inEdges.size; i++) {
+                int u = inEdges.node[i];
+                if (contracted[u]) {
+                    continue;
+                }
+                double maxOut = -1;
+                for (int j = 0; j < outEdges.size; j++) {
+                    int x = outEdges.node[j];
+                    if (!contracted[x] && x != u) {
+                        maxOut = Math.max(maxOut, outEdges.weight[j]);
+                    }
+                }
+                if (maxOut < 0) {
+                    continue;
+                }
+                double wIn = inEdges.weight[i];
+                search.run(u, v, wIn + maxOut);
+                for (int j = 0; j < outEdges.size; j++) {
+                    int x = outEdges.node[j];
+                    if (contracted[x] || x == u) {
+                        continue;
+                    }
+                    double via = wIn + outEdges.weight[j];
+                    if (search.distance(x) > via) {
+                        sink.add(u, x, via);
+                    }
+                }
+                search.reset();
+            }
+        }
+
+        /**
+         * Bounded Dijkstra from one in-neighbour that avoids the node being
+         * contracted and every node of the current batch.
+         */
+        private final class WitnessSearch {
+            final double[] dist;
+            final int[] touched;
+            final IndexedMinHeap heap;
+            int touchedCount;
+
+            WitnessSearch(int n) {
+                dist = new double[n];
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+                touched = new int[n];
+                heap = new IndexedMinHeap(n);
+            }
+
+            void run(int source, int avoid, double limit) {
+                relax(source, 0.0);
+                int settled = 0;
+                while (!heap.isEmpty() && heap.peekPriority() <= limit && settled++ < WITNESS_SETTLE_LIMIT) {
+                    int u = heap.poll();
+                    EdgeList edges = out[u];
+                    for (int i = 0; i < edges.size; i++) {
+                        int x = edges.node[i];
+                        if (x != avoid && !contracted[x] && !inBatch[x]) {
+                            relax(x, dist[u] + edges.weight[i]);
+                        }
+                    }
+                }
+            }
+
+            double distance(int x) {
+                return dist[x];
+            }
+
+            private void relax(int x, double d) {
+                if (d < dist[x]) {
+                    if (dist[x] == Double.POSITIVE_INFINITY) {
+                        touched[touchedCount++] = x;
+                    }
+                    dist[x] = d;
+                    heap.insertOrDecrease(x, d);
+                }
+            }
+
+            void reset() {
+                for (int i = 0; i < touchedCount; i++) {
+                    dist[touched[i]] = Double.POSITIVE_INFINITY;
+                }
+                touchedCount = 0;
+                heap.clear();
+            }
+        }
+    }
+
+    private static final class ShortcutBuffer {
+        int[] from = new int[4];
+        int[] to = new int[4];
+        double[] weight = new double[4];
+        int size;
+
+        void add(int u, int x, double w) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            from[size] = u;
+            to[size] = x;
+            weight[size] = w;
+            size++;
+        }
+    }
+}
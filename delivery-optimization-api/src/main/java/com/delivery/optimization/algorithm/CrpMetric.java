@@ -0,0 +1,251 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Customization of a {@link CrpOverlay} for one graph snapshot and one weight
+ * vector: for every cell, the shortest in-cell costs between all its boundary
+ * nodes (a clique), computed bottom-up with the cells of a level in parallel.
+ * <p>
+ * A query is a Dijkstra that uses, at each node, the cliques of the coarsest
+ * cell containing neither endpoint, so it crosses the map through the overlay
+ * and only touches original arcs near the origin and destination. Clique edges
+ * are unpacked into original arcs by searching inside their cell.
+ * <p>
+ * Re-customizing from the previous metric of the same overlay and weights only
+ * recomputes the cells containing an arc whose cost changed.
+ */
+public final class CrpMetric {
+
+    private final CrpOverlay overlay;
+    private final CsrGraph graph;
+    private final CostFunction.Weights weights;
+    private final double[] edgeCost;
+    private final double[][] clique; // [level][matrixOffset(cell) + i * k + j]
+
+    private final DijkstraWorkspace.Pool workspaces;
+
+    private CrpMetric(CrpOverlay overlay, CsrGraph graph, CostFunction.Weights weights, double[] edgeCost) {
+        this.overlay = overlay;
+        this.graph = graph;
+        this.weights = weights;
+        this.edgeCost = edgeCost;
+        this.clique = new double[overlay.levels()][];
+        this.workspaces = new DijkstraWorkspace.Pool(graph.nodeCount(), true);
+    }
+
+    /**
+     * Computes the cliques for {@code graph} (which must share the overlay's topology).
+     *
+     * @param previous Earlier metric to update incrementally, or null.
+     */
+    public static CrpMetric customize(CrpOverlay overlay, CsrGraph graph, CostFunction.Weights weights,
+            CrpMetric previous, ForkJoinPool pool) {
+        if (!overlay.getGraph().hasSameTopology(graph)) {
+            throw new IllegalArgumentException("Graph topology differs from the overlay");
+        }
+        int n = graph.nodeCount();
+        double[] edgeCost = graph.costs(weights);
+        CrpMetric metric = new CrpMetric(overlay, graph, weights, edgeCost);
+        int levels = overlay.levels();
+        boolean incremental = previous != null && previous.overlay == overlay && previous.weights.equals(weights);
+
+        boolean[][] dirty = new boolean[levels][];
+        for (int l = 0; l < levels; l++) {
+            dirty[l] = new boolean[overlay.cellCount(l)];
+            if (!incremental) {
+                Arrays.fill(dirty[l], true);
+            }
+        }
+        if (incremental) {
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    if (Double.compare(edgeCost[e], previous.edgeCost[e]) != 0) {
+                        int v = graph.target(e);
+                        for (int l = 0; l < levels; l++) {
+                            if (overlay.cellOf(l, u) == overlay.cellOf(l, v)) {
+                                dirty[l][overlay.cellOf(l, u)] = true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int l = 0; l < levels; l++) {
+            int level = l;
+            int[] cells = IntStream.range(0, dirty[l].length).filter(c -> dirty[level][c]).toArray();
+            if (incremental && cells.length == 0) {
+                metric.clique[l] = previous.clique[l];
+                continue;
+            }
+            metric.clique[l] = incremental ? previous.clique[l].clone() : new double[overlay.matrixSize(l)];
+            // Cells of a level are independent: each writes its own block
+            pool.submit(() -> IntStream.of(cells).parallel()
+                    .forEach(c -> metric.customizeCell(level, c))).join();
+        }
+        return metric;
+    }
+
+    public CrpOverlay getOverlay() {
+        return overlay;
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    public CostFunction.Weights getWeights() {
+        return weights;
+    }
+
+    private void customizeCell(int level, int cell) {
+        int k = overlay.boundaryCount(level, cell);
+        int offset = overlay.matrixOffset(level, cell);
+        DijkstraWorkspace ws = workspaces.borrow();
+        try {
+            for (int i = 0; i < k; i++) {
+                cellSearch(ws, overlay.boundaryNode(level, cell, i), -1, level, cell);
+                for (int j = 0; j < k; j++) {
+                    clique[level][offset + i * k + j] = ws.dist[overlay.boundaryNode(level, cell, j)];
+                }
+                ws.reset();
+            }
+        } finally {
+            workspaces.release(ws);
+        }
+    }
+
+    /**
+     * Dijkstra restricted to one level-l cell, over the level-(l-1) overlay.
+     * Stops early once {@code target} is settled (-1 for a full search).
+     */
+    private void cellSearch(DijkstraWorkspace ws, int source, int target, int level, int cell) {
+        ws.relax(source, 0.0, -1, -1);
+        while (!ws.heap.isEmpty()) {
+            int u = ws.heap.poll();
+            if (u == target) {
+                return;
+            }
+            relaxEdges(ws, u, level - 1, level, cell);
+        }
+    }
+
+    /**
+     * Relaxes the edges of {@code u} in the level-{@code sub} overlay graph: the
+     * clique of its level-{@code sub} cell plus the arcs leaving that cell (all
+     * arcs when {@code sub} is -1). Targets outside {@code restrictCell} at
+     * {@code restrictLevel} are skipped, unless {@code restrictLevel} is -1.
+     */
+    private void relaxEdges(DijkstraWorkspace ws, int u, int sub, int restrictLevel, int restrictCell) {
+        double du = ws.dist[u];
+        int ownCell = -1;
+        if (sub >= 0) {
+            ownCell = overlay.cellOf(sub, u);
+            int k = overlay.boundaryCount(sub, ownCell);
+            int row = overlay.matrixOffset(sub, ownCell) + overlay.boundaryIndex(sub, u) * k;
+            double[] costs = clique[sub];
+            for (int j = 0; j < k; j++) {
+                double w = costs[row + j];
+                int v = overlay.boundaryNode(sub, ownCell, j);
+                if (v != u && w < Double.POSITIVE_INFINITY) {
+                    ws.relax(v, du + w, u, sub);
+                }
+            }
+        }
+        for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+            int v = graph.target(e);
+            if (sub >= 0 && overlay.cellOf(sub, v) == ownCell) {
+                continue; // Inside the cell: covered by the clique
+            }
+            if (restrictLevel >= 0 && overlay.cellOf(restrictLevel, v) != restrictCell) {
+                continue;
+            }
+            ws.relax(v, du + edgeCost[e], u, -1);
+        }
+    }
+
+    /**
+     * Point-to-point query over the overlay.
+     *
+     * @return The path over original arcs, or null if unreachable.
+     */
+    public AStar.PathResult findPath(String originId, String destinationId) {
+        int source = graph.indexOf(originId);
+        int target = graph.indexOf(destinationId);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        DijkstraWorkspace ws = workspaces.borrow();
+        try {
+            ws.relax(source, 0.0, -1, -1);
+            while (!ws.heap.isEmpty()) {
+                int u = ws.heap.poll();
+                if (u == target) {
+                    return new AStar.PathResult(unpackPath(ws, source, target), ws.dist[target]);
+                }
+                relaxEdges(ws, u, queryLevel(u, source, target), -1, -1);
+            }
+            return null;
+        } finally {
+            workspaces.release(ws);
+        }
+    }
+
+    /**
+     * Coarsest level whose cell of {@code u} contains neither endpoint, -1 if none.
+     */
+    private int queryLevel(int u, int source, int target) {
+        for (int l = overlay.levels() - 1; l >= 0; l--) {
+            int cell = overlay.cellOf(l, u);
+            if (cell != overlay.cellOf(l, source) && cell != overlay.cellOf(l, target)) {
+                return l;
+            }
+        }
+        return -1;
+    }
+
+    private List<String> unpackPath(DijkstraWorkspace ws, int source, int target) {
+        List<int[]> edges = new ArrayList<>();
+        for (int v = target; v != source; v = ws.parent[v]) {
+            edges.add(new int[]{ws.parent[v], v, ws.parentTag[v]});
+        }
+        Collections.reverse(edges);
+        List<String> path = new ArrayList<>();
+        path.add(graph.nodeId(source));
+        for (int[] edge : edges) {
+            unpack(edge[0], edge[1], edge[2], path);
+        }
+        return path;
+    }
+
+    /**
+     * Appends the original nodes of the edge {@code from -> to} (excluding {@code from});
+     * a clique edge of level l is re-searched inside its cell on level l-1.
+     */
+    private void unpack(int from, int to, int level, List<String> path) {
+        if (level < 0) {
+            path.add(graph.nodeId(to));
+            return;
+        }
+        List<int[]> edges = new ArrayList<>();
+        DijkstraWorkspace ws = workspaces.borrow();
+        try {
+            cellSearch(ws, from, to, level, overlay.cellOf(level, from));
+            for (int v = to; v != from; v = ws.parent[v]) {
+                edges.add(new int[]{ws.parent[v], v, ws.parentTag[v]});
+            }
+        } finally {
+            workspaces.release(ws);
+        }
+        Collections.reverse(edges);
+        for (int[] edge : edges) {
+            unpack(edge[0], edge[1], edge[2], path);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Metric-independent part of customizable route planning (CRP): a nested
+ * multi-level partition of the graph and the boundary nodes of every cell.
+ * <p>
+ * Cells come from recursive geometric bisection (median split on the wider of
+ * latitude/longitude), so a level-l cell is always a union of level-(l-1) cells.
+ * Level 0 is the finest. A node is a boundary node of its level-l cell if one of
+ * its arcs, in either direction, crosses to another level-l cell.
+ * <p>
+ * Depends on the topology only: cost changes never rebuild it, they only
+ * re-run the customization ({@link CrpMetric}).
+ */
+public final class CrpOverlay {
+
+    private final CsrGraph graph;
+    private final int levels;
+    private final int[][] cellOf;            // [level][node]
+    private final int[] cellCount;           // [level]
+    private final int[][] boundaryOffsets;   // [level][cell .. cell+1]
+    private final int[][] boundaryNodes;     // [level][slot]
+    private final int[][] boundaryIndex;     // [level][node] -> index within its cell, -1 if interior
+    private final int[][] matrixOffsets;     // [level][cell] -> start of its k*k clique matrix
+
+    private CrpOverlay(CsrGraph graph, int[][] cellOf, int[] cellCount) {
+        this.graph = graph;
+        this.levels = cellCount.length;
+        this.cellOf = cellOf;
+        this.cellCount = cellCount;
+        int n = graph.nodeCount();
+        this.boundaryOffsets = new int[levels][];
+        this.boundaryNodes = new int[levels][];
+        this.boundaryIndex = new int[levels][];
+        this.matrixOffsets = new int[levels][];
+
+        for (int l = 0; l < levels; l++) {
+            int[] cells = cellOf[l];
+            boolean[] boundary = new boolean[n];
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    int v = graph.target(e);
+                    if (cells[u] != cells[v]) {
+                        boundary[u] = true;
+                        boundary[v] = true;
+                    }
+                }
+            }
+            int[] offsets = new int[cellCount[l] + 1];
+            for (int u = 0; u < n; u++) {
+                if (boundary[u]) {
+                    offsets[cells[u] + 1]++;
+                }
+            }
+            for (int c = 0; c < cellCount[l]; c++) {
+                offsets[c + 1] += offsets[c];
+            }
+            int[] cursor = offsets.clone();
+            int[] nodes = new int[offsets[cellCount[l]]];
+            int[] index = new int[n];
+            Arrays.fill(index, -1);
+            for (int u = 0; u < n; u++) {
+                if (boundary[u]) {
+                    int slot = cursor[cells[u]]++;
+                    nodes[slot] = u;
+                    index[u] = slot - offsets[cells[u]];
+                }
+            }
+            int[] matrices = new int[cellCount[l] + 1];
+            for (int c = 0; c < cellCount[l]; c++) {
+                int k = offsets[c + 1] - offsets[c];
+                matrices[c + 1] = matrices[c] + k * k;
+            }
+            boundaryOffsets[l] = offsets;
+            boundaryNodes[l] = nodes;
+            boundaryIndex[l] = index;
+            matrixOffsets[l] = matrices;
+        }
+    }
+
+    /**
+     * Partitions the graph with the given maximum cell size per level, finest first
+     * (sizes must be increasing).
+     */
+    public static CrpOverlay build(CsrGraph graph, int[] cellSizes) {
+        for (int l = 1; l < cellSizes.length; l++) {
+            if (cellSizes[l] <= cellSizes[l - 1]) {
+                throw new IllegalArgumentException("Cell sizes must be increasing: " + Arrays.toString(cellSizes));
+            }
+        }
+        int n = graph.nodeCount();
+        int levels = cellSizes.length;
+        int[][] cellOf = new int[levels][n];
+        int[] cellCount = new int[levels];
+        Integer[] order = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+        bisect(graph, order, 0, n, cellSizes, cellOf, cellCount, new boolean[levels]);
+        return new CrpOverlay(graph, cellOf, cellCount);
+    }
+
+    private static void bisect(CsrGraph graph, Integer[] order, int from, int to, int[] cellSizes,
+            int[][] cellOf, int[] cellCount, boolean[] assigned) {
+        int size = to - from;
+        boolean[] assignedHere = new boolean[assigned.length];
+        for (int l = cellSizes.length - 1; l >= 0; l--) {
+            if (!assigned[l] && size <= cellSizes[l]) {
+                int cell = cellCount[l]++;
+                for (int i = from; i < to; i++) {
+                    cellOf[l][order[i]] = cell;
+                }
+                assignedHere[l] = true;
+            }
+        }
+        if (assigned[0] || assignedHere[0]) {
+            return;
+        }
+        boolean[] childAssigned = assigned.clone();
+        for (int l = 0; l < assigned.length; l++) {
+            childAssigned[l] |= assignedHere[l];
+        }
+
+        // Median split on the wider coordinate; unlocated nodes sort last
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            double lat = graph.latitudeRad(order[i]);
+            double lon = graph.longitudeRad(order[i]);
+            if (!Double.isNaN(lat)) {
+                minLat = Math.min(minLat, lat);
+                maxLat = Math.max(maxLat, lat);
+                minLon = Math.min(minLon, lon);
+                maxLon = Math.max(maxLon, lon);
+            }
+        }
+        Comparator<Integer> byCoordinate = maxLat - minLat >= maxLon - minLon
+                ? Comparator.comparingDouble(graph::latitudeRad)
+                : Comparator.comparingDouble(graph::longitudeRad);
+        Arrays.sort(order, from, to, byCoordinate);
+        int mid = (from + to) >>> 1;
+        bisect(graph, order, from, mid, cellSizes, cellOf, cellCount, childAssigned);
+        bisect(graph, order, mid, to, cellSizes, cellOf, cellCount, childAssigned);
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    public int levels() {
+        return levels;
+    }
+
+    public int cellCount(int level) {
+        return cellCount[level];
+    }
+
+    public int cellOf(int level, int node) {
+        return cellOf[level][node];
+    }
+
+    public int boundaryCount(int level, int cell) {
+        return boundaryOffsets[level][cell + 1] - boundaryOffsets[level][cell];
+    }
+
+    public int boundaryNode(int level, int cell, int i) {
+        return boundaryNodes[level][boundaryOffsets[level][cell] + i];
+    }
+
+    /**
+     * Index of the node among the boundary nodes of its level-l cell, or -1.
+     */
+    public int boundaryIndex(int level, int node) {
+        return boundaryIndex[level][node];
+    }
+
+    int matrixOffset(int level, int cell) {
+        return matrixOffsets[level][cell];
+    }
+
+    int matrixSize(int level) {
+        return matrixOffsets[level][cellCount[level]];
+    }
+}
@@ -0,0 +1,453 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compressed sparse row form of the road graph: nodes are dense ints, the
+ * outgoing arcs of node u are the edges {@code offsets[u] .. offsets[u+1]-1},
+ * and every arc attribute is a primitive column indexed by edge.
+ * <p>
+ * Search code works on these arrays only (no boxing, no per-node objects).
+ * Immutable; {@link #withArcs} returns a patched copy when only costs change.
+ */
+public final class CsrGraph {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    // Weight profiles whose edge costs are kept per snapshot
+    private static final int COST_PROFILES = 8;
+
+    private final String[] nodeIds;
+    private final Map<String, Integer> nodeIndex;
+    private final double[] latRad;
+    private final double[] lonRad;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final long[] arcIds;
+    private final Map<Long, Integer> edgeOfArc;
+
+    // Reverse CSR: incoming edges of v are inEdges[inOffsets[v] .. inOffsets[v+1]-1]
+    private final int[] inOffsets;
+    private final int[] inEdges;
+    private final int[] sources;
+
+    private final double[] distance;
+    private final double[] travelTime;
+    private final double[] trafficFactor;
+    private final double[] penibility;
+    private final double[] weatherImpact;
+    private final double[] fuelCost;
+    // travelTime * trafficFactor, the time component actually costed
+    private final double[] congestedTime;
+
+    // Edge costs per weight profile, least recently used first
+    private final Map<CostFunction.Weights, double[]> costsByProfile =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CostFunction.Weights, double[]> eldest) {
+                    return size() > COST_PROFILES;
+                }
+            };
+
+    // Per cost component, the lowest cost per great-circle km over all edges (0 if unknown)
+    private final double[] minCostPerKm;
+
+    private CsrGraph(String[] nodeIds, Map<String, Integer> nodeIndex, double[] latRad, double[] lonRad,
+            int[] offsets, int[] targets, long[] arcIds, Map<Long, Integer> edgeOfArc,
+            int[] inOffsets, int[] inEdges, int[] sources, double[] distance, double[] travelTime, double[] trafficFactor,
+            double[] penibility, double[] weatherImpact, double[] fuelCost) {
+        this.nodeIds = nodeIds;
+        this.nodeIndex = nodeIndex;
+        this.latRad = latRad;
+        this.lonRad = lonRad;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.arcIds = arcIds;
+        this.edgeOfArc = edgeOfArc;
+        this.inOffsets = inOffsets;
+        this.inEdges = inEdges;
+        this.sources = sources;
+        this.distance = distance;
+        this.travelTime = travelTime;
+        this.trafficFactor = trafficFactor;
+        this.penibility = penibility;
+        this.weatherImpact = weatherImpact;
+        this.fuelCost = fuelCost;
+        this.congestedTime = new double[travelTime.length];
+        for (int e = 0; e < congestedTime.length; e++) {
+            congestedTime[e] = travelTime[e] * trafficFactor[e];
+        }
+        this.minCostPerKm = computeMinCostPerKm();
+    }
+
+    /**
+     * Builds the CSR arrays. Arc endpoints missing from {@code nodes} get a node
+     * without coordinates (zero heuristic).
+     */
+    public static CsrGraph of(Map<String, Node> nodes, Collection<Arc> arcs) {
+        Map<String, Integer> index = new LinkedHashMap<>();
+        for (String id : nodes.keySet()) {
+            index.put(id, index.size());
+        }
+        for (Arc a : arcs) {
+            index.putIfAbsent(a.getOriginId(), index.size());
+            index.putIfAbsent(a.getDestinationId(), index.size());
+        }
+        int n = index.size();
+        String[] ids = index.keySet().toArray(String[]::new);
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int u = 0; u < n; u++) {
+            Node node = nodes.get(ids[u]);
+            boolean located = node != null && node.getLatitude() != null && node.getLongitude() != null;
+            lat[u] = located ? Math.toRadians(node.getLatitude()) : Double.NaN;
+            lon[u] = located ? Math.toRadians(node.getLongitude()) : Double.NaN;
+        }
+
+        // Counting sort of the arcs by origin
+        int m = arcs.size();
+        int[] offsets = new int[n + 1];
+        for (Arc a : arcs) {
+            offsets[index.get(a.getOriginId()) + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] cursor = offsets.clone();
+        int[] targets = new int[m];
+        long[] arcIds = new long[m];
+        double[] distance = new double[m];
+        double[] travelTime = new double[m];
+        double[] trafficFactor = new double[m];
+        double[] penibility = new double[m];
+        double[] weatherImpact = new double[m];
+        double[] fuelCost = new double[m];
+        Map<Long, Integer> edgeOfArc = new HashMap<>();
+        for (Arc a : arcs) {
+            int e = cursor[index.get(a.getOriginId())]++;
+            targets[e] = index.get(a.getDestinationId());
+            arcIds[e] = a.getId() != null ? a.getId() : -1;
+            if (a.getId() != null) {
+                edgeOfArc.put(a.getId(), e);
+            }
+            distance[e] = orZero(a.getDistance());
+            travelTime[e] = orZero(a.getTravelTime());
+            trafficFactor[e] = a.getTrafficFactor() != null ? a.getTrafficFactor() : 1.0;
+            penibility[e] = orZero(a.getPenibility());
+            weatherImpact[e] = orZero(a.getWeatherImpact());
+            fuelCost[e] = orZero(a.getFuelCost());
+        }
+
+        int[] sources = new int[m];
+        int[] inOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                sources[e] = u;
+                inOffsets[targets[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] inCursor = inOffsets.clone();
+        int[] inEdges = new int[m];
+        for (int e = 0; e < m; e++) {
+            inEdges[inCursor[targets[e]]++] = e;
+        }
+        return new CsrGraph(ids, index, lat, lon, offsets, targets, arcIds, edgeOfArc,
+                inOffsets, inEdges, sources, distance, travelTime, trafficFactor, penibility, weatherImpact, fuelCost);
+    }
+
+    /**
+     * Copy with the cost columns of the given arcs patched, sharing the topology.
+     * Returns null if an arc is new or changed endpoints: the caller must rebuild.
+     */
+    public CsrGraph withArcs(Collection<Arc> updated) {
+        double[] dist = distance.clone();
+        double[] time = travelTime.clone();
+        double[] tf = trafficFactor.clone();
+        double[] pen = penibility.clone();
+        double[] weather = weatherImpact.clone();
+        double[] fuel = fuelCost.clone();
+        for (Arc a : updated) {
+            Integer e = a.getId() != null ? edgeOfArc.get(a.getId()) : null;
+            if (e == null || targets[e] != indexOf(a.getDestinationId()) || !isEdgeOf(e, a.getOriginId())) {
+                return null;
+            }
+            dist[e] = orZero(a.getDistance());
+            time[e] = orZero(a.getTravelTime());
+            tf[e] = a.getTrafficFactor() != null ? a.getTrafficFactor() : 1.0;
+            pen[e] = orZero(a.getPenibility());
+            weather[e] = orZero(a.getWeatherImpact());
+            fuel[e] = orZero(a.getFuelCost());
+        }
+        return new CsrGraph(nodeIds, nodeIndex, latRad, lonRad, offsets, targets, arcIds, edgeOfArc,
+                inOffsets, inEdges, sources, dist, time, tf, pen, weather, fuel);
+    }
+
+    /**
+     * Number of cost components: distance, time (with traffic), penibility, weather, fuel.
+     */
+    public static final int COMPONENTS = 5;
+
+    /**
+     * Unweighted cost component {@code c} of an edge, in {@link #COMPONENTS} order.
+     */
+    public double componentCost(int e, int c) {
+        switch (c) {
+            case 0:
+                return distance[e];
+            case 1:
+                return congestedTime[e];
+            case 2:
+                return penibility[e];
+            case 3:
+                return weatherImpact[e];
+            case 4:
+                return fuelCost[e];
+            default:
+                throw new IllegalArgumentException("Unknown cost component " + c);
+        }
+    }
+
+    /**
+     * Weight of component {@code c} in a weight vector.
+     */
+    public static double weightOf(CostFunction.Weights w, int c) {
+        switch (c) {
+            case 0:
+                return w.getAlpha();
+            case 1:
+                return w.getBeta();
+            case 2:
+                return w.getGamma();
+            case 3:
+                return w.getDelta();
+            case 4:
+                return w.getEta();
+            default:
+                throw new IllegalArgumentException("Unknown cost component " + c);
+        }
+    }
+
+    /**
+     * Composite cost per great-circle km that no path can beat, so that
+     * {@code costPerKmLowerBound(w) * haversineKm(u, v)} is an admissible and
+     * consistent A* heuristic. 0 when some node has no coordinates.
+     */
+    public double costPerKmLowerBound(CostFunction.Weights w) {
+        double bound = 0;
+        for (int c = 0; c < COMPONENTS; c++) {
+            bound += weightOf(w, c) * minCostPerKm[c];
+        }
+        return bound;
+    }
+
+    private double[] computeMinCostPerKm() {
+        double[] min = new double[COMPONENTS];
+        for (double lat : latRad) {
+            if (Double.isNaN(lat)) {
+                return min; // A path through an unlocated node escapes the geometry
+            }
+        }
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        for (int u = 0; u < nodeIds.length; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                double km = haversineKm(u, targets[e]);
+                if (km > 0) {
+                    for (int c = 0; c < COMPONENTS; c++) {
+                        min[c] = Math.min(min[c], componentCost(e, c) / km);
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < COMPONENTS; c++) {
+            min[c] = Double.isInfinite(min[c]) ? 0 : Math.max(0, min[c]);
+        }
+        return min;
+    }
+
+    /**
+     * True if both graphs share the same nodes and edges (one is a cost patch of the other).
+     */
+    public boolean hasSameTopology(CsrGraph other) {
+        return other != null && offsets == other.offsets && targets == other.targets;
+    }
+
+    private boolean isEdgeOf(int e, String originId) {
+        int u = indexOf(originId);
+        return u >= 0 && e >= offsets[u] && e < offsets[u + 1];
+    }
+
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Dense index of a node, or -1.
+     */
+    public int indexOf(String nodeId) {
+        Integer u = nodeIndex.get(nodeId);
+        return u != null ? u : -1;
+    }
+
+    public String nodeId(int u) {
+        return nodeIds[u];
+    }
+
+    public int firstEdge(int u) {
+        return offsets[u];
+    }
+
+    public int endEdge(int u) {
+        return offsets[u + 1];
+    }
+
+    public int target(int e) {
+        return targets[e];
+    }
+
+    /**
+     * First slot of the incoming edges of {@code v}, see {@link #inEdge}.
+     */
+    public int firstInEdge(int v) {
+        return inOffsets[v];
+    }
+
+    public int endInEdge(int v) {
+        return inOffsets[v + 1];
+    }
+
+    /**
+     * Edge index stored in an incoming slot.
+     */
+    public int inEdge(int slot) {
+        return inEdges[slot];
+    }
+
+    /**
+     * Origin node of edge {@code e}.
+     */
+    public int source(int e) {
+        return sources[e];
+    }
+
+    public long arcId(int e) {
+        return arcIds[e];
+    }
+
+    /**
+     * Section 3.3.1 composite cost of an edge, with the dynamic traffic factor on time.
+     */
+    public double cost(int e, CostFunction.Weights w) {
+        return w.getAlpha() * distance[e]
+                + w.getBeta() * congestedTime[e]
+                + w.getGamma() * penibility[e]
+                + w.getDelta() * weatherImpact[e]
+                + w.getEta() * fuelCost[e];
+    }
+
+    /**
+     * Composite cost of every edge for {@code w}, indexed by edge, so that a
+     * relaxation is one array read. Computed once per snapshot and profile
+     * (the last {@value #COST_PROFILES} profiles are kept); callers must not modify it.
+     */
+    public double[] costs(CostFunction.Weights w) {
+        synchronized (costsByProfile) {
+            double[] cached = costsByProfile.get(w);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        double[] computed = computeCosts(w);
+        synchronized (costsByProfile) {
+            double[] raced = costsByProfile.putIfAbsent(w, computed);
+            return raced != null ? raced : computed;
+        }
+    }
+
+    /**
+     * One pass over the columns with the weights hoisted: a straight multiply-add
+     * loop that the JIT vectorizes.
+     */
+    private double[] computeCosts(CostFunction.Weights w) {
+        double a = w.getAlpha();
+        double b = w.getBeta();
+        double c = w.getGamma();
+        double d = w.getDelta();
+        double f = w.getEta();
+        int m = distance.length;
+        double[] out = new double[m];
+        for (int e = 0; e < m; e++) {
+            out[e] = a * distance[e] + b * congestedTime[e] + c * penibility[e] + d * weatherImpact[e]
+                    + f * fuelCost[e];
+        }
+        return out;
+    }
+
+    public double distance(int e) {
+        return distance[e];
+    }
+
+    public double travelTime(int e) {
+        return travelTime[e];
+    }
+
+    public double trafficFactor(int e) {
+        return trafficFactor[e];
+    }
+
+    public double penibility(int e) {
+        return penibility[e];
+    }
+
+    public double weatherImpact(int e) {
+        return weatherImpact[e];
+    }
+
+    public double fuelCost(int e) {
+        return fuelCost[e];
+    }
+
+    /**
+     * Latitude in radians, NaN if the node is not located.
+     */
+    public double latitudeRad(int u) {
+        return latRad[u];
+    }
+
+    public double longitudeRad(int u) {
+        return lonRad[u];
+    }
+
+    /**
+     * Great-circle distance in km between two nodes, 0 if one is not located.
+     */
+    public double haversineKm(int u, int v) {
+        double lat1 = latRad[u];
+        double lat2 = latRad[v];
+        if (Double.isNaN(lat1) || Double.isNaN(lat2)) {
+            return 0;
+        }
+        double dLat = lat2 - lat1;
+        double dLon = lonRad[v] - lonRad[u];
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static double orZero(Double d) {
+        return d != null ? d : 0.0;
+    }
+}
@@ -0,0 +1,227 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental shortest path from a moving start to a fixed goal (D* Lite).
+ * <p>
+ * The search runs backwards from the goal over incoming edges and keeps its
+ * state between calls: g is the cost to the goal of every node reached so far,
+ * rhs its one-step lookahead. When edge costs change ({@link #update}) only the
+ * nodes whose lookahead changed are requeued, and the repair stops as soon as
+ * the start is consistent again, so a single arc change usually re-expands a
+ * handful of nodes instead of rerunning the whole search. When the start moves
+ * ({@link #moveStart}) the queued keys are offset by km instead of rebuilt.
+ * <p>
+ * The heuristic is the A* great-circle bound with the cost per km frozen at
+ * creation; a snapshot with a lower bound, or a new topology, restarts the
+ * search from scratch. Not thread-safe.
+ */
+public final class DStarLite {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    private final CostFunction.Weights weights;
+    private final String goalId;
+    private String startId;
+
+    private CsrGraph graph;
+    private double[] cost;
+    private double perKm;
+    private int start;
+    private int goal;
+    private double km;
+    private double[] g;
+    private double[] rhs;
+    private IndexedMinHeap open;
+    private int expansions;
+
+    private DStarLite(CostFunction.Weights weights, String startId, String goalId) {
+        this.weights = weights;
+        this.startId = startId;
+        this.goalId = goalId;
+    }
+
+    /**
+     * Searches the shortest path from {@code start} to {@code goal} and keeps the search state.
+     */
+    public static DStarLite create(CsrGraph graph, String start, String goal, CostFunction.Weights weights) {
+        DStarLite search = new DStarLite(weights, start, goal);
+        search.initialize(graph);
+        return search;
+    }
+
+    private void initialize(CsrGraph graph) {
+        int n = graph.nodeCount();
+        this.graph = graph;
+        this.cost = graph.costs(weights);
+        this.perKm = graph.costPerKmLowerBound(weights);
+        this.start = graph.indexOf(startId);
+        this.goal = graph.indexOf(goalId);
+        this.km = 0;
+        this.g = new double[n];
+        this.rhs = new double[n];
+        this.open = new IndexedMinHeap(n);
+        this.expansions = 0;
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        if (start >= 0 && goal >= 0) {
+            rhs[goal] = 0;
+            open.update(goal, keyOf(goal));
+            computeShortestPath();
+        }
+    }
+
+    /**
+     * Moves the search to a new snapshot and repairs it where edge costs changed
+     * (found by one pass over the edge costs, far cheaper than the search itself).
+     */
+    public void update(CsrGraph next) {
+        if (next == graph) {
+            return;
+        }
+        if (!next.hasSameTopology(graph) || next.costPerKmLowerBound(weights) < perKm) {
+            // Node indices or the heuristic no longer hold: start over
+            initialize(next);
+            return;
+        }
+        double[] previous = cost;
+        graph = next;
+        cost = next.costs(weights);
+        expansions = 0;
+        if (start < 0 || goal < 0) {
+            return;
+        }
+        for (int e = 0; e < cost.length; e++) {
+            // An edge into an unreached node weighs nothing in any lookahead
+            if (cost[e] != previous[e] && g[graph.target(e)] != INF) {
+                updateVertex(graph.source(e));
+            }
+        }
+        computeShortestPath();
+    }
+
+    /**
+     * Restarts the remaining path from another node, e.g. where the driver now is.
+     */
+    public void moveStart(String nodeId) {
+        int next = graph.indexOf(nodeId);
+        startId = nodeId;
+        expansions = 0;
+        if (next < 0 || start < 0 || goal < 0) {
+            initialize(graph);
+            return;
+        }
+        km += heuristic(start, next);
+        start = next;
+        computeShortestPath();
+    }
+
+    /**
+     * Cost of the shortest path from the start to the goal, infinite if there is none.
+     */
+    public double cost() {
+        return start < 0 || goal < 0 ? INF : g[start];
+    }
+
+    /**
+     * Shortest path from the start to the goal as node IDs, or null if there is none.
+     */
+    public List<String> path() {
+        if (cost() == INF) {
+            return null;
+        }
+        List<String> path = new ArrayList<>();
+        int u = start;
+        path.add(graph.nodeId(u));
+        // Follow the cheapest lookahead; g is exact along the shortest path
+        for (int steps = 0; u != goal; steps++) {
+            if (steps >= graph.nodeCount()) {
+                return null;
+            }
+            int next = -1;
+            double best = INF;
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                double through = cost[e] + g[graph.target(e)];
+                if (through < best) {
+                    best = through;
+                    next = graph.target(e);
+                }
+            }
+            if (next < 0) {
+                return null;
+            }
+            u = next;
+            path.add(graph.nodeId(u));
+        }
+        return path;
+    }
+
+    /**
+     * Nodes expanded by the last creation, update or move.
+     */
+    public int expansions() {
+        return expansions;
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Expands inconsistent nodes until the start is consistent and no queued key
+     * is below its own. Keys are compared on their first component only, so ties
+     * with the start are expanded too rather than left for a second key to order.
+     */
+    private void computeShortestPath() {
+        while (!open.isEmpty()) {
+            double top = open.peekPriority();
+            if (top > keyOf(start) && rhs[start] == g[start]) {
+                return;
+            }
+            int u = open.peek();
+            double current = keyOf(u);
+            if (top < current) {
+                // Key set before the start moved: requeue at its true value
+                open.update(u, current);
+                continue;
+            }
+            expansions++;
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                open.remove(u);
+            } else {
+                g[u] = INF;
+                updateVertex(u);
+            }
+            for (int slot = graph.firstInEdge(u); slot < graph.endInEdge(u); slot++) {
+                updateVertex(graph.source(graph.inEdge(slot)));
+            }
+        }
+    }
+
+    private void updateVertex(int u) {
+        if (u != goal) {
+            double best = INF;
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                best = Math.min(best, cost[e] + g[graph.target(e)]);
+            }
+            rhs[u] = best;
+        }
+        if (g[u] != rhs[u]) {
+            open.update(u, keyOf(u));
+        } else {
+            open.remove(u);
+        }
+    }
+
+    private double keyOf(int u) {
+        return Math.min(g[u], rhs[u]) + heuristic(start, u) + km;
+    }
+
+    private double heuristic(int from, int to) {
+        return perKm == 0 ? 0 : perKm * graph.haversineKm(from, to);
+    }
+}
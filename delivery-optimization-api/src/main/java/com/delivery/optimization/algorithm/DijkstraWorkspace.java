@@ -0,0 +1,108 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Label-setting search state over all nodes of a graph (tentative distance,
+ * optional parent and parent tag, open set), reused across searches: a search
+ * records the nodes it reaches, so {@link #reset()} costs the size of the
+ * search instead of the size of the graph.
+ * <p>
+ * Not thread-safe; concurrent searches each borrow one from a {@link Pool}.
+ */
+final class DijkstraWorkspace {
+
+    final double[] dist;
+    // Predecessor of each reached node and a caller-defined tag (edge kind, overlay level), or null
+    final int[] parent;
+    final int[] parentTag;
+    final IndexedMinHeap heap;
+    private final int[] touched;
+    private int touchedCount;
+
+    DijkstraWorkspace(int nodeCount, boolean parents) {
+        dist = new double[nodeCount];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        parent = parents ? new int[nodeCount] : null;
+        parentTag = parents ? new int[nodeCount] : null;
+        touched = new int[nodeCount];
+        heap = new IndexedMinHeap(nodeCount);
+    }
+
+    /**
+     * Lowers the distance of {@code v} to {@code d} and queues it with key {@code d}, if better.
+     */
+    void relax(int v, double d) {
+        if (d < dist[v]) {
+            touch(v, d);
+            heap.insertOrDecrease(v, d);
+        }
+    }
+
+    /**
+     * Same as {@link #relax(int, double)}, recording the predecessor and its tag.
+     */
+    void relax(int v, double d, int from, int tag) {
+        relax(v, d, from, tag, d);
+    }
+
+    /**
+     * Same as {@link #relax(int, double, int, int)} with a queue key of its own, e.g. {@code d}
+     * plus an A* heuristic.
+     */
+    void relax(int v, double d, int from, int tag, double key) {
+        if (d < dist[v]) {
+            touch(v, d);
+            parent[v] = from;
+            parentTag[v] = tag;
+            heap.insertOrDecrease(v, key);
+        }
+    }
+
+    private void touch(int v, double d) {
+        if (dist[v] == Double.POSITIVE_INFINITY) {
+            touched[touchedCount++] = v;
+        }
+        dist[v] = d;
+    }
+
+    /**
+     * Clears the state left by the last search.
+     */
+    void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            dist[touched[i]] = Double.POSITIVE_INFINITY;
+        }
+        touchedCount = 0;
+        heap.clear();
+    }
+
+    /**
+     * Workspaces of one graph shared by concurrent searches; at most one per
+     * thread that ever searched at the same time.
+     */
+    static final class Pool {
+        private final int nodeCount;
+        private final boolean parents;
+        private final ConcurrentLinkedQueue<DijkstraWorkspace> free = new ConcurrentLinkedQueue<>();
+
+        Pool(int nodeCount, boolean parents) {
+            this.nodeCount = nodeCount;
+            this.parents = parents;
+        }
+
+        DijkstraWorkspace borrow() {
+            DijkstraWorkspace ws = free.poll();
+            return ws != null ? ws : new DijkstraWorkspace(nodeCount, parents);
+        }
+
+        /**
+         * Resets a workspace and makes it available again.
+         */
+        void release(DijkstraWorkspace ws) {
+            ws.reset();
+            free.offer(ws);
+        }
+    }
+}
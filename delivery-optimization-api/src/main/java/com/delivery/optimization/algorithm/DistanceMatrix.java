@@ -0,0 +1,146 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Many-to-many shortest paths between a set of locations: composite cost, and
+ * the travel time (with traffic) and distance along each cheapest path.
+ * <p>
+ * Computed with one pruned Dijkstra per source, the sources running in parallel:
+ * a search stops as soon as every location is settled. Works for any weights
+ * and any snapshot, with no preprocessing. Unreachable or unknown pairs are
+ * {@code +Infinity}.
+ */
+public final class DistanceMatrix {
+
+    private final List<String> ids;
+    private final Map<String, Integer> index;
+    // Row-major size x size
+    private final double[] cost;
+    private final double[] time;
+    private final double[] distance;
+
+    private DistanceMatrix(List<String> ids, double[] cost, double[] time, double[] distance) {
+        this.ids = List.copyOf(ids);
+        this.index = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            index.putIfAbsent(ids.get(i), i);
+        }
+        this.cost = cost;
+        this.time = time;
+        this.distance = distance;
+    }
+
+    /**
+     * Computes the full matrix between {@code ids} (graph node IDs, duplicates allowed).
+     */
+    public static DistanceMatrix compute(CsrGraph graph, List<String> ids, CostFunction.Weights weights,
+            ForkJoinPool pool) {
+        int size = ids.size();
+        int[] nodes = ids.stream().mapToInt(graph::indexOf).toArray();
+        double[] cost = new double[size * size];
+        double[] time = new double[size * size];
+        double[] distance = new double[size * size];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        Arrays.fill(time, Double.POSITIVE_INFINITY);
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < size; i++) {
+            cost[i * size + i] = 0;
+            time[i * size + i] = 0;
+            distance[i * size + i] = 0;
+        }
+
+        // Each graph node may stand for several locations
+        Map<Integer, List<Integer>> columnsOf = new HashMap<>();
+        for (int col = 0; col < size; col++) {
+            if (nodes[col] >= 0) {
+                columnsOf.computeIfAbsent(nodes[col], k -> new ArrayList<>()).add(col);
+            }
+        }
+
+        pool.submit(() -> IntStream.range(0, size).parallel()
+                .filter(row -> nodes[row] >= 0)
+                .forEach(row -> oneToMany(graph, weights, nodes[row], row * size, columnsOf,
+                        cost, time, distance))).join();
+        return new DistanceMatrix(ids, cost, time, distance);
+    }
+
+    /**
+     * Dijkstra from {@code source}, filling the row starting at {@code rowOffset};
+     * stops once every location node is settled.
+     */
+    private static void oneToMany(CsrGraph graph, CostFunction.Weights weights, int source, int rowOffset,
+            Map<Integer, List<Integer>> columnsOf, double[] cost, double[] time, double[] distance) {
+        int n = graph.nodeCount();
+        double[] edgeCost = graph.costs(weights);
+        int remaining = columnsOf.size();
+
+        double[] g = new double[n];
+        double[] t = new double[n];
+        double[] d = new double[n];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        g[source] = 0;
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty() && remaining > 0) {
+            int u = heap.poll();
+            List<Integer> columns = columnsOf.get(u);
+            if (columns != null) {
+                remaining--;
+                for (int col : columns) {
+                    cost[rowOffset + col] = g[u];
+                    time[rowOffset + col] = t[u];
+                    distance[rowOffset + col] = d[u];
+                }
+            }
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
+                double candidate = g[u] + edgeCost[e];
+                if (candidate < g[v]) {
+                    g[v] = candidate;
+                    t[v] = t[u] + graph.travelTime(e) * graph.trafficFactor(e);
+                    d[v] = d[u] + graph.distance(e);
+                    heap.insertOrDecrease(v, candidate);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * Row/column of a location, or -1.
+     */
+    public int indexOf(String id) {
+        Integer i = index.get(id);
+        return i != null ? i : -1;
+    }
+
+    public double cost(int from, int to) {
+        return cost[from * ids.size() + to];
+    }
+
+    public double time(int from, int to) {
+        return time[from * ids.size() + to];
+    }
+
+    public double distance(int from, int to) {
+        return distance[from * ids.size() + to];
+    }
+
+    public boolean isReachable(int from, int to) {
+        return cost(from, to) < Double.POSITIVE_INFINITY;
+    }
+}
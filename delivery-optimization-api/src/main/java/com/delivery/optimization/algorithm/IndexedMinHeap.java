@@ -0,0 +1,173 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over the int keys {@code 0 .. capacity-1} with double
+ * priorities, supporting decrease-key (and arbitrary updates and removals).
+ * <p>
+ * A position index gives O(1) membership tests and O(log n) priority updates,
+ * so a search never scans its open set nor queues the same node twice.
+ * The heap can be {@link #clear() cleared} in O(size) and reused.
+ */
+public final class IndexedMinHeap {
+
+    private final int[] heap;       // heap slot -> key
+    private final int[] position;   // key -> heap slot, -1 if absent
+    private final double[] priority; // key -> priority
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.priority = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int key) {
+        return position[key] >= 0;
+    }
+
+    public double priorityOf(int key) {
+        return priority[key];
+    }
+
+    /**
+     * Smallest priority currently queued.
+     */
+    public double peekPriority() {
+        return priority[heap[0]];
+    }
+
+    /**
+     * Key with the smallest priority, left queued.
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Inserts a key, or lowers its priority if already queued (higher priorities are ignored).
+     *
+     * @return True if the heap changed.
+     */
+    public boolean insertOrDecrease(int key, double p) {
+        int slot = position[key];
+        if (slot < 0) {
+            slot = size++;
+            heap[slot] = key;
+            position[key] = slot;
+            priority[key] = p;
+            siftUp(slot);
+            return true;
+        }
+        if (p < priority[key]) {
+            priority[key] = p;
+            siftUp(slot);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Inserts a key, or moves it to priority {@code p} whether lower or higher.
+     */
+    public void update(int key, double p) {
+        if (!insertOrDecrease(key, p) && p > priority[key]) {
+            priority[key] = p;
+            siftDown(position[key]);
+        }
+    }
+
+    /**
+     * Removes a key if queued.
+     */
+    public void remove(int key) {
+        int slot = position[key];
+        if (slot < 0) {
+            return;
+        }
+        position[key] = -1;
+        size--;
+        if (slot < size) {
+            int last = heap[size];
+            heap[slot] = last;
+            position[last] = slot;
+            siftDown(slot);
+            siftUp(position[last]);
+        }
+    }
+
+    /**
+     * Removes and returns the key with the smallest priority.
+     */
+    public int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Empties the heap, touching only the queued keys.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int key = heap[slot];
+        double p = priority[key];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            int parentKey = heap[parent];
+            if (priority[parentKey] <= p) {
+                break;
+            }
+            heap[slot] = parentKey;
+            position[parentKey] = slot;
+            slot = parent;
+        }
+        heap[slot] = key;
+        position[key] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int key = heap[slot];
+        double p = priority[key];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && priority[heap[right]] < priority[heap[child]]) {
+                child = right;
+            }
+            int childKey = heap[child];
+            if (p <= priority[childKey]) {
+                break;
+            }
+            heap[slot] = childKey;
+            position[childKey] = slot;
+            slot = child;
+        }
+        heap[slot] = key;
+        position[key] = slot;
+    }
+}
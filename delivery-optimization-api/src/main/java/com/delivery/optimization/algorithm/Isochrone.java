@@ -0,0 +1,114 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Nodes reachable from a source within a travel-time budget (seconds, with
+ * traffic), and the fastest travel time to each.
+ * <p>
+ * A one-to-many Dijkstra on {@code travelTime * trafficFactor} that stops at
+ * the first node beyond the budget, so it only touches the isochrone and its
+ * frontier. Results are kept as primitive arrays in increasing time order.
+ */
+public final class Isochrone {
+
+    private final CsrGraph graph;
+    private final int source;
+    private final double budget;
+    private final int[] nodes;
+    private final double[] times;
+
+    private Isochrone(CsrGraph graph, int source, double budget, int[] nodes, double[] times) {
+        this.graph = graph;
+        this.source = source;
+        this.budget = budget;
+        this.nodes = nodes;
+        this.times = times;
+    }
+
+    /**
+     * Isochrone of {@code source} (graph index) for {@code budgetSeconds}.
+     */
+    public static Isochrone compute(CsrGraph graph, int source, double budgetSeconds) {
+        return compute(graph, source, budgetSeconds, new DijkstraWorkspace(graph.nodeCount(), false));
+    }
+
+    /**
+     * Isochrones of several sources, computed in parallel on {@code pool}; same order as {@code sources}.
+     */
+    public static Isochrone[] computeAll(CsrGraph graph, int[] sources, double budgetSeconds, ForkJoinPool pool) {
+        Isochrone[] result = new Isochrone[sources.length];
+        // One workspace per worker at most: each search only resets what it touched
+        DijkstraWorkspace.Pool workspaces = new DijkstraWorkspace.Pool(graph.nodeCount(), false);
+        pool.submit(() -> IntStream.range(0, sources.length).parallel().forEach(i -> {
+            DijkstraWorkspace ws = workspaces.borrow();
+            try {
+                result[i] = compute(graph, sources[i], budgetSeconds, ws);
+            } finally {
+                workspaces.release(ws);
+            }
+        })).join();
+        return result;
+    }
+
+    private static Isochrone compute(CsrGraph graph, int source, double budget, DijkstraWorkspace ws) {
+        int[] nodes = new int[16];
+        double[] times = new double[16];
+        int count = 0;
+        try {
+            ws.relax(source, 0.0);
+            while (!ws.heap.isEmpty()) {
+                int u = ws.heap.poll();
+                double tu = ws.dist[u];
+                if (tu > budget) {
+                    break; // Every remaining node is farther
+                }
+                if (count == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, count * 2);
+                    times = Arrays.copyOf(times, count * 2);
+                }
+                nodes[count] = u;
+                times[count] = tu;
+                count++;
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    ws.relax(graph.target(e), tu + graph.travelTime(e) * graph.trafficFactor(e));
+                }
+            }
+        } finally {
+            ws.reset();
+        }
+        return new Isochrone(graph, source, budget, Arrays.copyOf(nodes, count), Arrays.copyOf(times, count));
+    }
+
+    public String getSourceId() {
+        return graph.nodeId(source);
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    /**
+     * Number of reachable nodes, the source included.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Graph index of the i-th reachable node (increasing travel time).
+     */
+    public int node(int i) {
+        return nodes[i];
+    }
+
+    public String nodeId(int i) {
+        return graph.nodeId(nodes[i]);
+    }
+
+    public double time(int i) {
+        return times[i];
+    }
+}
@@ -0,0 +1,241 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * ALT preprocessing (A*, Landmarks, Triangle inequality).
+ * <p>
+ * For a few landmarks L, stores the shortest distances d(L, v) and d(v, L) of
+ * every node, separately for each cost component. The triangle inequality gives
+ * per component {@code d(v, t) >= max(d(L, t) - d(L, v), d(v, L) - d(t, L))},
+ * and a path optimal for the composite cost costs at least the weighted sum of
+ * these component bounds. The heuristic is therefore admissible and consistent
+ * for any non-negative weight vector, without preprocessing per weight vector.
+ * <p>
+ * The index stays valid for a later snapshot as long as no edge component got
+ * cheaper ({@link #isAdmissibleFor}).
+ */
+public final class LandmarkIndex {
+
+    private static final int C = CsrGraph.COMPONENTS;
+
+    private final CsrGraph graph;
+    private final int[] landmarks;
+    private final int k;
+    // [component][node * k + landmark]
+    private final double[][] fromLandmark;
+    private final double[][] toLandmark;
+
+    private LandmarkIndex(CsrGraph graph, int[] landmarks, double[][] fromLandmark, double[][] toLandmark) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.k = landmarks.length;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    /**
+     * Selects up to {@code landmarkCount} landmarks (farthest-first by hops) and
+     * runs the forward and backward searches of every landmark and component on {@code pool}.
+     */
+    public static LandmarkIndex build(CsrGraph graph, int landmarkCount, ForkJoinPool pool) {
+        int n = graph.nodeCount();
+        int[] landmarks = selectLandmarks(graph, Math.min(landmarkCount, n));
+        int count = landmarks.length;
+        double[][] from = new double[C][n * count];
+        double[][] to = new double[C][n * count];
+        pool.submit(() -> IntStream.range(0, count * C * 2).parallel().forEach(task -> {
+            int landmark = task / (C * 2);
+            int component = (task / 2) % C;
+            boolean forward = task % 2 == 0;
+            double[] dist = dijkstra(graph, landmarks[landmark], component, forward);
+            double[] column = forward ? from[component] : to[component];
+            for (int v = 0; v < n; v++) {
+                column[v * count + landmark] = dist[v];
+            }
+        })).join();
+        return new LandmarkIndex(graph, landmarks, from, to);
+    }
+
+    /**
+     * Farthest-first selection: each landmark is the node with the most hops from
+     * the previous ones (unreached nodes first, so every component gets one).
+     */
+    private static int[] selectLandmarks(CsrGraph graph, int count) {
+        int n = graph.nodeCount();
+        List<Integer> chosen = new ArrayList<>();
+        int[] minHops = new int[n];
+        Arrays.fill(minHops, Integer.MAX_VALUE);
+        int next = n > 0 ? farthest(bfs(graph, 0), new boolean[n]) : -1;
+        boolean[] isLandmark = new boolean[n];
+        while (next >= 0 && chosen.size() < count) {
+            chosen.add(next);
+            isLandmark[next] = true;
+            int[] hops = bfs(graph, next);
+            for (int v = 0; v < n; v++) {
+                minHops[v] = Math.min(minHops[v], hops[v]);
+            }
+            next = farthest(minHops, isLandmark);
+        }
+        return chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int farthest(int[] hops, boolean[] excluded) {
+        int best = -1;
+        for (int v = 0; v < hops.length; v++) {
+            if (!excluded[v] && (best < 0 || hops[v] > hops[best])) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    private static int[] bfs(CsrGraph graph, int source) {
+        int[] hops = new int[graph.nodeCount()];
+        Arrays.fill(hops, Integer.MAX_VALUE);
+        int[] queue = new int[graph.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        hops[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
+                if (hops[v] == Integer.MAX_VALUE) {
+                    hops[v] = hops[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return hops;
+    }
+
+    /**
+     * Single-component Dijkstra from {@code source}, over the reverse graph when not {@code forward}.
+     */
+    private static double[] dijkstra(CsrGraph graph, int source, int component, boolean forward) {
+        int n = graph.nodeCount();
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        dist[source] = 0;
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (forward) {
+                for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                    relax(dist, heap, graph.target(e), dist[u] + graph.componentCost(e, component));
+                }
+            } else {
+                for (int i = graph.firstInEdge(u); i < graph.endInEdge(u); i++) {
+                    int e = graph.inEdge(i);
+                    relax(dist, heap, graph.source(e), dist[u] + graph.componentCost(e, component));
+                }
+            }
+        }
+        return dist;
+    }
+
+    private static void relax(double[] dist, IndexedMinHeap heap, int v, double d) {
+        if (d < dist[v]) {
+            dist[v] = d;
+            heap.insertOrDecrease(v, d);
+        }
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * True if the bounds still hold on {@code other}: same topology and no edge
+     * component cheaper than when the index was built (distances only grew).
+     */
+    public boolean isAdmissibleFor(CsrGraph other) {
+        if (other == graph) {
+            return true;
+        }
+        if (!graph.hasSameTopology(other)) {
+            return false;
+        }
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            for (int c = 0; c < C; c++) {
+                if (other.componentCost(e, c) < graph.componentCost(e, c)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Heuristic towards a fixed target for one weight vector: bounds d(v, target).
+     */
+    public Estimator towards(int target, CostFunction.Weights weights) {
+        return new Estimator(target, weights, false);
+    }
+
+    /**
+     * Bounds d(source, v): the heuristic of a backward search heading to {@code source}.
+     */
+    public Estimator awayFrom(int source, CostFunction.Weights weights) {
+        return new Estimator(source, weights, true);
+    }
+
+    public final class Estimator {
+
+        private final int anchor;
+        private final boolean reverse;
+        private final double[] weight = new double[C];
+        private final double geometricPerKm;
+
+        private Estimator(int anchor, CostFunction.Weights weights, boolean reverse) {
+            this.anchor = anchor;
+            this.reverse = reverse;
+            for (int c = 0; c < C; c++) {
+                weight[c] = CsrGraph.weightOf(weights, c);
+            }
+            this.geometricPerKm = graph.costPerKmLowerBound(weights);
+        }
+
+        /**
+         * Lower bound on the composite cost from {@code v} to the target (or from the source to {@code v}).
+         */
+        public double estimate(int v) {
+            double bound = 0;
+            // Bounding d(a, b): a = v, b = anchor forwards; a = anchor, b = v in reverse
+            int aBase = (reverse ? anchor : v) * k;
+            int bBase = (reverse ? v : anchor) * k;
+            for (int c = 0; c < C; c++) {
+                if (weight[c] == 0) {
+                    continue;
+                }
+                double[] from = fromLandmark[c];
+                double[] to = toLandmark[c];
+                double best = 0;
+                for (int i = 0; i < k; i++) {
+                    double forward = from[bBase + i] - from[aBase + i];
+                    double backward = to[aBase + i] - to[bBase + i];
+                    // Infinite entries (unreachable pairs) give no usable bound
+                    if (forward > best && forward < Double.POSITIVE_INFINITY) {
+                        best = forward;
+                    }
+                    if (backward > best && backward < Double.POSITIVE_INFINITY) {
+                        best = backward;
+                    }
+                }
+                bound += weight[c] * best;
+            }
+            return Math.max(bound, geometricPerKm * graph.haversineKm(v, anchor));
+        }
+    }
+}
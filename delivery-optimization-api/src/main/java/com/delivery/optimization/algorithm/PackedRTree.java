@@ -0,0 +1,268 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Static R-tree over axis-aligned boxes in a planar frame, packed in flat
+ * arrays: items are sorted along a Hilbert curve, then grouped {@code nodeSize}
+ * at a time into parent boxes, level after level up to a single root. No
+ * per-node objects; built in O(n log n), immutable.
+ * <p>
+ * {@link #nearest} is a best-first search: boxes are visited in order of their
+ * distance to the query point and items are queued with their exact distance,
+ * so the first item dequeued is the nearest one.
+ */
+public final class PackedRTree {
+
+    /**
+     * Exact distance from a point to an item, never below the distance to its box.
+     */
+    @FunctionalInterface
+    public interface ItemDistance {
+        double distance(int item, double x, double y);
+    }
+
+    private static final int HILBERT_MAX = (1 << 15) - 1;
+
+    private final int itemCount;
+    private final int nodeSize;
+    // Box b covers boxes[4b .. 4b+3] = minX, minY, maxX, maxY; the first itemCount are the items
+    private final double[] boxes;
+    // Item ID for the first itemCount boxes, first child box for the others
+    private final int[] indices;
+    // End (exclusive) of each level in box positions, leaves first
+    private final int[] levelEnds;
+
+    private PackedRTree(int itemCount, int nodeSize, double[] boxes, int[] indices, int[] levelEnds) {
+        this.itemCount = itemCount;
+        this.nodeSize = nodeSize;
+        this.boxes = boxes;
+        this.indices = indices;
+        this.levelEnds = levelEnds;
+    }
+
+    /**
+     * Packs the items {@code 0 .. count-1} whose box {@code i} is
+     * {@code [minX[i], maxX[i]] x [minY[i], maxY[i]]}.
+     */
+    public static PackedRTree build(double[] minX, double[] minY, double[] maxX, double[] maxY, int count,
+            int nodeSize) {
+        int size = Math.max(2, nodeSize);
+        int total = count;
+        int levels = 1;
+        for (int n = count; n > 1; levels++) {
+            n = (n + size - 1) / size;
+            total += n;
+        }
+        double[] boxes = new double[4 * Math.max(total, 1)];
+        int[] indices = new int[Math.max(total, 1)];
+        int[] levelEnds = new int[levels];
+        if (count == 0) {
+            return new PackedRTree(0, size, boxes, indices, new int[]{0});
+        }
+
+        // Hilbert order of the box centers over the bounding box of everything
+        double x0 = Double.POSITIVE_INFINITY;
+        double y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY;
+        double y1 = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            x0 = Math.min(x0, minX[i]);
+            y0 = Math.min(y0, minY[i]);
+            x1 = Math.max(x1, maxX[i]);
+            y1 = Math.max(y1, maxY[i]);
+        }
+        double sx = x1 > x0 ? HILBERT_MAX / (x1 - x0) : 0;
+        double sy = y1 > y0 ? HILBERT_MAX / (y1 - y0) : 0;
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            int hx = (int) (sx * ((minX[i] + maxX[i]) / 2 - x0));
+            int hy = (int) (sy * ((minY[i] + maxY[i]) / 2 - y0));
+            order[i] = ((long) hilbert(hx, hy) << 32) | i;
+        }
+        Arrays.sort(order);
+        for (int b = 0; b < count; b++) {
+            int i = (int) order[b];
+            boxes[4 * b] = minX[i];
+            boxes[4 * b + 1] = minY[i];
+            boxes[4 * b + 2] = maxX[i];
+            boxes[4 * b + 3] = maxY[i];
+            indices[b] = i;
+        }
+
+        // Parents of each level, nodeSize children at a time
+        int levelStart = 0;
+        int levelEnd = count;
+        int next = count;
+        levelEnds[0] = count;
+        for (int level = 1; levelEnd - levelStart > 1; level++) {
+            for (int child = levelStart; child < levelEnd; child += size) {
+                int last = Math.min(child + size, levelEnd);
+                double bx0 = Double.POSITIVE_INFINITY;
+                double by0 = Double.POSITIVE_INFINITY;
+                double bx1 = Double.NEGATIVE_INFINITY;
+                double by1 = Double.NEGATIVE_INFINITY;
+                for (int c = child; c < last; c++) {
+                    bx0 = Math.min(bx0, boxes[4 * c]);
+                    by0 = Math.min(by0, boxes[4 * c + 1]);
+                    bx1 = Math.max(bx1, boxes[4 * c + 2]);
+                    by1 = Math.max(by1, boxes[4 * c + 3]);
+                }
+                boxes[4 * next] = bx0;
+                boxes[4 * next + 1] = by0;
+                boxes[4 * next + 2] = bx1;
+                boxes[4 * next + 3] = by1;
+                indices[next] = child;
+                next++;
+            }
+            levelStart = levelEnd;
+            levelEnd = next;
+            levelEnds[level] = next;
+        }
+        return new PackedRTree(count, size, boxes, indices, levelEnds);
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    /**
+     * Nearest accepted item to {@code (x, y)} within {@code maxDistance}, or -1.
+     */
+    public int nearest(double x, double y, double maxDistance, ItemDistance distance, IntPredicate accept) {
+        if (itemCount == 0) {
+            return -1;
+        }
+        Queue queue = new Queue();
+        int root = levelEnds[levelEnds.length - 1] - 1;
+        scan(root, root + 1, x, y, maxDistance, distance, accept, queue);
+        while (!queue.isEmpty()) {
+            int entry = queue.poll();
+            if (entry < 0) {
+                return -entry - 1; // An item: nothing left is closer
+            }
+            int end = Math.min(entry + nodeSize, levelEndOf(entry));
+            scan(entry, end, x, y, maxDistance, distance, accept, queue);
+        }
+        return -1;
+    }
+
+    /**
+     * Queues the boxes {@code from .. to-1}: child boxes by their box distance, items
+     * (encoded {@code -item-1}) by their exact distance.
+     */
+    private void scan(int from, int to, double x, double y, double maxDistance, ItemDistance distance,
+            IntPredicate accept, Queue queue) {
+        boolean leaves = from < itemCount;
+        for (int b = from; b < to; b++) {
+            double dx = Math.max(0, Math.max(boxes[4 * b] - x, x - boxes[4 * b + 2]));
+            double dy = Math.max(0, Math.max(boxes[4 * b + 1] - y, y - boxes[4 * b + 3]));
+            double d = Math.sqrt(dx * dx + dy * dy);
+            if (d > maxDistance) {
+                continue;
+            }
+            if (!leaves) {
+                queue.add(indices[b], d);
+                continue;
+            }
+            int item = indices[b];
+            if (accept == null || accept.test(item)) {
+                double exact = distance.distance(item, x, y);
+                if (exact <= maxDistance) {
+                    queue.add(-item - 1, exact);
+                }
+            }
+        }
+    }
+
+    private int levelEndOf(int box) {
+        for (int end : levelEnds) {
+            if (box < end) {
+                return end;
+            }
+        }
+        return levelEnds[levelEnds.length - 1];
+    }
+
+    /**
+     * Index of (x, y) along the Hilbert curve of order 15 (fits an int).
+     */
+    private static int hilbert(int x, int y) {
+        int d = 0;
+        for (int s = 1 << 14; s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = HILBERT_MAX - x;
+                    y = HILBERT_MAX - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Binary min-heap of encoded entries by distance, for one query.
+     */
+    private static final class Queue {
+
+        private int[] entries = new int[64];
+        private double[] keys = new double[64];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int entry, double key) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, 2 * size);
+                keys = Arrays.copyOf(keys, 2 * size);
+            }
+            int slot = size++;
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                entries[slot] = entries[parent];
+                keys[slot] = keys[parent];
+                slot = parent;
+            }
+            entries[slot] = entry;
+            keys[slot] = key;
+        }
+
+        int poll() {
+            int top = entries[0];
+            size--;
+            if (size > 0) {
+                int entry = entries[size];
+                double key = keys[size];
+                int slot = 0;
+                int half = size >>> 1;
+                while (slot < half) {
+                    int child = 2 * slot + 1;
+                    if (child + 1 < size && keys[child + 1] < keys[child]) {
+                        child++;
+                    }
+                    if (key <= keys[child]) {
+                        break;
+                    }
+                    entries[slot] = entries[child];
+                    keys[slot] = keys[child];
+                    slot = child;
+                }
+                entries[slot] = entry;
+                keys[slot] = key;
+            }
+            return top;
+        }
+    }
+}
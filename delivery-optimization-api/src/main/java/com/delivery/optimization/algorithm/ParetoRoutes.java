@@ -0,0 +1,329 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pareto frontier of the routes between two nodes over several cost components
+ * (see {@link CsrGraph#componentCost}): every route such that no other one is
+ * at least as cheap on all of them and cheaper on one.
+ * <p>
+ * Multi-criteria label-setting search: a label is a cost vector at a node with
+ * a pointer to its predecessor label, stored in primitive columns. Labels are
+ * settled in order of the sum of their components plus a great-circle lower
+ * bound per component, so a settled label is never dominated later. A new label
+ * is dropped if a label of its node (or of the destination, with the lower
+ * bounds added) dominates it, and evicts the labels of its node it dominates.
+ * <p>
+ * Label sets are bounded: at most {@code maxLabelsPerNode} per node (which also
+ * bounds the frontier) and {@code maxLabels} overall. When a bound is hit the
+ * frontier returned is a subset of the true one and {@link Result#complete()}
+ * is false; its routes are still mutually non-dominated.
+ */
+public final class ParetoRoutes {
+
+    /**
+     * One route of the frontier: node path, edge indices and its cost per requested component.
+     */
+    public record Route(List<String> path, int[] edges, double[] costs) {
+    }
+
+    /**
+     * Frontier sorted by the first component; complete is false if a bound cut it short.
+     */
+    public record Result(List<Route> routes, boolean complete) {
+    }
+
+    private final CsrGraph graph;
+    private final int[] components;
+    private final int k;
+    private final int target;
+    private final double[] perKm;
+    private final int maxLabelsPerNode;
+    private final int maxLabels;
+
+    // Label columns, label l owns costs[l*k .. l*k+k-1]
+    private double[] costs;
+    private int[] node;
+    private int[] pred;
+    private int[] edge;
+    private boolean[] dead;
+    private int labelCount;
+
+    // Live labels per node
+    private final int[][] bags;
+    private final int[] bagSize;
+
+    private final LabelQueue queue = new LabelQueue();
+    private boolean complete = true;
+
+    private ParetoRoutes(CsrGraph graph, int[] components, int target, int maxLabelsPerNode, int maxLabels) {
+        this.graph = graph;
+        this.components = components;
+        this.k = components.length;
+        this.target = target;
+        this.maxLabelsPerNode = Math.max(1, maxLabelsPerNode);
+        this.maxLabels = Math.max(1, maxLabels);
+        this.perKm = new double[k];
+        for (int i = 0; i < k; i++) {
+            perKm[i] = graph.costPerKmLowerBound(unit(components[i]));
+        }
+        int capacity = Math.min(this.maxLabels, 1024);
+        this.costs = new double[capacity * k];
+        this.node = new int[capacity];
+        this.pred = new int[capacity];
+        this.edge = new int[capacity];
+        this.dead = new boolean[capacity];
+        this.bags = new int[graph.nodeCount()][];
+        this.bagSize = new int[graph.nodeCount()];
+    }
+
+    /**
+     * Pareto routes from {@code originId} to {@code destinationId} over the given
+     * component indices. Empty if either node is unknown or the destination unreachable.
+     */
+    public static Result compute(CsrGraph graph, String originId, String destinationId, int[] components,
+            int maxLabelsPerNode, int maxLabels) {
+        int origin = graph.indexOf(originId);
+        int target = graph.indexOf(destinationId);
+        if (origin < 0 || target < 0 || components.length == 0) {
+            return new Result(List.of(), true);
+        }
+        return new ParetoRoutes(graph, components, target, maxLabelsPerNode, maxLabels).run(origin);
+    }
+
+    private Result run(int origin) {
+        double[] zero = new double[k];
+        admit(origin, zero);
+        int first = newLabel(origin, -1, -1, zero);
+        bags[origin][bagSize[origin]++] = first;
+        queue.add(first, key(origin, zero));
+        double[] candidate = new double[k];
+        while (!queue.isEmpty()) {
+            int l = queue.poll();
+            if (dead[l]) {
+                continue;
+            }
+            int u = node[l];
+            if (u == target) {
+                continue; // Destination labels are final: nothing to extend
+            }
+            if (dominatedAtTarget(costs, l * k, u)) {
+                continue; // A route found since then beats every extension
+            }
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int v = graph.target(e);
+                for (int i = 0; i < k; i++) {
+                    candidate[i] = costs[l * k + i] + graph.componentCost(e, components[i]);
+                }
+                if (dominatedAtTarget(candidate, 0, v)) {
+                    continue;
+                }
+                if (labelCount >= maxLabels) {
+                    complete = false;
+                    return frontier();
+                }
+                if (!admit(v, candidate)) {
+                    continue;
+                }
+                int added = newLabel(v, l, e, candidate);
+                bags[v][bagSize[v]++] = added;
+                queue.add(added, key(v, candidate));
+            }
+        }
+        return frontier();
+    }
+
+    /**
+     * Makes room for a label with cost vector {@code c} at {@code v}: false if a
+     * live label there is at least as good, otherwise evicts the labels it dominates.
+     */
+    private boolean admit(int v, double[] c) {
+        int[] bag = bags[v];
+        if (bag == null) {
+            bags[v] = new int[Math.min(maxLabelsPerNode, 4)];
+            return true;
+        }
+        int size = bagSize[v];
+        for (int j = 0; j < size; j++) {
+            if (dominates(costs, bag[j] * k, c, 0)) {
+                return false;
+            }
+        }
+        int kept = 0;
+        for (int j = 0; j < size; j++) {
+            int other = bag[j];
+            if (dominates(c, 0, costs, other * k)) {
+                dead[other] = true;
+            } else {
+                bag[kept++] = other;
+            }
+        }
+        bagSize[v] = kept;
+        if (kept == maxLabelsPerNode) {
+            complete = false;
+            return false;
+        }
+        if (kept == bag.length) {
+            bags[v] = Arrays.copyOf(bag, Math.min(maxLabelsPerNode, 2 * bag.length));
+        }
+        return true;
+    }
+
+    /**
+     * True if a destination label is at least as good as {@code c} (at {@code v}) plus its lower bounds.
+     */
+    private boolean dominatedAtTarget(double[] c, int offset, int v) {
+        int[] bag = bags[target];
+        if (bag == null || v == target) {
+            return false;
+        }
+        double km = graph.haversineKm(v, target);
+        for (int j = 0; j < bagSize[target]; j++) {
+            int t = bag[j] * k;
+            boolean dominated = true;
+            for (int i = 0; i < k && dominated; i++) {
+                dominated = costs[t + i] <= c[offset + i] + perKm[i] * km;
+            }
+            if (dominated) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Weak dominance: {@code a} is no worse than {@code b} on every component.
+     */
+    private boolean dominates(double[] a, int aOffset, double[] b, int bOffset) {
+        for (int i = 0; i < k; i++) {
+            if (a[aOffset + i] > b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double key(int v, double[] c) {
+        double km = graph.haversineKm(v, target);
+        double sum = 0;
+        for (int i = 0; i < k; i++) {
+            sum += c[i] + perKm[i] * km;
+        }
+        return sum;
+    }
+
+    private int newLabel(int v, int predecessor, int e, double[] c) {
+        if (labelCount == node.length) {
+            int capacity = Math.min(maxLabels, 2 * node.length);
+            costs = Arrays.copyOf(costs, capacity * k);
+            node = Arrays.copyOf(node, capacity);
+            pred = Arrays.copyOf(pred, capacity);
+            edge = Arrays.copyOf(edge, capacity);
+            dead = Arrays.copyOf(dead, capacity);
+        }
+        int l = labelCount++;
+        System.arraycopy(c, 0, costs, l * k, k);
+        node[l] = v;
+        pred[l] = predecessor;
+        edge[l] = e;
+        return l;
+    }
+
+    private Result frontier() {
+        List<Route> routes = new ArrayList<>();
+        int[] bag = bags[target];
+        for (int j = 0; bag != null && j < bagSize[target]; j++) {
+            routes.add(route(bag[j]));
+        }
+        routes.sort(Comparator.comparingDouble(route -> route.costs()[0]));
+        return new Result(routes, complete);
+    }
+
+    private Route route(int l) {
+        List<String> path = new ArrayList<>();
+        List<Integer> edges = new ArrayList<>();
+        for (int at = l; at != -1; at = pred[at]) {
+            path.add(graph.nodeId(node[at]));
+            if (edge[at] != -1) {
+                edges.add(edge[at]);
+            }
+        }
+        Collections.reverse(path);
+        Collections.reverse(edges);
+        return new Route(path, edges.stream().mapToInt(Integer::intValue).toArray(),
+                Arrays.copyOfRange(costs, l * k, l * k + k));
+    }
+
+    private static CostFunction.Weights unit(int component) {
+        return CostFunction.Weights.builder()
+                .alpha(component == 0 ? 1 : 0)
+                .beta(component == 1 ? 1 : 0)
+                .gamma(component == 2 ? 1 : 0)
+                .delta(component == 3 ? 1 : 0)
+                .eta(component == 4 ? 1 : 0)
+                .build();
+    }
+
+    /**
+     * Binary min-heap of label indices, growing with the label columns.
+     */
+    private static final class LabelQueue {
+
+        private int[] labels = new int[256];
+        private double[] keys = new double[256];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int label, double key) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, 2 * size);
+                keys = Arrays.copyOf(keys, 2 * size);
+            }
+            int slot = size++;
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                labels[slot] = labels[parent];
+                keys[slot] = keys[parent];
+                slot = parent;
+            }
+            labels[slot] = label;
+            keys[slot] = key;
+        }
+
+        int poll() {
+            int top = labels[0];
+            size--;
+            if (size > 0) {
+                int label = labels[size];
+                double key = keys[size];
+                int slot = 0;
+                int half = size >>> 1;
+                while (slot < half) {
+                    int child = 2 * slot + 1;
+                    if (child + 1 < size && keys[child + 1] < keys[child]) {
+                        child++;
+                    }
+                    if (key <= keys[child]) {
+                        break;
+                    }
+                    labels[slot] = labels[child];
+                    keys[slot] = keys[child];
+                    slot = child;
+                }
+                labels[slot] = label;
+                keys[slot] = key;
+            }
+            return top;
+        }
+    }
+}
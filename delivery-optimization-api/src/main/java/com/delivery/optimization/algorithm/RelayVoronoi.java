@@ -0,0 +1,133 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Road-network Voronoi partition of the graph around the relay points: for
+ * every node, the relay it reaches most cheaply and the cost to get there, plus
+ * the runner-up relay as a fallback when the nearest one is full.
+ * <p>
+ * Computed by a single multi-source Dijkstra over incoming edges, started from
+ * every relay at once. Each node is settled at most twice, once per label
+ * (nearest, second nearest), and a label only accepts a relay different from
+ * the other one. Lookups are array reads.
+ */
+public final class RelayVoronoi {
+
+    private final CsrGraph graph;
+    private final int[] nearest;      // relay node index, -1 if no relay is reachable
+    private final double[] nearestCost;
+    private final int[] second;
+    private final double[] secondCost;
+
+    private RelayVoronoi(CsrGraph graph, int[] nearest, double[] nearestCost, int[] second, double[] secondCost) {
+        this.graph = graph;
+        this.nearest = nearest;
+        this.nearestCost = nearestCost;
+        this.second = second;
+        this.secondCost = secondCost;
+    }
+
+    /**
+     * Partition around {@code relays} (graph indices) for the composite cost {@code weights}.
+     */
+    public static RelayVoronoi compute(CsrGraph graph, int[] relays, CostFunction.Weights weights) {
+        int n = graph.nodeCount();
+        double[] cost = graph.costs(weights);
+        int[] label = new int[2 * n];
+        double[] dist = new double[2 * n];
+        Arrays.fill(label, -1);
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+
+        // Key 2v is the nearest label of v, 2v + 1 the second one
+        IndexedMinHeap queue = new IndexedMinHeap(2 * n);
+        for (int r : relays) {
+            offer(queue, label, dist, r, r, 0.0);
+        }
+        while (!queue.isEmpty()) {
+            int key = queue.poll();
+            int v = key >> 1;
+            int relay = label[key];
+            double d = dist[key];
+            // Node -> relay costs: walk the incoming edges backwards
+            for (int slot = graph.firstInEdge(v); slot < graph.endInEdge(v); slot++) {
+                int e = graph.inEdge(slot);
+                offer(queue, label, dist, graph.source(e), relay, d + cost[e]);
+            }
+        }
+
+        int[] nearest = new int[n];
+        double[] nearestCost = new double[n];
+        int[] second = new int[n];
+        double[] secondCost = new double[n];
+        for (int v = 0; v < n; v++) {
+            nearest[v] = label[2 * v];
+            nearestCost[v] = dist[2 * v];
+            second[v] = label[2 * v + 1];
+            secondCost[v] = dist[2 * v + 1];
+        }
+        return new RelayVoronoi(graph, nearest, nearestCost, second, secondCost);
+    }
+
+    /**
+     * Offers {@code relay} at cost {@code d} to node {@code u}. A settled label is
+     * never changed: with non-negative costs no later offer can beat it.
+     */
+    private static void offer(IndexedMinHeap queue, int[] label, double[] dist, int u, int relay, double d) {
+        int first = 2 * u;
+        int next = first + 1;
+        if (label[first] == relay) {
+            if (d < dist[first]) {
+                dist[first] = d;
+                queue.insertOrDecrease(first, d);
+            }
+        } else if (d < dist[first]) {
+            // New nearest relay: the previous nearest becomes the runner-up
+            if (label[first] != -1) {
+                label[next] = label[first];
+                dist[next] = dist[first];
+                queue.insertOrDecrease(next, dist[next]);
+            }
+            label[first] = relay;
+            dist[first] = d;
+            queue.insertOrDecrease(first, d);
+        } else if (d < dist[next]) {
+            label[next] = relay;
+            dist[next] = d;
+            queue.insertOrDecrease(next, d);
+        }
+    }
+
+    /**
+     * True if this partition was computed on exactly this snapshot.
+     */
+    public boolean isFor(CsrGraph other) {
+        return graph == other;
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Nearest relay ID of a node, or null if none is reachable.
+     */
+    public String nearest(int node) {
+        return nearest[node] < 0 ? null : graph.nodeId(nearest[node]);
+    }
+
+    public double nearestCost(int node) {
+        return nearestCost[node];
+    }
+
+    /**
+     * Second nearest relay ID of a node, or null.
+     */
+    public String second(int node) {
+        return second[node] < 0 ? null : graph.nodeId(second[node]);
+    }
+
+    public double secondCost(int node) {
+        return secondCost[node];
+    }
+}
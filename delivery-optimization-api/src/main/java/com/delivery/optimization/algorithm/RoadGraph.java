@@ -0,0 +1,146 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the road graph shared by routing, VRP and ETA.
+ * <p>
+ * A new snapshot is derived on each change ({@link #withArcs}); readers holding
+ * the previous one keep a consistent view. Arcs held by a snapshot must not be
+ * mutated.
+ */
+public final class RoadGraph {
+
+    private final long version;
+    private final Map<String, Node> nodes;
+    private final Map<String, List<Arc>> adjacency;
+    private final Map<Long, Arc> arcsById;
+    private final List<Arc> arcs;
+    private final CsrGraph csr;
+
+    private RoadGraph(long version, Map<String, Node> nodes, Map<String, List<Arc>> adjacency,
+            Map<Long, Arc> arcsById, CsrGraph csr) {
+        this.version = version;
+        this.nodes = nodes;
+        this.adjacency = adjacency;
+        this.arcsById = arcsById;
+        this.arcs = List.copyOf(arcsById.values());
+        this.csr = csr != null ? csr : CsrGraph.of(nodes, arcs);
+    }
+
+    public static RoadGraph of(long version, Collection<Node> nodes, Collection<Arc> arcs) {
+        Map<String, Node> nodeMap = new HashMap<>();
+        for (Node n : nodes) {
+            nodeMap.put(n.getId(), n);
+        }
+        Map<Long, Arc> byId = new LinkedHashMap<>();
+        Map<String, List<Arc>> adjacency = new HashMap<>();
+        for (Arc a : arcs) {
+            byId.put(a.getId(), a);
+            adjacency.computeIfAbsent(a.getOriginId(), k -> new ArrayList<>()).add(a);
+        }
+        adjacency.replaceAll((k, v) -> List.copyOf(v));
+        return new RoadGraph(version, Collections.unmodifiableMap(nodeMap),
+                Collections.unmodifiableMap(adjacency), Collections.unmodifiableMap(byId), null);
+    }
+
+    /**
+     * Returns a new snapshot where the given arcs replace those with the same ID
+     * (or are added). Only the adjacency lists of the affected origins are rebuilt.
+     */
+    public RoadGraph withArcs(long newVersion, Collection<Arc> updated) {
+        if (updated.isEmpty()) {
+            return this;
+        }
+        Map<Long, Arc> byId = new LinkedHashMap<>(arcsById);
+        Set<Long> updatedIds = new HashSet<>();
+        Set<String> origins = new HashSet<>();
+        for (Arc a : updated) {
+            Arc previous = byId.put(a.getId(), a);
+            if (previous != null) {
+                origins.add(previous.getOriginId());
+            }
+            origins.add(a.getOriginId());
+            updatedIds.add(a.getId());
+        }
+
+        Map<String, List<Arc>> newAdjacency = new HashMap<>(adjacency);
+        for (String origin : origins) {
+            List<Arc> list = new ArrayList<>();
+            for (Arc a : adjacency.getOrDefault(origin, List.of())) {
+                if (!updatedIds.contains(a.getId())) {
+                    list.add(a);
+                }
+            }
+            for (Arc a : updated) {
+                if (origin.equals(a.getOriginId())) {
+                    list.add(a);
+                }
+            }
+            if (list.isEmpty()) {
+                newAdjacency.remove(origin);
+            } else {
+                newAdjacency.put(origin, List.copyOf(list));
+            }
+        }
+        // Cost-only changes patch the CSR columns; topology changes rebuild it
+        return new RoadGraph(newVersion, nodes, Collections.unmodifiableMap(newAdjacency),
+                Collections.unmodifiableMap(byId), csr.withArcs(updated));
+    }
+
+    /**
+     * Monotonic version, incremented on every change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Outgoing arcs per origin node ID.
+     */
+    public Map<String, List<Arc>> getAdjacency() {
+        return adjacency;
+    }
+
+    public List<Arc> getArcs() {
+        return arcs;
+    }
+
+    /**
+     * Primitive array form of this snapshot, used by the search algorithms.
+     */
+    public CsrGraph getCsr() {
+        return csr;
+    }
+
+    public List<Arc> getOutgoing(String nodeId) {
+        return adjacency.getOrDefault(nodeId, List.of());
+    }
+
+    /**
+     * Direct arc between two nodes, or null.
+     */
+    public Arc findArc(String originId, String destinationId) {
+        for (Arc a : getOutgoing(originId)) {
+            if (a.getDestinationId().equals(destinationId)) {
+                return a;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,251 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Snapping of GPS positions to the road graph: nearest node and nearest arc
+ * (map matching of a single fix), in microseconds instead of a scan of every node.
+ * <p>
+ * Coordinates are projected on a local equirectangular plane in km around the
+ * mean latitude of the graph, which is exact enough at city scale; the nodes
+ * and the straight segments of the arcs each go into a {@link PackedRTree}.
+ * Unlocated nodes, and the arcs touching them, are left out. Built once per
+ * topology: snapshots that only patch arc costs share it.
+ * <p>
+ * {@link #linearScan} answers the same queries on the same projection by
+ * scanning every node and arc, without building the trees.
+ */
+public final class SpatialIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final int NODE_SIZE = 16;
+
+    /**
+     * Nearest arc to a position: edge index, share of the edge before the
+     * projected point (0 at its origin, 1 at its destination) and distance in km.
+     */
+    public record ArcMatch(int edge, double fraction, double distanceKm) {
+    }
+
+    private final CsrGraph graph;
+    private final double cosLat0;
+    // Projected node coordinates (km), NaN if unlocated
+    private final double[] x;
+    private final double[] y;
+    private final int[] nodeOfItem;
+    private final int[] edgeOfItem;
+    // Both null for a linear scan
+    private final PackedRTree nodes;
+    private final PackedRTree arcs;
+
+    private SpatialIndex(CsrGraph graph, double cosLat0, double[] x, double[] y, int[] nodeOfItem,
+            int[] edgeOfItem, PackedRTree nodes, PackedRTree arcs) {
+        this.graph = graph;
+        this.cosLat0 = cosLat0;
+        this.x = x;
+        this.y = y;
+        this.nodeOfItem = nodeOfItem;
+        this.edgeOfItem = edgeOfItem;
+        this.nodes = nodes;
+        this.arcs = arcs;
+    }
+
+    public static SpatialIndex build(CsrGraph graph) {
+        return create(graph, true);
+    }
+
+    /**
+     * Same queries answered by a scan of every node and arc, for when the index
+     * of a new topology is not built yet.
+     */
+    public static SpatialIndex linearScan(CsrGraph graph) {
+        return create(graph, false);
+    }
+
+    private static SpatialIndex create(CsrGraph graph, boolean indexed) {
+        int n = graph.nodeCount();
+        double latSum = 0;
+        int located = 0;
+        for (int u = 0; u < n; u++) {
+            if (!Double.isNaN(graph.latitudeRad(u))) {
+                latSum += graph.latitudeRad(u);
+                located++;
+            }
+        }
+        double cosLat0 = Math.cos(located > 0 ? latSum / located : 0);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int[] nodeOfItem = new int[located];
+        int items = 0;
+        for (int u = 0; u < n; u++) {
+            x[u] = EARTH_RADIUS_KM * graph.longitudeRad(u) * cosLat0;
+            y[u] = EARTH_RADIUS_KM * graph.latitudeRad(u);
+            if (!Double.isNaN(y[u])) {
+                nodeOfItem[items++] = u;
+            }
+        }
+        int m = graph.edgeCount();
+        if (!indexed) {
+            int[] edgeOfItem = new int[m];
+            int segments = 0;
+            for (int e = 0; e < m; e++) {
+                if (!Double.isNaN(y[graph.source(e)]) && !Double.isNaN(y[graph.target(e)])) {
+                    edgeOfItem[segments++] = e;
+                }
+            }
+            return new SpatialIndex(graph, cosLat0, x, y, nodeOfItem, Arrays.copyOf(edgeOfItem, segments),
+                    null, null);
+        }
+
+        double[] px = new double[located];
+        double[] py = new double[located];
+        for (int i = 0; i < located; i++) {
+            px[i] = x[nodeOfItem[i]];
+            py[i] = y[nodeOfItem[i]];
+        }
+        PackedRTree nodeTree = PackedRTree.build(px, py, px, py, located, NODE_SIZE);
+
+        int[] edgeOfItem = new int[m];
+        double[] minX = new double[m];
+        double[] minY = new double[m];
+        double[] maxX = new double[m];
+        double[] maxY = new double[m];
+        int segments = 0;
+        for (int e = 0; e < m; e++) {
+            int a = graph.source(e);
+            int b = graph.target(e);
+            if (Double.isNaN(y[a]) || Double.isNaN(y[b])) {
+                continue;
+            }
+            edgeOfItem[segments] = e;
+            minX[segments] = Math.min(x[a], x[b]);
+            minY[segments] = Math.min(y[a], y[b]);
+            maxX[segments] = Math.max(x[a], x[b]);
+            maxY[segments] = Math.max(y[a], y[b]);
+            segments++;
+        }
+        PackedRTree arcTree = PackedRTree.build(minX, minY, maxX, maxY, segments, NODE_SIZE);
+        return new SpatialIndex(graph, cosLat0, x, y, nodeOfItem, edgeOfItem, nodeTree, arcTree);
+    }
+
+    /**
+     * True if the index is usable on this snapshot (same nodes and arcs).
+     */
+    public boolean isFor(CsrGraph other) {
+        return graph == other || graph.hasSameTopology(other);
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * False for a {@link #linearScan}.
+     */
+    public boolean isIndexed() {
+        return nodes != null;
+    }
+
+    /**
+     * Nearest located node to a position, or -1 if the graph has none.
+     */
+    public int nearestNode(double latitude, double longitude) {
+        return nearestNode(latitude, longitude, Double.POSITIVE_INFINITY, null);
+    }
+
+    /**
+     * Nearest located node within {@code maxKm} that {@code accept} takes (null takes all), or -1.
+     */
+    public int nearestNode(double latitude, double longitude, double maxKm, IntPredicate accept) {
+        double qx = projectX(longitude);
+        double qy = projectY(latitude);
+        if (nodes == null) {
+            int best = -1;
+            double bestKm = maxKm;
+            for (int u : nodeOfItem) {
+                double km = Math.hypot(x[u] - qx, y[u] - qy);
+                if (km <= bestKm && (best < 0 || km < bestKm) && (accept == null || accept.test(u))) {
+                    best = u;
+                    bestKm = km;
+                }
+            }
+            return best;
+        }
+        int item = nodes.nearest(qx, qy, maxKm,
+                (i, px, py) -> Math.hypot(x[nodeOfItem[i]] - px, y[nodeOfItem[i]] - py),
+                accept == null ? null : i -> accept.test(nodeOfItem[i]));
+        return item < 0 ? -1 : nodeOfItem[item];
+    }
+
+    /**
+     * Nearest arc to a position within {@code maxKm}, or null.
+     */
+    public ArcMatch nearestArc(double latitude, double longitude, double maxKm) {
+        double qx = projectX(longitude);
+        double qy = projectY(latitude);
+        int e = -1;
+        if (arcs == null) {
+            double bestKm = maxKm;
+            for (int candidate : edgeOfItem) {
+                double km = segmentDistance(candidate, qx, qy);
+                if (km <= bestKm && (e < 0 || km < bestKm)) {
+                    e = candidate;
+                    bestKm = km;
+                }
+            }
+        } else {
+            int item = arcs.nearest(qx, qy, maxKm, (i, px, py) -> segmentDistance(edgeOfItem[i], px, py), null);
+            e = item < 0 ? -1 : edgeOfItem[item];
+        }
+        if (e < 0) {
+            return null;
+        }
+        return new ArcMatch(e, projection(e, qx, qy), segmentDistance(e, qx, qy));
+    }
+
+    /**
+     * Distance in km between a position and a node, on the projection plane.
+     */
+    public double distanceKm(double latitude, double longitude, int node) {
+        return Math.hypot(x[node] - projectX(longitude), y[node] - projectY(latitude));
+    }
+
+    /**
+     * Distance in km between a position and the segment of edge {@code e}, e.g. to
+     * check that a driver is still on the planned arc.
+     */
+    public double edgeDistanceKm(double latitude, double longitude, int e) {
+        return segmentDistance(e, projectX(longitude), projectY(latitude));
+    }
+
+    private double segmentDistance(int e, double px, double py) {
+        int a = graph.source(e);
+        int b = graph.target(e);
+        double t = projection(e, px, py);
+        return Math.hypot(x[a] + t * (x[b] - x[a]) - px, y[a] + t * (y[b] - y[a]) - py);
+    }
+
+    /**
+     * Position of the orthogonal projection of a point on edge {@code e}, clamped to [0, 1].
+     */
+    private double projection(int e, double px, double py) {
+        int a = graph.source(e);
+        int b = graph.target(e);
+        double dx = x[b] - x[a];
+        double dy = y[b] - y[a];
+        double length2 = dx * dx + dy * dy;
+        if (length2 == 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(1, ((px - x[a]) * dx + (py - y[a]) * dy) / length2));
+    }
+
+    private double projectX(double longitude) {
+        return EARTH_RADIUS_KM * Math.toRadians(longitude) * cosLat0;
+    }
+
+    private double projectY(double latitude) {
+        return EARTH_RADIUS_KM * Math.toRadians(latitude);
+    }
+}
@@ -0,0 +1,199 @@
+package com.delivery.optimization.algorithm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-of-day traffic factors per edge: travel time at departure t is
+ * {@code travelTime * factor(t)}, with factor piecewise linear between the
+ * centers of 96 quarter-hour buckets (wrapping at midnight).
+ * <p>
+ * Only edges with observations get a profile; the others keep their scalar
+ * traffic factor. Factors are stored as int16 thousandths (0.001 to 32.767),
+ * 192 bytes per profiled edge.
+ * <p>
+ * Profiles satisfy FIFO (leaving later never arrives earlier): between two
+ * buckets the factor never drops faster than {@code bucket length / travelTime},
+ * which keeps departure + travel time non-decreasing.
+ */
+public final class TrafficProfiles {
+
+    public static final int BUCKETS = 96;
+    public static final int BUCKET_SECONDS = 86_400 / BUCKETS;
+    private static final double SCALE = 1000.0;
+
+    /**
+     * A measured slowdown ({@code factor} x free-flow time) over some edges at a time of day.
+     */
+    public record Observation(int[] edges, double secondOfDay, double factor) {
+    }
+
+    private final CsrGraph graph;
+    private final int[] slotOfEdge; // -1 if the edge has no profile
+    private final short[] factors;  // [slot * BUCKETS + bucket]
+
+    private TrafficProfiles(CsrGraph graph, int[] slotOfEdge, short[] factors) {
+        this.graph = graph;
+        this.slotOfEdge = slotOfEdge;
+        this.factors = factors;
+    }
+
+    /**
+     * Averages the observations per edge and bucket, fills the unobserved buckets
+     * of a profiled edge by circular linear interpolation, then quantizes and
+     * enforces FIFO.
+     */
+    public static TrafficProfiles learn(CsrGraph graph, List<Observation> observations) {
+        // edge -> [sum per bucket, count per bucket]
+        Map<Integer, double[]> sums = new HashMap<>();
+        for (Observation o : observations) {
+            int bucket = bucketOf(o.secondOfDay());
+            for (int e : o.edges()) {
+                double[] acc = sums.computeIfAbsent(e, k -> new double[2 * BUCKETS]);
+                acc[bucket] += o.factor();
+                acc[BUCKETS + bucket]++;
+            }
+        }
+        int[] slotOfEdge = new int[graph.edgeCount()];
+        Arrays.fill(slotOfEdge, -1);
+        short[] factors = new short[sums.size() * BUCKETS];
+        int slot = 0;
+        for (Map.Entry<Integer, double[]> entry : sums.entrySet()) {
+            int e = entry.getKey();
+            double[] profile = interpolate(entry.getValue());
+            short[] quantized = new short[BUCKETS];
+            for (int b = 0; b < BUCKETS; b++) {
+                quantized[b] = quantize(profile[b]);
+            }
+            enforceFifo(quantized, graph.travelTime(e));
+            System.arraycopy(quantized, 0, factors, slot * BUCKETS, BUCKETS);
+            slotOfEdge[e] = slot++;
+        }
+        return new TrafficProfiles(graph, slotOfEdge, factors);
+    }
+
+    private static double[] interpolate(double[] acc) {
+        double[] profile = new double[BUCKETS];
+        int first = -1;
+        for (int b = 0; b < BUCKETS; b++) {
+            if (acc[BUCKETS + b] > 0) {
+                profile[b] = acc[b] / acc[BUCKETS + b];
+                if (first < 0) {
+                    first = b;
+                }
+            }
+        }
+        // Walk the circle from the first observed bucket, bridging each gap linearly
+        int prev = first;
+        for (int step = 1; step <= BUCKETS; step++) {
+            int b = (first + step) % BUCKETS;
+            if (acc[BUCKETS + b] > 0 || step == BUCKETS) {
+                int gap = step - ((prev - first + BUCKETS) % BUCKETS);
+                for (int k = 1; k < gap; k++) {
+                    double t = (double) k / gap;
+                    profile[(prev + k) % BUCKETS] = profile[prev] * (1 - t) + profile[b] * t;
+                }
+                prev = b;
+            }
+        }
+        return profile;
+    }
+
+    private static short quantize(double factor) {
+        long q = Math.round(factor * SCALE);
+        return (short) Math.max(1, Math.min(Short.MAX_VALUE, q));
+    }
+
+    /**
+     * Raises buckets until no step down between consecutive buckets exceeds
+     * {@code BUCKET_SECONDS / travelTime} (in quantized units).
+     */
+    private static void enforceFifo(short[] q, double travelTime) {
+        if (travelTime <= 0) {
+            return;
+        }
+        long maxDrop = (long) Math.floor(BUCKET_SECONDS * SCALE / travelTime);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 0; b < BUCKETS; b++) {
+                int next = (b + 1) % BUCKETS;
+                if (q[next] < q[b] - maxDrop) {
+                    q[next] = (short) (q[b] - maxDrop);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private static int bucketOf(double secondOfDay) {
+        return (int) (normalize(secondOfDay) / BUCKET_SECONDS) % BUCKETS;
+    }
+
+    private static double normalize(double secondOfDay) {
+        double t = secondOfDay % 86_400;
+        return t < 0 ? t + 86_400 : t;
+    }
+
+    /**
+     * True if the edge indices still designate the same arcs in {@code other}.
+     */
+    public boolean isValidFor(CsrGraph other) {
+        return graph.hasSameTopology(other);
+    }
+
+    public boolean hasProfile(int e) {
+        return slotOfEdge[e] >= 0;
+    }
+
+    public int profiledEdgeCount() {
+        return factors.length / BUCKETS;
+    }
+
+    /**
+     * Traffic factor of a profiled edge at a time of day (seconds since midnight).
+     */
+    public double factor(int e, double secondOfDay) {
+        int base = slotOfEdge[e] * BUCKETS;
+        double x = normalize(secondOfDay) / BUCKET_SECONDS - 0.5;
+        int i = (int) Math.floor(x);
+        double frac = x - i;
+        int b0 = (i + BUCKETS) % BUCKETS;
+        int b1 = (i + 1) % BUCKETS;
+        return (factors[base + b0] * (1 - frac) + factors[base + b1] * frac) / SCALE;
+    }
+
+    /**
+     * Travel time of edge {@code e} of {@code csr} when entering it at {@code secondOfDay}:
+     * the profile if there is one, the scalar traffic factor otherwise.
+     */
+    public double travelTime(CsrGraph csr, int e, double secondOfDay) {
+        return hasProfile(e)
+                ? csr.travelTime(e) * factor(e, secondOfDay)
+                : csr.travelTime(e) * csr.trafficFactor(e);
+    }
+
+    /**
+     * Time to drive along a node path leaving at {@code departureSecondOfDay},
+     * taking the fastest of parallel arcs at each step.
+     */
+    public double travelTime(CsrGraph csr, List<String> path, double departureSecondOfDay) {
+        double t = departureSecondOfDay;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int u = csr.indexOf(path.get(i));
+            int v = csr.indexOf(path.get(i + 1));
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = csr.firstEdge(u); e < csr.endEdge(u); e++) {
+                if (csr.target(e) == v) {
+                    best = Math.min(best, travelTime(csr, e, t));
+                }
+            }
+            if (best != Double.POSITIVE_INFINITY) {
+                t += best;
+            }
+        }
+        return t - departureSecondOfDay;
+    }
+}
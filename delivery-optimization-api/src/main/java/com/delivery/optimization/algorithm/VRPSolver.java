@@ -7,9 +7,11 @@ import com.delivery.optimization.dto.TourOptimizationResponse;
 import com.google.ortools.Loader;
 import com.google.ortools.constraintsolver.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +29,21 @@ public class VRPSolver {
         Loader.loadNativeLibraries();
     }
 
+    /**
+     * Poids du coût composite des matrices VRP :
+     * distance × 1 + temps (avec trafic) × 0.5 + pénibilité × 10 + météo × 5.
+     */
+    public static final CostFunction.Weights VRP_WEIGHTS = CostFunction.Weights.builder()
+            .alpha(1.0).beta(0.5).gamma(10.0).delta(5.0).eta(0.0)
+            .build();
+
+    // Pool de calcul des matrices de la variante sur liste d'arcs
+    private final ForkJoinPool routingPool;
+
+    public VRPSolver(@Qualifier("routingPool") ForkJoinPool routingPool) {
+        this.routingPool = routingPool;
+    }
+
     /**
      * Résout le VRP avec OR-Tools
      *
@@ -40,11 +57,44 @@ public class VRPSolver {
                                          List<Node> availableRelays,
                                          Map<String, Node> allNodes,
                                          List<Arc> allArcs) {
+        RoadGraph graph = RoadGraph.of(0, allNodes.values(), allArcs);
+        DistanceMatrix matrix = DistanceMatrix.compute(graph.getCsr(),
+                matrixLocations(request, availableRelays, allNodes), VRP_WEIGHTS, routingPool);
+        return solve(request, availableRelays, allNodes, matrix);
+    }
+
+    /**
+     * Résout le VRP avec OR-Tools sur une matrice de plus courts chemins déjà calculée
+     *
+     * @param request Requête d'optimisation de tournée
+     * @param availableRelays Liste des points relais disponibles
+     * @param allNodes Map de tous les nœuds du graphe
+     * @param matrix Matrice many-to-many couvrant {@link #matrixLocations}, pondérée par {@link #VRP_WEIGHTS}
+     * @return Réponse avec la tournée optimisée
+     */
+    public TourOptimizationResponse solve(TourOptimizationRequest request,
+                                         List<Node> availableRelays,
+                                         Map<String, Node> allNodes,
+                                         DistanceMatrix matrix) {
+        return solve(request, availableRelays, allNodes, matrix, null);
+    }
+
+    /**
+     * Résout le VRP avec OR-Tools, les relais candidats d'une livraison étant lus
+     * dans la partition de Voronoï des relais (plus proche du dropoff, puis second)
+     *
+     * @param voronoi Partition des relais du même graphe que la matrice, ou null pour examiner tous les relais
+     */
+    public TourOptimizationResponse solve(TourOptimizationRequest request,
+                                         List<Node> availableRelays,
+                                         Map<String, Node> allNodes,
+                                         DistanceMatrix matrix,
+                                         RelayVoronoi voronoi) {
         try {
             log.info("Démarrage de l'optimisation VRP pour {} livraisons", request.getDeliveries().size());
 
             // 1. Préparer les données pour OR-Tools
-            DataModel data = createDataModel(request, availableRelays, allNodes, allArcs);
+            DataModel data = createDataModel(request, availableRelays, allNodes, matrix, voronoi);
 
             // 2. Créer le gestionnaire de routing
             RoutingIndexManager manager = new RoutingIndexManager(
@@ -130,13 +180,76 @@ public class VRPSolver {
         }
     }
 
+    /**
+     * Locations dont la matrice de coûts est nécessaire : dépôt, pickups, dropoffs
+     * et, si activés, les points relais candidats (identifiants du graphe).
+     */
+    public List<String> matrixLocations(TourOptimizationRequest request,
+                                        List<Node> availableRelays,
+                                        Map<String, Node> allNodes) {
+        return matrixLocations(request, availableRelays, allNodes, null);
+    }
+
+    /**
+     * Idem, avec seulement les relais candidats de chaque livraison si une partition
+     * de Voronoï est fournie : la matrice ne grandit plus avec le nombre de relais.
+     */
+    public List<String> matrixLocations(TourOptimizationRequest request,
+                                        List<Node> availableRelays,
+                                        Map<String, Node> allNodes,
+                                        RelayVoronoi voronoi) {
+        Set<String> ids = new LinkedHashSet<>();
+        ids.add(resolveGraphId("DEPOT", request.getDepotId(), allNodes));
+        for (TourOptimizationRequest.DeliveryRequest delivery : request.getDeliveries()) {
+            ids.add(delivery.getPickupLocation());
+            ids.add(delivery.getDropoffLocation());
+        }
+        if (request.isUseRelayPoints()) {
+            Map<String, Node> relayById = byId(availableRelays);
+            for (TourOptimizationRequest.DeliveryRequest delivery : request.getDeliveries()) {
+                candidateRelays(delivery, availableRelays, relayById, voronoi)
+                        .forEach(relay -> ids.add(relay.getId()));
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Relais à examiner pour une livraison : le plus proche du dropoff et son second
+     * (s'ils sont disponibles), sinon tous les relais disponibles.
+     */
+    private List<Node> candidateRelays(TourOptimizationRequest.DeliveryRequest delivery,
+                                       List<Node> availableRelays,
+                                       Map<String, Node> relayById,
+                                       RelayVoronoi voronoi) {
+        int dropoff = voronoi != null ? voronoi.getGraph().indexOf(delivery.getDropoffLocation()) : -1;
+        if (dropoff < 0) {
+            return availableRelays;
+        }
+        List<Node> candidates = new ArrayList<>(2);
+        for (String id : new String[]{voronoi.nearest(dropoff), voronoi.second(dropoff)}) {
+            Node relay = id != null ? relayById.get(id) : null;
+            if (relay != null) {
+                candidates.add(relay);
+            }
+        }
+        return candidates.isEmpty() ? availableRelays : candidates;
+    }
+
+    private static Map<String, Node> byId(List<Node> nodes) {
+        Map<String, Node> byId = new HashMap<>();
+        nodes.forEach(node -> byId.put(node.getId(), node));
+        return byId;
+    }
+
     /**
      * Crée le modèle de données pour OR-Tools
      */
     private DataModel createDataModel(TourOptimizationRequest request,
                                      List<Node> availableRelays,
                                      Map<String, Node> allNodes,
-                                     List<Arc> allArcs) {
+                                     DistanceMatrix matrix,
+                                     RelayVoronoi voronoi) {
         DataModel data = new DataModel();
 
         // 1. Créer la liste des locations à visiter
@@ -156,6 +269,7 @@ public class VRPSolver {
         timeWindows.add(new long[]{0, 86400}); // Dépôt ouvert 24h
 
         boolean hasDeadlines = false;
+        Map<String, Node> relayById = byId(availableRelays);
 
         for (TourOptimizationRequest.DeliveryRequest delivery : request.getDeliveries()) {
             // Pickup location
@@ -168,7 +282,8 @@ public class VRPSolver {
 
             // Relay point si activé
             if (request.isUseRelayPoints() && !availableRelays.isEmpty()) {
-                Node relay = findBestRelay(delivery, availableRelays, allNodes, allArcs);
+                Node relay = findBestRelay(delivery,
+                        candidateRelays(delivery, availableRelays, relayById, voronoi), allNodes, matrix);
                 if (relay != null && !locationToIndex.containsKey(relay.getId())) {
                     locationToIndex.put(relay.getId(), locations.size());
                     locations.add(relay.getId());
@@ -205,29 +320,22 @@ public class VRPSolver {
         data.distanceMatrix = new long[n][n];
         data.timeMatrix = new long[n][n];
 
-        Map<String, Map<String, Arc>> arcMap = buildArcMap(allArcs);
-
         for (int i = 0; i < n; i++) {
             for (int j = 0; j < n; j++) {
                 if (i == j) {
                     data.distanceMatrix[i][j] = 0;
                     data.timeMatrix[i][j] = 0;
                 } else {
-                    String from = locations.get(i);
-                    String to = locations.get(j);
-
-                    // Trouver l'arc correspondant ou utiliser distance euclidienne
-                    Arc arc = findArc(arcMap, from, to, allNodes);
-                    if (arc != null) {
-                        // Coût composite incluant distance, temps, pénibilité, météo
-                        double cost = arc.getDistance() * 1.0
-                                    + arc.getTravelTime() * (arc.getTrafficFactor() != null ? arc.getTrafficFactor() : 1.0) * 0.5
-                                    + arc.getPenibility() * 10.0
-                                    + arc.getWeatherImpact() * 5.0;
-                        data.distanceMatrix[i][j] = (long) (cost * 100); // Conversion en entier
-                        data.timeMatrix[i][j] = (long) (arc.getTravelTime() * (arc.getTrafficFactor() != null ? arc.getTrafficFactor() : 1.0));
+                    String from = resolveGraphId(locations.get(i), request.getDepotId(), allNodes);
+                    String to = resolveGraphId(locations.get(j), request.getDepotId(), allNodes);
+                    int row = matrix.indexOf(from);
+                    int col = matrix.indexOf(to);
+
+                    // Plus court chemin dans le graphe, ou distance haversine si aucun chemin
+                    if (row >= 0 && col >= 0 && matrix.isReachable(row, col)) {
+                        data.distanceMatrix[i][j] = (long) (matrix.cost(row, col) * 100); // Conversion en entier
+                        data.timeMatrix[i][j] = (long) matrix.time(row, col);
                     } else {
-                        // Distance euclidienne comme fallback
                         Node fromNode = allNodes.get(from);
                         Node toNode = allNodes.get(to);
                         if (fromNode != null && toNode != null && fromNode.getLatitude() != null && toNode.getLatitude() != null) {
@@ -300,28 +408,28 @@ public class VRPSolver {
     private Node findBestRelay(TourOptimizationRequest.DeliveryRequest delivery,
                               List<Node> availableRelays,
                               Map<String, Node> allNodes,
-                              List<Arc> allArcs) {
+                              DistanceMatrix matrix) {
         if (availableRelays.isEmpty()) return null;
 
-        Map<String, Map<String, Arc>> arcMap = buildArcMap(allArcs);
         Node pickup = allNodes.get(delivery.getPickupLocation());
         Node dropoff = allNodes.get(delivery.getDropoffLocation());
 
         if (pickup == null || dropoff == null) return availableRelays.get(0);
 
+        int p = matrix.indexOf(pickup.getId());
+        int d = matrix.indexOf(dropoff.getId());
+        double direct = p >= 0 && d >= 0 && matrix.isReachable(p, d) ? matrix.distance(p, d) : 0;
+
         double minDetour = Double.MAX_VALUE;
         Node bestRelay = null;
 
         for (Node relay : availableRelays) {
             // Calculer le détour: distance(pickup->relay) + distance(relay->dropoff) - distance(pickup->dropoff)
-            Arc pickupToRelay = findArc(arcMap, pickup.getId(), relay.getId(), allNodes);
-            Arc relayToDropoff = findArc(arcMap, relay.getId(), dropoff.getId(), allNodes);
-            Arc pickupToDropoff = findArc(arcMap, pickup.getId(), dropoff.getId(), allNodes);
-
-            double detour = 0;
-            if (pickupToRelay != null) detour += pickupToRelay.getDistance();
-            if (relayToDropoff != null) detour += relayToDropoff.getDistance();
-            if (pickupToDropoff != null) detour -= pickupToDropoff.getDistance();
+            int r = matrix.indexOf(relay.getId());
+            if (p < 0 || d < 0 || r < 0 || !matrix.isReachable(p, r) || !matrix.isReachable(r, d)) {
+                continue; // Relais inaccessible par la route
+            }
+            double detour = matrix.distance(p, r) + matrix.distance(r, d) - direct;
 
             if (detour < minDetour) {
                 minDetour = detour;
@@ -338,34 +446,21 @@ public class VRPSolver {
     }
 
     /**
-     * Construit une map des arcs pour recherche rapide
+     * Identifiant du graphe d'une location ("DEPOT" désigne le dépôt demandé, sinon
+     * le premier nœud de type DEPOT)
      */
-    private Map<String, Map<String, Arc>> buildArcMap(List<Arc> arcs) {
-        Map<String, Map<String, Arc>> arcMap = new HashMap<>();
-        for (Arc arc : arcs) {
-            arcMap.computeIfAbsent(arc.getOriginId(), k -> new HashMap<>())
-                  .put(arc.getDestinationId(), arc);
-        }
-        return arcMap;
-    }
-
-    /**
-     * Trouve un arc entre deux nœuds
-     */
-    private Arc findArc(Map<String, Map<String, Arc>> arcMap, String from, String to, Map<String, Node> allNodes) {
-        if (from.equals("DEPOT")) {
-            // Trouver le premier nœud de type DEPOT
-            from = allNodes.values().stream()
+    private String resolveGraphId(String location, String depotId, Map<String, Node> allNodes) {
+        if (location.equals("DEPOT")) {
+            if (depotId != null) {
+                return depotId;
+            }
+            return allNodes.values().stream()
                 .filter(n -> n.getType() == Node.NodeType.DEPOT)
                 .map(Node::getId)
                 .findFirst()
-                .orElse(from);
+                .orElse(location);
         }
-
-        if (arcMap.containsKey(from) && arcMap.get(from).containsKey(to)) {
-            return arcMap.get(from).get(to);
-        }
-        return null;
+        return location;
     }
 
     /**
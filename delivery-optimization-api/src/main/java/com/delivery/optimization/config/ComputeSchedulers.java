@@ -0,0 +1,100 @@
+package com.delivery.optimization.config;
+
+import com.delivery.optimization.exception.CustomExceptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated bounded executors for CPU-bound work, so that route searches and
+ * VRP solves never run on the Netty event loop.
+ * <p>
+ * Routing and VRP have separate lanes: a long OR-Tools solve cannot starve
+ * route queries. Each lane has a fixed number of threads and a bounded queue;
+ * when the queue is full the task is rejected immediately
+ * ({@link CustomExceptions.ServiceUnavailableException}, HTTP 503) instead of
+ * piling up latency.
+ */
+public class ComputeSchedulers {
+
+    private final Lane routing;
+    private final Lane vrp;
+
+    public ComputeSchedulers(int routingThreads, int routingQueue, int vrpThreads, int vrpQueue,
+                             MeterRegistry registry) {
+        this.routing = new Lane("routing", routingThreads, routingQueue, registry);
+        this.vrp = new Lane("vrp", vrpThreads, vrpQueue, registry);
+    }
+
+    /**
+     * Runs a route computation on the routing lane.
+     */
+    public <T> Mono<T> routing(Callable<T> task) {
+        return routing.submit(task);
+    }
+
+    /**
+     * Runs a tour optimization on the VRP lane.
+     */
+    public <T> Mono<T> vrp(Callable<T> task) {
+        return vrp.submit(task);
+    }
+
+    public void dispose() {
+        routing.dispose();
+        vrp.dispose();
+    }
+
+    private static final class Lane {
+
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final Scheduler scheduler;
+        private final Counter rejected;
+
+        Lane(String name, int threads, int queueCapacity, MeterRegistry registry) {
+            this.name = name;
+            int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    r -> {
+                        Thread t = new Thread(r, name + "-compute-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.scheduler = Schedulers.fromExecutorService(executor, name + "-compute");
+            this.rejected = Counter.builder("compute.scheduler.rejected").tag("lane", name).register(registry);
+            Gauge.builder("compute.scheduler.queued", executor, e -> e.getQueue().size())
+                    .tag("lane", name).register(registry);
+            Gauge.builder("compute.scheduler.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .tag("lane", name).register(registry);
+        }
+
+        <T> Mono<T> submit(Callable<T> task) {
+            return Mono.fromCallable(task)
+                    .subscribeOn(scheduler)
+                    .onErrorMap(RejectedExecutionException.class, e -> {
+                        rejected.increment();
+                        return new CustomExceptions.ServiceUnavailableException(
+                                "The " + name + " queue is full, retry later");
+                    });
+        }
+
+        void dispose() {
+            scheduler.dispose();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.delivery.optimization.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class RoutingConfig {
+
+    @Value("${routing.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * Worker pool for the routing preprocessing (hierarchy builds, overlay customization),
+     * kept off the common pool and the request threads.
+     */
+    @Bean(name = "routingPool", destroyMethod = "shutdownNow")
+    public ForkJoinPool routingPool() {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Bounded executors for route queries and VRP solves (threads 0 = one per core).
+     */
+    @Bean(destroyMethod = "dispose")
+    public ComputeSchedulers computeSchedulers(
+            @Value("${routing.scheduler.threads:0}") int routingThreads,
+            @Value("${routing.scheduler.queue-capacity:256}") int routingQueue,
+            @Value("${vrp.scheduler.threads:0}") int vrpThreads,
+            @Value("${vrp.scheduler.queue-capacity:16}") int vrpQueue,
+            MeterRegistry registry) {
+        return new ComputeSchedulers(routingThreads, routingQueue, vrpThreads, vrpQueue, registry);
+    }
+}
@@ -3,6 +3,7 @@ package com.delivery.optimization.controller;
 import com.delivery.optimization.domain.Delivery;
 import com.delivery.optimization.dto.ETAResponse;
 import com.delivery.optimization.dto.ETAUpdateRequest;
+import com.delivery.optimization.dto.RerouteRequest;
 import com.delivery.optimization.dto.RerouteResponse;
 import com.delivery.optimization.service.ETAService;
 import com.delivery.optimization.service.ReroutingService;
@@ -144,23 +145,21 @@ public class DeliveryController {
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Analyse effectuée",
                      content = @Content(schema = @Schema(implementation = RerouteResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Contexte mal formé (types des champs invalides)"),
         @ApiResponse(responseCode = "404", description = "Livraison non trouvée")
     })
     public Mono<RerouteResponse> checkReroute(
         @Parameter(description = "ID de la livraison", required = true, example = "DEL-001")
         @PathVariable String id,
         @io.swagger.v3.oas.annotations.parameters.RequestBody(
-            description = "Données de contexte pour l'analyse (optionnel)",
+            description = "Données de contexte pour l'analyse (optionnel) : currentNodeId, currentPath (liste d'IDs de noeuds), initialPathCost",
             required = false
         )
-        @RequestBody Map<String, Object> request
+        @RequestBody(required = false) RerouteRequest request
     ) {
-        // Simple logic for the demo
-        return Mono.just(RerouteResponse.builder()
-                .rerouteRequired(false)
-                .reason("TRAFFIC_NORMAL")
-                .hysteresisMet(false)
-                .build());
+        RerouteRequest context = request != null ? request : new RerouteRequest();
+        return reroutingService.checkReroute(id, context.getCurrentNodeId(), context.getCurrentPath(),
+                context.getInitialPathCost());
     }
 
     @PostMapping("/{id}/state-transition")
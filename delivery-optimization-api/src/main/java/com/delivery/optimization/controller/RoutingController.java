@@ -1,9 +1,24 @@
 package com.delivery.optimization.controller;
 
+import com.delivery.optimization.dto.BatchRouteResult;
+import com.delivery.optimization.dto.DistanceMatrixRequest;
+import com.delivery.optimization.dto.DistanceMatrixResponse;
+import com.delivery.optimization.dto.IsochroneResponse;
+import com.delivery.optimization.dto.NearestRelayResponse;
+import com.delivery.optimization.dto.ParetoRouteRequest;
+import com.delivery.optimization.dto.ParetoRouteResponse;
 import com.delivery.optimization.dto.ShortestPathRequest;
 import com.delivery.optimization.dto.ShortestPathResponse;
+import com.delivery.optimization.dto.SnapResponse;
 import com.delivery.optimization.dto.TrafficUpdateRequest;
+import com.delivery.optimization.service.AlternativeRouteService;
+import com.delivery.optimization.service.BatchRoutingService;
+import com.delivery.optimization.service.DistanceMatrixService;
+import com.delivery.optimization.service.IsochroneService;
+import com.delivery.optimization.service.ParetoRouteService;
+import com.delivery.optimization.service.RelayVoronoiService;
 import com.delivery.optimization.service.ShortestPathService;
+import com.delivery.optimization.service.SpatialIndexService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,9 +27,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/routing")
 @RequiredArgsConstructor
@@ -22,6 +41,13 @@ import reactor.core.publisher.Mono;
 public class RoutingController {
 
     private final ShortestPathService shortestPathService;
+    private final BatchRoutingService batchRoutingService;
+    private final DistanceMatrixService distanceMatrixService;
+    private final IsochroneService isochroneService;
+    private final AlternativeRouteService alternativeRouteService;
+    private final RelayVoronoiService relayVoronoiService;
+    private final ParetoRouteService paretoRouteService;
+    private final SpatialIndexService spatialIndexService;
 
     @PostMapping("/shortest-path")
     @Operation(
@@ -45,6 +71,186 @@ public class RoutingController {
         return shortestPathService.calculateShortestPath(request);
     }
 
+    @PostMapping(value = "/shortest-path/batch", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(
+        summary = "Calculer plusieurs plus courts chemins en une requête",
+        description = "Calcule en parallèle tous les couples origine/destination sur le même instantané du graphe. Les résultats sont renvoyés au fil de l'eau (NDJSON), dans l'ordre de complétion ; le champ index donne la position de la requête dans le lot"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Résultats diffusés au fil du calcul (un échec n'interrompt pas le lot)",
+                     content = @Content(schema = @Schema(implementation = BatchRouteResult.class))),
+        @ApiResponse(responseCode = "400", description = "Lot trop volumineux")
+    })
+    public Flux<BatchRouteResult> getShortestPaths(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Liste de requêtes de plus court chemin",
+            required = true
+        )
+        @RequestBody List<ShortestPathRequest> requests
+    ) {
+        return batchRoutingService.calculateShortestPaths(requests);
+    }
+
+    @PostMapping("/alternatives")
+    @Operation(
+        summary = "Calculer des itinéraires alternatifs",
+        description = "Renvoie jusqu'à k chemins sans boucle entre deux noeuds, du moins coûteux au plus coûteux, suffisamment différents les uns des autres (k plus courts chemins de Yen, filtrés sur le coût partagé)"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Alternatives calculées (liste vide si aucun chemin)",
+                     content = @Content(schema = @Schema(implementation = ShortestPathResponse.class))),
+        @ApiResponse(responseCode = "400", description = "k hors limites"),
+        @ApiResponse(responseCode = "404", description = "Noeud source ou destination non trouvé")
+    })
+    public Mono<List<ShortestPathResponse>> getAlternatives(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Requête avec noeud source et destination (IDs)",
+            required = true
+        )
+        @RequestBody ShortestPathRequest request,
+        @Parameter(description = "Nombre maximal d'alternatives", example = "3")
+        @RequestParam(defaultValue = "3") int k
+    ) {
+        return alternativeRouteService.alternatives(request, k);
+    }
+
+    @PostMapping("/pareto")
+    @Operation(
+        summary = "Calculer le front de Pareto des itinéraires",
+        description = "Renvoie en une seule recherche multicritère tous les itinéraires non dominés sur les critères choisis (distance, temps, pénibilité, météo, carburant ; tous par défaut), pour proposer des compromis sans fixer de pondération. complete vaut false si les bornes sur les étiquettes ont tronqué le front"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Front calculé (liste vide si aucun chemin)",
+                     content = @Content(schema = @Schema(implementation = ParetoRouteResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Noeud source ou destination non trouvé")
+    })
+    public Mono<ParetoRouteResponse> getParetoRoutes(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Noeuds source et destination (IDs) et critères à arbitrer",
+            required = true
+        )
+        @RequestBody ParetoRouteRequest request
+    ) {
+        return paretoRouteService.frontier(request);
+    }
+
+    @PostMapping("/matrix")
+    @Operation(
+        summary = "Calculer une matrice de coûts many-to-many",
+        description = "Calcule en une passe les coûts, temps et distances des plus courts chemins entre toutes les paires de noeuds fournis (une recherche par noeud source, en parallèle). Une entrée null signifie qu'aucun chemin n'existe"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Matrice calculée avec succès",
+                     content = @Content(schema = @Schema(implementation = DistanceMatrixResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Liste de noeuds vide ou trop longue, ou pondération absente"),
+        @ApiResponse(responseCode = "404", description = "Un des noeuds n'existe pas dans le graphe")
+    })
+    public Mono<DistanceMatrixResponse> getDistanceMatrix(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Liste des noeuds (IDs) et pondération du coût composite",
+            required = true
+        )
+        @RequestBody DistanceMatrixRequest request
+    ) {
+        return distanceMatrixService.computeMatrix(request);
+    }
+
+    @GetMapping("/isochrone/{source}")
+    @Operation(
+        summary = "Calculer une isochrone",
+        description = "Retourne tous les noeuds atteignables depuis le noeud source dans le budget de temps donné (secondes, trafic inclus), avec le temps de parcours le plus court vers chacun"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Isochrone calculée avec succès",
+                     content = @Content(schema = @Schema(implementation = IsochroneResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Budget négatif ou non fini"),
+        @ApiResponse(responseCode = "404", description = "Noeud source non trouvé")
+    })
+    public Mono<IsochroneResponse> getIsochrone(
+        @Parameter(description = "ID du noeud source", required = true, example = "relay_1")
+        @PathVariable String source,
+        @Parameter(description = "Budget de temps en secondes", example = "900")
+        @RequestParam(defaultValue = "900") double budget
+    ) {
+        return isochroneService.isochrone(source, budget);
+    }
+
+    @GetMapping("/isochrones/relays")
+    @Operation(
+        summary = "Calculer les isochrones de tous les points relais",
+        description = "Calcule en parallèle l'isochrone de chaque noeud de type RELAY pour le budget de temps donné (secondes, trafic inclus)"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Isochrones calculées avec succès",
+                     content = @Content(schema = @Schema(implementation = IsochroneResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Budget négatif ou non fini")
+    })
+    public Flux<IsochroneResponse> getRelayIsochrones(
+        @Parameter(description = "Budget de temps en secondes", example = "900")
+        @RequestParam(defaultValue = "900") double budget
+    ) {
+        return isochroneService.relayIsochrones(budget);
+    }
+
+    @GetMapping("/relays/nearest/{node}")
+    @Operation(
+        summary = "Point relais le plus proche d'un noeud",
+        description = "Lecture directe dans la partition de Voronoï du réseau routier autour des points relais (distance routière en km), avec le second plus proche en repli si le premier est plein"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Relais trouvé (relay null si aucun n'est accessible)",
+                     content = @Content(schema = @Schema(implementation = NearestRelayResponse.class))),
+        @ApiResponse(responseCode = "404", description = "Noeud non trouvé"),
+        @ApiResponse(responseCode = "503", description = "Partition en cours de calcul, réessayer")
+    })
+    public Mono<NearestRelayResponse> getNearestRelay(
+        @Parameter(description = "ID du noeud", required = true, example = "NODE_1")
+        @PathVariable String node
+    ) {
+        return relayVoronoiService.nearestRelay(node);
+    }
+
+    @GetMapping("/relays/nearest")
+    @Operation(
+        summary = "Point relais le plus proche d'une position GPS",
+        description = "Rattache la position au noeud le plus proche du graphe (index spatial) puis lit la partition de Voronoï des points relais"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Relais trouvé (relay null si aucun n'est accessible)",
+                     content = @Content(schema = @Schema(implementation = NearestRelayResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Coordonnées invalides"),
+        @ApiResponse(responseCode = "404", description = "Aucun noeud localisé dans le graphe"),
+        @ApiResponse(responseCode = "503", description = "Partition en cours de calcul, réessayer")
+    })
+    public Mono<NearestRelayResponse> getNearestRelayAt(
+        @Parameter(description = "Latitude (degrés)", required = true, example = "3.848")
+        @RequestParam double lat,
+        @Parameter(description = "Longitude (degrés)", required = true, example = "11.502")
+        @RequestParam double lon
+    ) {
+        return relayVoronoiService.nearestRelay(lat, lon);
+    }
+
+    @GetMapping("/snap")
+    @Operation(
+        summary = "Rattacher une position GPS au graphe",
+        description = "Renvoie le noeud le plus proche et l'arc le plus proche (avec la position projetée sur l'arc) d'une position GPS, via un R-tree compact sur les noeuds et les arcs"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Position rattachée (arcId null si aucun arc assez proche)",
+                     content = @Content(schema = @Schema(implementation = SnapResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Coordonnées invalides"),
+        @ApiResponse(responseCode = "404", description = "Aucun noeud localisé dans le graphe")
+    })
+    public Mono<SnapResponse> snap(
+        @Parameter(description = "Latitude (degrés)", required = true, example = "3.848")
+        @RequestParam double lat,
+        @Parameter(description = "Longitude (degrés)", required = true, example = "11.502")
+        @RequestParam double lon
+    ) {
+        return spatialIndexService.snap(lat, lon);
+    }
+
     @PostMapping("/arcs/{id}/traffic")
     @Operation(
         summary = "Mettre à jour le trafic d'un arc",
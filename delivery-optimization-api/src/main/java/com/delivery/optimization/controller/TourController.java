@@ -32,8 +32,8 @@ public class TourController {
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Tournée optimisée avec succès",
                      content = @Content(schema = @Schema(implementation = TourOptimizationResponse.class))),
-        @ApiResponse(responseCode = "400", description = "Requête invalide (liste de livraisons vide ou noeud de départ manquant)"),
-        @ApiResponse(responseCode = "404", description = "Un ou plusieurs noeuds de livraison non trouvés"),
+        @ApiResponse(responseCode = "400", description = "Requête invalide (liste de livraisons vide ou noeud de départ manquant, dépôt qui n'est pas de type DEPOT)"),
+        @ApiResponse(responseCode = "404", description = "Un ou plusieurs noeuds de livraison ou dépôt non trouvés"),
         @ApiResponse(responseCode = "500", description = "Erreur lors de l'optimisation")
     })
     public Mono<TourOptimizationResponse> optimizeTour(
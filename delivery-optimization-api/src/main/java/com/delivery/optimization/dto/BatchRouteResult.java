@@ -0,0 +1,23 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch response; results arrive in completion order, {@code index}
+ * refers to the position of the request in the batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRouteResult {
+    private int index;
+    private String origin;
+    private String destination;
+    // Null when the route failed, see error
+    private ShortestPathResponse route;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceMatrixRequest {
+    private List<String> locations;
+    private ShortestPathRequest.CostWeights costWeights;
+}
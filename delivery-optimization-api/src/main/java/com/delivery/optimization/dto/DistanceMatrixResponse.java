@@ -0,0 +1,19 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceMatrixResponse {
+    private List<String> locations;
+    // [from][to], null when unreachable
+    private List<List<Double>> costs;
+    private List<List<Double>> times;
+    private List<List<Double>> distances;
+}
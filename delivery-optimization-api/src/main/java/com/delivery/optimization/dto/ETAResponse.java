@@ -15,6 +15,8 @@ public class ETAResponse {
     private double confidence;
     private double remainingDistance; // in meters
     private KalmanStateDTO kalmanState;
+    // Last GPS fix snapped to the road graph, null if none was sent
+    private SnapResponse matchedPosition;
 
     @Data
     @Builder
@@ -0,0 +1,18 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IsochroneResponse {
+    private String source;
+    private double budgetSeconds;
+    // Node ID -> fastest travel time (s), in increasing time order
+    private Map<String, Double> travelTimes;
+}
@@ -0,0 +1,20 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearestRelayResponse {
+    private String node;
+    // Null when no relay is reachable
+    private String relay;
+    private Double distance;
+    // Fallback when the nearest relay is full
+    private String secondRelay;
+    private Double secondDistance;
+}
@@ -0,0 +1,29 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParetoRouteRequest {
+    private String origin;
+    private String destination;
+    // Null or empty means all five
+    private List<Criterion> criteria;
+
+    /**
+     * Cost components a route can trade off, in CsrGraph component order.
+     */
+    public enum Criterion {
+        DISTANCE,
+        TIME,
+        PENIBILITY,
+        WEATHER,
+        FUEL
+    }
+}
@@ -0,0 +1,30 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParetoRouteResponse {
+    private List<ParetoRouteRequest.Criterion> criteria;
+    // Non-dominated routes, by increasing first criterion
+    private List<Route> routes;
+    // False if a label bound cut the frontier short
+    private boolean complete;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Route {
+        private List<String> path;
+        // Criterion name -> total over the route, for every criterion (not only the requested ones)
+        private Map<String, Double> costs;
+    }
+}
@@ -0,0 +1,20 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Optional context of a reroute check; missing fields are looked up from the delivery.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RerouteRequest {
+    private String currentNodeId;
+    private List<String> currentPath;
+    private Double initialPathCost;
+}
@@ -15,6 +15,17 @@ public class ShortestPathRequest {
     private String destination;
     private Instant timestamp;
     private CostWeights costWeights;
+    // Null means AUTO
+    private SearchMode searchMode;
+
+    /**
+     * AUTO picks the fastest available technique; the others force an A* variant.
+     */
+    public enum SearchMode {
+        AUTO,
+        UNIDIRECTIONAL,
+        BIDIRECTIONAL
+    }
 
     @Data
     @Builder
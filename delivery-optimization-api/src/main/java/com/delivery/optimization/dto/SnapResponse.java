@@ -0,0 +1,25 @@
+package com.delivery.optimization.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapResponse {
+    private double latitude;
+    private double longitude;
+    // Nearest located node and its distance (km)
+    private String node;
+    private double nodeDistance;
+    // Nearest arc within routing.snap.max-arc-distance-km, null if none
+    private Long arcId;
+    private String arcOrigin;
+    private String arcDestination;
+    // Share of the arc before the matched point (0 = origin, 1 = destination)
+    private Double fraction;
+    private Double arcDistance;
+}
@@ -8,11 +8,13 @@ import java.time.Instant;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TourOptimizationRequest {
     private String driverId;
+    // Null means the DEPOT node nearest to the driver's position (else the first DEPOT node)
+    private String depotId;
     private List<DeliveryRequest> deliveries;
     private int vehicleCapacity;
     private boolean useRelayPoints;
@@ -0,0 +1,24 @@
+package com.delivery.optimization.event;
+
+import com.delivery.optimization.domain.Arc;
+
+import java.util.List;
+
+/**
+ * Published after arcs of the road graph are persisted, so that the in-memory
+ * graph snapshot is updated without reloading the whole graph.
+ *
+ * @param updatedArcs The arcs as saved.
+ * @param fullReload  True when the change cannot be expressed as arc updates
+ *                    (nodes added/removed, graph reset).
+ */
+public record GraphChangedEvent(List<Arc> updatedArcs, boolean fullReload) {
+
+    public static GraphChangedEvent arcsUpdated(List<Arc> arcs) {
+        return new GraphChangedEvent(List.copyOf(arcs), false);
+    }
+
+    public static GraphChangedEvent reload() {
+        return new GraphChangedEvent(List.of(), true);
+    }
+}
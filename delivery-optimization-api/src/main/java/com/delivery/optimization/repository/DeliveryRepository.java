@@ -3,7 +3,11 @@ package com.delivery.optimization.repository;
 import com.delivery.optimization.domain.Delivery;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
 
 @Repository
 public interface DeliveryRepository extends ReactiveCrudRepository<Delivery, String> {
+    Flux<Delivery> findByStatusIn(Collection<Delivery.DeliveryStatus> statuses);
 }
@@ -3,7 +3,11 @@ package com.delivery.optimization.repository;
 import com.delivery.optimization.domain.ETAHistory;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
 
 @Repository
 public interface ETAHistoryRepository extends ReactiveCrudRepository<ETAHistory, Long> {
+    Flux<ETAHistory> findByTimestampAfter(Instant since);
 }
@@ -0,0 +1,98 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.AlternativeRoutes;
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.dto.ShortestPathRequest;
+import com.delivery.optimization.dto.ShortestPathResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diverse alternative routes between two nodes, cheapest first, over the
+ * current road graph snapshot. Feeds the rerouting decisions.
+ */
+@Service
+public class AlternativeRouteService {
+
+    private final RoadGraphCache roadGraphCache;
+    private final ComputeSchedulers computeSchedulers;
+    private final int maxAlternatives;
+    private final double maxSharing;
+
+    public AlternativeRouteService(RoadGraphCache roadGraphCache, ComputeSchedulers computeSchedulers,
+                                   @Value("${routing.alternatives.max-k:10}") int maxAlternatives,
+                                   @Value("${routing.alternatives.max-sharing:0.8}") double maxSharing) {
+        this.roadGraphCache = roadGraphCache;
+        this.computeSchedulers = computeSchedulers;
+        this.maxAlternatives = maxAlternatives;
+        this.maxSharing = maxSharing;
+    }
+
+    /**
+     * Up to {@code k} alternatives; empty if the destination is unreachable.
+     */
+    public Mono<List<ShortestPathResponse>> alternatives(ShortestPathRequest request, int k) {
+        if (k < 1 || k > maxAlternatives) {
+            return Mono.error(new CustomExceptions.ValidationException(
+                    "k must be between 1 and " + maxAlternatives));
+        }
+        CostFunction.Weights weights = ShortestPathService.weightsOf(request.getCostWeights());
+        return roadGraphCache.getGraph().flatMap(graph -> {
+            CsrGraph csr = graph.getCsr();
+            for (String id : List.of(request.getOrigin(), request.getDestination())) {
+                if (csr.indexOf(id) < 0) {
+                    return Mono.error(new CustomExceptions.ResourceNotFoundException("Node not found: " + id));
+                }
+            }
+            return computeSchedulers.routing(() -> compute(graph, request.getOrigin(), request.getDestination(),
+                    weights, k).stream()
+                    .map(route -> toResponse(csr, route, weights))
+                    .toList());
+        });
+    }
+
+    /**
+     * Synchronous variant on a given snapshot, for callers already on the routing lane.
+     */
+    public List<AlternativeRoutes.Route> compute(RoadGraph graph, String originId, String destinationId,
+            CostFunction.Weights weights, int k) {
+        return AlternativeRoutes.compute(graph.getCsr(), originId, destinationId, weights,
+                Math.min(k, maxAlternatives), maxSharing);
+    }
+
+    private static ShortestPathResponse toResponse(CsrGraph csr, AlternativeRoutes.Route route,
+            CostFunction.Weights weights) {
+        double distance = 0.0;
+        double time = 0.0;
+        double penibility = 0.0;
+        double weather = 0.0;
+        double fuel = 0.0;
+        for (int e : route.edges()) {
+            distance += csr.distance(e);
+            time += csr.componentCost(e, 1);
+            penibility += csr.penibility(e);
+            weather += csr.weatherImpact(e);
+            fuel += csr.fuelCost(e);
+        }
+        return ShortestPathResponse.builder()
+                .path(route.path())
+                .totalCost(route.cost())
+                .costBreakdown(Map.of(
+                        "Distance", distance * weights.getAlpha(),
+                        "Time", time * weights.getBeta(),
+                        "Penibility", penibility * weights.getGamma(),
+                        "Weather", weather * weights.getDelta(),
+                        "Fuel", fuel * weights.getEta()))
+                .estimatedTime(time)
+                .distance(distance)
+                .build();
+    }
+}
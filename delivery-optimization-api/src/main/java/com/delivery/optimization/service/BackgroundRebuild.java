@@ -0,0 +1,82 @@
+package com.delivery.optimization.service;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Rebuild of a derived structure (hierarchy, landmarks, profiles...) run in the
+ * background, at most one at a time: a request while one is running is dropped,
+ * the caller keeps answering from its current structure or its fallback.
+ * Failures are logged, never propagated.
+ */
+@Slf4j
+final class BackgroundRebuild {
+
+    private final String name;
+    private final Executor pool;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * @param name What is rebuilt, for the logs (e.g. "Contraction hierarchy build").
+     */
+    BackgroundRebuild(String name, Executor pool) {
+        this.name = name;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs {@code build} on the pool unless a rebuild is already running.
+     */
+    void start(Runnable build) {
+        if (running.compareAndSet(false, true)) {
+            execute(build);
+        }
+    }
+
+    /**
+     * Loads the input of a rebuild, then builds from it on the pool, unless a
+     * rebuild is already running. Nothing is built if the input fails or is empty.
+     */
+    <T> void start(Mono<T> input, Consumer<T> build) {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        input.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(
+                        value -> {
+                            if (value.isPresent()) {
+                                execute(() -> build.accept(value.get()));
+                            } else {
+                                running.set(false);
+                            }
+                        },
+                        error -> {
+                            log.error("Could not load the input of {}", name, error);
+                            running.set(false);
+                        });
+    }
+
+    private void execute(Runnable build) {
+        try {
+            pool.execute(() -> {
+                try {
+                    build.run();
+                } catch (RuntimeException e) {
+                    log.error("{} failed", name, e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Pool shut down or saturated
+            log.error("{} could not be scheduled", name, e);
+            running.set(false);
+        }
+    }
+}
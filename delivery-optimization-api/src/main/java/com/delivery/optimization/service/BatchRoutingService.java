@@ -0,0 +1,69 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.dto.BatchRouteResult;
+import com.delivery.optimization.dto.ShortestPathRequest;
+import com.delivery.optimization.exception.CustomExceptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Routes many origin/destination pairs at once: every request of a batch runs
+ * against the same graph snapshot on the routing lane, at most
+ * {@code concurrency} at a time, and results are emitted as soon as each completes.
+ */
+@Slf4j
+@Service
+public class BatchRoutingService {
+
+    private final ShortestPathService shortestPathService;
+    private final RoadGraphCache roadGraphCache;
+    private final ComputeSchedulers computeSchedulers;
+    private final int maxSize;
+    private final int concurrency;
+
+    public BatchRoutingService(ShortestPathService shortestPathService,
+                               RoadGraphCache roadGraphCache,
+                               ComputeSchedulers computeSchedulers,
+                               @Value("${routing.batch.max-size:1000}") int maxSize,
+                               @Value("${routing.batch.concurrency:0}") int concurrency) {
+        this.shortestPathService = shortestPathService;
+        this.roadGraphCache = roadGraphCache;
+        this.computeSchedulers = computeSchedulers;
+        this.maxSize = maxSize;
+        this.concurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+    }
+
+    public Flux<BatchRouteResult> calculateShortestPaths(List<ShortestPathRequest> requests) {
+        if (requests.size() > maxSize) {
+            return Flux.error(new CustomExceptions.ValidationException(
+                    "Batch too large: " + requests.size() + " > " + maxSize));
+        }
+        return roadGraphCache.getGraph().flatMapMany(graph -> Flux.range(0, requests.size())
+                .flatMap(i -> route(graph, i, requests.get(i)), concurrency));
+    }
+
+    /**
+     * A failed pair, including one turned away by a full routing queue, is
+     * reported in its own result instead of aborting the batch.
+     */
+    private Mono<BatchRouteResult> route(RoadGraph graph, int index, ShortestPathRequest request) {
+        BatchRouteResult.BatchRouteResultBuilder result = BatchRouteResult.builder()
+                .index(index)
+                .origin(request.getOrigin())
+                .destination(request.getDestination());
+        return computeSchedulers.routing(() -> shortestPathService.computeRoute(graph, request))
+                .map(route -> result.route(route).build())
+                .onErrorResume(RuntimeException.class, e -> {
+                    log.debug("Batch route {} -> {} failed: {}", request.getOrigin(), request.getDestination(),
+                            e.getMessage());
+                    return Mono.just(result.error(e.getMessage()).build());
+                });
+    }
+}
@@ -0,0 +1,402 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.AlternativeRoutes;
+import com.delivery.optimization.algorithm.DStarLite;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Delivery;
+import com.delivery.optimization.domain.KalmanState;
+import com.delivery.optimization.domain.RerouteEvent;
+import com.delivery.optimization.dto.RerouteResponse;
+import com.delivery.optimization.event.GraphChangedEvent;
+import com.delivery.optimization.repository.DeliveryRepository;
+import com.delivery.optimization.repository.KalmanStateRepository;
+import com.delivery.optimization.repository.RerouteEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reroutes active deliveries as traffic and weather change.
+ * <p>
+ * Every tracked delivery route is indexed by the arcs it uses. Changed arc IDs
+ * are collected from {@link GraphChangedEvent}s into batches (one per traffic
+ * tick); a batch only re-evaluates the deliveries whose route crosses one of its
+ * arcs, in parallel on the routing lane, so the work grows with the number of
+ * changed arcs rather than with the fleet. A justified reroute (hysteresis of
+ * {@link ReroutingService}) is persisted as a {@link RerouteEvent}, pushed on
+ * {@code /topic/reroute/{deliveryId}} and {@code /topic/fleet}, and becomes the
+ * tracked route.
+ * <p>
+ * Up to {@code routing.reroute.incremental-routes} tracked routes also keep an
+ * incremental search to their dropoff ({@link DStarLite}), repaired on every
+ * check rather than rerun. When even its optimum cannot beat the remainder of
+ * the route by the hysteresis margin, the costlier diverse alternatives are
+ * skipped altogether, which is the common case during a traffic storm.
+ */
+@Slf4j
+@Service
+public class ContinuousReroutingService {
+
+    private static final Set<Delivery.DeliveryStatus> ACTIVE = EnumSet.of(Delivery.DeliveryStatus.ASSIGNED,
+            Delivery.DeliveryStatus.PICKED_UP, Delivery.DeliveryStatus.IN_TRANSIT, Delivery.DeliveryStatus.DELAYED);
+
+    /**
+     * Route followed from {@code path[0]}, reached at the share {@code coveredAtStart}
+     * of the trip the Kalman filter measures (0 for a pickup-to-dropoff route,
+     * more after a reroute). {@code search} is null once the incremental budget is spent.
+     */
+    private record TrackedRoute(List<String> path, Set<Long> arcIds, double initialCost, double coveredAtStart,
+            DStarLite search) {
+    }
+
+    private record Decision(RerouteEvent event, RerouteResponse response) {
+    }
+
+    private final ReroutingService reroutingService;
+    private final AlternativeRouteService alternativeRouteService;
+    private final RoadGraphCache roadGraphCache;
+    private final DeliveryRepository deliveryRepository;
+    private final KalmanStateRepository kalmanStateRepository;
+    private final RerouteEventRepository rerouteEventRepository;
+    private final ComputeSchedulers computeSchedulers;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final boolean enabled;
+    private final int concurrency;
+    private final Duration reseedInterval;
+    private final int incrementalRoutes;
+
+    private final Map<String, TrackedRoute> routes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> deliveriesByArc = new ConcurrentHashMap<>();
+    private final AtomicInteger searches = new AtomicInteger();
+    private final Sinks.Many<Long> changedArcs = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable pipeline;
+    private volatile Instant lastSeed;
+
+    public ContinuousReroutingService(
+            ReroutingService reroutingService,
+            AlternativeRouteService alternativeRouteService,
+            RoadGraphCache roadGraphCache,
+            DeliveryRepository deliveryRepository,
+            KalmanStateRepository kalmanStateRepository,
+            RerouteEventRepository rerouteEventRepository,
+            ComputeSchedulers computeSchedulers,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${routing.reroute.enabled:true}") boolean enabled,
+            @Value("${routing.reroute.window:PT0.5S}") Duration window,
+            @Value("${routing.reroute.max-batch:10000}") int maxBatch,
+            @Value("${routing.reroute.concurrency:0}") int concurrency,
+            @Value("${routing.reroute.reseed-interval:PT5M}") Duration reseedInterval,
+            @Value("${routing.reroute.incremental-routes:256}") int incrementalRoutes) {
+        this.reroutingService = reroutingService;
+        this.alternativeRouteService = alternativeRouteService;
+        this.roadGraphCache = roadGraphCache;
+        this.deliveryRepository = deliveryRepository;
+        this.kalmanStateRepository = kalmanStateRepository;
+        this.rerouteEventRepository = rerouteEventRepository;
+        this.computeSchedulers = computeSchedulers;
+        this.messagingTemplate = messagingTemplate;
+        this.enabled = enabled;
+        this.concurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        this.reseedInterval = reseedInterval;
+        this.incrementalRoutes = incrementalRoutes;
+        this.pipeline = changedArcs.asFlux()
+                .bufferTimeout(maxBatch, window)
+                .concatMap(batch -> process(new HashSet<>(batch))
+                        .onErrorResume(e -> {
+                            log.error("Reroute batch of {} arcs failed", batch.size(), e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void dispose() {
+        pipeline.dispose();
+    }
+
+    @EventListener
+    public synchronized void onGraphChanged(GraphChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (Arc arc : event.updatedArcs()) {
+            changedArcs.tryEmitNext(arc.getId());
+        }
+    }
+
+    public int trackedCount() {
+        return routes.size();
+    }
+
+    /**
+     * Tracked routes holding one of the {@code routing.reroute.incremental-routes} searches.
+     */
+    int incrementalCount() {
+        return searches.get();
+    }
+
+    /**
+     * Starts (or replaces) the tracking of a delivery's route from its pickup.
+     */
+    public void track(RoadGraph graph, String deliveryId, List<String> path, double initialCost) {
+        track(graph, deliveryId, path, initialCost, 0);
+    }
+
+    private void track(RoadGraph graph, String deliveryId, List<String> path, double initialCost,
+            double coveredAtStart) {
+        Set<Long> arcIds = new HashSet<>();
+        for (int i = 0; i + 1 < path.size(); i++) {
+            Arc arc = graph.findArc(path.get(i), path.get(i + 1));
+            if (arc != null) {
+                arcIds.add(arc.getId());
+            }
+        }
+        untrack(deliveryId);
+        DStarLite search = null;
+        if (path.size() > 1) {
+            // Reserve a slot first: concurrent tracks cannot overshoot the budget
+            if (searches.incrementAndGet() <= incrementalRoutes) {
+                try {
+                    search = DStarLite.create(graph.getCsr(), path.get(0), path.get(path.size() - 1),
+                            reroutingService.getRerouteWeights());
+                } catch (RuntimeException e) {
+                    searches.decrementAndGet();
+                    throw e;
+                }
+            } else {
+                searches.decrementAndGet();
+            }
+        }
+        TrackedRoute raced = routes.put(deliveryId,
+                new TrackedRoute(List.copyOf(path), arcIds, initialCost, coveredAtStart, search));
+        if (raced != null) {
+            release(deliveryId, raced, arcIds);
+        }
+        for (Long id : arcIds) {
+            // Added under the key's lock: a concurrent release cannot drop the set meanwhile
+            deliveriesByArc.compute(id, (k, ids) -> {
+                Set<String> indexed = ids != null ? ids : ConcurrentHashMap.<String>newKeySet();
+                indexed.add(deliveryId);
+                return indexed;
+            });
+        }
+    }
+
+    public void untrack(String deliveryId) {
+        TrackedRoute old = routes.remove(deliveryId);
+        if (old != null) {
+            release(deliveryId, old, Set.of());
+        }
+    }
+
+    /**
+     * Frees the search slot of a route no longer tracked and unindexes its arcs,
+     * except {@code kept} (arcs of the route replacing it).
+     */
+    private void release(String deliveryId, TrackedRoute old, Set<Long> kept) {
+        if (old.search() != null) {
+            searches.decrementAndGet();
+        }
+        for (Long id : old.arcIds()) {
+            if (!kept.contains(id)) {
+                deliveriesByArc.computeIfPresent(id, (k, ids) -> {
+                    ids.remove(deliveryId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    /**
+     * Re-evaluates the deliveries whose route crosses one of {@code arcIds}.
+     */
+    Mono<Void> process(Set<Long> arcIds) {
+        return roadGraphCache.getGraph().flatMap(graph -> seed(graph).then(Mono.defer(() -> {
+            Set<String> affected = new HashSet<>();
+            for (Long id : arcIds) {
+                affected.addAll(deliveriesByArc.getOrDefault(id, Set.of()));
+            }
+            if (affected.isEmpty()) {
+                return Mono.empty();
+            }
+            return deliveryRepository.findAllById(affected)
+                    .filter(delivery -> {
+                        if (ACTIVE.contains(delivery.getStatus())) {
+                            return true;
+                        }
+                        untrack(delivery.getId());
+                        return false;
+                    })
+                    .flatMap(delivery -> reroute(graph, delivery), concurrency)
+                    .then();
+        })));
+    }
+
+    /**
+     * Untracks the deliveries no longer active (delivered, cancelled...) and tracks
+     * the active ones not tracked yet (their pickup-to-dropoff route), at most once
+     * per reseed interval.
+     */
+    private Mono<Void> seed(RoadGraph graph) {
+        Instant now = Instant.now();
+        if (lastSeed != null && lastSeed.plus(reseedInterval).isAfter(now)) {
+            return Mono.empty();
+        }
+        lastSeed = now;
+        // Routes tracked while the query runs belong to deliveries it may not see yet
+        Set<String> trackedBefore = Set.copyOf(routes.keySet());
+        return deliveryRepository.findByStatusIn(ACTIVE).collectList().flatMap(active -> {
+            Set<String> activeIds = new HashSet<>();
+            active.forEach(delivery -> activeIds.add(delivery.getId()));
+            for (String id : trackedBefore) {
+                if (!activeIds.contains(id)) {
+                    untrack(id);
+                }
+            }
+            return Flux.fromIterable(active)
+                    .filter(delivery -> !routes.containsKey(delivery.getId()))
+                    .flatMap(delivery -> computeSchedulers.routing(() -> {
+                        List<AlternativeRoutes.Route> best = alternativeRouteService.compute(graph,
+                                delivery.getPickupNodeId(), delivery.getDropoffNodeId(),
+                                reroutingService.getRerouteWeights(), 1);
+                        if (!best.isEmpty()) {
+                            track(graph, delivery.getId(), best.get(0).path(), best.get(0).cost());
+                        }
+                        return best.size();
+                    }), concurrency)
+                    .then();
+        });
+    }
+
+    private Mono<Void> reroute(RoadGraph graph, Delivery delivery) {
+        TrackedRoute route = routes.get(delivery.getId());
+        if (route == null) {
+            return Mono.empty();
+        }
+        return kalmanStateRepository.findByDeliveryId(delivery.getId())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(state -> computeSchedulers.routing(() -> decide(graph, delivery, route, state.orElse(null))))
+                .flatMap(decision -> rerouteEventRepository.save(decision.event())
+                        .doOnNext(saved -> push(delivery.getId(), decision.response())))
+                .onErrorResume(e -> {
+                    log.warn("Reroute check failed for delivery {}: {}", delivery.getId(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Reroute decision from the driver's estimated position, or null to keep the route.
+     */
+    private Decision decide(RoadGraph graph, Delivery delivery, TrackedRoute route, KalmanState state) {
+        Position at = positionOf(graph, route, state);
+        String position = route.path().get(at.index());
+        List<String> remainder = route.path().subList(at.index(), route.path().size());
+        double oldCost = reroutingService.pathCost(graph, remainder);
+        if (!worthChecking(graph, route, position, oldCost)) {
+            return null;
+        }
+        RerouteResponse response = reroutingService.evaluate(graph, delivery, position, route.path(),
+                route.initialCost());
+        if (!response.isRerouteRequired() || response.getNewPath() == null) {
+            return null;
+        }
+        double newCost = reroutingService.pathCost(graph, response.getNewPath());
+        // The new route starts at the driver's position: trip shares are measured from there on
+        track(graph, delivery.getId(), response.getNewPath(), newCost, at.covered());
+        RerouteEvent event = RerouteEvent.builder()
+                .deliveryId(delivery.getId())
+                .reason(response.getReason())
+                .oldPathCost(Double.isFinite(oldCost) ? oldCost : null)
+                .newPathCost(newCost)
+                .hysteresisMet(response.isHysteresisMet())
+                .timestamp(Instant.now())
+                .build();
+        return new Decision(event, response);
+    }
+
+    /**
+     * False if even the best route from the driver's position, repaired from the
+     * previous check, cannot justify a reroute over the remainder costing {@code remainderCost}.
+     */
+    private boolean worthChecking(RoadGraph graph, TrackedRoute route, String position, double remainderCost) {
+        DStarLite search = route.search();
+        if (search == null || Double.isInfinite(remainderCost)) {
+            return true;
+        }
+        double best;
+        synchronized (search) {
+            search.update(graph.getCsr());
+            search.moveStart(position);
+            best = search.cost();
+        }
+        return reroutingService.isRerouteJustified(remainderCost, best, route.initialCost());
+    }
+
+    /**
+     * Index in the tracked path of the last node the driver has passed, and the
+     * share of the trip covered there.
+     */
+    private record Position(int index, double covered) {
+    }
+
+    /**
+     * Position from the Kalman share of the trip covered. The share is of the whole
+     * trip, the tracked path only its part from {@code coveredAtStart} on: the
+     * share left is spread over the tracked path.
+     */
+    private static Position positionOf(RoadGraph graph, TrackedRoute route, KalmanState state) {
+        List<String> path = route.path();
+        double start = route.coveredAtStart();
+        if (state == null || state.getDistanceCovered() == null || path.size() < 2 || start >= 1) {
+            return new Position(0, start);
+        }
+        double[] cumulative = new double[path.size()];
+        for (int i = 0; i + 1 < path.size(); i++) {
+            Arc arc = graph.findArc(path.get(i), path.get(i + 1));
+            cumulative[i + 1] = cumulative[i] + (arc != null ? arc.getDistance() : 0);
+        }
+        double length = cumulative[path.size() - 1];
+        if (length <= 0) {
+            return new Position(0, start);
+        }
+        double share = Math.max(0, Math.min(1, (state.getDistanceCovered() - start) / (1 - start)));
+        double covered = share * length;
+        int i = 0;
+        // Never past the node before the destination: there is always something left to reroute
+        while (i + 2 < path.size() && cumulative[i + 1] <= covered) {
+            i++;
+        }
+        return new Position(i, start + (1 - start) * cumulative[i] / length);
+    }
+
+    private void push(String deliveryId, RerouteResponse response) {
+        try {
+            messagingTemplate.convertAndSend("/topic/reroute/" + deliveryId, response);
+            messagingTemplate.convertAndSend("/topic/fleet", Map.of("deliveryId", deliveryId, "reroute", response));
+        } catch (Exception ex) {
+            log.warn("WS failure: {}", ex.getMessage());
+        }
+    }
+}
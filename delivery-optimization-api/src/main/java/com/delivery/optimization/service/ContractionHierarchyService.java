@@ -0,0 +1,100 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.AStar;
+import com.delivery.optimization.algorithm.ContractionHierarchy;
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.RoadGraph;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Contraction Hierarchy of the current road graph for the default weight profile.
+ * <p>
+ * The hierarchy is (re)built in the background whenever the graph snapshot
+ * version changes; until it matches, and for any other weights, callers fall
+ * back to A*.
+ */
+@Slf4j
+@Service
+public class ContractionHierarchyService {
+
+    private record Built(long graphVersion, ContractionHierarchy hierarchy) {
+    }
+
+    private final boolean enabled;
+    private final int minNodes;
+    private final CostFunction.Weights defaultWeights;
+    private final ForkJoinPool pool;
+
+    private final AtomicReference<Built> current = new AtomicReference<>();
+    private final BackgroundRebuild background;
+
+    public ContractionHierarchyService(
+            @Value("${routing.ch.enabled:true}") boolean enabled,
+            @Value("${routing.ch.min-nodes:1000}") int minNodes,
+            @Value("${routing.ch.default-weights.alpha:0.2}") double alpha,
+            @Value("${routing.ch.default-weights.beta:0.5}") double beta,
+            @Value("${routing.ch.default-weights.gamma:0.1}") double gamma,
+            @Value("${routing.ch.default-weights.delta:0.1}") double delta,
+            @Value("${routing.ch.default-weights.eta:0.1}") double eta,
+            @Qualifier("routingPool") ForkJoinPool pool) {
+        this.enabled = enabled;
+        this.minNodes = minNodes;
+        this.defaultWeights = CostFunction.Weights.builder()
+                .alpha(alpha).beta(beta).gamma(gamma).delta(delta).eta(eta)
+                .build();
+        this.pool = pool;
+        this.background = new BackgroundRebuild("Contraction hierarchy build", pool);
+    }
+
+    /**
+     * Answers from the hierarchy when it applies to this graph and weights.
+     *
+     * @return Empty if the caller must run A* instead.
+     */
+    public Optional<AStar.PathResult> findPath(RoadGraph graph, String originId, String destinationId,
+            CostFunction.Weights weights) {
+        if (!enabled || graph.getCsr().nodeCount() < minNodes || !isDefaultProfile(weights)) {
+            return Optional.empty();
+        }
+        Built built = current.get();
+        if (built == null || built.graphVersion() != graph.getVersion()) {
+            rebuild(graph);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(built.hierarchy().findPath(originId, destinationId));
+    }
+
+    boolean isDefaultProfile(CostFunction.Weights w) {
+        return same(w.getAlpha(), defaultWeights.getAlpha())
+                && same(w.getBeta(), defaultWeights.getBeta())
+                && same(w.getGamma(), defaultWeights.getGamma())
+                && same(w.getDelta(), defaultWeights.getDelta())
+                && same(w.getEta(), defaultWeights.getEta());
+    }
+
+    private static boolean same(double a, double b) {
+        return Math.abs(a - b) < 1e-9;
+    }
+
+    /**
+     * Starts a background build for this snapshot unless one is already running.
+     */
+    private void rebuild(RoadGraph graph) {
+        background.start(() -> {
+            long start = System.nanoTime();
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph.getCsr(), defaultWeights, pool);
+            current.accumulateAndGet(new Built(graph.getVersion(), hierarchy),
+                    (prev, next) -> prev == null || next.graphVersion() > prev.graphVersion() ? next : prev);
+            log.info("Contraction hierarchy built for graph v{}: {} nodes, {} shortcuts in {} ms",
+                    graph.getVersion(), graph.getCsr().nodeCount(), hierarchy.shortcutCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.AStar;
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.CrpMetric;
+import com.delivery.optimization.algorithm.CrpOverlay;
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RoadGraph;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Customizable route planning over the current road graph, for any weights.
+ * <p>
+ * The overlay is rebuilt only when the topology changes. Each weight vector
+ * keeps its last customization; a newer graph snapshot (traffic update) is
+ * re-customized incrementally on the first query that sees it.
+ */
+@Slf4j
+@Service
+public class CustomizableRouteService {
+
+    private final boolean enabled;
+    private final int minNodes;
+    private final int[] cellSizes;
+    private final ForkJoinPool pool;
+
+    private CrpOverlay overlay;
+    private final Map<CostFunction.Weights, CrpMetric> metrics;
+
+    public CustomizableRouteService(
+            @Value("${routing.crp.enabled:true}") boolean enabled,
+            @Value("${routing.crp.min-nodes:1000}") int minNodes,
+            @Value("${routing.crp.cell-sizes:64,1024,16384}") int[] cellSizes,
+            @Value("${routing.crp.max-profiles:8}") int maxProfiles,
+            @Qualifier("routingPool") ForkJoinPool pool) {
+        this.enabled = enabled;
+        this.minNodes = minNodes;
+        this.cellSizes = cellSizes;
+        this.pool = pool;
+        this.metrics = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CostFunction.Weights, CrpMetric> eldest) {
+                return size() > maxProfiles;
+            }
+        };
+    }
+
+    /**
+     * @return Empty if the graph is too small to be worth it (the caller runs A*).
+     */
+    public Optional<AStar.PathResult> findPath(RoadGraph graph, String originId, String destinationId,
+            CostFunction.Weights weights) {
+        if (!enabled || graph.getCsr().nodeCount() < minNodes) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(metricFor(graph.getCsr(), weights).findPath(originId, destinationId));
+    }
+
+    CrpMetric metricFor(CsrGraph csr, CostFunction.Weights weights) {
+        CrpOverlay current = overlayFor(csr);
+        CrpMetric previous;
+        synchronized (metrics) {
+            previous = metrics.get(weights);
+        }
+        if (previous != null && previous.getGraph() == csr) {
+            return previous;
+        }
+        long start = System.nanoTime();
+        CrpMetric metric = CrpMetric.customize(current, csr, weights,
+                previous != null && previous.getOverlay() == current ? previous : null, pool);
+        log.debug("CRP customization for {} in {} ms", weights, (System.nanoTime() - start) / 1_000_000);
+        synchronized (metrics) {
+            metrics.put(weights, metric);
+        }
+        return metric;
+    }
+
+    private synchronized CrpOverlay overlayFor(CsrGraph csr) {
+        if (overlay == null || !overlay.getGraph().hasSameTopology(csr)) {
+            long start = System.nanoTime();
+            overlay = CrpOverlay.build(csr, cellSizes);
+            log.info("CRP overlay built: {} nodes, {} levels in {} ms", csr.nodeCount(), overlay.levels(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return overlay;
+    }
+}
@@ -0,0 +1,95 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.DistanceMatrix;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.dto.DistanceMatrixRequest;
+import com.delivery.optimization.dto.DistanceMatrixResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Many-to-many shortest-path matrices over the current road graph, computed on
+ * the routing pool (one search per source location, in parallel).
+ */
+@Slf4j
+@Service
+public class DistanceMatrixService {
+
+    private final RoadGraphCache roadGraphCache;
+    private final ComputeSchedulers computeSchedulers;
+    private final ForkJoinPool pool;
+    private final int maxLocations;
+
+    public DistanceMatrixService(RoadGraphCache roadGraphCache, ComputeSchedulers computeSchedulers,
+                                 @Qualifier("routingPool") ForkJoinPool pool,
+                                 @Value("${routing.matrix.max-locations:500}") int maxLocations) {
+        this.roadGraphCache = roadGraphCache;
+        this.computeSchedulers = computeSchedulers;
+        this.pool = pool;
+        this.maxLocations = maxLocations;
+    }
+
+    public DistanceMatrix compute(RoadGraph graph, List<String> locations, CostFunction.Weights weights) {
+        long start = System.nanoTime();
+        DistanceMatrix matrix = DistanceMatrix.compute(graph.getCsr(), locations, weights, pool);
+        log.debug("Distance matrix {}x{} computed on graph v{} in {} ms", locations.size(), locations.size(),
+                graph.getVersion(), (System.nanoTime() - start) / 1_000_000);
+        return matrix;
+    }
+
+    public Mono<DistanceMatrixResponse> computeMatrix(DistanceMatrixRequest request) {
+        List<String> locations = request.getLocations();
+        if (locations == null || locations.isEmpty()) {
+            return Mono.error(new CustomExceptions.ValidationException("At least one location is required"));
+        }
+        if (locations.size() > maxLocations) {
+            return Mono.error(new CustomExceptions.ValidationException(
+                    "Too many locations: " + locations.size() + " > " + maxLocations));
+        }
+        if (request.getCostWeights() == null) {
+            return Mono.error(new CustomExceptions.ValidationException("Cost weights are required"));
+        }
+        CostFunction.Weights weights = ShortestPathService.weightsOf(request.getCostWeights());
+
+        return roadGraphCache.getGraph().flatMap(graph -> {
+            for (String id : locations) {
+                if (graph.getCsr().indexOf(id) < 0) {
+                    return Mono.error(new CustomExceptions.ResourceNotFoundException("Node not found: " + id));
+                }
+            }
+
+            return computeSchedulers.routing(() -> {
+                DistanceMatrix matrix = compute(graph, locations, weights);
+                return DistanceMatrixResponse.builder()
+                        .locations(matrix.getIds())
+                        .costs(toRows(matrix, matrix::cost))
+                        .times(toRows(matrix, matrix::time))
+                        .distances(toRows(matrix, matrix::distance))
+                        .build();
+            });
+        });
+    }
+
+    private static List<List<Double>> toRows(DistanceMatrix matrix, ToDoubleBiFunction<Integer, Integer> cell) {
+        List<List<Double>> rows = new ArrayList<>(matrix.size());
+        for (int i = 0; i < matrix.size(); i++) {
+            List<Double> row = new ArrayList<>(matrix.size());
+            for (int j = 0; j < matrix.size(); j++) {
+                row.add(matrix.isReachable(i, j) ? cell.applyAsDouble(i, j) : null);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -1,12 +1,13 @@
 package com.delivery.optimization.service;
 
 import com.delivery.optimization.algorithm.KalmanFilter;
+import com.delivery.optimization.algorithm.RoadGraph;
 import com.delivery.optimization.domain.KalmanState;
 import com.delivery.optimization.domain.Delivery;
 import com.delivery.optimization.domain.Arc;
 import com.delivery.optimization.dto.ETAResponse;
 import com.delivery.optimization.dto.ETAUpdateRequest;
-import com.delivery.optimization.repository.ArcRepository;
+import com.delivery.optimization.dto.SnapResponse;
 import com.delivery.optimization.repository.DeliveryRepository;
 import com.delivery.optimization.repository.KalmanStateRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,9 +20,7 @@ import reactor.core.publisher.Mono;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 @Service
 @RequiredArgsConstructor
@@ -31,24 +30,13 @@ public class ETAService {
         private final KalmanFilter kalmanFilter;
         private final DeliveryRepository deliveryRepository;
         private final KalmanStateRepository kalmanStateRepository;
-        private final ArcRepository arcRepository;
+        private final RoadGraphCache roadGraphCache;
+        private final SpatialIndexService spatialIndexService;
         private final SimpMessagingTemplate messagingTemplate;
 
-        // Simple cache to avoid slamming the DB with findAll() on every pulse
-        private List<Arc> cachedArcs = new CopyOnWriteArrayList<>();
-        private Instant lastArcCacheUpdate = Instant.MIN;
-
+        // Shared road graph snapshot: no per-pulse findAll()
         private Mono<List<Arc>> getArcs() {
-                if (cachedArcs.isEmpty() || lastArcCacheUpdate.isBefore(Instant.now().minusSeconds(10))) {
-                        return arcRepository.findAll().collectList()
-                                        .doOnSuccess(list -> {
-                                                cachedArcs.clear();
-                                                cachedArcs.addAll(list);
-                                                lastArcCacheUpdate = Instant.now();
-                                        })
-                                        .defaultIfEmpty(Collections.emptyList());
-                }
-                return Mono.just(cachedArcs);
+                return roadGraphCache.getGraph().map(RoadGraph::getArcs);
         }
 
         public Mono<ETAResponse> updateETA(String deliveryId, ETAUpdateRequest request) {
@@ -79,11 +67,13 @@ public class ETAService {
 
                                         return kalmanStateRepository.save(newState)
                                                         .flatMap(savedState -> Mono.zip(
-                                                                        getArcs(),
+                                                                        roadGraphCache.getGraph(),
                                                                         deliveryRepository.findById(deliveryId)
                                                                                         .defaultIfEmpty(new Delivery())))
                                                         .map(tuple -> {
-                                                                List<Arc> allArcs = tuple.getT1();
+                                                                List<Arc> allArcs = tuple.getT1().getArcs();
+                                                                SnapResponse matched = snapOf(tuple.getT1(),
+                                                                                request.getCurrentPosition());
                                                                 double pathBias = 1.0;
                                                                 try {
                                                                         pathBias = allArcs.stream()
@@ -139,6 +129,7 @@ public class ETAService {
                                                                                                                 90)))
                                                                                 .confidence(confidence)
                                                                                 .remainingDistance(remainingDistMeters)
+                                                                                .matchedPosition(matched)
                                                                                 .kalmanState(ETAResponse.KalmanStateDTO
                                                                                                 .builder()
                                                                                                 .distanceCovered(
@@ -170,6 +161,17 @@ public class ETAService {
                                 });
         }
 
+        /**
+         * GPS fix snapped to the road graph, or null if none was sent or none can be matched.
+         */
+        private SnapResponse snapOf(RoadGraph graph, ETAUpdateRequest.Position position) {
+                if (position == null
+                                || !SpatialIndexService.isValidPosition(position.getLat(), position.getLon())) {
+                        return null;
+                }
+                return spatialIndexService.snap(graph, position.getLat(), position.getLon());
+        }
+
         public Mono<ETAResponse> getLatestStats(String deliveryId) {
                 return kalmanStateRepository.findByDeliveryId(deliveryId)
                                 .defaultIfEmpty(initializeState(deliveryId))
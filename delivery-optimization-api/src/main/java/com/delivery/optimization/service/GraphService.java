@@ -1,24 +1,43 @@
 package com.delivery.optimization.service;
 
 import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.event.GraphChangedEvent;
 import com.delivery.optimization.repository.ArcRepository;
 import com.delivery.optimization.repository.NodeRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Random;
 
 @Service
-@RequiredArgsConstructor
 public class GraphService {
 
     private final NodeRepository nodeRepository;
     private final ArcRepository arcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Picks the arcs hit by simulated traffic
+    private final Random random;
+
+    @Autowired
+    public GraphService(NodeRepository nodeRepository, ArcRepository arcRepository,
+            ApplicationEventPublisher eventPublisher) {
+        this(nodeRepository, arcRepository, eventPublisher, new Random());
+    }
+
+    GraphService(NodeRepository nodeRepository, ArcRepository arcRepository,
+            ApplicationEventPublisher eventPublisher, Random random) {
+        this.nodeRepository = nodeRepository;
+        this.arcRepository = arcRepository;
+        this.eventPublisher = eventPublisher;
+        this.random = random;
+    }
 
     public Mono<Void> initializeGraph() {
         // Logic to reset or seed the graph if necessary
-        return Mono.empty();
+        return Mono.fromRunnable(() -> eventPublisher.publishEvent(GraphChangedEvent.reload()));
     }
 
     public Mono<Arc> updateArcCost(Long arcId, Double newCost) {
@@ -26,20 +45,22 @@ public class GraphService {
                 .flatMap(arc -> {
                     arc.setWeatherImpact(newCost);
                     return arcRepository.save(arc);
-                });
+                })
+                .doOnNext(saved -> publishArcsUpdated(List.of(saved)));
     }
 
     public Mono<Void> simulateTraffic() {
-        Random rand = new Random();
         return arcRepository.findAll()
                 .flatMap(arc -> {
                     // Randomly increase penibility on 30% of arcs
-                    if (rand.nextDouble() < 0.3) {
+                    if (random.nextDouble() < 0.3) {
                         arc.setPenibility(Math.min(1.0, arc.getPenibility() + 0.4));
                         return arcRepository.save(arc);
                     }
-                    return Mono.just(arc);
+                    return Mono.empty();
                 }, 5)
+                .collectList()
+                .doOnNext(this::publishArcsUpdated)
                 .then();
     }
 
@@ -50,6 +71,8 @@ public class GraphService {
                     arc.setWeatherImpact(penalty);
                     return arcRepository.save(arc);
                 }, 5)
+                .collectList()
+                .doOnNext(this::publishArcsUpdated)
                 .then();
     }
 
@@ -63,6 +86,17 @@ public class GraphService {
                     arc.setTrafficFactor(1.0);
                     return arcRepository.save(arc);
                 }, 5) // Concurrency limit
+                .collectList()
+                .doOnNext(this::publishArcsUpdated)
                 .then();
     }
+
+    /**
+     * One event per batch: the routing snapshot is rebuilt once, not once per arc.
+     */
+    private void publishArcsUpdated(List<Arc> saved) {
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(GraphChangedEvent.arcsUpdated(saved));
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.Isochrone;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.domain.Node;
+import com.delivery.optimization.dto.IsochroneResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reachability queries ("every node within 15 minutes of relay R") over the
+ * current road graph snapshot.
+ */
+@Service
+public class IsochroneService {
+
+    private final RoadGraphCache roadGraphCache;
+    private final ComputeSchedulers computeSchedulers;
+    private final ForkJoinPool pool;
+
+    public IsochroneService(RoadGraphCache roadGraphCache, ComputeSchedulers computeSchedulers,
+                            @Qualifier("routingPool") ForkJoinPool pool) {
+        this.roadGraphCache = roadGraphCache;
+        this.computeSchedulers = computeSchedulers;
+        this.pool = pool;
+    }
+
+    public Mono<IsochroneResponse> isochrone(String sourceId, double budgetSeconds) {
+        if (!isValidBudget(budgetSeconds)) {
+            return Mono.error(new CustomExceptions.ValidationException("Budget must be a finite, non-negative number"));
+        }
+        return roadGraphCache.getGraph().flatMap(graph -> {
+            CsrGraph csr = graph.getCsr();
+            int source = csr.indexOf(sourceId);
+            if (source < 0) {
+                return Mono.error(new CustomExceptions.ResourceNotFoundException("Node not found: " + sourceId));
+            }
+            return computeSchedulers.routing(() -> toResponse(Isochrone.compute(csr, source, budgetSeconds)));
+        });
+    }
+
+    /**
+     * Isochrones of every relay point, computed in one parallel batch.
+     */
+    public Flux<IsochroneResponse> relayIsochrones(double budgetSeconds) {
+        if (!isValidBudget(budgetSeconds)) {
+            return Flux.error(new CustomExceptions.ValidationException("Budget must be a finite, non-negative number"));
+        }
+        return roadGraphCache.getGraph().flatMapMany(graph -> {
+            CsrGraph csr = graph.getCsr();
+            int[] relays = graph.getNodes().values().stream()
+                    .filter(n -> n.getType() == Node.NodeType.RELAY)
+                    .mapToInt(n -> csr.indexOf(n.getId()))
+                    .filter(i -> i >= 0)
+                    .sorted()
+                    .toArray();
+            return computeSchedulers.routing(() -> Isochrone.computeAll(csr, relays, budgetSeconds, pool))
+                    .flatMapMany(Flux::fromArray)
+                    .map(IsochroneService::toResponse);
+        });
+    }
+
+    private static IsochroneResponse toResponse(Isochrone isochrone) {
+        Map<String, Double> times = new LinkedHashMap<>();
+        for (int i = 0; i < isochrone.size(); i++) {
+            times.put(isochrone.nodeId(i), isochrone.time(i));
+        }
+        return IsochroneResponse.builder()
+                .source(isochrone.getSourceId())
+                .budgetSeconds(isochrone.getBudget())
+                .travelTimes(times)
+                .build();
+    }
+
+    // NaN and infinite budgets would flood the whole graph
+    private static boolean isValidBudget(double budgetSeconds) {
+        return Double.isFinite(budgetSeconds) && budgetSeconds >= 0;
+    }
+}
@@ -0,0 +1,83 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.LandmarkIndex;
+import com.delivery.optimization.algorithm.RoadGraph;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ALT landmark index of the road graph, shared by all A* searches.
+ * <p>
+ * Built in the background; kept across snapshots while costs only increase
+ * (congestion), rebuilt as soon as some arc got cheaper or the topology changed.
+ */
+@Slf4j
+@Service
+public class LandmarkService {
+
+    private record Check(LandmarkIndex index, CsrGraph graph, boolean admissible) {
+    }
+
+    private final boolean enabled;
+    private final int minNodes;
+    private final int landmarkCount;
+    private final ForkJoinPool pool;
+
+    private final AtomicReference<LandmarkIndex> current = new AtomicReference<>();
+    private final AtomicReference<Check> lastCheck = new AtomicReference<>();
+    private final BackgroundRebuild background;
+
+    public LandmarkService(
+            @Value("${routing.alt.enabled:true}") boolean enabled,
+            @Value("${routing.alt.min-nodes:1000}") int minNodes,
+            @Value("${routing.alt.landmarks:8}") int landmarkCount,
+            @Qualifier("routingPool") ForkJoinPool pool) {
+        this.enabled = enabled;
+        this.minNodes = minNodes;
+        this.landmarkCount = landmarkCount;
+        this.pool = pool;
+        this.background = new BackgroundRebuild("ALT landmark build", pool);
+    }
+
+    /**
+     * Landmarks usable on this snapshot, or null (plain geometric heuristic)
+     * while a suitable index is being built.
+     */
+    public LandmarkIndex landmarksFor(RoadGraph graph) {
+        CsrGraph csr = graph.getCsr();
+        if (!enabled || csr.nodeCount() < minNodes) {
+            return null;
+        }
+        LandmarkIndex index = current.get();
+        if (index != null && isAdmissible(index, csr)) {
+            return index;
+        }
+        rebuild(csr, graph.getVersion());
+        return null;
+    }
+
+    private boolean isAdmissible(LandmarkIndex index, CsrGraph csr) {
+        Check check = lastCheck.get();
+        if (check == null || check.index() != index || check.graph() != csr) {
+            check = new Check(index, csr, index.isAdmissibleFor(csr));
+            lastCheck.set(check);
+        }
+        return check.admissible();
+    }
+
+    private void rebuild(CsrGraph csr, long version) {
+        background.start(() -> {
+            long start = System.nanoTime();
+            LandmarkIndex index = LandmarkIndex.build(csr, landmarkCount, pool);
+            current.set(index);
+            log.info("ALT landmarks built for graph v{}: {} landmarks over {} nodes in {} ms", version,
+                    index.getLandmarks().length, csr.nodeCount(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+}
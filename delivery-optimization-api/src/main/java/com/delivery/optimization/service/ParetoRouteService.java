@@ -0,0 +1,77 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.ParetoRoutes;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.dto.ParetoRouteRequest;
+import com.delivery.optimization.dto.ParetoRouteResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trade-off routes between two nodes: the Pareto frontier over the chosen cost
+ * criteria in one search, instead of one weighted query per weight vector.
+ */
+@Service
+public class ParetoRouteService {
+
+    private final RoadGraphCache roadGraphCache;
+    private final ComputeSchedulers computeSchedulers;
+    private final int maxLabelsPerNode;
+    private final int maxLabels;
+
+    public ParetoRouteService(RoadGraphCache roadGraphCache, ComputeSchedulers computeSchedulers,
+                              @Value("${routing.pareto.max-labels-per-node:16}") int maxLabelsPerNode,
+                              @Value("${routing.pareto.max-labels:500000}") int maxLabels) {
+        this.roadGraphCache = roadGraphCache;
+        this.computeSchedulers = computeSchedulers;
+        this.maxLabelsPerNode = maxLabelsPerNode;
+        this.maxLabels = maxLabels;
+    }
+
+    public Mono<ParetoRouteResponse> frontier(ParetoRouteRequest request) {
+        List<ParetoRouteRequest.Criterion> criteria = request.getCriteria() == null || request.getCriteria().isEmpty()
+                ? List.of(ParetoRouteRequest.Criterion.values())
+                : request.getCriteria().stream().distinct().toList();
+        int[] components = criteria.stream().mapToInt(Enum::ordinal).toArray();
+        return roadGraphCache.getGraph().flatMap(graph -> {
+            CsrGraph csr = graph.getCsr();
+            for (String id : Arrays.asList(request.getOrigin(), request.getDestination())) {
+                if (id == null || csr.indexOf(id) < 0) {
+                    return Mono.error(new CustomExceptions.ResourceNotFoundException("Node not found: " + id));
+                }
+            }
+            return computeSchedulers.routing(() -> {
+                ParetoRoutes.Result result = ParetoRoutes.compute(csr, request.getOrigin(),
+                        request.getDestination(), components, maxLabelsPerNode, maxLabels);
+                return ParetoRouteResponse.builder()
+                        .criteria(criteria)
+                        .routes(result.routes().stream().map(route -> toRoute(csr, route)).toList())
+                        .complete(result.complete())
+                        .build();
+            });
+        });
+    }
+
+    private static ParetoRouteResponse.Route toRoute(CsrGraph csr, ParetoRoutes.Route route) {
+        Map<String, Double> costs = new LinkedHashMap<>();
+        for (ParetoRouteRequest.Criterion criterion : ParetoRouteRequest.Criterion.values()) {
+            double total = 0.0;
+            for (int e : route.edges()) {
+                total += csr.componentCost(e, criterion.ordinal());
+            }
+            costs.put(criterion.name(), total);
+        }
+        return ParetoRouteResponse.Route.builder()
+                .path(route.path())
+                .costs(costs)
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RelayVoronoi;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.domain.Node;
+import com.delivery.optimization.dto.NearestRelayResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Relay service areas of the road graph, for O(1) relay suggestions.
+ * <p>
+ * Recomputed in the background for every new snapshot (arc costs or relays
+ * changed); meanwhile the previous partition is served as long as the topology
+ * is the same, since node indices still match.
+ */
+@Slf4j
+@Service
+public class RelayVoronoiService {
+
+    /**
+     * Service areas are drawn on road distance (km).
+     */
+    public static final CostFunction.Weights DISTANCE = CostFunction.Weights.builder()
+            .alpha(1.0).beta(0).gamma(0).delta(0).eta(0).build();
+
+    private final RoadGraphCache roadGraphCache;
+    private final SpatialIndexService spatialIndexService;
+    private final boolean enabled;
+
+    private final AtomicReference<RelayVoronoi> current = new AtomicReference<>();
+    private final BackgroundRebuild background;
+
+    public RelayVoronoiService(RoadGraphCache roadGraphCache,
+                               SpatialIndexService spatialIndexService,
+                               @Value("${routing.relay-voronoi.enabled:true}") boolean enabled,
+                               @Qualifier("routingPool") ForkJoinPool pool) {
+        this.roadGraphCache = roadGraphCache;
+        this.spatialIndexService = spatialIndexService;
+        this.enabled = enabled;
+        this.background = new BackgroundRebuild("Relay service area computation", pool);
+    }
+
+    /**
+     * Partition usable on this snapshot, or null while none matches its topology.
+     */
+    public RelayVoronoi voronoiFor(RoadGraph graph) {
+        if (!enabled) {
+            return null;
+        }
+        CsrGraph csr = graph.getCsr();
+        RelayVoronoi voronoi = current.get();
+        if (voronoi == null || !voronoi.isFor(csr)) {
+            rebuild(graph);
+        }
+        return voronoi != null && voronoi.getGraph().hasSameTopology(csr) ? voronoi : null;
+    }
+
+    public Mono<NearestRelayResponse> nearestRelay(String nodeId) {
+        return roadGraphCache.getGraph().map(graph -> nearestRelay(graph, nodeId));
+    }
+
+    /**
+     * Nearest relay of a GPS position, through the graph node nearest to it.
+     */
+    public Mono<NearestRelayResponse> nearestRelay(double latitude, double longitude) {
+        return spatialIndexService.snap(latitude, longitude)
+                .zipWith(roadGraphCache.getGraph())
+                .map(tuple -> nearestRelay(tuple.getT2(), tuple.getT1().getNode()));
+    }
+
+    private NearestRelayResponse nearestRelay(RoadGraph graph, String nodeId) {
+        CsrGraph csr = graph.getCsr();
+        int node = csr.indexOf(nodeId);
+        if (node < 0) {
+            throw new CustomExceptions.ResourceNotFoundException("Node not found: " + nodeId);
+        }
+        RelayVoronoi voronoi = voronoiFor(graph);
+        if (voronoi == null) {
+            throw new CustomExceptions.ServiceUnavailableException("Relay service areas are being computed");
+        }
+        return NearestRelayResponse.builder()
+                .node(nodeId)
+                .relay(voronoi.nearest(node))
+                .distance(finiteOrNull(voronoi.nearestCost(node)))
+                .secondRelay(voronoi.second(node))
+                .secondDistance(finiteOrNull(voronoi.secondCost(node)))
+                .build();
+    }
+
+    private static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+
+    private void rebuild(RoadGraph graph) {
+        background.start(() -> {
+            long start = System.nanoTime();
+            CsrGraph csr = graph.getCsr();
+            int[] relays = graph.getNodes().values().stream()
+                    .filter(n -> n.getType() == Node.NodeType.RELAY)
+                    .mapToInt(n -> csr.indexOf(n.getId()))
+                    .filter(i -> i >= 0)
+                    .toArray();
+            current.set(RelayVoronoi.compute(csr, relays, DISTANCE));
+            log.info("Relay service areas computed for graph v{}: {} relays over {} nodes in {} ms",
+                    graph.getVersion(), relays.length, csr.nodeCount(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+}
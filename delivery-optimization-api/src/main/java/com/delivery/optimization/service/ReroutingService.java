@@ -1,18 +1,30 @@
 package com.delivery.optimization.service;
 
+import com.delivery.optimization.algorithm.AlternativeRoutes;
 import com.delivery.optimization.algorithm.CostFunction;
-import com.delivery.optimization.domain.Arc;
-import lombok.RequiredArgsConstructor;
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.domain.Delivery;
+import com.delivery.optimization.dto.RerouteResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import com.delivery.optimization.repository.DeliveryRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 public class ReroutingService {
 
     private final ShortestPathService shortestPathService;
+    private final AlternativeRouteService alternativeRouteService;
+    private final DeliveryRepository deliveryRepository;
+    private final RoadGraphCache roadGraphCache;
+    private final ComputeSchedulers computeSchedulers;
+    // Default routing profile, the one the contraction hierarchy is built for
+    private final CostFunction.Weights rerouteWeights;
 
     // Section 3.7.1 - Critère de Déclenchement du Reroutage (Hystérésis)
     private static final double EPSILON_FACTOR = 0.15; // 15% of initial cost
@@ -20,6 +32,36 @@ public class ReroutingService {
     private static final double DELTA_DEMI_TOUR = 1.0;
     private static final double C_SWITCH = DELTA_COGNITIF + DELTA_DEMI_TOUR;
 
+    private static final int ALTERNATIVES = 3;
+
+    public ReroutingService(
+            ShortestPathService shortestPathService,
+            AlternativeRouteService alternativeRouteService,
+            DeliveryRepository deliveryRepository,
+            RoadGraphCache roadGraphCache,
+            ComputeSchedulers computeSchedulers,
+            @Value("${routing.ch.default-weights.alpha:0.2}") double alpha,
+            @Value("${routing.ch.default-weights.beta:0.5}") double beta,
+            @Value("${routing.ch.default-weights.gamma:0.1}") double gamma,
+            @Value("${routing.ch.default-weights.delta:0.1}") double delta,
+            @Value("${routing.ch.default-weights.eta:0.1}") double eta) {
+        this.shortestPathService = shortestPathService;
+        this.alternativeRouteService = alternativeRouteService;
+        this.deliveryRepository = deliveryRepository;
+        this.roadGraphCache = roadGraphCache;
+        this.computeSchedulers = computeSchedulers;
+        this.rerouteWeights = CostFunction.Weights.builder()
+                .alpha(alpha).beta(beta).gamma(gamma).delta(delta).eta(eta)
+                .build();
+    }
+
+    /**
+     * Weights reroutes are evaluated with ({@code routing.ch.default-weights}).
+     */
+    public CostFunction.Weights getRerouteWeights() {
+        return rerouteWeights;
+    }
+
     /**
      * Checks if a rerouting is required based on hysteresis criteria from Chapter
      * 3.7.1.
@@ -34,4 +76,111 @@ public class ReroutingService {
     public double getHysteresisThreshold(double initialPathCost) {
         return (EPSILON_FACTOR * initialPathCost) + C_SWITCH;
     }
+
+    /**
+     * Compares the remainder of a delivery's current path with the best diverse
+     * alternatives to its dropoff on the current graph.
+     *
+     * @param currentNodeId   where the driver is; defaults to the path start, then the pickup.
+     * @param currentPath     node path being driven, or null if unknown.
+     * @param initialPathCost C(p_current, t0), or null to use the current cost of the remainder.
+     */
+    public Mono<RerouteResponse> checkReroute(String deliveryId, String currentNodeId, List<String> currentPath,
+            Double initialPathCost) {
+        return deliveryRepository.findById(deliveryId)
+                .switchIfEmpty(Mono.error(
+                        new CustomExceptions.ResourceNotFoundException("Delivery not found: " + deliveryId)))
+                .zipWith(roadGraphCache.getGraph())
+                .flatMap(tuple -> computeSchedulers.routing(() ->
+                        evaluate(tuple.getT2(), tuple.getT1(), currentNodeId, currentPath, initialPathCost)));
+    }
+
+    /**
+     * Synchronous decision on a given snapshot.
+     */
+    public RerouteResponse evaluate(RoadGraph graph, Delivery delivery, String currentNodeId,
+            List<String> currentPath, Double initialPathCost) {
+        String from = currentNodeId != null ? currentNodeId
+                : currentPath != null && !currentPath.isEmpty() ? currentPath.get(0)
+                : delivery.getPickupNodeId();
+        List<AlternativeRoutes.Route> alternatives = alternativeRouteService.compute(graph, from,
+                delivery.getDropoffNodeId(), rerouteWeights, ALTERNATIVES);
+        if (alternatives.isEmpty()) {
+            return RerouteResponse.builder().rerouteRequired(false).reason("NO_ROUTE").hysteresisMet(false).build();
+        }
+
+        List<String> remainder = remainderOf(currentPath, from);
+        if (remainder == null) {
+            // Nothing to compare with: suggest the best route
+            return RerouteResponse.builder()
+                    .rerouteRequired(false)
+                    .reason("NO_CURRENT_PATH")
+                    .newPath(alternatives.get(0).path())
+                    .hysteresisMet(false)
+                    .build();
+        }
+
+        AlternativeRoutes.Route best = alternatives.stream()
+                .filter(route -> !route.path().equals(remainder))
+                .findFirst()
+                .orElse(null);
+        if (best == null) {
+            return RerouteResponse.builder().rerouteRequired(false).reason("TRAFFIC_NORMAL").hysteresisMet(false)
+                    .build();
+        }
+
+        double currentCost = pathCost(graph, remainder);
+        if (Double.isInfinite(currentCost)) {
+            return RerouteResponse.builder()
+                    .rerouteRequired(true)
+                    .reason("PATH_BLOCKED")
+                    .newPath(best.path())
+                    .hysteresisMet(true)
+                    .build();
+        }
+        double initial = initialPathCost != null ? initialPathCost : currentCost;
+        boolean justified = isRerouteJustified(currentCost, best.cost(), initial);
+        return RerouteResponse.builder()
+                .rerouteRequired(justified)
+                .reason(justified ? "COST_IMPROVEMENT" : "TRAFFIC_NORMAL")
+                .newPath(justified ? best.path() : null)
+                .costImprovement(currentCost - best.cost())
+                .hysteresisMet(justified)
+                .build();
+    }
+
+    /**
+     * Part of the path from {@code from} on, or null if the path is unknown or does not go through it.
+     */
+    private static List<String> remainderOf(List<String> path, String from) {
+        if (path == null) {
+            return null;
+        }
+        int i = path.indexOf(from);
+        return i < 0 ? null : path.subList(i, path.size());
+    }
+
+    /**
+     * Cost of a node path on this snapshot, infinite if an arc no longer exists.
+     */
+    double pathCost(RoadGraph graph, List<String> path) {
+        CsrGraph csr = graph.getCsr();
+        double[] cost = csr.costs(rerouteWeights);
+        double total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int u = csr.indexOf(path.get(i));
+            int v = csr.indexOf(path.get(i + 1));
+            if (u < 0 || v < 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = csr.firstEdge(u); e < csr.endEdge(u); e++) {
+                if (csr.target(e) == v) {
+                    best = Math.min(best, cost[e]);
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
 }
@@ -0,0 +1,92 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.event.GraphChangedEvent;
+import com.delivery.optimization.repository.ArcRepository;
+import com.delivery.optimization.repository.NodeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process-wide road graph snapshot, loaded once from the database and then kept
+ * up to date from {@link GraphChangedEvent}s instead of being reloaded per request.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoadGraphCache {
+
+    private final NodeRepository nodeRepository;
+    private final ArcRepository arcRepository;
+
+    private final AtomicReference<RoadGraph> current = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    // Bumped on invalidation, so that a load started before it is not published
+    private final AtomicLong generation = new AtomicLong();
+    private Mono<RoadGraph> loading;
+
+    /**
+     * Current snapshot, loading it on first use.
+     */
+    public Mono<RoadGraph> getGraph() {
+        RoadGraph graph = current.get();
+        return graph != null ? Mono.just(graph) : load();
+    }
+
+    private synchronized Mono<RoadGraph> load() {
+        if (loading == null) {
+            long gen = generation.get();
+            loading = Mono.zip(nodeRepository.findAll().collectList(), arcRepository.findAll().collectList())
+                    .map(tuple -> RoadGraph.of(version.incrementAndGet(), tuple.getT1(), tuple.getT2()))
+                    .doOnNext(graph -> {
+                        log.info("Road graph loaded: {} nodes, {} arcs", graph.getNodes().size(),
+                                graph.getArcs().size());
+                        synchronized (this) {
+                            if (generation.get() == gen) {
+                                current.set(graph);
+                            }
+                            loading = null;
+                        }
+                    })
+                    .doOnError(e -> {
+                        synchronized (this) {
+                            loading = null;
+                        }
+                    })
+                    .cache();
+        }
+        return loading;
+    }
+
+    /**
+     * Drops the snapshot: the next request reloads it from the database.
+     */
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        current.set(null);
+        loading = null;
+    }
+
+    @EventListener
+    public void onGraphChanged(GraphChangedEvent event) {
+        if (event.fullReload()) {
+            invalidate();
+            return;
+        }
+        synchronized (this) {
+            if (current.get() == null) {
+                // Not loaded yet, or a load is in flight that may have missed the change
+                generation.incrementAndGet();
+                loading = null;
+                return;
+            }
+            current.updateAndGet(graph -> graph.withArcs(version.incrementAndGet(), event.updatedArcs()));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.AStar;
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RoadGraph;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of point-to-point routes, keyed by origin, destination and
+ * quantized weight vector, and tagged with the graph version they were computed on.
+ * <p>
+ * A route computed on an older snapshot is revalidated instead of recomputed
+ * when none of its arcs changed since and no arc anywhere got cheaper: its cost
+ * is unchanged and every other path can only have become more expensive, so it
+ * is still optimal. Any cheaper arc or topology change invalidates every older entry.
+ * <p>
+ * The memory ceiling is enforced on an estimate of the retained size of the entries.
+ */
+@Service
+public class RouteCache {
+
+    private record Key(String origin, String destination, long alpha, long beta, long gamma, long delta, long eta) {
+    }
+
+    private static final class Entry {
+        final AStar.PathResult result;
+        final int[] edges;
+        final long bytes;
+        long version;
+
+        Entry(AStar.PathResult result, int[] edges, long version) {
+            this.result = result;
+            this.edges = edges;
+            this.version = version;
+            this.bytes = 160 + 56L * result.getPath().size() + 4L * edges.length;
+        }
+    }
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final double weightStep;
+
+    /**
+     * Latest snapshot seen, with the version each edge last changed in since the
+     * last cheaper-arc or topology change ({@code start}). Immutable: replaced as
+     * a whole when a newer snapshot shows up.
+     */
+    private record Epoch(CsrGraph graph, long version, long start, long[] lastChanged) {
+    }
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    // Diffing a new snapshot is O(edges): done under its own lock, lookups keep going meanwhile
+    private volatile Epoch epoch = new Epoch(null, -1, -1, new long[0]);
+    private final Object observeLock = new Object();
+
+    private final Counter hits;
+    private final Counter revalidations;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public RouteCache(
+            @Value("${routing.cache.enabled:true}") boolean enabled,
+            @Value("${routing.cache.max-bytes:16777216}") long maxBytes,
+            @Value("${routing.cache.weight-step:0.001}") double weightStep,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.weightStep = weightStep;
+        this.hits = registry.counter("routing.cache.requests", "result", "hit");
+        this.revalidations = registry.counter("routing.cache.requests", "result", "revalidated");
+        this.misses = registry.counter("routing.cache.requests", "result", "miss");
+        this.evictions = registry.counter("routing.cache.evictions");
+        Gauge.builder("routing.cache.size", this, RouteCache::size).register(registry);
+        Gauge.builder("routing.cache.bytes", this, RouteCache::estimatedBytes).register(registry);
+        Gauge.builder("routing.cache.hit.ratio", this, RouteCache::hitRate).register(registry);
+    }
+
+    /**
+     * Cached route for this snapshot, or null on a miss.
+     */
+    public AStar.PathResult get(RoadGraph graph, String originId, String destinationId,
+            CostFunction.Weights weights) {
+        if (!enabled) {
+            return null;
+        }
+        Key key = key(originId, destinationId, weights);
+        observe(graph);
+        synchronized (this) {
+            Epoch current = epoch;
+            if (graph.getVersion() < current.version()) {
+                misses.increment();
+                return null; // Caller holds a superseded snapshot
+            }
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == graph.getVersion()) {
+                hits.increment();
+                return entry.result;
+            }
+            if (entry != null && isStillOptimal(entry, current)) {
+                entry.version = graph.getVersion();
+                revalidations.increment();
+                return entry.result;
+            }
+            if (entry != null) {
+                remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a route computed on {@code graph}.
+     */
+    public void put(RoadGraph graph, String originId, String destinationId, CostFunction.Weights weights,
+            AStar.PathResult result) {
+        if (!enabled || result == null) {
+            return;
+        }
+        int[] edges = edgesOf(graph.getCsr(), result.getPath(), weights);
+        Key key = key(originId, destinationId, weights);
+        // Hits report the settled nodes of the search that computed the route
+        Entry entry = new Entry(result, edges, graph.getVersion());
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+        observe(graph);
+        synchronized (this) {
+            if (graph.getVersion() < epoch.version()) {
+                return; // Computed on a snapshot already superseded
+            }
+            remove(key);
+            entries.put(key, entry);
+            bytes += entry.bytes;
+            Iterator<Map.Entry<Key, Entry>> lru = entries.entrySet().iterator();
+            while (bytes > maxBytes && lru.hasNext()) {
+                bytes -= lru.next().getValue().bytes;
+                lru.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long estimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Share of lookups answered without a search (hits and revalidations).
+     */
+    public double hitRate() {
+        double answered = hits.count() + revalidations.count();
+        double total = answered + misses.count();
+        return total == 0 ? 0 : answered / total;
+    }
+
+    private Key key(String originId, String destinationId, CostFunction.Weights w) {
+        return new Key(originId, destinationId, quantize(w.getAlpha()), quantize(w.getBeta()),
+                quantize(w.getGamma()), quantize(w.getDelta()), quantize(w.getEta()));
+    }
+
+    private long quantize(double weight) {
+        return Math.round(weight / weightStep);
+    }
+
+    private void remove(Key key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+    }
+
+    private static boolean isStillOptimal(Entry entry, Epoch epoch) {
+        if (entry.version < epoch.start()) {
+            return false;
+        }
+        for (int e : entry.edges) {
+            if (e < 0 || epoch.lastChanged()[e] > entry.version) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records which edges changed when a newer snapshot shows up; a cheaper edge
+     * or a new topology starts a new epoch.
+     */
+    private void observe(RoadGraph graph) {
+        long version = graph.getVersion();
+        if (version <= epoch.version()) {
+            return;
+        }
+        synchronized (observeLock) {
+            Epoch previous = epoch;
+            if (version <= previous.version()) {
+                return;
+            }
+            CsrGraph csr = graph.getCsr();
+            if (previous.graph() == null || !previous.graph().hasSameTopology(csr)) {
+                epoch = new Epoch(csr, version, version, new long[csr.edgeCount()]);
+                return;
+            }
+            long start = previous.start();
+            long[] lastChanged = previous.lastChanged();
+            if (previous.graph() != csr) {
+                lastChanged = lastChanged.clone();
+                for (int e = 0; e < csr.edgeCount(); e++) {
+                    boolean changed = false;
+                    for (int c = 0; c < CsrGraph.COMPONENTS; c++) {
+                        double before = previous.graph().componentCost(e, c);
+                        double after = csr.componentCost(e, c);
+                        if (after < before) {
+                            start = version;
+                        }
+                        changed |= Double.compare(after, before) != 0;
+                    }
+                    if (changed) {
+                        lastChanged[e] = version;
+                    }
+                }
+            }
+            epoch = new Epoch(csr, version, start, lastChanged);
+        }
+    }
+
+    /**
+     * Edge indices along the path (the cheapest one between parallel arcs).
+     */
+    private static int[] edgesOf(CsrGraph csr, List<String> path, CostFunction.Weights weights) {
+        int[] edges = new int[Math.max(0, path.size() - 1)];
+        double[] cost = csr.costs(weights);
+        for (int i = 0; i < edges.length; i++) {
+            int u = csr.indexOf(path.get(i));
+            int v = csr.indexOf(path.get(i + 1));
+            int best = -1;
+            for (int e = csr.firstEdge(u); e < csr.endEdge(u); e++) {
+                if (csr.target(e) == v && (best < 0 || cost[e] < cost[best])) {
+                    best = e;
+                }
+            }
+            edges[i] = best;
+        }
+        return edges;
+    }
+}
@@ -2,97 +2,151 @@ package com.delivery.optimization.service;
 
 import com.delivery.optimization.algorithm.AStar;
 import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.algorithm.TrafficProfiles;
+import com.delivery.optimization.config.ComputeSchedulers;
 import com.delivery.optimization.domain.Arc;
-import com.delivery.optimization.domain.Node;
 import com.delivery.optimization.dto.ShortestPathRequest;
 import com.delivery.optimization.dto.ShortestPathResponse;
+import com.delivery.optimization.event.GraphChangedEvent;
 import com.delivery.optimization.repository.ArcRepository;
-import com.delivery.optimization.repository.NodeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ShortestPathService {
 
-    private final NodeRepository nodeRepository;
+    private final RoadGraphCache roadGraphCache;
     private final ArcRepository arcRepository;
     private final AStar aStar;
+    private final ContractionHierarchyService contractionHierarchyService;
+    private final CustomizableRouteService customizableRouteService;
+    private final LandmarkService landmarkService;
+    private final RouteCache routeCache;
+    private final TrafficProfileService trafficProfileService;
+    private final ComputeSchedulers computeSchedulers;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Mono<ShortestPathResponse> calculateShortestPath(ShortestPathRequest request) {
-        return Mono.zip(
-                nodeRepository.findAll().collectMap(Node::getId, Function.identity()),
-                arcRepository.findAll().collect(Collectors.groupingBy(Arc::getOriginId))).flatMap(tuple -> {
-                    Map<String, Node> nodes = tuple.getT1();
-                    Map<String, List<Arc>> adjacencyList = tuple.getT2();
-
-                    CostFunction.Weights weights = CostFunction.Weights.builder()
-                            .alpha(request.getCostWeights().getAlpha())
-                            .beta(request.getCostWeights().getBeta())
-                            .gamma(request.getCostWeights().getGamma())
-                            .delta(request.getCostWeights().getDelta())
-                            .eta(request.getCostWeights().getEta())
-                            .build();
-
-                    AStar.PathResult result = aStar.findPath(
-                            request.getOrigin(),
-                            request.getDestination(),
-                            nodes,
-                            adjacencyList,
-                            weights);
-
-                    if (result == null) {
-                        return Mono.error(new RuntimeException("Path not found"));
-                    }
-
-                    double totalDistance = 0.0;
-                    double estimatedTime = 0.0;
-                    double totalPenibilityCost = 0.0;
-                    double totalWeatherCost = 0.0;
-                    double totalFuelCost = 0.0;
-
-                    List<String> pathNodes = result.getPath();
-
-                    for (int i = 0; i < pathNodes.size() - 1; i++) {
-                        String from = pathNodes.get(i);
-                        String to = pathNodes.get(i + 1);
-                        List<Arc> outgoing = adjacencyList.getOrDefault(from, List.of());
-                        Arc edge = outgoing.stream()
-                                .filter(a -> a.getDestinationId().equals(to))
-                                .findFirst()
-                                .orElse(null);
-                        if (edge != null) {
-                            totalDistance += edge.getDistance();
-                            estimatedTime += edge.getTravelTime()
-                                    * (edge.getTrafficFactor() != null ? edge.getTrafficFactor() : 1.0);
-
-                            totalPenibilityCost += edge.getPenibility() * weights.getGamma();
-                            totalWeatherCost += edge.getWeatherImpact() * weights.getDelta();
-                            totalFuelCost += edge.getFuelCost() * weights.getEta();
-                        }
-                    }
-
-                    Map<String, Double> breakdown = Map.of(
-                            "Distance", totalDistance * weights.getAlpha(),
-                            "Time", estimatedTime * weights.getBeta(),
-                            "Penibility", totalPenibilityCost,
-                            "Weather", totalWeatherCost,
-                            "Fuel", totalFuelCost);
-
-                    return Mono.just(ShortestPathResponse.builder()
-                            .path(pathNodes)
-                            .totalCost(result.getTotalCost())
-                            .costBreakdown(breakdown)
-                            .estimatedTime(estimatedTime)
-                            .distance(totalDistance)
-                            .build());
-                });
+        // The search itself runs on the routing lane, off the event loop
+        return roadGraphCache.getGraph()
+                .flatMap(graph -> computeSchedulers.routing(() -> computeRoute(graph, request)));
+    }
+
+    /**
+     * Routes one request on the given snapshot.
+     *
+     * @throws RuntimeException if there is no path.
+     */
+    public ShortestPathResponse computeRoute(RoadGraph graph, ShortestPathRequest request) {
+        CostFunction.Weights weights = weightsOf(request.getCostWeights());
+
+        // A departure time selects the time-dependent search when profiles are learned
+        TrafficProfiles profiles = request.getTimestamp() != null
+                ? trafficProfileService.profilesFor(graph)
+                : null;
+        double departure = profiles != null ? trafficProfileService.secondOfDay(request.getTimestamp()) : 0;
+
+        // A forced search mode must run that search: only AUTO routes go through the cache
+        boolean cacheable = profiles == null && modeOf(request) == ShortestPathRequest.SearchMode.AUTO;
+        AStar.PathResult result;
+        if (profiles != null) {
+            result = aStar.findPathTimeDependent(graph.getCsr(), profiles, request.getOrigin(),
+                    request.getDestination(), weights, departure);
+        } else if (cacheable) {
+            result = routeCache.get(graph, request.getOrigin(), request.getDestination(), weights);
+            if (result == null) {
+                result = route(graph, request, weights);
+                routeCache.put(graph, request.getOrigin(), request.getDestination(), weights, result);
+            }
+        } else {
+            result = route(graph, request, weights);
+        }
+
+        if (result == null) {
+            throw new RuntimeException("Path not found");
+        }
+
+        double totalDistance = 0.0;
+        double estimatedTime = 0.0;
+        double totalPenibilityCost = 0.0;
+        double totalWeatherCost = 0.0;
+        double totalFuelCost = 0.0;
+
+        List<String> pathNodes = result.getPath();
+
+        for (int i = 0; i < pathNodes.size() - 1; i++) {
+            String from = pathNodes.get(i);
+            String to = pathNodes.get(i + 1);
+            Arc edge = graph.findArc(from, to);
+            if (edge != null) {
+                totalDistance += edge.getDistance();
+                estimatedTime += edge.getTravelTime()
+                        * (edge.getTrafficFactor() != null ? edge.getTrafficFactor() : 1.0);
+
+                totalPenibilityCost += edge.getPenibility() * weights.getGamma();
+                totalWeatherCost += edge.getWeatherImpact() * weights.getDelta();
+                totalFuelCost += edge.getFuelCost() * weights.getEta();
+            }
+        }
+        if (profiles != null) {
+            estimatedTime = profiles.travelTime(graph.getCsr(), pathNodes, departure);
+        }
+
+        Map<String, Double> breakdown = Map.of(
+                "Distance", totalDistance * weights.getAlpha(),
+                "Time", estimatedTime * weights.getBeta(),
+                "Penibility", totalPenibilityCost,
+                "Weather", totalWeatherCost,
+                "Fuel", totalFuelCost);
+
+        return ShortestPathResponse.builder()
+                .path(pathNodes)
+                .totalCost(result.getTotalCost())
+                .costBreakdown(breakdown)
+                .estimatedTime(estimatedTime)
+                .distance(totalDistance)
+                .settledNodes(result.getSettledNodes())
+                .build();
+    }
+
+    static CostFunction.Weights weightsOf(ShortestPathRequest.CostWeights costWeights) {
+        return CostFunction.Weights.builder()
+                .alpha(costWeights.getAlpha())
+                .beta(costWeights.getBeta())
+                .gamma(costWeights.getGamma())
+                .delta(costWeights.getDelta())
+                .eta(costWeights.getEta())
+                .build();
+    }
+
+    private static ShortestPathRequest.SearchMode modeOf(ShortestPathRequest request) {
+        return request.getSearchMode() != null ? request.getSearchMode() : ShortestPathRequest.SearchMode.AUTO;
+    }
+
+    private AStar.PathResult route(RoadGraph graph, ShortestPathRequest request, CostFunction.Weights weights) {
+        String origin = request.getOrigin();
+        String destination = request.getDestination();
+        switch (modeOf(request)) {
+            case BIDIRECTIONAL:
+                return aStar.findPathBidirectional(graph.getCsr(), origin, destination, weights,
+                        landmarkService.landmarksFor(graph));
+            case UNIDIRECTIONAL:
+                return aStar.findPath(graph.getCsr(), origin, destination, weights,
+                        landmarkService.landmarksFor(graph));
+            default:
+                // Contraction hierarchy (default profile, once built), then the CRP overlay, then A*
+                return contractionHierarchyService.findPath(graph, origin, destination, weights)
+                        .or(() -> customizableRouteService.findPath(graph, origin, destination, weights))
+                        .orElseGet(() -> aStar.findPath(graph.getCsr(), origin, destination, weights,
+                                landmarkService.landmarksFor(graph)));
+        }
     }
 
     public Mono<Void> updateArcTraffic(Long arcId, Double trafficFactor) {
@@ -101,6 +155,7 @@ public class ShortestPathService {
                     arc.setTrafficFactor(trafficFactor);
                     return arcRepository.save(arc);
                 })
+                .doOnNext(saved -> eventPublisher.publishEvent(GraphChangedEvent.arcsUpdated(List.of(saved))))
                 .then();
     }
 }
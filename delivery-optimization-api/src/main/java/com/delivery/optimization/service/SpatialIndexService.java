@@ -0,0 +1,137 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.algorithm.SpatialIndex;
+import com.delivery.optimization.domain.Node;
+import com.delivery.optimization.dto.SnapResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * GPS snapping on the current road graph: nearest node and nearest arc of a
+ * position, for tracking fixes, relay lookups by position and depot selection.
+ * <p>
+ * The index is rebuilt in the background on the first lookup after the nodes
+ * or arcs change (a snapshot that only patches arc costs keeps it); lookups
+ * scan every node and arc of the new topology until it is ready.
+ */
+@Slf4j
+@Service
+public class SpatialIndexService {
+
+    private final RoadGraphCache roadGraphCache;
+    private final double maxArcDistanceKm;
+
+    private final AtomicReference<SpatialIndex> current = new AtomicReference<>();
+    // Projection of the topology being indexed, scanned meanwhile
+    private final AtomicReference<SpatialIndex> fallback = new AtomicReference<>();
+    private final BackgroundRebuild background;
+
+    public SpatialIndexService(RoadGraphCache roadGraphCache,
+                               @Value("${routing.snap.max-arc-distance-km:0.5}") double maxArcDistanceKm,
+                               @Qualifier("routingPool") ForkJoinPool pool) {
+        this.roadGraphCache = roadGraphCache;
+        this.maxArcDistanceKm = maxArcDistanceKm;
+        this.background = new BackgroundRebuild("Spatial index build", pool);
+    }
+
+    /**
+     * Index usable on this snapshot, or a linear scan of it while its index is
+     * being built.
+     */
+    public SpatialIndex indexFor(RoadGraph graph) {
+        CsrGraph csr = graph.getCsr();
+        SpatialIndex index = current.get();
+        if (index != null && index.isFor(csr)) {
+            return index;
+        }
+        rebuild(csr, graph.getVersion());
+        SpatialIndex scan = fallback.get();
+        if (scan == null || !scan.isFor(csr)) {
+            scan = SpatialIndex.linearScan(csr);
+            fallback.set(scan);
+        }
+        return scan;
+    }
+
+    /**
+     * True for a finite latitude and longitude within range.
+     */
+    public static boolean isValidPosition(double latitude, double longitude) {
+        return Double.isFinite(latitude) && Double.isFinite(longitude)
+                && Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180;
+    }
+
+    private void rebuild(CsrGraph csr, long version) {
+        background.start(() -> {
+            long start = System.nanoTime();
+            current.set(SpatialIndex.build(csr));
+            fallback.set(null);
+            log.info("Spatial index built for graph v{}: {} nodes, {} arcs in {} ms",
+                    version, csr.nodeCount(), csr.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    public Mono<SnapResponse> snap(double latitude, double longitude) {
+        if (!isValidPosition(latitude, longitude)) {
+            return Mono.error(new CustomExceptions.ValidationException(
+                    "Invalid position: " + latitude + ", " + longitude));
+        }
+        return roadGraphCache.getGraph().flatMap(graph -> {
+            SnapResponse snapped = snap(graph, latitude, longitude);
+            return snapped != null ? Mono.just(snapped)
+                    : Mono.error(new CustomExceptions.ResourceNotFoundException("No located node in the graph"));
+        });
+    }
+
+    /**
+     * Synchronous snapping on a given snapshot, or null if the position is
+     * invalid or no node is located.
+     */
+    public SnapResponse snap(RoadGraph graph, double latitude, double longitude) {
+        if (!isValidPosition(latitude, longitude)) {
+            return null;
+        }
+        SpatialIndex index = indexFor(graph);
+        CsrGraph csr = index.getGraph();
+        int node = index.nearestNode(latitude, longitude);
+        if (node < 0) {
+            return null;
+        }
+        SnapResponse.SnapResponseBuilder response = SnapResponse.builder()
+                .latitude(latitude)
+                .longitude(longitude)
+                .node(csr.nodeId(node))
+                .nodeDistance(index.distanceKm(latitude, longitude, node));
+        SpatialIndex.ArcMatch arc = index.nearestArc(latitude, longitude, maxArcDistanceKm);
+        if (arc != null) {
+            response.arcId(csr.arcId(arc.edge()))
+                    .arcOrigin(csr.nodeId(csr.source(arc.edge())))
+                    .arcDestination(csr.nodeId(csr.target(arc.edge())))
+                    .fraction(arc.fraction())
+                    .arcDistance(arc.distanceKm());
+        }
+        return response.build();
+    }
+
+    /**
+     * ID of the node of the given type nearest to a position, or null if there is none.
+     */
+    public String nearestNodeOfType(RoadGraph graph, double latitude, double longitude, Node.NodeType type) {
+        SpatialIndex index = indexFor(graph);
+        CsrGraph csr = index.getGraph();
+        int node = index.nearestNode(latitude, longitude, Double.POSITIVE_INFINITY, u -> {
+            Node candidate = graph.getNodes().get(csr.nodeId(u));
+            return candidate != null && candidate.getType() == type;
+        });
+        return node < 0 ? null : csr.nodeId(node);
+    }
+}
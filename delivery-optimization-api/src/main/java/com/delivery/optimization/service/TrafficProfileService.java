@@ -0,0 +1,222 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.AStar;
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.algorithm.TrafficProfiles;
+import com.delivery.optimization.domain.Delivery;
+import com.delivery.optimization.domain.ETAHistory;
+import com.delivery.optimization.domain.KalmanState;
+import com.delivery.optimization.repository.DeliveryRepository;
+import com.delivery.optimization.repository.ETAHistoryRepository;
+import com.delivery.optimization.repository.KalmanStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Time-of-day traffic profiles learned from the delivery telemetry.
+ * <p>
+ * Each Kalman speed estimate and each closed ETA of the last {@code history}
+ * gives a slowdown factor at a time of day, attributed to the arcs of the
+ * fastest pickup-to-dropoff path of its delivery at the snapshot's traffic
+ * factors. Profiles are learned in the background, and relearned when the
+ * topology changes or they get older than the relearn interval.
+ */
+@Slf4j
+@Service
+public class TrafficProfileService {
+
+    private static final CostFunction.Weights TIME_ONLY = CostFunction.Weights.builder()
+            .alpha(0).beta(1).gamma(0).delta(0).eta(0).build();
+    // Telemetry outside this range is treated as noise
+    private static final double MIN_FACTOR = 0.5;
+    private static final double MAX_FACTOR = 10.0;
+
+    private record Learned(TrafficProfiles profiles, Instant at) {
+    }
+
+    private record Telemetry(Map<String, Delivery> deliveries, List<KalmanState> kalmanStates,
+            List<ETAHistory> etaHistory) {
+    }
+
+    private final DeliveryRepository deliveryRepository;
+    private final KalmanStateRepository kalmanStateRepository;
+    private final ETAHistoryRepository etaHistoryRepository;
+    private final AStar aStar;
+    private final boolean enabled;
+    private final ZoneId zone;
+    private final Duration relearnInterval;
+    private final Duration history;
+
+    private final AtomicReference<Learned> current = new AtomicReference<>();
+    private final BackgroundRebuild learning;
+
+    public TrafficProfileService(
+            DeliveryRepository deliveryRepository,
+            KalmanStateRepository kalmanStateRepository,
+            ETAHistoryRepository etaHistoryRepository,
+            AStar aStar,
+            @Value("${routing.td.enabled:true}") boolean enabled,
+            @Value("${routing.td.zone:UTC}") String zone,
+            @Value("${routing.td.relearn-interval:PT1H}") Duration relearnInterval,
+            @Value("${routing.td.history:P30D}") Duration history,
+            @Qualifier("routingPool") ForkJoinPool pool) {
+        this.deliveryRepository = deliveryRepository;
+        this.kalmanStateRepository = kalmanStateRepository;
+        this.etaHistoryRepository = etaHistoryRepository;
+        this.aStar = aStar;
+        this.enabled = enabled;
+        this.zone = ZoneId.of(zone);
+        this.relearnInterval = relearnInterval;
+        this.history = history;
+        this.learning = new BackgroundRebuild("Traffic profile learning", pool);
+    }
+
+    /**
+     * Profiles usable on this snapshot, or null (scalar traffic factors) while
+     * none has been learned for its topology.
+     */
+    public TrafficProfiles profilesFor(RoadGraph graph) {
+        if (!enabled) {
+            return null;
+        }
+        Learned learned = current.get();
+        boolean valid = learned != null && learned.profiles().isValidFor(graph.getCsr());
+        if (!valid || learned.at().plus(relearnInterval).isBefore(Instant.now())) {
+            relearn(graph);
+        }
+        return valid ? learned.profiles() : null;
+    }
+
+    /**
+     * Seconds since midnight of an instant, in the zone the profiles are learned in.
+     */
+    public double secondOfDay(Instant instant) {
+        return instant.atZone(zone).toLocalTime().toSecondOfDay();
+    }
+
+    private void relearn(RoadGraph graph) {
+        // Only the recent telemetry, and only the deliveries it refers to
+        Instant since = Instant.now().minus(history);
+        Mono<Telemetry> telemetry = Mono.zip(
+                kalmanStateRepository.findByTimestampAfter(since).collectList(),
+                etaHistoryRepository.findByTimestampAfter(since).collectList()
+        ).flatMap(tuple -> {
+            Set<String> deliveryIds = new HashSet<>();
+            tuple.getT1().forEach(state -> deliveryIds.add(state.getDeliveryId()));
+            tuple.getT2().forEach(eta -> deliveryIds.add(eta.getDeliveryId()));
+            deliveryIds.remove(null);
+            return deliveryRepository.findAllById(deliveryIds).collectMap(Delivery::getId)
+                    .map(deliveries -> new Telemetry(deliveries, tuple.getT1(), tuple.getT2()));
+        });
+        learning.start(telemetry, t -> {
+            long start = System.nanoTime();
+            TrafficProfiles profiles = TrafficProfiles.learn(graph.getCsr(),
+                    observations(graph.getCsr(), t.deliveries(), t.kalmanStates(), t.etaHistory()));
+            current.set(new Learned(profiles, Instant.now()));
+            log.info("Traffic profiles learned for graph v{}: {} arcs profiled in {} ms",
+                    graph.getVersion(), profiles.profiledEdgeCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    List<TrafficProfiles.Observation> observations(CsrGraph csr, Map<String, Delivery> deliveries,
+            List<KalmanState> kalmanStates, List<ETAHistory> etaHistory) {
+        Map<String, int[]> pathOf = new HashMap<>();
+        List<TrafficProfiles.Observation> observations = new ArrayList<>();
+
+        // Kalman filter: current speed against the free-flow speed of the path
+        for (KalmanState state : kalmanStates) {
+            int[] edges = edgesOf(csr, deliveries.get(state.getDeliveryId()), pathOf);
+            if (edges.length == 0 || state.getTimestamp() == null || state.getEstimatedSpeed() == null
+                    || state.getEstimatedSpeed() <= 0) {
+                continue;
+            }
+            double km = 0;
+            double seconds = 0;
+            for (int e : edges) {
+                km += csr.distance(e);
+                seconds += csr.travelTime(e);
+            }
+            if (seconds > 0) {
+                double freeFlowKmh = km / seconds * 3600;
+                add(observations, edges, state.getTimestamp(), freeFlowKmh / state.getEstimatedSpeed());
+            }
+        }
+
+        // Closed ETAs: actual over estimated duration, the estimate having used the scalar factors
+        for (ETAHistory eta : etaHistory) {
+            int[] edges = edgesOf(csr, deliveries.get(eta.getDeliveryId()), pathOf);
+            if (edges.length == 0 || eta.getTimestamp() == null || eta.getEstimatedEta() == null
+                    || eta.getActualArrival() == null) {
+                continue;
+            }
+            double estimated = Duration.between(eta.getTimestamp(), eta.getEstimatedEta()).toMillis();
+            double actual = Duration.between(eta.getTimestamp(), eta.getActualArrival()).toMillis();
+            double freeFlow = 0;
+            double congested = 0;
+            for (int e : edges) {
+                freeFlow += csr.travelTime(e);
+                congested += csr.componentCost(e, 1);
+            }
+            if (estimated > 0 && actual > 0 && freeFlow > 0) {
+                add(observations, edges, eta.getTimestamp(), actual / estimated * congested / freeFlow);
+            }
+        }
+        return observations;
+    }
+
+    private void add(List<TrafficProfiles.Observation> observations, int[] edges, Instant at, double factor) {
+        if (Double.isFinite(factor)) {
+            double clamped = Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factor));
+            observations.add(new TrafficProfiles.Observation(edges, secondOfDay(at), clamped));
+        }
+    }
+
+    /**
+     * Edges of the fastest path of a delivery at the snapshot's traffic factors,
+     * the one it was most likely routed on (empty if unknown or unreachable).
+     */
+    private int[] edgesOf(CsrGraph csr, Delivery delivery, Map<String, int[]> pathOf) {
+        if (delivery == null) {
+            return new int[0];
+        }
+        return pathOf.computeIfAbsent(delivery.getId(), id -> {
+            AStar.PathResult path = aStar.findPath(csr, delivery.getPickupNodeId(), delivery.getDropoffNodeId(),
+                    TIME_ONLY);
+            if (path == null) {
+                return new int[0];
+            }
+            List<String> nodes = path.getPath();
+            int[] edges = new int[nodes.size() - 1];
+            for (int i = 0; i < edges.length; i++) {
+                int u = csr.indexOf(nodes.get(i));
+                int v = csr.indexOf(nodes.get(i + 1));
+                int best = -1;
+                for (int e = csr.firstEdge(u); e < csr.endEdge(u); e++) {
+                    if (csr.target(e) == v && (best < 0 || csr.componentCost(e, 1) < csr.componentCost(best, 1))) {
+                        best = e;
+                    }
+                }
+                edges[i] = best;
+            }
+            return edges;
+        });
+    }
+}
@@ -1,14 +1,19 @@
 package com.delivery.optimization.service;
 
 import com.delivery.optimization.algorithm.VRPSolver;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.domain.Driver;
+import com.delivery.optimization.domain.Node;
 import com.delivery.optimization.dto.TourOptimizationRequest;
 import com.delivery.optimization.dto.TourOptimizationResponse;
-import com.delivery.optimization.repository.ArcRepository;
+import com.delivery.optimization.exception.CustomExceptions;
+import com.delivery.optimization.repository.DriverRepository;
 import com.delivery.optimization.repository.NodeRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import java.util.stream.Collectors;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -16,26 +21,58 @@ public class VRPOptimizationService {
 
     private final VRPSolver vrpSolver;
     private final NodeRepository nodeRepository;
-    private final ArcRepository arcRepository;
+    private final DriverRepository driverRepository;
+    private final RoadGraphCache roadGraphCache;
+    private final DistanceMatrixService distanceMatrixService;
+    private final RelayVoronoiService relayVoronoiService;
+    private final SpatialIndexService spatialIndexService;
+    private final ComputeSchedulers computeSchedulers;
 
     public Mono<TourOptimizationResponse> optimizeTour(TourOptimizationRequest request) {
+        // Relay occupancy changes outside the graph snapshot: still queried per request
+        Mono<Optional<Driver>> driver = request.getDriverId() != null
+                ? driverRepository.findById(request.getDriverId()).map(Optional::of).defaultIfEmpty(Optional.empty())
+                : Mono.just(Optional.empty());
         return Mono.zip(
                 nodeRepository.findAvailableRelays().collectList(),
-                nodeRepository.findAll().collectList(),
-                arcRepository.findAll().collectList()
-        ).map(tuple -> {
+                roadGraphCache.getGraph(),
+                driver
+        ).flatMap(tuple -> {
             var relays = tuple.getT1();
-            var allNodesList = tuple.getT2();
-            var allArcs = tuple.getT3();
-
-            // Convertir la liste de nœuds en Map pour accès rapide
-            java.util.Map<String, com.delivery.optimization.domain.Node> allNodesMap =
-                    new java.util.HashMap<>();
-            for (var node : allNodesList) {
-                allNodesMap.put(node.getId(), node);
+            var graph = tuple.getT2();
+
+            if (request.getDepotId() != null) {
+                Node depot = graph.getNodes().get(request.getDepotId());
+                if (depot == null) {
+                    return Mono.error(new CustomExceptions.ResourceNotFoundException(
+                            "Depot not found: " + request.getDepotId()));
+                }
+                if (depot.getType() != Node.NodeType.DEPOT) {
+                    return Mono.error(new CustomExceptions.ValidationException(
+                            "Node " + request.getDepotId() + " is not a depot"));
+                }
             }
 
-            return vrpSolver.solve(request, relays, allNodesMap, allArcs);
+            return computeSchedulers.vrp(() -> {
+                // Tour starts from the depot nearest to the driver, when located
+                String depotId = request.getDepotId();
+                var located = tuple.getT3()
+                        .filter(d -> d.getCurrentLatitude() != null && d.getCurrentLongitude() != null);
+                if (depotId == null && located.isPresent()) {
+                    depotId = spatialIndexService.nearestNodeOfType(graph, located.get().getCurrentLatitude(),
+                            located.get().getCurrentLongitude(), Node.NodeType.DEPOT);
+                }
+                // The caller's request is left as sent
+                var tour = request.toBuilder().depotId(depotId).build();
+
+                // Candidate relays come from the service areas (when computed), not from every relay
+                var voronoi = relayVoronoiService.voronoiFor(graph);
+
+                // Shortest-path costs between every stop, depot and candidate relay in one pass
+                var matrix = distanceMatrixService.compute(graph,
+                        vrpSolver.matrixLocations(tour, relays, graph.getNodes(), voronoi), VRPSolver.VRP_WEIGHTS);
+                return vrpSolver.solve(tour, relays, graph.getNodes(), matrix, voronoi);
+            });
         });
     }
 }
@@ -0,0 +1,171 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AStarTest {
+
+    private AStar aStar;
+    private RoadGraph graph;
+    private CostFunction.Weights weights;
+
+    @BeforeEach
+    void setUp() {
+        aStar = new AStar();
+        weights = CostFunction.Weights.builder().alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+        List<Node> nodes = List.of(
+                node("A", 3.8480, 11.5021),
+                node("B", 3.8500, 11.5050),
+                node("C", 3.8520, 11.5010),
+                node("D", 3.8550, 11.5060));
+        // A -> B -> D is short but B -> D is congested; A -> C -> D wins
+        List<Arc> arcs = List.of(
+                arc(1L, "A", "B", 1.0, 2.0, 1.0),
+                arc(2L, "B", "D", 1.0, 2.0, 5.0),
+                arc(3L, "A", "C", 1.5, 3.0, 1.0),
+                arc(4L, "C", "D", 1.5, 3.0, 1.0),
+                arc(5L, "D", "A", 3.0, 6.0, 1.0));
+        graph = RoadGraph.of(1, nodes, arcs);
+    }
+
+    @Test
+    void testCsrSearchMatchesMapSearch() {
+        AStar.PathResult csr = aStar.findPath(graph.getCsr(), "A", "D", weights);
+        AStar.PathResult map = aStar.findPath("A", "D", graph.getNodes(), graph.getAdjacency(), weights);
+
+        assertThat(csr.getPath()).containsExactly("A", "C", "D");
+        assertThat(csr.getPath()).isEqualTo(map.getPath());
+        assertThat(csr.getTotalCost()).isCloseTo(map.getTotalCost(), within(1e-9));
+    }
+
+    @Test
+    void testCsrSearchUnknownOrUnreachable() {
+        assertThat(aStar.findPath(graph.getCsr(), "A", "UNKNOWN", weights)).isNull();
+
+        RoadGraph oneWay = RoadGraph.of(1, graph.getNodes().values(), List.of(arc(1L, "A", "B", 1.0, 1.0, 1.0)));
+        assertThat(aStar.findPath(oneWay.getCsr(), "B", "A", weights)).isNull();
+        assertThat(aStar.findPath(oneWay.getCsr(), "A", "A", weights).getPath()).containsExactly("A");
+    }
+
+    @Test
+    void testTrafficUpdatePatchesCsrCosts() {
+        RoadGraph updated = graph.withArcs(2, List.of(arc(4L, "C", "D", 1.5, 3.0, 10.0)));
+
+        assertThat(aStar.findPath(updated.getCsr(), "A", "D", weights).getPath()).containsExactly("A", "B", "D");
+        // The previous snapshot is unchanged
+        assertThat(aStar.findPath(graph.getCsr(), "A", "D", weights).getPath()).containsExactly("A", "C", "D");
+    }
+
+    private static Node node(String id, double lat, double lon) {
+        return Node.builder().id(id).type(Node.NodeType.CLIENT).latitude(lat).longitude(lon).build();
+    }
+
+    private static Arc arc(Long id, String from, String to, double distance, double time, double traffic) {
+        return Arc.builder().id(id).originId(from).destinationId(to)
+                .distance(distance).travelTime(time).penibility(0.1).weatherImpact(0.0).fuelCost(0.5)
+                .trafficFactor(traffic).build();
+    }
+
+    @Test
+    void testIndexedHeapDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        heap.insertOrDecrease(0, 5.0);
+        heap.insertOrDecrease(1, 3.0);
+        heap.insertOrDecrease(2, 4.0);
+        heap.insertOrDecrease(0, 1.0);
+        heap.insertOrDecrease(2, 9.0); // ignored: not lower
+
+        assertThat(heap.size()).isEqualTo(3);
+        assertThat(heap.poll()).isEqualTo(0);
+        assertThat(heap.poll()).isEqualTo(1);
+        assertThat(heap.contains(2)).isTrue();
+        assertThat(heap.poll()).isEqualTo(2);
+        assertThat(heap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testQueuedNodePriorityIsLowered() {
+        // X is first queued through the expensive direct arc, then reached more cheaply through Y
+        List<Node> nodes = List.of(node("S", 0, 0), node("X", 0, 0), node("Y", 0, 0), node("T", 0, 0));
+        List<Arc> arcs = List.of(
+                arc(1L, "S", "Y", 1.0, 1.0, 1.0),
+                arc(2L, "Y", "X", 1.0, 1.0, 1.0),
+                arc(3L, "S", "X", 10.0, 10.0, 1.0),
+                arc(4L, "X", "T", 1.0, 1.0, 1.0));
+        AStar.PathResult result = aStar.findPath(RoadGraph.of(1, nodes, arcs).getCsr(), "S", "T", weights);
+
+        assertThat(result.getPath()).containsExactly("S", "Y", "X", "T");
+    }
+
+    @Test
+    void testBidirectionalMatchesUnidirectional() {
+        AStar.PathResult bidirectional = aStar.findPathBidirectional(graph.getCsr(), "A", "D", weights, null);
+
+        assertThat(bidirectional.getPath()).containsExactly("A", "C", "D");
+        assertThat(bidirectional.getTotalCost())
+                .isCloseTo(aStar.findPath(graph.getCsr(), "A", "D", weights).getTotalCost(), within(1e-9));
+        assertThat(aStar.findPathBidirectional(graph.getCsr(), "A", "A", weights, null).getPath())
+                .containsExactly("A");
+        RoadGraph oneWay = RoadGraph.of(1, graph.getNodes().values(), List.of(arc(1L, "A", "B", 1.0, 1.0, 1.0)));
+        assertThat(aStar.findPathBidirectional(oneWay.getCsr(), "B", "A", weights, null)).isNull();
+    }
+
+    @Test
+    void testBidirectionalBenchmarkAgainstUnidirectional() {
+        // 60x60 grid with random costs, plus one unlocated node that disables the geometric bound
+        int side = 60;
+        Random random = new Random(17);
+        List<Node> nodes = new ArrayList<>();
+        List<Arc> arcs = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                nodes.add(node(i + "_" + j, 3.80 + i * 0.005, 11.45 + j * 0.005));
+                if (i + 1 < side) {
+                    arcs.add(arc(id++, i + "_" + j, (i + 1) + "_" + j, 0.6 + random.nextDouble(), 1.0, 1.0));
+                    arcs.add(arc(id++, (i + 1) + "_" + j, i + "_" + j, 0.6 + random.nextDouble(), 1.0, 1.0));
+                }
+                if (j + 1 < side) {
+                    arcs.add(arc(id++, i + "_" + j, i + "_" + (j + 1), 0.6 + random.nextDouble(), 1.0, 1.0));
+                    arcs.add(arc(id++, i + "_" + (j + 1), i + "_" + j, 0.6 + random.nextDouble(), 1.0, 1.0));
+                }
+            }
+        }
+        CsrGraph located = RoadGraph.of(1, nodes, arcs).getCsr();
+        List<Node> withUnlocated = new ArrayList<>(nodes);
+        withUnlocated.add(Node.builder().id("DEPOT").type(Node.NodeType.CLIENT).build());
+        CsrGraph unlocated = RoadGraph.of(1, withUnlocated, arcs).getCsr();
+
+        long unidirectionalSettled = 0;
+        long bidirectionalSettled = 0;
+        for (int q = 0; q < 50; q++) {
+            String origin = random.nextInt(side) + "_" + random.nextInt(side);
+            String destination = random.nextInt(side) + "_" + random.nextInt(side);
+            for (CsrGraph csr : List.of(located, unlocated)) {
+                AStar.PathResult uni = aStar.findPath(csr, origin, destination, weights);
+                AStar.PathResult bi = aStar.findPathBidirectional(csr, origin, destination, weights, null);
+
+                assertThat(bi.getTotalCost()).isCloseTo(uni.getTotalCost(), within(1e-9));
+                assertThat(bi.getPath()).startsWith(origin).endsWith(destination);
+                if (csr == unlocated) {
+                    unidirectionalSettled += uni.getSettledNodes();
+                    bidirectionalSettled += bi.getSettledNodes();
+                }
+            }
+        }
+        // Without a useful heuristic the two half-size search balls settle far fewer nodes
+        assertThat(bidirectionalSettled).isLessThan(unidirectionalSettled * 8 / 10);
+    }
+}
@@ -0,0 +1,95 @@
+package com.delivery.optimization.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AlternativeRoutesTest {
+
+    private static final CostFunction.Weights DEFAULT = CostFunction.Weights.builder()
+            .alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+    @Test
+    void testMatchesBruteForceKShortestLooplessPaths() {
+        CsrGraph csr = TestGraphs.randomGraph(new Random(45), 10, 35);
+        double[] cost = csr.costs(DEFAULT);
+
+        for (int q = 0; q < 10; q++) {
+            String origin = "N" + q;
+            String destination = "N" + (9 - q);
+            List<Double> expected = new ArrayList<>();
+            enumerate(csr, cost, csr.indexOf(origin), csr.indexOf(destination), new boolean[csr.nodeCount()], 0,
+                    expected);
+            expected.sort(Double::compare);
+
+            // No diversity filter: plain Yen
+            List<AlternativeRoutes.Route> routes = AlternativeRoutes.compute(csr, origin, destination, DEFAULT, 4, 1.0);
+
+            assertThat(routes).hasSize(Math.min(4, expected.size()));
+            for (int i = 0; i < routes.size(); i++) {
+                assertThat(routes.get(i).cost()).isCloseTo(expected.get(i), within(1e-9));
+                assertThat(new HashSet<>(routes.get(i).path())).hasSize(routes.get(i).path().size());
+            }
+        }
+    }
+
+    @Test
+    void testAlternativesAreDiverse() {
+        CsrGraph csr = TestGraphs.randomGraph(new Random(46), 80, 400);
+        double[] cost = csr.costs(DEFAULT);
+        AStar aStar = new AStar();
+
+        for (int q = 0; q < 10; q++) {
+            String origin = "N" + q;
+            String destination = "N" + (79 - q);
+            List<AlternativeRoutes.Route> routes = AlternativeRoutes.compute(csr, origin, destination, DEFAULT, 3, 0.5);
+            AStar.PathResult shortest = aStar.findPath(csr, origin, destination, DEFAULT);
+            if (shortest == null) {
+                assertThat(routes).isEmpty();
+                continue;
+            }
+
+            assertThat(routes.get(0).cost()).isCloseTo(shortest.getTotalCost(), within(1e-9));
+            for (int i = 1; i < routes.size(); i++) {
+                AlternativeRoutes.Route later = routes.get(i);
+                assertThat(later.cost()).isGreaterThanOrEqualTo(routes.get(i - 1).cost());
+                for (int j = 0; j < i; j++) {
+                    Set<Integer> earlier = new HashSet<>();
+                    for (int e : routes.get(j).edges()) {
+                        earlier.add(e);
+                    }
+                    double shared = 0;
+                    for (int e : later.edges()) {
+                        if (earlier.contains(e)) {
+                            shared += cost[e];
+                        }
+                    }
+                    assertThat(shared).isLessThanOrEqualTo(0.5 * later.cost() + 1e-9);
+                }
+            }
+        }
+    }
+
+    private static void enumerate(CsrGraph csr, double[] cost, int u, int target, boolean[] visited, double g,
+            List<Double> out) {
+        if (u == target) {
+            out.add(g);
+            return;
+        }
+        visited[u] = true;
+        for (int e = csr.firstEdge(u); e < csr.endEdge(u); e++) {
+            int v = csr.target(e);
+            if (!visited[v]) {
+                enumerate(csr, cost, v, target, visited, g + cost[e], out);
+            }
+        }
+        visited[u] = false;
+    }
+}
@@ -0,0 +1,88 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.delivery.optimization.algorithm.TestGraphs.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ContractionHierarchyTest {
+
+    private static final int SIDE = 20;
+
+    private ForkJoinPool pool;
+    private CostFunction.Weights weights;
+    private RoadGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        weights = CostFunction.Weights.builder().alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+        // Grid with random costs and some one-way streets
+        Random random = new Random(42);
+        List<Node> nodes = TestGraphs.gridNodes(SIDE, 0.002);
+        List<Arc> arcs = TestGraphs.gridArcs(SIDE, random, 5, TestGraphs.SHORT_BLOCKS);
+        graph = RoadGraph.of(1, nodes, arcs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testQueriesMatchAStar() {
+        ContractionHierarchy ch = ContractionHierarchy.build(graph.getCsr(), weights, pool);
+        AStar aStar = new AStar();
+        Random random = new Random(7);
+
+        for (int q = 0; q < 200; q++) {
+            String origin = id(random.nextInt(SIDE), random.nextInt(SIDE));
+            String destination = id(random.nextInt(SIDE), random.nextInt(SIDE));
+            AStar.PathResult expected = aStar.findPath(graph.getCsr(), origin, destination, weights);
+            AStar.PathResult actual = ch.findPath(origin, destination);
+
+            if (expected == null) {
+                assertThat(actual).isNull();
+                continue;
+            }
+            assertThat(actual).isNotNull();
+            assertThat(actual.getTotalCost()).isCloseTo(expected.getTotalCost(), within(1e-6));
+            assertThat(actual.getPath()).startsWith(origin).endsWith(destination);
+            // The unpacked path only uses original arcs and adds up to the reported cost
+            double cost = 0;
+            for (int i = 0; i + 1 < actual.getPath().size(); i++) {
+                Arc arc = graph.findArc(actual.getPath().get(i), actual.getPath().get(i + 1));
+                assertThat(arc).isNotNull();
+                cost += arcCost(arc);
+            }
+            assertThat(cost).isCloseTo(actual.getTotalCost(), within(1e-6));
+        }
+    }
+
+    @Test
+    void testUnknownAndTrivialQueries() {
+        ContractionHierarchy ch = ContractionHierarchy.build(graph.getCsr(), weights, pool);
+
+        assertThat(ch.findPath("0_0", "UNKNOWN")).isNull();
+        assertThat(ch.findPath("3_3", "3_3").getPath()).containsExactly("3_3");
+        assertThat(ch.shortcutCount()).isPositive();
+    }
+
+    private double arcCost(Arc a) {
+        return weights.getAlpha() * a.getDistance()
+                + weights.getBeta() * a.getTravelTime() * a.getTrafficFactor()
+                + weights.getGamma() * a.getPenibility()
+                + weights.getDelta() * a.getWeatherImpact()
+                + weights.getEta() * a.getFuelCost();
+    }
+}
@@ -0,0 +1,118 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.delivery.optimization.algorithm.TestGraphs.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CrpMetricTest {
+
+    private static final int SIDE = 24;
+
+    private ForkJoinPool pool;
+    private List<Arc> arcs;
+    private RoadGraph graph;
+    private CrpOverlay overlay;
+    private final AStar aStar = new AStar();
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        Random random = new Random(11);
+        List<Node> nodes = TestGraphs.gridNodes(SIDE, 0.002);
+        arcs = TestGraphs.gridArcs(SIDE, random, 4, TestGraphs.SHORT_BLOCKS);
+        graph = RoadGraph.of(1, nodes, arcs);
+        overlay = CrpOverlay.build(graph.getCsr(), new int[]{16, 128});
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testPartitionIsNested() {
+        assertThat(overlay.levels()).isEqualTo(2);
+        assertThat(overlay.cellCount(0)).isGreaterThan(overlay.cellCount(1));
+        CsrGraph csr = graph.getCsr();
+        for (int u = 0; u < csr.nodeCount(); u++) {
+            for (int v = 0; v < csr.nodeCount(); v++) {
+                if (overlay.cellOf(0, u) == overlay.cellOf(0, v)) {
+                    assertThat(overlay.cellOf(1, u)).isEqualTo(overlay.cellOf(1, v));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQueriesMatchAStarForAnyWeights() {
+        CostFunction.Weights fast = CostFunction.Weights.builder().alpha(0.1).beta(0.9).build();
+        CostFunction.Weights balanced = CostFunction.Weights.builder()
+                .alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+        assertMatchesAStar(CrpMetric.customize(overlay, graph.getCsr(), fast, null, pool), graph, fast);
+        assertMatchesAStar(CrpMetric.customize(overlay, graph.getCsr(), balanced, null, pool), graph, balanced);
+    }
+
+    @Test
+    void testIncrementalCustomizationAfterTrafficUpdate() {
+        CostFunction.Weights weights = CostFunction.Weights.builder().alpha(0.2).beta(0.8).build();
+        CrpMetric before = CrpMetric.customize(overlay, graph.getCsr(), weights, null, pool);
+
+        // Jam a band of arcs in the middle of the grid
+        List<Arc> jammed = new ArrayList<>();
+        for (Arc a : arcs) {
+            if (a.getOriginId().startsWith("12_")) {
+                jammed.add(new Arc(a.getId(), a.getOriginId(), a.getDestinationId(), a.getDistance(),
+                        a.getTravelTime(), a.getPenibility(), a.getWeatherImpact(), a.getFuelCost(), 8.0, null));
+            }
+        }
+        RoadGraph updated = graph.withArcs(2, jammed);
+        CrpMetric after = CrpMetric.customize(overlay, updated.getCsr(), weights, before, pool);
+
+        assertThat(after.getOverlay()).isSameAs(overlay);
+        assertMatchesAStar(after, updated, weights);
+        // The previous customization still answers for its own snapshot
+        assertMatchesAStar(before, graph, weights);
+    }
+
+    @Test
+    void testTopologyChangeIsRejected() {
+        RoadGraph extended = graph.withArcs(2, List.of(Arc.builder().id(99_999L).originId("0_0").destinationId("5_5")
+                .distance(1.0).travelTime(1.0).penibility(0.0).weatherImpact(0.0).fuelCost(0.0).build()));
+        CostFunction.Weights weights = CostFunction.Weights.builder().alpha(1.0).build();
+
+        assertThatThrownBy(() -> CrpMetric.customize(overlay, extended.getCsr(), weights, null, pool))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertMatchesAStar(CrpMetric metric, RoadGraph snapshot, CostFunction.Weights weights) {
+        Random random = new Random(3);
+        for (int q = 0; q < 150; q++) {
+            String origin = id(random.nextInt(SIDE), random.nextInt(SIDE));
+            String destination = id(random.nextInt(SIDE), random.nextInt(SIDE));
+            AStar.PathResult expected = aStar.findPath(snapshot.getCsr(), origin, destination, weights);
+            AStar.PathResult actual = metric.findPath(origin, destination);
+            if (expected == null) {
+                assertThat(actual).isNull();
+                continue;
+            }
+            assertThat(actual.getTotalCost()).isCloseTo(expected.getTotalCost(), within(1e-6));
+            assertThat(actual.getPath()).startsWith(origin).endsWith(destination);
+            for (int i = 0; i + 1 < actual.getPath().size(); i++) {
+                assertThat(snapshot.findArc(actual.getPath().get(i), actual.getPath().get(i + 1))).isNotNull();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CsrGraphTest {
+
+    private static final CostFunction.Weights DEFAULT = CostFunction.Weights.builder()
+            .alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+    private List<Arc> arcs;
+    private RoadGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(23);
+        List<Node> nodes = new ArrayList<>();
+        arcs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            nodes.add(Node.builder().id("N" + i).latitude(3.8 + i * 0.001).longitude(11.5).build());
+        }
+        for (long id = 1; id <= 200; id++) {
+            arcs.add(Arc.builder().id(id)
+                    .originId("N" + random.nextInt(50)).destinationId("N" + random.nextInt(50))
+                    .distance(random.nextDouble() * 5).travelTime(random.nextDouble() * 300)
+                    .penibility(random.nextDouble()).weatherImpact(random.nextDouble())
+                    .fuelCost(random.nextDouble() * 2)
+                    // Null traffic factor means free flow
+                    .trafficFactor(id % 7 == 0 ? null : 1.0 + random.nextDouble())
+                    .build());
+        }
+        graph = RoadGraph.of(1, nodes, arcs);
+    }
+
+    @Test
+    void testCostVectorMatchesArcCosts() {
+        CsrGraph csr = graph.getCsr();
+        double[] costs = csr.costs(DEFAULT);
+
+        assertThat(costs).hasSize(csr.edgeCount());
+        for (int e = 0; e < csr.edgeCount(); e++) {
+            assertThat(costs[e]).isCloseTo(csr.cost(e, DEFAULT), within(1e-12));
+        }
+        for (Arc arc : arcs) {
+            double traffic = arc.getTrafficFactor() != null ? arc.getTrafficFactor() : 1.0;
+            double expected = 0.2 * arc.getDistance() + 0.5 * arc.getTravelTime() * traffic
+                    + 0.1 * arc.getPenibility() + 0.1 * arc.getWeatherImpact() + 0.1 * arc.getFuelCost();
+            assertThat(costs[edgeOf(csr, arc.getId())]).isCloseTo(expected, within(1e-9));
+        }
+    }
+
+    @Test
+    void testCostVectorCachedPerProfileAndSnapshot() {
+        CsrGraph csr = graph.getCsr();
+        CostFunction.Weights sameValues = CostFunction.Weights.builder()
+                .alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+        CostFunction.Weights timeOnly = CostFunction.Weights.builder().beta(1.0).build();
+
+        assertThat(csr.costs(sameValues)).isSameAs(csr.costs(DEFAULT));
+        assertThat(csr.costs(timeOnly)).isNotSameAs(csr.costs(DEFAULT));
+
+        Arc first = arcs.get(0);
+        Arc congested = new Arc(first.getId(), first.getOriginId(), first.getDestinationId(), first.getDistance(),
+                first.getTravelTime(), first.getPenibility(), first.getWeatherImpact(), first.getFuelCost(), 4.0, null);
+        CsrGraph patched = graph.withArcs(2, List.of(congested)).getCsr();
+        int e = edgeOf(patched, first.getId());
+
+        assertThat(patched.costs(timeOnly)[e]).isCloseTo(first.getTravelTime() * 4.0, within(1e-9));
+        assertThat(csr.costs(timeOnly)[e]).isNotEqualTo(patched.costs(timeOnly)[e]);
+    }
+
+    private static int edgeOf(CsrGraph csr, long arcId) {
+        for (int e = 0; e < csr.edgeCount(); e++) {
+            if (csr.arcId(e) == arcId) {
+                return e;
+            }
+        }
+        throw new AssertionError("No edge for arc " + arcId);
+    }
+}
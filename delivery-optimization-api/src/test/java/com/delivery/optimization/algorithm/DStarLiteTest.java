@@ -0,0 +1,85 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DStarLiteTest {
+
+    private static final CostFunction.Weights DEFAULT = CostFunction.Weights.builder()
+            .alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+    @Test
+    void testRepairMatchesFreshSearchAfterSingleArcChanges() {
+        Random random = new Random(48);
+        List<Node> nodes = TestGraphs.randomNodes(random, 400);
+        List<Arc> arcs = TestGraphs.randomArcs(random, 400, 2400);
+        RoadGraph graph = RoadGraph.of(1, nodes, arcs);
+        AStar aStar = new AStar();
+
+        DStarLite search = DStarLite.create(graph.getCsr(), "N0", "N399", DEFAULT);
+        long repaired = 0;
+        long fresh = 0;
+        for (int i = 0; i < 200; i++) {
+            // One arc gets jammed or cleared, as from updateArcTraffic
+            Arc changed = TestGraphs.withTraffic(arcs.get(random.nextInt(arcs.size())), 1.0 + random.nextDouble() * 4);
+            graph = graph.withArcs(i + 2, List.of(changed));
+            search.update(graph.getCsr());
+            repaired += search.expansions();
+
+            AStar.PathResult expected = aStar.findPath(graph.getCsr(), "N0", "N399", DEFAULT);
+            if (expected == null) {
+                assertThat(search.cost()).isInfinite();
+                assertThat(search.path()).isNull();
+                continue;
+            }
+            fresh += expected.getSettledNodes();
+            assertThat(search.cost()).isCloseTo(expected.getTotalCost(), within(1e-9));
+            assertThat(pathCost(graph.getCsr(), search.path())).isCloseTo(expected.getTotalCost(), within(1e-9));
+        }
+        assertThat(repaired).isLessThan(fresh);
+    }
+
+    @Test
+    void testMovingStartFollowsTheDriver() {
+        Random random = new Random(49);
+        RoadGraph graph = RoadGraph.of(1, TestGraphs.randomNodes(random, 200), TestGraphs.randomArcs(random, 200, 1200));
+        AStar aStar = new AStar();
+
+        DStarLite search = DStarLite.create(graph.getCsr(), "N0", "N199", DEFAULT);
+        List<String> path = search.path();
+        assertThat(path).isNotNull();
+        for (String position : path) {
+            search.moveStart(position);
+            AStar.PathResult expected = aStar.findPath(graph.getCsr(), position, "N199", DEFAULT);
+            double expectedCost = position.equals("N199") ? 0 : expected.getTotalCost();
+            assertThat(search.cost()).isCloseTo(expectedCost, within(1e-9));
+            assertThat(search.path().get(0)).isEqualTo(position);
+        }
+    }
+
+    private static double pathCost(CsrGraph csr, List<String> path) {
+        double[] cost = csr.costs(DEFAULT);
+        double total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            int u = csr.indexOf(path.get(i));
+            int v = csr.indexOf(path.get(i + 1));
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = csr.firstEdge(u); e < csr.endEdge(u); e++) {
+                if (csr.target(e) == v) {
+                    best = Math.min(best, cost[e]);
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+
+}
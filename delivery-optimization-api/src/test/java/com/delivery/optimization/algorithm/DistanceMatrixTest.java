@@ -0,0 +1,90 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.delivery.optimization.algorithm.TestGraphs.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DistanceMatrixTest {
+
+    private static final int SIDE = 15;
+
+    private ForkJoinPool pool;
+    private RoadGraph graph;
+    private final AStar aStar = new AStar();
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        Random random = new Random(11);
+        List<Node> nodes = TestGraphs.gridNodes(SIDE, 0.01);
+        // Isolated node: unreachable from the grid
+        nodes.add(Node.builder().id("ISLAND").type(Node.NodeType.CLIENT).latitude(3.7).longitude(11.4).build());
+        List<Arc> arcs = TestGraphs.gridArcs(SIDE, random, 0,
+                new TestGraphs.ArcCosts(1.2, 1.0, 3, 0.2, 3));
+        graph = RoadGraph.of(1, nodes, arcs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testMatrixMatchesPointToPointSearches() {
+        CsrGraph csr = graph.getCsr();
+        CostFunction.Weights weights = VRPSolver.VRP_WEIGHTS;
+        Random random = new Random(3);
+        List<String> ids = new ArrayList<>();
+        for (int k = 0; k < 12; k++) {
+            ids.add(id(random.nextInt(SIDE), random.nextInt(SIDE)));
+        }
+
+        DistanceMatrix matrix = DistanceMatrix.compute(csr, ids, weights, pool);
+
+        assertThat(matrix.size()).isEqualTo(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            for (int j = 0; j < ids.size(); j++) {
+                AStar.PathResult path = aStar.findPath(csr, ids.get(i), ids.get(j), weights);
+                assertThat(matrix.cost(i, j)).isCloseTo(path.getTotalCost(), within(1e-9));
+
+                // Time and distance are those of the cheapest path
+                double time = 0;
+                double distance = 0;
+                for (int s = 0; s + 1 < path.getPath().size(); s++) {
+                    Arc edge = graph.findArc(path.getPath().get(s), path.getPath().get(s + 1));
+                    time += edge.getTravelTime() * edge.getTrafficFactor();
+                    distance += edge.getDistance();
+                }
+                assertThat(matrix.time(i, j)).isCloseTo(time, within(1e-9));
+                assertThat(matrix.distance(i, j)).isCloseTo(distance, within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void testUnknownAndUnreachableLocations() {
+        DistanceMatrix matrix = DistanceMatrix.compute(graph.getCsr(),
+                List.of(id(0, 0), "ISLAND", "MISSING", id(0, 0)), VRPSolver.VRP_WEIGHTS, pool);
+
+        assertThat(matrix.indexOf(id(0, 0))).isZero();
+        assertThat(matrix.indexOf("NOWHERE")).isEqualTo(-1);
+        assertThat(matrix.isReachable(0, 1)).isFalse();
+        assertThat(matrix.isReachable(1, 0)).isFalse();
+        assertThat(matrix.isReachable(0, 2)).isFalse();
+        assertThat(matrix.isReachable(2, 2)).isTrue();
+        // Duplicated location: same node, zero cost both ways
+        assertThat(matrix.cost(0, 3)).isZero();
+        assertThat(matrix.cost(3, 0)).isZero();
+    }
+}
@@ -0,0 +1,89 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.delivery.optimization.algorithm.TestGraphs.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IsochroneTest {
+
+    private static final int SIDE = 15;
+    // Pure travel-time profile
+    private static final CostFunction.Weights TIME = CostFunction.Weights.builder().beta(1.0).build();
+
+    private ForkJoinPool pool;
+    private RoadGraph graph;
+    private final AStar aStar = new AStar();
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        Random random = new Random(17);
+        List<Node> nodes = TestGraphs.gridNodes(SIDE, 0.01);
+        // Travel times of 40 to 120 s per block
+        List<Arc> arcs = TestGraphs.gridArcs(SIDE, random, 0, new TestGraphs.ArcCosts(1.2, 40, 80, 0, 2));
+        graph = RoadGraph.of(1, nodes, arcs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testIsochroneMatchesFastestPaths() {
+        CsrGraph csr = graph.getCsr();
+        String origin = id(7, 7);
+        double budget = 600;
+
+        Isochrone isochrone = Isochrone.compute(csr, csr.indexOf(origin), budget);
+
+        Map<String, Double> reached = new HashMap<>();
+        for (int i = 0; i < isochrone.size(); i++) {
+            reached.put(isochrone.nodeId(i), isochrone.time(i));
+            if (i > 0) {
+                assertThat(isochrone.time(i)).isGreaterThanOrEqualTo(isochrone.time(i - 1));
+            }
+        }
+        assertThat(isochrone.getSourceId()).isEqualTo(origin);
+        assertThat(reached).containsEntry(origin, 0.0);
+        assertThat(reached.size()).isBetween(2, SIDE * SIDE - 1);
+        for (int u = 0; u < csr.nodeCount(); u++) {
+            double fastest = aStar.findPath(csr, origin, csr.nodeId(u), TIME).getTotalCost();
+            if (fastest <= budget) {
+                assertThat(reached.get(csr.nodeId(u))).isCloseTo(fastest, within(1e-9));
+            } else {
+                assertThat(reached).doesNotContainKey(csr.nodeId(u));
+            }
+        }
+    }
+
+    @Test
+    void testBatchMatchesSingleSource() {
+        CsrGraph csr = graph.getCsr();
+        int[] sources = {csr.indexOf(id(0, 0)), csr.indexOf(id(3, 11)), csr.indexOf(id(14, 2)), csr.indexOf(id(9, 9))};
+
+        Isochrone[] batch = Isochrone.computeAll(csr, sources, 450, pool);
+
+        assertThat(batch).hasSize(sources.length);
+        for (int s = 0; s < sources.length; s++) {
+            Isochrone single = Isochrone.compute(csr, sources[s], 450);
+            assertThat(batch[s].size()).isEqualTo(single.size());
+            for (int i = 0; i < single.size(); i++) {
+                assertThat(batch[s].node(i)).isEqualTo(single.node(i));
+                assertThat(batch[s].time(i)).isEqualTo(single.time(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.delivery.optimization.algorithm.TestGraphs.id;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LandmarkIndexTest {
+
+    private static final int SIDE = 20;
+
+    private ForkJoinPool pool;
+    private List<Arc> arcs;
+    private RoadGraph graph;
+    private final AStar aStar = new AStar();
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        Random random = new Random(5);
+        List<Node> nodes = TestGraphs.gridNodes(SIDE, 0.01);
+        arcs = TestGraphs.gridArcs(SIDE, random, 0, TestGraphs.LONG_BLOCKS);
+        graph = RoadGraph.of(1, nodes, arcs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testBoundsAreAdmissibleAndTighterThanGeometry() {
+        LandmarkIndex index = LandmarkIndex.build(graph.getCsr(), 6, pool);
+        CsrGraph csr = graph.getCsr();
+        Random random = new Random(9);
+        List<CostFunction.Weights> profiles = List.of(
+                CostFunction.Weights.builder().alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build(),
+                CostFunction.Weights.builder().beta(1.0).build(),
+                CostFunction.Weights.builder().alpha(1.0).gamma(2.0).build());
+
+        assertThat(index.getLandmarks()).hasSize(6).doesNotHaveDuplicates();
+        for (CostFunction.Weights weights : profiles) {
+            double altSum = 0;
+            double geometricSum = 0;
+            for (int q = 0; q < 100; q++) {
+                String origin = id(random.nextInt(SIDE), random.nextInt(SIDE));
+                String destination = id(random.nextInt(SIDE), random.nextInt(SIDE));
+                int v = csr.indexOf(origin);
+                int t = csr.indexOf(destination);
+                double exact = aStar.findPath(csr, origin, destination, weights).getTotalCost();
+                double alt = index.towards(t, weights).estimate(v);
+                double geometric = csr.costPerKmLowerBound(weights) * csr.haversineKm(v, t);
+
+                assertThat(alt).isLessThanOrEqualTo(exact + 1e-9);
+                assertThat(alt).isGreaterThanOrEqualTo(geometric - 1e-9);
+                // Same optimal cost with the landmark heuristic
+                assertThat(aStar.findPath(csr, origin, destination, weights, index).getTotalCost())
+                        .isCloseTo(exact, within(1e-9));
+                altSum += alt;
+                geometricSum += geometric;
+            }
+            assertThat(altSum).isGreaterThan(geometricSum);
+        }
+    }
+
+    @Test
+    void testIndexSurvivesCongestionButNotCheaperArcs() {
+        LandmarkIndex index = LandmarkIndex.build(graph.getCsr(), 4, pool);
+        Arc first = arcs.get(0);
+
+        RoadGraph congested = graph.withArcs(2,
+                List.of(TestGraphs.withTraffic(first, first.getTrafficFactor() * 3)));
+        RoadGraph cleared = graph.withArcs(2,
+                List.of(TestGraphs.withTraffic(first, first.getTrafficFactor() / 2)));
+
+        assertThat(index.isAdmissibleFor(graph.getCsr())).isTrue();
+        assertThat(index.isAdmissibleFor(congested.getCsr())).isTrue();
+        assertThat(index.isAdmissibleFor(cleared.getCsr())).isFalse();
+    }
+}
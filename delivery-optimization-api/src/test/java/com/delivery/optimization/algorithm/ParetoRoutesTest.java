@@ -0,0 +1,119 @@
+package com.delivery.optimization.algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ParetoRoutesTest {
+
+    private static final int[] DISTANCE_TIME_FUEL = {0, 1, 4};
+
+    @Test
+    void testMatchesBruteForceFrontier() {
+        CsrGraph csr = TestGraphs.randomGraph(new Random(49), 10, 35);
+
+        for (int q = 0; q < 10; q++) {
+            String origin = "N" + q;
+            String destination = "N" + (9 - q);
+            List<double[]> all = new ArrayList<>();
+            enumerate(csr, csr.indexOf(origin), csr.indexOf(destination), new boolean[csr.nodeCount()],
+                    new double[DISTANCE_TIME_FUEL.length], all);
+            List<double[]> expected = new ArrayList<>();
+            for (double[] c : all) {
+                if (all.stream().noneMatch(other -> strictlyDominates(other, c))
+                        && expected.stream().noneMatch(kept -> sameCosts(kept, c))) {
+                    expected.add(c);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(c -> c[0]));
+
+            ParetoRoutes.Result result = ParetoRoutes.compute(csr, origin, destination, DISTANCE_TIME_FUEL, 64,
+                    1_000_000);
+
+            assertThat(result.complete()).isTrue();
+            assertThat(result.routes()).hasSize(expected.size());
+            for (int i = 0; i < expected.size(); i++) {
+                ParetoRoutes.Route route = result.routes().get(i);
+                for (int c = 0; c < DISTANCE_TIME_FUEL.length; c++) {
+                    assertThat(route.costs()[c]).isCloseTo(expected.get(i)[c], within(1e-9));
+                }
+                assertThat(route.path().get(0)).isEqualTo(origin);
+                assertThat(route.path().get(route.path().size() - 1)).isEqualTo(destination);
+                assertThat(route.edges()).hasSize(route.path().size() - 1);
+            }
+        }
+    }
+
+    @Test
+    void testSingleCriterionIsTheShortestPathAndBoundsHold() {
+        CsrGraph csr = TestGraphs.randomGraph(new Random(50), 120, 700);
+        CostFunction.Weights timeOnly = CostFunction.Weights.builder().beta(1.0).build();
+        AStar aStar = new AStar();
+
+        for (int q = 0; q < 10; q++) {
+            String origin = "N" + q;
+            String destination = "N" + (119 - q);
+            AStar.PathResult shortest = aStar.findPath(csr, origin, destination, timeOnly);
+            ParetoRoutes.Result single = ParetoRoutes.compute(csr, origin, destination, new int[]{1}, 8, 100_000);
+            if (shortest == null) {
+                assertThat(single.routes()).isEmpty();
+                continue;
+            }
+            assertThat(single.routes()).hasSize(1);
+            assertThat(single.routes().get(0).costs()[0]).isCloseTo(shortest.getTotalCost(), within(1e-9));
+
+            // One label per node: at most one route survives
+            ParetoRoutes.Result bounded = ParetoRoutes.compute(csr, origin, destination, DISTANCE_TIME_FUEL, 1,
+                    100_000);
+            assertThat(bounded.routes()).hasSizeLessThanOrEqualTo(1);
+        }
+    }
+
+    private static boolean strictlyDominates(double[] a, double[] b) {
+        boolean better = false;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] > b[i] + 1e-12) {
+                return false;
+            }
+            better |= a[i] < b[i] - 1e-12;
+        }
+        return better;
+    }
+
+    private static boolean sameCosts(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (Math.abs(a[i] - b[i]) > 1e-12) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void enumerate(CsrGraph csr, int u, int target, boolean[] visited, double[] c,
+            List<double[]> out) {
+        if (u == target) {
+            out.add(c.clone());
+            return;
+        }
+        visited[u] = true;
+        for (int e = csr.firstEdge(u); e < csr.endEdge(u); e++) {
+            int v = csr.target(e);
+            if (!visited[v]) {
+                for (int i = 0; i < c.length; i++) {
+                    c[i] += csr.componentCost(e, DISTANCE_TIME_FUEL[i]);
+                }
+                enumerate(csr, v, target, visited, c, out);
+                for (int i = 0; i < c.length; i++) {
+                    c[i] -= csr.componentCost(e, DISTANCE_TIME_FUEL[i]);
+                }
+            }
+        }
+        visited[u] = false;
+    }
+}
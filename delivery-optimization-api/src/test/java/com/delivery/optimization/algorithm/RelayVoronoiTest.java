@@ -0,0 +1,74 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RelayVoronoiTest {
+
+    private static final CostFunction.Weights DISTANCE = CostFunction.Weights.builder()
+            .alpha(1.0).build();
+
+    @Test
+    void testNearestAndSecondNearestMatchPointToPointSearches() {
+        Random random = new Random(47);
+        List<Node> nodes = new ArrayList<>();
+        List<Arc> arcs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            nodes.add(Node.builder().id("N" + i)
+                    .type(i % 12 == 0 ? Node.NodeType.RELAY : Node.NodeType.CLIENT)
+                    .latitude(3.8 + random.nextDouble() * 0.1).longitude(11.5 + random.nextDouble() * 0.1).build());
+        }
+        for (long id = 1; id <= 240; id++) {
+            arcs.add(Arc.builder().id(id)
+                    .originId("N" + random.nextInt(60)).destinationId("N" + random.nextInt(60))
+                    .distance(1 + random.nextDouble() * 5).travelTime(60.0)
+                    .penibility(0.0).weatherImpact(0.0).fuelCost(0.0).trafficFactor(1.0)
+                    .build());
+        }
+        CsrGraph csr = RoadGraph.of(1, nodes, arcs).getCsr();
+        String[] relayIds = {"N0", "N12", "N24", "N36", "N48"};
+        int[] relays = Arrays.stream(relayIds).mapToInt(csr::indexOf).toArray();
+
+        RelayVoronoi voronoi = RelayVoronoi.compute(csr, relays, DISTANCE);
+
+        AStar aStar = new AStar();
+        for (Node node : nodes) {
+            double[] costs = Arrays.stream(relayIds)
+                    .mapToDouble(relay -> {
+                        AStar.PathResult path = aStar.findPath(csr, node.getId(), relay, DISTANCE);
+                        return path == null ? Double.POSITIVE_INFINITY : path.getTotalCost();
+                    })
+                    .sorted()
+                    .toArray();
+            int v = csr.indexOf(node.getId());
+
+            assertCost(voronoi.nearestCost(v), costs[0]);
+            assertCost(voronoi.secondCost(v), costs[1]);
+            if (Double.isFinite(costs[0])) {
+                assertThat(voronoi.nearest(v)).isIn((Object[]) relayIds);
+                assertThat(voronoi.second(v)).isNotEqualTo(voronoi.nearest(v));
+            } else {
+                assertThat(voronoi.nearest(v)).isNull();
+            }
+        }
+        assertThat(voronoi.nearest(csr.indexOf("N12"))).isEqualTo("N12");
+        assertThat(voronoi.nearestCost(csr.indexOf("N12"))).isZero();
+    }
+
+    private static void assertCost(double actual, double expected) {
+        if (Double.isInfinite(expected)) {
+            assertThat(actual).isInfinite();
+        } else {
+            assertThat(actual).isCloseTo(expected, within(1e-9));
+        }
+    }
+}
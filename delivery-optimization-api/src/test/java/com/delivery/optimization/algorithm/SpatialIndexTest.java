@@ -0,0 +1,86 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SpatialIndexTest {
+
+    @Test
+    void testNearestNodeAndArcMatchLinearScans() {
+        Random random = new Random(50);
+        List<Node> nodes = new ArrayList<>();
+        List<Arc> arcs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            nodes.add(Node.builder().id("N" + i)
+                    .type(i % 50 == 0 ? Node.NodeType.DEPOT : Node.NodeType.CLIENT)
+                    .latitude(3.8 + random.nextDouble() * 0.1).longitude(11.5 + random.nextDouble() * 0.1).build());
+        }
+        // An unlocated node is never returned
+        nodes.add(Node.builder().id("NOWHERE").build());
+        for (long id = 1; id <= 1500; id++) {
+            arcs.add(Arc.builder().id(id)
+                    .originId("N" + random.nextInt(500)).destinationId("N" + random.nextInt(500))
+                    .distance(1.0).travelTime(60.0).build());
+        }
+        arcs.add(Arc.builder().id(9999L).originId("N1").destinationId("NOWHERE").distance(1.0).build());
+        CsrGraph csr = RoadGraph.of(1, nodes, arcs).getCsr();
+        SpatialIndex index = SpatialIndex.build(csr);
+        SpatialIndex scan = SpatialIndex.linearScan(csr);
+        assertThat(index.isIndexed()).isTrue();
+        assertThat(scan.isIndexed()).isFalse();
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 3.79 + random.nextDouble() * 0.12;
+            double lon = 11.49 + random.nextDouble() * 0.12;
+
+            int nearest = index.nearestNode(lat, lon);
+            double best = Double.POSITIVE_INFINITY;
+            double bestDepot = Double.POSITIVE_INFINITY;
+            for (int u = 0; u < csr.nodeCount(); u++) {
+                if (!Double.isNaN(csr.latitudeRad(u))) {
+                    double d = index.distanceKm(lat, lon, u);
+                    best = Math.min(best, d);
+                    if (isDepot(csr, u)) {
+                        bestDepot = Math.min(bestDepot, d);
+                    }
+                }
+            }
+            assertThat(index.distanceKm(lat, lon, nearest)).isCloseTo(best, within(1e-12));
+
+            int depot = index.nearestNode(lat, lon, Double.POSITIVE_INFINITY, u -> isDepot(csr, u));
+            assertThat(index.distanceKm(lat, lon, depot)).isCloseTo(bestDepot, within(1e-12));
+
+            SpatialIndex.ArcMatch arc = index.nearestArc(lat, lon, Double.POSITIVE_INFINITY);
+            double bestArc = Double.POSITIVE_INFINITY;
+            for (int e = 0; e < csr.edgeCount(); e++) {
+                if (csr.arcId(e) != 9999L) {
+                    bestArc = Math.min(bestArc, index.edgeDistanceKm(lat, lon, e));
+                }
+            }
+            assertThat(arc.distanceKm()).isCloseTo(bestArc, within(1e-9));
+            assertThat(arc.fraction()).isBetween(0.0, 1.0);
+            assertThat(csr.arcId(arc.edge())).isNotEqualTo(9999L);
+
+            assertThat(index.nearestArc(lat, lon, bestArc / 2)).isNull();
+
+            assertThat(scan.nearestNode(lat, lon)).isEqualTo(nearest);
+            assertThat(scan.nearestNode(lat, lon, Double.POSITIVE_INFINITY, u -> isDepot(csr, u))).isEqualTo(depot);
+            assertThat(scan.nearestArc(lat, lon, Double.POSITIVE_INFINITY).distanceKm())
+                    .isCloseTo(bestArc, within(1e-9));
+            assertThat(scan.nearestArc(lat, lon, bestArc / 2)).isNull();
+        }
+    }
+
+    private static boolean isDepot(CsrGraph csr, int u) {
+        String id = csr.nodeId(u);
+        return !id.equals("NOWHERE") && Integer.parseInt(id.substring(1)) % 50 == 0;
+    }
+}
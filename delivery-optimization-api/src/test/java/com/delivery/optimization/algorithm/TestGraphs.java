@@ -0,0 +1,137 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded road graphs shared by the algorithm tests: a grid of streets with
+ * random costs, and random graphs of uniformly placed nodes and arcs.
+ */
+final class TestGraphs {
+
+    /**
+     * Cost ranges of generated grid arcs: distance in [minDistance, minDistance + 1),
+     * travel time in [minTime, minTime + timeSpread), weather impact in
+     * [0, weatherSpread), traffic factor in 1 .. trafficLevels.
+     */
+    record ArcCosts(double minDistance, double minTime, double timeSpread, double weatherSpread,
+            int trafficLevels) {
+    }
+
+    /** Short blocks (0.2 to 1.2 km), 0.5 to 3.5 time units. */
+    static final ArcCosts SHORT_BLOCKS = new ArcCosts(0.2, 0.5, 3, 0, 3);
+    /** Long blocks (1.2 to 2.2 km), 1 to 4 time units. */
+    static final ArcCosts LONG_BLOCKS = new ArcCosts(1.2, 1.0, 3, 0, 3);
+
+    private TestGraphs() {
+    }
+
+    /**
+     * ID of the grid node at row {@code i}, column {@code j}.
+     */
+    static String id(int i, int j) {
+        return i + "_" + j;
+    }
+
+    /**
+     * Nodes of a {@code side} x {@code side} grid, {@code step} degrees apart.
+     */
+    static List<Node> gridNodes(int side, double step) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                nodes.add(Node.builder().id(id(i, j)).type(Node.NodeType.CLIENT)
+                        .latitude(3.80 + i * step).longitude(11.50 + j * step).build());
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Streets between neighbouring grid nodes. With {@code oneWayOneIn} = k > 0,
+     * the reverse direction of a street is left out with probability 1/k
+     * (one-way streets); 0 keeps every street two-way.
+     */
+    static List<Arc> gridArcs(int side, Random random, int oneWayOneIn, ArcCosts costs) {
+        List<Arc> arcs = new ArrayList<>();
+        long arcId = 1;
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                if (i + 1 < side) {
+                    arcs.add(arc(arcId++, id(i, j), id(i + 1, j), random, costs));
+                    if (oneWayOneIn == 0 || random.nextInt(oneWayOneIn) > 0) {
+                        arcs.add(arc(arcId++, id(i + 1, j), id(i, j), random, costs));
+                    }
+                }
+                if (j + 1 < side) {
+                    arcs.add(arc(arcId++, id(i, j), id(i, j + 1), random, costs));
+                    if (oneWayOneIn == 0 || random.nextInt(oneWayOneIn) > 0) {
+                        arcs.add(arc(arcId++, id(i, j + 1), id(i, j), random, costs));
+                    }
+                }
+            }
+        }
+        return arcs;
+    }
+
+    static Arc arc(long id, String from, String to, Random random, ArcCosts costs) {
+        return Arc.builder().id(id).originId(from).destinationId(to)
+                .distance(costs.minDistance() + random.nextDouble())
+                .travelTime(costs.minTime() + random.nextDouble() * costs.timeSpread())
+                .penibility(random.nextDouble())
+                .weatherImpact(costs.weatherSpread() > 0 ? random.nextDouble() * costs.weatherSpread() : 0.0)
+                .fuelCost(0.3)
+                .trafficFactor(1.0 + random.nextInt(costs.trafficLevels())).build();
+    }
+
+    /**
+     * Nodes N0 .. N{nodeCount-1} placed uniformly in a 0.1 degree square.
+     */
+    static List<Node> randomNodes(Random random, int nodeCount) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(Node.builder().id("N" + i)
+                    .latitude(3.8 + random.nextDouble() * 0.1).longitude(11.5 + random.nextDouble() * 0.1).build());
+        }
+        return nodes;
+    }
+
+    /**
+     * Arcs between random nodes of {@link #randomNodes}, every cost component random.
+     */
+    static List<Arc> randomArcs(Random random, int nodeCount, int arcCount) {
+        List<Arc> arcs = new ArrayList<>();
+        for (long id = 1; id <= arcCount; id++) {
+            arcs.add(Arc.builder().id(id)
+                    .originId("N" + random.nextInt(nodeCount)).destinationId("N" + random.nextInt(nodeCount))
+                    .distance(1 + random.nextDouble() * 5).travelTime(60 + random.nextDouble() * 300)
+                    .penibility(random.nextDouble()).weatherImpact(random.nextDouble())
+                    .fuelCost(random.nextDouble() * 2)
+                    .trafficFactor(1.0 + random.nextDouble())
+                    .build());
+        }
+        return arcs;
+    }
+
+    static CsrGraph randomGraph(Random random, int nodeCount, int arcCount) {
+        List<Node> nodes = randomNodes(random, nodeCount);
+        return RoadGraph.of(1, nodes, randomArcs(random, nodeCount, arcCount)).getCsr();
+    }
+
+    /**
+     * Copy of an arc with another traffic factor, as after a traffic update.
+     */
+    static Arc withTraffic(Arc a, double trafficFactor) {
+        return Arc.builder().id(a.getId())
+                .originId(a.getOriginId()).destinationId(a.getDestinationId())
+                .distance(a.getDistance()).travelTime(a.getTravelTime())
+                .penibility(a.getPenibility()).weatherImpact(a.getWeatherImpact())
+                .fuelCost(a.getFuelCost())
+                .trafficFactor(trafficFactor)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.delivery.optimization.algorithm;
+
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrafficProfilesTest {
+
+    private static final CostFunction.Weights DEFAULT = CostFunction.Weights.builder()
+            .alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+    private final AStar aStar = new AStar();
+
+    @Test
+    void testInterpolatesBetweenObservedBuckets() {
+        CsrGraph csr = singleArc(60.0);
+        TrafficProfiles profiles = TrafficProfiles.learn(csr, List.of(
+                new TrafficProfiles.Observation(new int[]{0}, 8 * 3600, 2.0),
+                new TrafficProfiles.Observation(new int[]{0}, 8 * 3600 + 60, 2.0),
+                new TrafficProfiles.Observation(new int[]{0}, 20 * 3600, 1.0)));
+
+        double center = TrafficProfiles.BUCKET_SECONDS / 2.0;
+        assertThat(profiles.hasProfile(0)).isTrue();
+        assertThat(profiles.factor(0, 8 * 3600 + center)).isCloseTo(2.0, within(1e-9));
+        assertThat(profiles.factor(0, 20 * 3600 + center)).isCloseTo(1.0, within(1e-9));
+        // Halfway on both sides of the circle
+        assertThat(profiles.factor(0, 14 * 3600 + center)).isCloseTo(1.5, within(1e-9));
+        assertThat(profiles.factor(0, 2 * 3600 + center)).isCloseTo(1.5, within(1e-9));
+        assertThat(profiles.travelTime(csr, 0, 8 * 3600 + center)).isCloseTo(120.0, within(1e-6));
+    }
+
+    @Test
+    void testProfilesAreFifo() {
+        // A one-hour arc whose congestion clears within a quarter hour
+        CsrGraph csr = singleArc(3600.0);
+        TrafficProfiles profiles = TrafficProfiles.learn(csr, List.of(
+                new TrafficProfiles.Observation(new int[]{0}, 8 * 3600, 3.0),
+                new TrafficProfiles.Observation(new int[]{0}, 8 * 3600 + 900, 1.0),
+                new TrafficProfiles.Observation(new int[]{0}, 20 * 3600, 1.0)));
+
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int t = 0; t < 86_400; t += 30) {
+            double arrival = t + profiles.travelTime(csr, 0, t);
+            assertThat(arrival).isGreaterThanOrEqualTo(previous - 1e-6);
+            previous = arrival;
+        }
+    }
+
+    @Test
+    void testTimeDependentSearchMatchesStaticSearchUnderConstantProfiles() {
+        Random random = new Random(44);
+        List<Node> nodes = new ArrayList<>();
+        List<Arc> arcs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            nodes.add(Node.builder().id("N" + i)
+                    .latitude(3.8 + random.nextDouble() * 0.1).longitude(11.5 + random.nextDouble() * 0.1).build());
+        }
+        for (long id = 1; id <= 300; id++) {
+            arcs.add(Arc.builder().id(id)
+                    .originId("N" + random.nextInt(60)).destinationId("N" + random.nextInt(60))
+                    .distance(1 + random.nextDouble() * 5).travelTime(60 + random.nextDouble() * 300)
+                    .penibility(random.nextDouble()).weatherImpact(random.nextDouble())
+                    .fuelCost(random.nextDouble() * 2)
+                    .trafficFactor(1.0 + random.nextInt(1000) / 1000.0)
+                    .build());
+        }
+        CsrGraph csr = RoadGraph.of(1, nodes, arcs).getCsr();
+
+        // Every other edge profiled with its own scalar factor, at some hour: a flat profile
+        List<TrafficProfiles.Observation> observations = new ArrayList<>();
+        for (int e = 0; e < csr.edgeCount(); e += 2) {
+            observations.add(new TrafficProfiles.Observation(new int[]{e}, random.nextInt(86_400),
+                    csr.trafficFactor(e)));
+        }
+        TrafficProfiles profiles = TrafficProfiles.learn(csr, observations);
+
+        for (int q = 0; q < 30; q++) {
+            String origin = "N" + random.nextInt(60);
+            String destination = "N" + random.nextInt(60);
+            AStar.PathResult expected = aStar.findPath(csr, origin, destination, DEFAULT);
+            AStar.PathResult actual = aStar.findPathTimeDependent(csr, profiles, origin, destination, DEFAULT,
+                    random.nextInt(86_400));
+            if (expected == null) {
+                assertThat(actual).isNull();
+            } else {
+                assertThat(actual.getTotalCost()).isCloseTo(expected.getTotalCost(), within(1e-6));
+            }
+        }
+    }
+
+    private static CsrGraph singleArc(double travelTime) {
+        List<Node> nodes = List.of(
+                Node.builder().id("A").latitude(3.80).longitude(11.50).build(),
+                Node.builder().id("B").latitude(3.81).longitude(11.50).build());
+        List<Arc> arcs = List.of(Arc.builder().id(1L).originId("A").destinationId("B")
+                .distance(1.0).travelTime(travelTime).penibility(0.0).weatherImpact(0.0).fuelCost(0.0)
+                .trafficFactor(1.0).build());
+        return RoadGraph.of(1, nodes, arcs).getCsr();
+    }
+}
@@ -4,16 +4,19 @@ import com.delivery.optimization.domain.Arc;
 import com.delivery.optimization.domain.Node;
 import com.delivery.optimization.dto.TourOptimizationRequest;
 import com.delivery.optimization.dto.TourOptimizationResponse;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class VRPSolverTest {
 
+    private final ForkJoinPool pool = new ForkJoinPool(2);
     private VRPSolver vrpSolver;
     private Map<String, Node> nodes;
     private List<Arc> arcs;
@@ -21,10 +24,15 @@ class VRPSolverTest {
 
     @BeforeEach
     void setUp() {
-        vrpSolver = new VRPSolver();
+        vrpSolver = new VRPSolver(pool);
         setupGraph();
     }
 
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
     private void setupGraph() {
         nodes = new HashMap<>();
 
@@ -0,0 +1,73 @@
+package com.delivery.optimization.config;
+
+import com.delivery.optimization.exception.CustomExceptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ComputeSchedulersTest {
+
+    private SimpleMeterRegistry registry;
+    private ComputeSchedulers schedulers;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        schedulers = new ComputeSchedulers(1, 1, 1, 1, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        schedulers.dispose();
+    }
+
+    @Test
+    void testRunsOffTheCallingThread() {
+        String caller = Thread.currentThread().getName();
+
+        StepVerifier.create(schedulers.routing(() -> Thread.currentThread().getName()))
+                .assertNext(name -> {
+                    assertThat(name).isNotEqualTo(caller);
+                    assertThat(name).startsWith("routing-compute-");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // One running, one queued: the lane is saturated
+        Mono<String> running = schedulers.vrp(() -> {
+            started.countDown();
+            release.await();
+            return "first";
+        }).cache();
+        running.subscribe();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Mono<String> queued = schedulers.vrp(() -> "second").cache();
+        queued.subscribe();
+
+        StepVerifier.create(schedulers.vrp(() -> "third"))
+                .expectError(CustomExceptions.ServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+        assertThat(registry.get("compute.scheduler.queued").tag("lane", "vrp").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("compute.scheduler.rejected").tag("lane", "vrp").counter().count()).isEqualTo(1);
+
+        // The routing lane is independent
+        StepVerifier.create(schedulers.routing(() -> "route")).expectNext("route").verifyComplete();
+
+        release.countDown();
+        StepVerifier.create(running).expectNext("first").verifyComplete();
+        StepVerifier.create(queued).expectNext("second").verifyComplete();
+    }
+}
@@ -0,0 +1,131 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.domain.Node;
+import com.delivery.optimization.dto.BatchRouteResult;
+import com.delivery.optimization.dto.ShortestPathRequest;
+import com.delivery.optimization.dto.ShortestPathResponse;
+import com.delivery.optimization.exception.CustomExceptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchRoutingServiceTest {
+
+    @Mock
+    private ShortestPathService shortestPathService;
+
+    @Mock
+    private RoadGraphCache roadGraphCache;
+
+    private ComputeSchedulers computeSchedulers;
+    private BatchRoutingService batchRoutingService;
+    private RoadGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        computeSchedulers = new ComputeSchedulers(4, 64, 1, 1, new SimpleMeterRegistry());
+        batchRoutingService = new BatchRoutingService(shortestPathService, roadGraphCache, computeSchedulers, 50, 3);
+        graph = RoadGraph.of(1, List.of(Node.builder().id("NODE_1").build()), List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        computeSchedulers.dispose();
+    }
+
+    @Test
+    void testBatchRunsEveryRequestOnOneSnapshot() {
+        // arrange
+        List<ShortestPathRequest> requests = IntStream.range(0, 20)
+                .mapToObj(i -> ShortestPathRequest.builder().origin("O" + i).destination("D" + i).build())
+                .collect(Collectors.toList());
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(graph));
+        when(shortestPathService.computeRoute(same(graph), any(ShortestPathRequest.class)))
+                .thenAnswer(inv -> {
+                    ShortestPathRequest r = inv.getArgument(1);
+                    return ShortestPathResponse.builder().path(List.of(r.getOrigin(), r.getDestination())).build();
+                });
+        when(shortestPathService.computeRoute(same(graph), argThat(r -> r != null && r.getOrigin().equals("O7"))))
+                .thenThrow(new RuntimeException("Path not found"));
+
+        // act
+        List<BatchRouteResult> results = new ArrayList<>();
+        StepVerifier.create(batchRoutingService.calculateShortestPaths(requests))
+                .recordWith(() -> results)
+                .expectNextCount(20)
+                .verifyComplete();
+
+        // assert
+        verify(roadGraphCache, times(1)).getGraph();
+        assertThat(results).extracting(BatchRouteResult::getIndex)
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(0, 20).boxed().collect(Collectors.toList()));
+        for (BatchRouteResult result : results) {
+            if (result.getIndex() == 7) {
+                assertThat(result.getRoute()).isNull();
+                assertThat(result.getError()).isEqualTo("Path not found");
+            } else {
+                assertThat(result.getRoute().getPath()).containsExactly("O" + result.getIndex(), "D" + result.getIndex());
+            }
+        }
+    }
+
+    @Test
+    void testBatchKeepsAtMostConcurrencyRequestsInFlight() {
+        // arrange
+        List<ShortestPathRequest> requests = IntStream.range(0, 30)
+                .mapToObj(i -> ShortestPathRequest.builder().origin("O" + i).destination("D" + i).build())
+                .collect(Collectors.toList());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(graph));
+        when(shortestPathService.computeRoute(same(graph), any(ShortestPathRequest.class)))
+                .thenAnswer(inv -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return ShortestPathResponse.builder().build();
+                });
+
+        // act
+        StepVerifier.create(batchRoutingService.calculateShortestPaths(requests))
+                .expectNextCount(30)
+                .verifyComplete();
+
+        // assert: the lane has 4 threads, the batch may use 3 of them
+        assertThat(maxRunning.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void testBatchTooLarge() {
+        List<ShortestPathRequest> requests = IntStream.range(0, 51)
+                .mapToObj(i -> ShortestPathRequest.builder().origin("O").destination("D").build())
+                .collect(Collectors.toList());
+
+        StepVerifier.create(batchRoutingService.calculateShortestPaths(requests))
+                .expectError(CustomExceptions.ValidationException.class)
+                .verify();
+
+        verifyNoInteractions(roadGraphCache, shortestPathService);
+    }
+}
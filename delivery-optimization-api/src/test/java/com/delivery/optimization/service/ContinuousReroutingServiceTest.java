@@ -0,0 +1,234 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.config.ComputeSchedulers;
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Delivery;
+import com.delivery.optimization.domain.KalmanState;
+import com.delivery.optimization.domain.Node;
+import com.delivery.optimization.domain.RerouteEvent;
+import com.delivery.optimization.dto.RerouteResponse;
+import com.delivery.optimization.repository.DeliveryRepository;
+import com.delivery.optimization.repository.KalmanStateRepository;
+import com.delivery.optimization.repository.RerouteEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContinuousReroutingServiceTest {
+
+    @Mock
+    private RoadGraphCache roadGraphCache;
+
+    @Mock
+    private DeliveryRepository deliveryRepository;
+
+    @Mock
+    private KalmanStateRepository kalmanStateRepository;
+
+    @Mock
+    private RerouteEventRepository rerouteEventRepository;
+
+    @Mock
+    private ComputeSchedulers computeSchedulers;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private ContinuousReroutingService service;
+    private List<Node> nodes;
+    private Delivery delivery;
+
+    @BeforeEach
+    void setUp() {
+        // Run the routing lane inline
+        lenient().when(computeSchedulers.routing(any())).thenAnswer(inv -> Mono.fromCallable(inv.getArgument(0)));
+
+        service = service(16);
+
+        nodes = List.of(
+                Node.builder().id("A").latitude(3.80).longitude(11.50).build(),
+                Node.builder().id("B").latitude(3.81).longitude(11.51).build(),
+                Node.builder().id("C").latitude(3.79).longitude(11.51).build(),
+                Node.builder().id("D").latitude(3.80).longitude(11.52).build());
+        delivery = Delivery.builder()
+                .id("DEL-1")
+                .pickupNodeId("A")
+                .dropoffNodeId("D")
+                .status(Delivery.DeliveryStatus.IN_TRANSIT)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.dispose();
+    }
+
+    private ContinuousReroutingService service(int incrementalRoutes) {
+        AlternativeRouteService alternativeRouteService = new AlternativeRouteService(roadGraphCache,
+                computeSchedulers, 10, 0.8);
+        ReroutingService reroutingService = new ReroutingService(null, alternativeRouteService, deliveryRepository,
+                roadGraphCache, computeSchedulers, 0.2, 0.5, 0.1, 0.1, 0.1);
+        return new ContinuousReroutingService(reroutingService, alternativeRouteService, roadGraphCache,
+                deliveryRepository, kalmanStateRepository, rerouteEventRepository, computeSchedulers,
+                messagingTemplate, true, Duration.ofMillis(50), 1000, 2, Duration.ofMinutes(5), incrementalRoutes);
+    }
+
+    @Test
+    void testCongestionOnTrackedRouteTriggersReroute() {
+        // arrange: the delivery drives A-B-D, then B-D gets jammed
+        RoadGraph before = RoadGraph.of(1, nodes, arcs(1.0));
+        service.track(before, "DEL-1", List.of("A", "B", "D"), 300.0);
+        RoadGraph after = RoadGraph.of(2, nodes, arcs(10.0));
+
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(after));
+        when(deliveryRepository.findByStatusIn(anyCollection())).thenReturn(Flux.just(delivery));
+        when(deliveryRepository.findAllById(anyIterable())).thenReturn(Flux.just(delivery));
+        when(kalmanStateRepository.findByDeliveryId("DEL-1")).thenReturn(Mono.empty());
+        when(rerouteEventRepository.save(any(RerouteEvent.class)))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        // act
+        service.process(Set.of(2L)).block();
+
+        // assert
+        ArgumentCaptor<RerouteEvent> saved = ArgumentCaptor.forClass(RerouteEvent.class);
+        verify(rerouteEventRepository).save(saved.capture());
+        assertThat(saved.getValue().getDeliveryId()).isEqualTo("DEL-1");
+        assertThat(saved.getValue().getReason()).isEqualTo("COST_IMPROVEMENT");
+        assertThat(saved.getValue().getOldPathCost()).isGreaterThan(saved.getValue().getNewPathCost());
+        verify(messagingTemplate).convertAndSend(eq("/topic/reroute/DEL-1"), (Object) any());
+
+        // The new route A-C-D is tracked instead: B-D no longer concerns this delivery
+        service.process(Set.of(2L)).block();
+        verify(deliveryRepository, times(1)).findAllById(anyIterable());
+        assertThat(service.trackedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testSecondRerouteStartsWhereTheDriverIsOnTheFirstDetour() {
+        // arrange: A-B-D, then B-D jams at half the trip; the detour is B-E-F-G-D,
+        // then G-D jams when the driver has covered three quarters of the trip, i.e. reached F
+        List<Node> grid = new ArrayList<>(nodes);
+        grid.add(Node.builder().id("E").latitude(3.82).longitude(11.51).build());
+        grid.add(Node.builder().id("F").latitude(3.82).longitude(11.52).build());
+        grid.add(Node.builder().id("G").latitude(3.81).longitude(11.53).build());
+        grid.add(Node.builder().id("H").latitude(3.80).longitude(11.53).build());
+        RoadGraph start = RoadGraph.of(1, grid, detourArcs(1.0, 1.0));
+        service.track(start, "DEL-1", List.of("A", "B", "D"), 300.0);
+
+        when(roadGraphCache.getGraph()).thenReturn(
+                Mono.just(RoadGraph.of(2, grid, detourArcs(10.0, 1.0))),
+                Mono.just(RoadGraph.of(3, grid, detourArcs(10.0, 10.0))));
+        when(deliveryRepository.findByStatusIn(anyCollection())).thenReturn(Flux.just(delivery));
+        when(deliveryRepository.findAllById(anyIterable())).thenReturn(Flux.just(delivery));
+        when(kalmanStateRepository.findByDeliveryId("DEL-1")).thenReturn(
+                Mono.just(KalmanState.builder().deliveryId("DEL-1").distanceCovered(0.5).build()),
+                Mono.just(KalmanState.builder().deliveryId("DEL-1").distanceCovered(0.75).build()));
+        when(rerouteEventRepository.save(any(RerouteEvent.class)))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        // act
+        service.process(Set.of(2L)).block();
+        service.process(Set.of(8L)).block();
+
+        // assert: measured on the detour alone, 0.75 would have put the driver at G,
+        // from where the jammed G-D is the only way left
+        ArgumentCaptor<RerouteResponse> pushed = ArgumentCaptor.forClass(RerouteResponse.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/reroute/DEL-1"), pushed.capture());
+        assertThat(pushed.getAllValues().get(0).getNewPath()).containsExactly("B", "E", "F", "G", "D");
+        assertThat(pushed.getAllValues().get(1).getNewPath()).containsExactly("F", "H", "D");
+        verify(rerouteEventRepository, times(2)).save(any(RerouteEvent.class));
+    }
+
+    @Test
+    void testChangeOffTrackedRoutesIsIgnored() {
+        // arrange
+        RoadGraph graph = RoadGraph.of(1, nodes, arcs(1.0));
+        service.track(graph, "DEL-1", List.of("A", "B", "D"), 300.0);
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(graph));
+        when(deliveryRepository.findByStatusIn(anyCollection())).thenReturn(Flux.just(delivery));
+
+        // act
+        service.process(Set.of(3L, 4L)).block();
+
+        // assert
+        verify(deliveryRepository, never()).findAllById(anyIterable());
+        verifyNoInteractions(rerouteEventRepository, messagingTemplate);
+    }
+
+    @Test
+    void testDeliveredDeliveryFreesItsIncrementalSearch() {
+        // arrange: a single incremental search, held by DEL-1, which has since been delivered
+        service.dispose();
+        service = service(1);
+        RoadGraph graph = RoadGraph.of(1, nodes, arcs(1.0));
+        service.track(graph, "DEL-1", List.of("A", "B", "D"), 300.0);
+        assertThat(service.incrementalCount()).isEqualTo(1);
+        Delivery next = Delivery.builder()
+                .id("DEL-2")
+                .pickupNodeId("A")
+                .dropoffNodeId("D")
+                .status(Delivery.DeliveryStatus.ASSIGNED)
+                .build();
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(graph));
+        when(deliveryRepository.findByStatusIn(anyCollection())).thenReturn(Flux.just(next));
+
+        // act: an unrelated change triggers the reseed
+        service.process(Set.of(3L)).block();
+
+        // assert: DEL-1 is dropped and its search went to DEL-2
+        assertThat(service.trackedCount()).isEqualTo(1);
+        assertThat(service.incrementalCount()).isEqualTo(1);
+        verify(deliveryRepository, never()).findAllById(anyIterable());
+    }
+
+    private static List<Arc> arcs(double jam) {
+        return List.of(
+                arc(1L, "A", "B", 1.0),
+                arc(2L, "B", "D", jam),
+                arc(3L, "A", "C", 1.1),
+                arc(4L, "C", "D", 1.1));
+    }
+
+    /**
+     * A-B-D, the detour B-E-F-G-D (arc 8 is G-D) and the slower bypass F-H-D.
+     */
+    private static List<Arc> detourArcs(double jamBD, double jamGD) {
+        return List.of(
+                arc(1L, "A", "B", 1.0),
+                arc(2L, "B", "D", jamBD),
+                arc(5L, "B", "E", 1.0),
+                arc(6L, "E", "F", 1.0),
+                arc(7L, "F", "G", 1.0),
+                arc(8L, "G", "D", jamGD),
+                arc(9L, "F", "H", 1.2),
+                arc(10L, "H", "D", 1.2));
+    }
+
+    private static Arc arc(long id, String origin, String destination, double trafficFactor) {
+        return Arc.builder().id(id).originId(origin).destinationId(destination)
+                .distance(2.0).travelTime(300.0).penibility(0.1).weatherImpact(0.0).fuelCost(1.0)
+                .trafficFactor(trafficFactor).build();
+    }
+}
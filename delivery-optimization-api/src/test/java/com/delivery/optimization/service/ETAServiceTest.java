@@ -1,12 +1,12 @@
 package com.delivery.optimization.service;
 
 import com.delivery.optimization.algorithm.KalmanFilter;
+import com.delivery.optimization.algorithm.RoadGraph;
 import com.delivery.optimization.domain.Arc;
 import com.delivery.optimization.domain.Delivery;
 import com.delivery.optimization.domain.KalmanState;
 import com.delivery.optimization.dto.ETAResponse;
 import com.delivery.optimization.dto.ETAUpdateRequest;
-import com.delivery.optimization.repository.ArcRepository;
 import com.delivery.optimization.repository.DeliveryRepository;
 import com.delivery.optimization.repository.KalmanStateRepository;
 import org.apache.commons.math3.linear.ArrayRealVector;
@@ -22,6 +22,8 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+
 import java.time.Instant;
 import java.util.Arrays;
 
@@ -44,7 +46,10 @@ class ETAServiceTest {
     private KalmanStateRepository kalmanStateRepository;
 
     @Mock
-    private ArcRepository arcRepository;
+    private RoadGraphCache roadGraphCache;
+
+    @Mock
+    private SpatialIndexService spatialIndexService;
 
     @Mock
     private SimpMessagingTemplate messagingTemplate;
@@ -120,7 +125,7 @@ class ETAServiceTest {
         when(kalmanFilter.predict(any(), anyDouble(), any())).thenReturn(predictedState);
         when(kalmanFilter.update(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(updatedState);
         when(kalmanStateRepository.save(any(KalmanState.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -164,7 +169,7 @@ class ETAServiceTest {
         when(kalmanFilter.predict(any(), anyDouble(), any())).thenReturn(predictedState);
         when(kalmanFilter.update(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(updatedState);
         when(kalmanStateRepository.save(any(KalmanState.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -210,7 +215,7 @@ class ETAServiceTest {
         when(kalmanFilter.predict(any(), anyDouble(), any())).thenReturn(predictedState);
         when(kalmanFilter.update(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(updatedState);
         when(kalmanStateRepository.save(any(KalmanState.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc, heavyTrafficArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc, heavyTrafficArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -249,7 +254,7 @@ class ETAServiceTest {
         when(kalmanFilter.predict(any(), anyDouble(), any())).thenReturn(predictedState);
         when(kalmanFilter.update(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(updatedState);
         when(kalmanStateRepository.save(any(KalmanState.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -268,7 +273,7 @@ class ETAServiceTest {
     void testGetLatestStats_Success() {
         // arrange
         when(kalmanStateRepository.findByDeliveryId(testDeliveryId)).thenReturn(Mono.just(initialState));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -294,7 +299,7 @@ class ETAServiceTest {
     void testGetLatestStats_NoStateFound() {
         // arrange
         when(kalmanStateRepository.findByDeliveryId(testDeliveryId)).thenReturn(Mono.empty());
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -325,7 +330,7 @@ class ETAServiceTest {
                 .build();
 
         when(kalmanStateRepository.findByDeliveryId(testDeliveryId)).thenReturn(Mono.just(highVarianceState));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -393,7 +398,7 @@ class ETAServiceTest {
         when(kalmanFilter.predict(any(), anyDouble(), any())).thenReturn(predictedState);
         when(kalmanFilter.update(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(updatedState);
         when(kalmanStateRepository.save(any(KalmanState.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -443,7 +448,7 @@ class ETAServiceTest {
         when(kalmanFilter.predict(any(), anyDouble(), any())).thenReturn(predictedState);
         when(kalmanFilter.update(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(updatedState);
         when(kalmanStateRepository.save(any(KalmanState.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(arcRepository.findAll()).thenReturn(Flux.just(testArc));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, List.of(), List.of(testArc))));
         when(deliveryRepository.findById(testDeliveryId)).thenReturn(Mono.just(testDelivery));
 
         // act
@@ -2,18 +2,23 @@ package com.delivery.optimization.service;
 
 import com.delivery.optimization.domain.Arc;
 import com.delivery.optimization.domain.Node;
+import com.delivery.optimization.event.GraphChangedEvent;
 import com.delivery.optimization.repository.ArcRepository;
 import com.delivery.optimization.repository.NodeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -28,7 +33,9 @@ class GraphServiceTest {
     @Mock
     private ArcRepository arcRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private GraphService graphService;
 
     private Arc testArc;
@@ -36,6 +43,9 @@ class GraphServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Seeded: the arcs hit by simulated traffic are the same on every run
+        graphService = new GraphService(nodeRepository, arcRepository, eventPublisher, new Random(31));
+
         testNode = Node.builder()
                 .id("NODE_1")
                 .type(Node.NodeType.CLIENT)
@@ -129,17 +139,33 @@ class GraphServiceTest {
 
         when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2));
         when(arcRepository.save(any(Arc.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        // The first arc falls in the 30% hit by traffic, the second does not
+        Random draws = new Random() {
+            private final double[] values = {0.1, 0.9};
+            private int next;
+
+            @Override
+            public double nextDouble() {
+                return values[next++];
+            }
+        };
+        GraphService service = new GraphService(nodeRepository, arcRepository, eventPublisher, draws);
 
         // act
-        Mono<Void> result = graphService.simulateTraffic();
+        Mono<Void> result = service.simulateTraffic();
 
         // assert
         StepVerifier.create(result)
                 .verifyComplete();
 
         verify(arcRepository).findAll();
-        // Some arcs should be updated (random 30%)
-        verify(arcRepository, atLeastOnce()).save(any(Arc.class));
+        verify(arcRepository).save(arc1);
+        verify(arcRepository, never()).save(arc2);
+        assertThat(arc1.getPenibility()).isEqualTo(0.5);
+        ArgumentCaptor<GraphChangedEvent> event = ArgumentCaptor.forClass(GraphChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().updatedArcs()).isEqualTo(List.of(arc1));
+        assertThat(event.getValue().fullReload()).isFalse();
     }
 
     @Test
@@ -0,0 +1,84 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import com.delivery.optimization.event.GraphChangedEvent;
+import com.delivery.optimization.repository.ArcRepository;
+import com.delivery.optimization.repository.NodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoadGraphCacheTest {
+
+    @Mock
+    private NodeRepository nodeRepository;
+
+    @Mock
+    private ArcRepository arcRepository;
+
+    @InjectMocks
+    private RoadGraphCache roadGraphCache;
+
+    private Arc arc1;
+    private Arc arc2;
+
+    @BeforeEach
+    void setUp() {
+        Node node1 = Node.builder().id("NODE_1").latitude(48.85).longitude(2.35).build();
+        Node node2 = Node.builder().id("NODE_2").latitude(48.86).longitude(2.34).build();
+        arc1 = Arc.builder().id(1L).originId("NODE_1").destinationId("NODE_2").trafficFactor(1.0).build();
+        arc2 = Arc.builder().id(2L).originId("NODE_2").destinationId("NODE_1").trafficFactor(1.0).build();
+
+        when(nodeRepository.findAll()).thenReturn(Flux.just(node1, node2));
+        when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2));
+    }
+
+    @Test
+    void testGraphLoadedOnceAndShared() {
+        RoadGraph first = roadGraphCache.getGraph().block();
+        RoadGraph second = roadGraphCache.getGraph().block();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getNodes()).hasSize(2);
+        assertThat(first.getOutgoing("NODE_1")).containsExactly(arc1);
+        verify(nodeRepository, times(1)).findAll();
+        verify(arcRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testArcUpdateAppliedWithoutReload() {
+        RoadGraph before = roadGraphCache.getGraph().block();
+        Arc congested = Arc.builder().id(1L).originId("NODE_1").destinationId("NODE_2").trafficFactor(2.5).build();
+
+        roadGraphCache.onGraphChanged(GraphChangedEvent.arcsUpdated(List.of(congested)));
+        RoadGraph after = roadGraphCache.getGraph().block();
+
+        assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+        assertThat(after.findArc("NODE_1", "NODE_2").getTrafficFactor()).isEqualTo(2.5);
+        assertThat(after.getOutgoing("NODE_2")).isSameAs(before.getOutgoing("NODE_2"));
+        assertThat(before.findArc("NODE_1", "NODE_2").getTrafficFactor()).isEqualTo(1.0);
+        verify(arcRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testFullReloadEvent() {
+        roadGraphCache.getGraph().block();
+
+        roadGraphCache.onGraphChanged(GraphChangedEvent.reload());
+        roadGraphCache.getGraph().block();
+
+        verify(arcRepository, times(2)).findAll();
+    }
+}
@@ -0,0 +1,109 @@
+package com.delivery.optimization.service;
+
+import com.delivery.optimization.algorithm.AStar;
+import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.domain.Arc;
+import com.delivery.optimization.domain.Node;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RouteCacheTest {
+
+    private static final CostFunction.Weights WEIGHTS = CostFunction.Weights.builder()
+            .alpha(0.2).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+
+    private SimpleMeterRegistry registry;
+    private RouteCache cache;
+    private Arc ab;
+    private Arc bc;
+    private Arc ac;
+    private RoadGraph graph;
+    private AStar.PathResult route;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new RouteCache(true, 1 << 20, 0.001, registry);
+        List<Node> nodes = List.of(
+                Node.builder().id("A").latitude(48.85).longitude(2.35).build(),
+                Node.builder().id("B").latitude(48.86).longitude(2.34).build(),
+                Node.builder().id("C").latitude(48.87).longitude(2.33).build());
+        ab = arc(1L, "A", "B", 1.0);
+        bc = arc(2L, "B", "C", 1.0);
+        ac = arc(3L, "A", "C", 1.0);
+        graph = RoadGraph.of(1, nodes, List.of(ab, bc, ac));
+        route = new AStar.PathResult(List.of("A", "C"), 42.0, 7);
+    }
+
+    @Test
+    void testHitOnSameVersionAndQuantizedWeights() {
+        assertThat(cache.get(graph, "A", "C", WEIGHTS)).isNull();
+        cache.put(graph, "A", "C", WEIGHTS, route);
+
+        CostFunction.Weights close = CostFunction.Weights.builder()
+                .alpha(0.2000001).beta(0.5).gamma(0.1).delta(0.1).eta(0.1).build();
+        AStar.PathResult hit = cache.get(graph, "A", "C", close);
+
+        assertThat(hit.getPath()).containsExactly("A", "C");
+        assertThat(hit.getTotalCost()).isEqualTo(42.0);
+        assertThat(hit.getSettledNodes()).isEqualTo(7);
+        assertThat(cache.get(graph, "C", "A", WEIGHTS)).isNull();
+        assertThat(cache.hitRate()).isCloseTo(1.0 / 3, within(1e-9));
+        assertThat(registry.get("routing.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRevalidatedWhenOnlyOtherArcsGotSlower() {
+        cache.put(graph, "A", "C", WEIGHTS, route);
+
+        RoadGraph congested = graph.withArcs(2, List.of(withTraffic(ab, 3.0)));
+
+        assertThat(cache.get(congested, "A", "C", WEIGHTS)).isNotNull();
+        assertThat(registry.get("routing.cache.requests").tag("result", "revalidated").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidatedWhenPathArcChangedOrAnyArcGotCheaper() {
+        cache.put(graph, "A", "C", WEIGHTS, route);
+        RoadGraph slowerOnPath = graph.withArcs(2, List.of(withTraffic(ac, 3.0)));
+        assertThat(cache.get(slowerOnPath, "A", "C", WEIGHTS)).isNull();
+
+        cache.put(slowerOnPath, "A", "C", WEIGHTS, route);
+        RoadGraph cheaperElsewhere = slowerOnPath.withArcs(3, List.of(withTraffic(bc, 0.5)));
+        assertThat(cache.get(cheaperElsewhere, "A", "C", WEIGHTS)).isNull();
+    }
+
+    @Test
+    void testMemoryCeilingEvictsLeastRecentlyUsed() {
+        RouteCache small = new RouteCache(true, 600, 0.001, new SimpleMeterRegistry());
+        small.put(graph, "A", "C", WEIGHTS, route);
+        small.put(graph, "A", "B", WEIGHTS, new AStar.PathResult(List.of("A", "B"), 1.0));
+        small.get(graph, "A", "C", WEIGHTS);
+        small.put(graph, "B", "C", WEIGHTS, new AStar.PathResult(List.of("B", "C"), 1.0));
+
+        assertThat(small.estimatedBytes()).isLessThanOrEqualTo(600);
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.get(graph, "A", "B", WEIGHTS)).isNull();
+        assertThat(small.get(graph, "A", "C", WEIGHTS)).isNotNull();
+        assertThat(small.get(graph, "B", "C", WEIGHTS)).isNotNull();
+    }
+
+    private static Arc arc(long id, String from, String to, double trafficFactor) {
+        return Arc.builder().id(id).originId(from).destinationId(to)
+                .distance(1.0).travelTime(60.0).penibility(0.1).weatherImpact(0.0).fuelCost(0.5)
+                .trafficFactor(trafficFactor).build();
+    }
+
+    private static Arc withTraffic(Arc a, double trafficFactor) {
+        return new Arc(a.getId(), a.getOriginId(), a.getDestinationId(), a.getDistance(), a.getTravelTime(),
+                a.getPenibility(), a.getWeatherImpact(), a.getFuelCost(), trafficFactor, null);
+    }
+}
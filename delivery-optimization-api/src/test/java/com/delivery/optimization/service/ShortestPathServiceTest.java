@@ -2,29 +2,33 @@ package com.delivery.optimization.service;
 
 import com.delivery.optimization.algorithm.AStar;
 import com.delivery.optimization.algorithm.CostFunction;
+import com.delivery.optimization.algorithm.CsrGraph;
+import com.delivery.optimization.algorithm.RoadGraph;
+import com.delivery.optimization.algorithm.TrafficProfiles;
+import com.delivery.optimization.config.ComputeSchedulers;
 import com.delivery.optimization.domain.Arc;
 import com.delivery.optimization.domain.Node;
 import com.delivery.optimization.dto.ShortestPathRequest;
 import com.delivery.optimization.dto.ShortestPathResponse;
+import com.delivery.optimization.event.GraphChangedEvent;
 import com.delivery.optimization.repository.ArcRepository;
-import com.delivery.optimization.repository.NodeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import reactor.core.publisher.Flux;
+import org.springframework.context.ApplicationEventPublisher;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -32,7 +36,7 @@ import static org.mockito.Mockito.*;
 class ShortestPathServiceTest {
 
     @Mock
-    private NodeRepository nodeRepository;
+    private RoadGraphCache roadGraphCache;
 
     @Mock
     private ArcRepository arcRepository;
@@ -40,6 +44,27 @@ class ShortestPathServiceTest {
     @Mock
     private AStar aStar;
 
+    @Mock
+    private ContractionHierarchyService contractionHierarchyService;
+
+    @Mock
+    private CustomizableRouteService customizableRouteService;
+
+    @Mock
+    private LandmarkService landmarkService;
+
+    @Mock
+    private RouteCache routeCache;
+
+    @Mock
+    private TrafficProfileService trafficProfileService;
+
+    @Mock
+    private ComputeSchedulers computeSchedulers;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ShortestPathService shortestPathService;
 
@@ -52,6 +77,9 @@ class ShortestPathServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Run the routing lane inline
+        lenient().when(computeSchedulers.routing(any())).thenAnswer(inv -> Mono.fromCallable(inv.getArgument(0)));
+
         node1 = Node.builder()
                 .id("NODE_1")
                 .type(Node.NodeType.DEPOT)
@@ -113,15 +141,74 @@ class ShortestPathServiceTest {
                 .build();
     }
 
+    private void givenGraph(List<Node> nodes, List<Arc> arcs) {
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(RoadGraph.of(1, nodes, arcs)));
+    }
+
+    @Test
+    void testCalculateShortestPath_CacheHit() {
+        // arrange
+        AStar.PathResult cached = new AStar.PathResult(Arrays.asList("NODE_1", "NODE_2", "NODE_3"), 15.5);
+
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(routeCache.get(any(RoadGraph.class), eq("NODE_1"), eq("NODE_3"), any(CostFunction.Weights.class)))
+                .thenReturn(cached);
+
+        // act
+        Mono<ShortestPathResponse> result = shortestPathService.calculateShortestPath(request);
+
+        // assert
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertThat(response.getPath()).containsExactly("NODE_1", "NODE_2", "NODE_3");
+                    assertThat(response.getTotalCost()).isEqualTo(15.5);
+                    assertThat(response.getSettledNodes()).isZero();
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(aStar);
+        verify(routeCache, never()).put(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testCalculateShortestPath_TimeDependent() {
+        // arrange
+        request.setTimestamp(Instant.parse("2024-03-04T08:00:00Z"));
+        RoadGraph graph = RoadGraph.of(1, List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(roadGraphCache.getGraph()).thenReturn(Mono.just(graph));
+        // Rush hour on the first arc: twice its free-flow time all day
+        TrafficProfiles profiles = TrafficProfiles.learn(graph.getCsr(), List.of(
+                new TrafficProfiles.Observation(new int[]{graph.getCsr().firstEdge(graph.getCsr().indexOf("NODE_1"))},
+                        8 * 3600, 2.0)));
+        when(trafficProfileService.profilesFor(graph)).thenReturn(profiles);
+        when(trafficProfileService.secondOfDay(any(Instant.class))).thenReturn(8 * 3600.0);
+        when(aStar.findPathTimeDependent(any(CsrGraph.class), eq(profiles), eq("NODE_1"), eq("NODE_3"),
+                any(CostFunction.Weights.class), eq(8 * 3600.0)))
+                .thenReturn(new AStar.PathResult(List.of("NODE_1", "NODE_2", "NODE_3"), 20.0, 3));
+
+        // act
+        Mono<ShortestPathResponse> result = shortestPathService.calculateShortestPath(request);
+
+        // assert
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertThat(response.getTotalCost()).isEqualTo(20.0);
+                    assertThat(response.getEstimatedTime()).isEqualTo(300.0 * 2.0 + 480.0 * 1.2);
+                })
+                .verifyComplete();
+
+        // Departure-specific routes are neither cached nor served by the static techniques
+        verifyNoInteractions(routeCache, contractionHierarchyService, customizableRouteService);
+    }
+
     @Test
     void testCalculateShortestPath_Success() {
         // arrange
         List<String> expectedPath = Arrays.asList("NODE_1", "NODE_2", "NODE_3");
         AStar.PathResult pathResult = new AStar.PathResult(expectedPath, 15.5);
 
-        when(nodeRepository.findAll()).thenReturn(Flux.just(node1, node2, node3));
-        when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2));
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(pathResult);
 
         // act
@@ -141,17 +228,42 @@ class ShortestPathServiceTest {
                 })
                 .verifyComplete();
 
-        verify(nodeRepository).findAll();
-        verify(arcRepository).findAll();
-        verify(aStar).findPath(eq("NODE_1"), eq("NODE_3"), anyMap(), anyMap(), any(CostFunction.Weights.class));
+        verify(roadGraphCache).getGraph();
+        verify(arcRepository, never()).findAll();
+        verify(aStar).findPath(any(CsrGraph.class), eq("NODE_1"), eq("NODE_3"), any(CostFunction.Weights.class), any());
+    }
+
+    @Test
+    void testCalculateShortestPath_BidirectionalMode() {
+        // arrange
+        request.setSearchMode(ShortestPathRequest.SearchMode.BIDIRECTIONAL);
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(aStar.findPathBidirectional(any(CsrGraph.class), eq("NODE_1"), eq("NODE_3"),
+                any(CostFunction.Weights.class), any()))
+                .thenReturn(new AStar.PathResult(List.of("NODE_1", "NODE_2", "NODE_3"), 15.5, 3));
+
+        // act
+        Mono<ShortestPathResponse> result = shortestPathService.calculateShortestPath(request);
+
+        // assert
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertThat(response.getPath()).containsExactly("NODE_1", "NODE_2", "NODE_3");
+                    assertThat(response.getSettledNodes()).isEqualTo(3);
+                })
+                .verifyComplete();
+
+        // An explicit mode bypasses the speed-up techniques and the route cache
+        verifyNoInteractions(contractionHierarchyService, customizableRouteService, routeCache);
+        verify(aStar, never()).findPath(any(CsrGraph.class), anyString(), anyString(),
+                any(CostFunction.Weights.class), any());
     }
 
     @Test
     void testCalculateShortestPath_NoPathFound() {
         // arrange
-        when(nodeRepository.findAll()).thenReturn(Flux.just(node1, node2, node3));
-        when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2));
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(null);
 
         // act
@@ -164,7 +276,7 @@ class ShortestPathServiceTest {
                         throwable.getMessage().equals("Path not found"))
                 .verify();
 
-        verify(aStar).findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class));
+        verify(aStar).findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any());
     }
 
     @Test
@@ -176,9 +288,8 @@ class ShortestPathServiceTest {
         List<String> expectedPath = Arrays.asList("NODE_1", "NODE_2", "NODE_3");
         AStar.PathResult pathResult = new AStar.PathResult(expectedPath, 20.0);
 
-        when(nodeRepository.findAll()).thenReturn(Flux.just(node1, node2, node3));
-        when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2));
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(pathResult);
 
         // act
@@ -199,9 +310,8 @@ class ShortestPathServiceTest {
         List<String> expectedPath = Arrays.asList("NODE_1", "NODE_2", "NODE_3");
         AStar.PathResult pathResult = new AStar.PathResult(expectedPath, 10.0);
 
-        when(nodeRepository.findAll()).thenReturn(Flux.just(node1, node2, node3));
-        when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2));
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(pathResult);
 
         // act
@@ -231,9 +341,8 @@ class ShortestPathServiceTest {
                 .costWeights(request.getCostWeights())
                 .build();
 
-        when(nodeRepository.findAll()).thenReturn(Flux.just(node1));
-        when(arcRepository.findAll()).thenReturn(Flux.empty());
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(node1), List.of());
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(pathResult);
 
         // act
@@ -267,9 +376,8 @@ class ShortestPathServiceTest {
         List<String> expectedPath = Arrays.asList("NODE_1", "NODE_2", "NODE_3");
         AStar.PathResult pathResult = new AStar.PathResult(expectedPath, 25.0);
 
-        when(nodeRepository.findAll()).thenReturn(Flux.just(node1, node2, node3));
-        when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2));
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2));
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(pathResult);
 
         // act
@@ -302,6 +410,7 @@ class ShortestPathServiceTest {
 
         verify(arcRepository).findById(arcId);
         verify(arcRepository).save(argThat(arc -> arc.getTrafficFactor().equals(trafficFactor)));
+        verify(eventPublisher).publishEvent(any(GraphChangedEvent.class));
     }
 
     @Test
@@ -326,9 +435,8 @@ class ShortestPathServiceTest {
     @Test
     void testCalculateShortestPath_EmptyGraph() {
         // arrange
-        when(nodeRepository.findAll()).thenReturn(Flux.empty());
-        when(arcRepository.findAll()).thenReturn(Flux.empty());
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(), List.of());
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(null);
 
         // act
@@ -358,9 +466,8 @@ class ShortestPathServiceTest {
                 .trafficFactor(1.0)
                 .build();
 
-        when(nodeRepository.findAll()).thenReturn(Flux.just(node1, node2, node3));
-        when(arcRepository.findAll()).thenReturn(Flux.just(arc1, arc2, arc3));
-        when(aStar.findPath(anyString(), anyString(), anyMap(), anyMap(), any(CostFunction.Weights.class)))
+        givenGraph(List.of(node1, node2, node3), List.of(arc1, arc2, arc3));
+        when(aStar.findPath(any(CsrGraph.class), anyString(), anyString(), any(CostFunction.Weights.class), any()))
                 .thenReturn(pathResult);
 
         // act